@@ -0,0 +1,390 @@
+package com.wpw.twoweekcal;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.wpw.events.DocxWriter;
+
+/*******************************************************************************
+ * Generates synthetic calendar data for sizing and load testing
+ * 
+ * The generated Microsoft Word document looks like calendar data that has been
+ * copied from the church web site in either the new or the old style, with
+ * stake and ward events at specific times, all day events and all day events
+ * that run over several consecutive days.  The same seed and start date always
+ * generate the same document, and the start date is a fixed date unless one is
+ * given, so a run does not depend on the day it is made.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public class CalendarDataGenerator {
+	
+	// Default file to generate (the input file of the two week calendar)
+	public static final File CALENDAR_DATA = new File("Calendar Data.docx");
+	
+	// Default date of the first generated event
+	public static final LocalDate START_DATE = LocalDate.of(2026, 1, 1);
+	
+	// Date formatters for the new and old style date headers
+	private static final DateTimeFormatter DAY_DATE_FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMMM d");
+	private static final DateTimeFormatter OLD_DATE_FORMATTER = CalendarDataReader.DATE_FORMATTER;
+	
+	private static final String[] WARD_CODES = { "BP", "CY", "LP", "CR", "VV", "CP", "WG", "GG" };
+	
+	private static final String[] WARD_EVENTS = {
+			"Ward Temple Night", "Youth Night", "Korean Night", "Service Project", "Ward Council",
+			"Bishopric Meeting", "Young Women Activity", "Deacons Quorum Activity", "Primary Activity",
+			"Relief Society Activity", "Elders Quorum Activity", "Ward Choir Practice" };
+			
+	private static final String[] STAKE_EVENTS = {
+			"Stake Temple Night", "Stake Council Meeting", "High Council Meeting", "Stake Presidency Meeting",
+			"Stake Youth Dance", "Stake Choir Practice", "Family History Training", "Seminary Graduation",
+			"Stake Relief Society Meeting", "Stake Priesthood Leadership Meeting" };
+			
+	private static final String[] ALL_DAY_EVENTS = {
+			"Stake Youth Camp", "Trek", "Stake Conference", "Temple Closed", "Young Women Camp",
+			"Youth Conference", "Holiday - Building Closed" };
+			
+	private final Random random;
+	private final boolean oldStyleData;
+	
+	// All day events running over consecutive days and the days left in each run
+	private final List<String> allDayRuns = new ArrayList<>();
+	private final List<Integer> allDayDaysLeft = new ArrayList<>();
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param seed
+	 *     the seed of the random events
+	 * @param oldStyleData
+	 *     true if the old style of calendar data should be generated
+	 */
+	public CalendarDataGenerator(long seed, boolean oldStyleData) {
+		this.random       = new Random(seed);
+		this.oldStyleData = oldStyleData;
+	}
+	
+	/**
+	 * Main method for the calendar data generator
+	 * 
+	 * @param args
+	 *     the arguments passed to the application
+	 */
+	public static void main(String[] args) {
+		File file = CALENDAR_DATA;
+		int eventCount = 1000;
+		long seed = 1;
+		LocalDate startDate = START_DATE;
+		boolean oldStyleData = false;
+		
+		for (String arg : args) {
+			try {
+				if (arg.equals("-o")) {
+					oldStyleData = true;
+				} else if (arg.startsWith("-n")) {
+					eventCount = Integer.parseInt(arg.substring(2));
+				} else if (arg.startsWith("-r")) {
+					seed = Long.parseLong(arg.substring(2));
+				} else if (arg.startsWith("-s")) {
+					if (!CalendarDataReader.DATE_PATTERN.matcher(arg.substring(2)).matches()) {
+						System.out.println("Invalid start date specified!  " + arg.substring(2));
+						System.out.println("");
+						showUsage();
+						System.exit(0);
+					}
+					startDate = LocalDate.parse(arg.substring(2), CalendarDataReader.DATE_FORMATTER);
+				} else if (arg.equals("-h")) {
+					showUsage();
+					System.exit(0);
+				} else if (!arg.startsWith("-")) {
+					file = new File(arg);
+				} else {
+					System.out.println("Invalid argument passed!  " + arg);
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				
+			} catch (NumberFormatException e) {
+				System.out.println("Invalid number specified!  " + arg.substring(2));
+				System.out.println("");
+				showUsage();
+				System.exit(0);
+			}
+		}
+		
+		try {
+			int written = new CalendarDataGenerator(seed, oldStyleData).generate(file, startDate, eventCount);
+			System.out.println(written + " events written to " + file);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Generates calendar data into a Microsoft Word document
+	 * 
+	 * @param file
+	 *     the document to write
+	 * @param startDate
+	 *     the date of the first event
+	 * @param eventCount
+	 *     the number of events to write
+	 * @return
+	 *     the number of events written
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	public int generate(File file, LocalDate startDate, int eventCount) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+			return generate(out, startDate, eventCount);
+		}
+	}
+	
+	/**
+	 * Generates calendar data into a Microsoft Word document
+	 * 
+	 * @param out
+	 *     the stream to write the document to
+	 * @param startDate
+	 *     the date of the first event
+	 * @param eventCount
+	 *     the number of events to write
+	 * @return
+	 *     the number of events written
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	public int generate(OutputStream out, LocalDate startDate, int eventCount) throws IOException {
+		DocxWriter docx = new DocxWriter(out);
+		docx.startDocument();
+		
+		LocalDate date = startDate;
+		int written = 0;
+		
+		while (written < eventCount) {
+			writeDate(docx, date);
+			written += writeAllDayEvents(docx, eventCount - written);
+			written += writeTimedEvents(docx, eventCount - written);
+			date = date.plusDays(1);
+		}
+		
+		docx.endDocument();
+		out.flush();
+		
+		return written;
+	}
+	
+	/**
+	 * Writes the date header for a day of events
+	 * 
+	 * @param docx
+	 *     the document being written
+	 * @param date
+	 *     the date of the events that follow
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	private void writeDate(DocxWriter docx, LocalDate date) throws IOException {
+		if (oldStyleData) {
+			docx.writeParagraph("", "", date.format(OLD_DATE_FORMATTER));
+		} else {
+			docx.writeParagraph("", "", date.format(DAY_DATE_FORMATTER) + getOrdinalSuffix(date.getDayOfMonth()) + ", " + date.getYear());
+		}
+	}
+	
+	/**
+	 * Writes the all day events for a day, continuing any multi-day runs
+	 * and occasionally starting a new one
+	 * 
+	 * @param docx
+	 *     the document being written
+	 * @param maxEvents
+	 *     the most events that may be written
+	 * @return
+	 *     the number of events written
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	private int writeAllDayEvents(DocxWriter docx, int maxEvents) throws IOException {
+		if (random.nextInt(8) == 0) {
+			String description = ALL_DAY_EVENTS[random.nextInt(ALL_DAY_EVENTS.length)];
+			if (random.nextBoolean()) description = getWardCode() + " " + description;
+			
+			if (!allDayRuns.contains(description)) {
+				allDayRuns.add(description);
+				allDayDaysLeft.add(1 + random.nextInt(4));
+			}
+		}
+		
+		int written = 0;
+		
+		for (int i = 0; i < allDayRuns.size() && written < maxEvents; i++) {
+			if (oldStyleData) {
+				docx.writeParagraph("", "", "All Day");
+				docx.writeParagraph("", "", allDayRuns.get(i));
+			} else {
+				docx.writeParagraph("", "", "All Day - " + allDayRuns.get(i));
+			}
+			written++;
+			
+			allDayDaysLeft.set(i, allDayDaysLeft.get(i) - 1);
+		}
+		
+		for (int i = allDayRuns.size() - 1; i >= 0; i--) {
+			if (allDayDaysLeft.get(i) <= 0) {
+				allDayRuns.remove(i);
+				allDayDaysLeft.remove(i);
+			}
+		}
+		
+		return written;
+	}
+	
+	/**
+	 * Writes the events at specific times for a day in time order
+	 * 
+	 * @param docx
+	 *     the document being written
+	 * @param maxEvents
+	 *     the most events that may be written
+	 * @return
+	 *     the number of events written
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	private int writeTimedEvents(DocxWriter docx, int maxEvents) throws IOException {
+		int count = Math.min(maxEvents, random.nextInt(7));
+		
+		// Start times in half hours from 6:00am to 9:30pm
+		int[] startTimes = new int[count];
+		for (int i = 0; i < count; i++) {
+			startTimes[i] = 12 + random.nextInt(32);
+		}
+		Arrays.sort(startTimes);
+		
+		for (int startTime : startTimes) {
+			String description;
+			if (random.nextInt(3) == 0) {
+				description = STAKE_EVENTS[random.nextInt(STAKE_EVENTS.length)];
+			} else {
+				description = getWardCode() + " " + WARD_EVENTS[random.nextInt(WARD_EVENTS.length)];
+			}
+			
+			int hour   = startTime / 2;
+			int minute = (startTime % 2) * 30;
+			
+			if (oldStyleData) {
+				docx.writeParagraph("", "", String.format("%d:%02d%s", to12Hour(hour), minute, (hour < 12) ? "a" : "p"));
+				docx.writeParagraph("", "", description);
+			} else {
+				docx.writeParagraph("", "", getTimeRange(hour, minute, 1 + random.nextInt(3)) + " - " + description);
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Gets a new style time range in one of the forms found in the calendar data
+	 * (e.g. "7:00pm - 8:30pm", "7 - 9pm" or "6:30 - 8pm")
+	 * 
+	 * @param hour
+	 *     the start hour
+	 * @param minute
+	 *     the start minute
+	 * @param hours
+	 *     the length of the event in hours
+	 * @return
+	 *     the time range
+	 */
+	private String getTimeRange(int hour, int minute, int hours) {
+		int endHour = Math.min(hour + hours, 23);
+		String startAmPm = (hour < 12) ? "am" : "pm";
+		String endAmPm   = (endHour < 12) ? "am" : "pm";
+		
+		if (!startAmPm.equals(endAmPm) || random.nextBoolean()) {
+			return String.format("%d:%02d%s - %d:%02d%s", to12Hour(hour), minute, startAmPm, to12Hour(endHour), minute, endAmPm);
+		} else if (minute == 0) {
+			return String.format("%d - %d%s", to12Hour(hour), to12Hour(endHour), endAmPm);
+		} else {
+			return String.format("%d:%02d - %d%s", to12Hour(hour), minute, to12Hour(endHour), endAmPm);
+		}
+	}
+	
+	/**
+	 * Gets a random ward code
+	 * 
+	 * @return
+	 *     a ward code
+	 */
+	private String getWardCode() {
+		return WARD_CODES[random.nextInt(WARD_CODES.length)];
+	}
+	
+	/**
+	 * Converts an hour of the day to a 12 hour clock
+	 * 
+	 * @param hour
+	 *     the hour of the day
+	 * @return
+	 *     the hour on a 12 hour clock
+	 */
+	private static int to12Hour(int hour) {
+		return (hour % 12 == 0) ? 12 : hour % 12;
+	}
+	
+	/**
+	 * Gets the suffix of a day of the month (e.g. "st" for the 1st)
+	 * 
+	 * @param day
+	 *     the day of the month
+	 * @return
+	 *     the suffix of the day
+	 */
+	private static String getOrdinalSuffix(int day) {
+		if (day >= 11 && day <= 13) return "th";
+		
+		switch (day % 10) {
+			case 1:  return "st";
+			case 2:  return "nd";
+			case 3:  return "rd";
+			default: return "th";
+		}
+	}
+	
+	/**
+	 * Shows the usage instructions for the application
+	 */
+	private static void showUsage() {
+		System.out.println("");
+		System.out.println("This application generates synthetic calendar data for load testing.");
+		System.out.println("");
+		System.out.println("Usage:");
+		System.out.println("    java -cp TwoWeekCalendar.jar com.wpw.twoweekcal.CalendarDataGenerator [-o] [-h] [-nCOUNT] [-rSEED] [-sDATE] [file]");
+		System.out.println("");
+		System.out.println("Optional Flags:");
+		System.out.println("    -o - write old style calendar data");
+		System.out.println("    -h - help - show these usage instructions");
+		System.out.println("    -n - the number of events to write (default 1000)");
+		System.out.println("    -r - the random seed (default 1)");
+		System.out.println("    -s - the date of the first event in the format mm/dd/yyyy (default "
+				+ START_DATE.format(CalendarDataReader.DATE_FORMATTER) + ")");
+		System.out.println("");
+		System.out.println("    file - the document to write (default \"" + CALENDAR_DATA + "\")");
+		System.out.println("");
+	}
+}
@@ -0,0 +1,649 @@
+package com.wpw.twoweekcal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.wpw.events.CalendarDataHandler;
+import com.wpw.events.CalendarDataMerger;
+import com.wpw.events.CalendarDataSource;
+import com.wpw.events.DocxParagraphReader;
+import com.wpw.events.MetricsRegistry;
+import com.wpw.events.ParagraphReader;
+import com.wpw.events.TextLineReader;
+
+/*******************************************************************************
+ * Reads calendar data that has been copied from the church web site and
+ * pasted into a Microsoft Word document
+ * 
+ * Each event read is passed to a CalendarDataHandler, so the same data can
+ * be read once and given to more than one tool.  The data can be read all at
+ * once or, after opening it, one event at a time so that a caller can stop
+ * reading as soon as it has the events it needs.  A handler can also stop
+ * the reading of all of the data by calling stop().
+ * 
+ * When the block cache is used the paragraphs of each day are read as a
+ * block and only the blocks that have changed since the last time the whole
+ * document was read are parsed (see DayBlockCache).
+ * 
+ * The same data can also be saved as plain text with one paragraph on each
+ * line (see TextLineReader), in a file ending in .txt or piped to standard
+ * input (a file named -), so the data does not have to be pasted into a Word
+ * document first.
+ * 
+ * The paragraphs can be read ahead on a thread of their own while the
+ * paragraphs already read are parsed (see ParagraphPrefetcher).
+ * 
+ * When the data is read from more than one file the events of the files are
+ * merged in date and time order and the events found in more than one file
+ * are only passed on once (see CalendarDataMerger).
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class CalendarDataReader implements CalendarDataSource {
+	
+	// Date and time patterns to determine if text read is a date or time
+	public static final Pattern DATE_PATTERN = Pattern.compile("\\d{1,2}/\\d{1,2}/\\d{4}");
+	public static final Pattern TIME_PATTERN = Pattern.compile("(All Day|\\d{1,2}:\\d{2}[ap])");
+	
+	// Date and time patterns found in the new style of calendar data
+	public static final Pattern DAY_DATE_PATTERN   = Pattern.compile("[A-Z][a-z]+, ([A-Z][a-z]+) (\\d\\d?)[a-z][a-z], (\\d{4})");
+	public static final Pattern TIME_EVENT_PATTERN = Pattern.compile("(All Day|(\\d{1,2}(:\\d{2})?)(am|pm)? - (\\d{1,2}(:\\d{2})?)(am|pm)) - (.+)");
+	
+	// Date and time formatters to read the input date and time as a local date
+	public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("M/d/yyyy");
+	public static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("h:mm a");
+	
+	// Date and time formatters to read the input date and time as a local date for new style data
+	public static final DateTimeFormatter DATE_FORMATTER2 = DateTimeFormatter.ofPattern("MMMM d, yyyy");
+	
+	// Calendar data file name that reads the data from standard input
+	public static final File STANDARD_INPUT = new File("-");
+	
+	// Time spent reading the calendar data and the events read
+	private static final MetricsRegistry.Histogram PARSE_SECONDS = MetricsRegistry.getDefault().histogram(
+			"twoweekcal_parse_seconds", "Time spent reading the calendar data");
+	private static final MetricsRegistry.Counter EVENTS_PARSED = MetricsRegistry.getDefault().counter(
+			"twoweekcal_events_parsed_total", "Events read from the calendar data");
+	
+	private final File file;
+	private final boolean oldStyleData;
+	
+	// Reader of each file and their merger when the data is read from more than one file
+	private final List<CalendarDataReader> readers = new ArrayList<>();
+	private final CalendarDataMerger merger;
+	
+	// Document being read and the current date and time while reading it
+	private ParagraphReader doc;
+	private LocalDate currentDate;
+	private LocalTime currentTime;
+	
+	// Set by a handler that has all the events it needs
+	private boolean stopped;
+	
+	// Blocks parsed by the last run and by this run when the block cache is used
+	private boolean useBlockCache = false;
+	private DayBlockCache blockCache;
+	
+	// Boolean to determine if the paragraphs are read ahead on another thread
+	private boolean prefetchParagraphs = false;
+	
+	// Paragraphs of the day block being read and the block whose events are being returned
+	private final List<String> blockParagraphs = new ArrayList<>();
+	private DayBlockCache.Block block;
+	private int blockIndex;
+	private boolean endOfDocument;
+	
+	private int blocksParsed;
+	private int blocksReused;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @param oldStyleData
+	 *     true if the file contains the old style of calendar data
+	 */
+	public CalendarDataReader(File file, boolean oldStyleData) {
+		this(Collections.singletonList(file), oldStyleData);
+	}
+	
+	/**
+	 * Class constructor for calendar data that is read from several files
+	 * 
+	 * @param files
+	 *     the calendar data files, each listing its days in date order
+	 *     (the events of the first file come first at the same date and time)
+	 * @param oldStyleData
+	 *     true if the files contain the old style of calendar data
+	 */
+	public CalendarDataReader(List<File> files, boolean oldStyleData) {
+		if (files.isEmpty()) throw new IllegalArgumentException("No calendar data files!");
+		
+		this.file         = (files.size() == 1) ? files.get(0) : null;
+		this.oldStyleData = oldStyleData;
+		
+		if (files.size() > 1) {
+			for (File file : files) readers.add(new CalendarDataReader(file, oldStyleData));
+		}
+		
+		this.merger = (files.size() == 1) ? null : new CalendarDataMerger(files, readers);
+	}
+	
+	/**
+	 * Reads the calendar data and passes each event to the handler.  The time
+	 * taken and the number of events are added to the metrics registry.
+	 * 
+	 * @param handler
+	 *     the handler that receives the events
+	 * @return
+	 *     true if there were no errors reading the data
+	 */
+	public boolean read(CalendarDataHandler handler) {
+		long start = System.nanoTime();
+		long events = 0;
+		
+		try {
+			open();
+			
+			while (!stopped && next(handler)) {
+				events++;
+			}
+			
+			return true;
+			
+		} catch (com.wpw.events.CalendarDataReader.InvalidDataException e) {
+			System.out.println("Error:  " + e.getMessage());
+			return false;
+			
+		} catch (NoSuchFileException e) {
+			e.printStackTrace();
+			return false;
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+			
+		} finally {
+			try {
+				close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			
+			PARSE_SECONDS.observeSince(start);
+			EVENTS_PARSED.add(events);
+		}
+	}
+	
+	/**
+	 * Opens the calendar data so the events can be read one at a time
+	 * 
+	 * @throws IOException
+	 *     if the calendar data could not be opened
+	 */
+	@Override
+	public void open() throws IOException {
+		if (merger != null) {
+			for (CalendarDataReader reader : readers) {
+				reader.setUseBlockCache(useBlockCache);
+				reader.setPrefetchParagraphs(prefetchParagraphs);
+			}
+			
+			merger.open();
+			stopped = false;
+			return;
+		}
+		
+		if (doc != null) throw new IllegalStateException("Calendar data is already open!");
+		
+		doc = openParagraphs(file);
+		if (prefetchParagraphs) doc = new ParagraphPrefetcher(doc);
+		
+		currentDate = null;
+		currentTime = null;
+		stopped     = false;
+		
+		if (useBlockCache && !file.equals(STANDARD_INPUT)) {
+			blockCache = new DayBlockCache(DayBlockCache.getFile(file), oldStyleData);
+			blockParagraphs.clear();
+			block         = null;
+			endOfDocument = false;
+			blocksParsed  = 0;
+			blocksReused  = 0;
+		}
+	}
+	
+	/**
+	 * Determines if the events parsed from each day of the calendar data are
+	 * cached, so only the days that have changed are parsed the next time.
+	 * The cache is only saved when the whole document is read and is never
+	 * used for data read from standard input.
+	 * 
+	 * @param useBlockCache
+	 *     true if the block cache should be used
+	 */
+	public void setUseBlockCache(boolean useBlockCache) {
+		this.useBlockCache = useBlockCache;
+	}
+	
+	/**
+	 * Determines if the paragraphs of the calendar data are read on a thread
+	 * of their own, so the document is read while the events are parsed
+	 * 
+	 * @param prefetchParagraphs
+	 *     true if the paragraphs should be read ahead
+	 */
+	public void setPrefetchParagraphs(boolean prefetchParagraphs) {
+		this.prefetchParagraphs = prefetchParagraphs;
+	}
+	
+	/**
+	 * Stops reading the calendar data after the current event.  A handler
+	 * calls this once it has all of the events it needs, so the rest of
+	 * the document is never parsed.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+	
+	/**
+	 * Reads only as much of the calendar data as is needed to pass the next
+	 * event to the handler
+	 * 
+	 * @param handler
+	 *     the handler that receives the event
+	 * @return
+	 *     true if an event was passed to the handler or false at the end of the data
+	 * @throws IOException
+	 *     if the calendar data could not be read or is not valid
+	 */
+	@Override
+	public boolean next(CalendarDataHandler handler) throws IOException {
+		if (merger != null) return merger.next(handler);
+		if (doc == null) throw new IllegalStateException("Calendar data is not open!");
+		if (blockCache != null) return nextFromBlocks(handler);
+		
+		String text;
+		
+		while ((text = doc.readParagraph()) != null) {
+			if (oldStyleData ? readOldCalendarData(text, handler) : readNewCalendarData(text, handler)) return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Passes the next event to the handler from the day blocks, parsing a
+	 * block only when it is not in the block cache
+	 * 
+	 * @param handler
+	 *     the handler that receives the event
+	 * @return
+	 *     true if an event was passed to the handler or false at the end of the data
+	 * @throws IOException
+	 *     if the calendar data could not be read or is not valid
+	 */
+	private boolean nextFromBlocks(CalendarDataHandler handler) throws IOException {
+		while (true) {
+			if (block != null && blockIndex < block.descriptions.length) {
+				handler.addCalendarEvent(block.date, block.getTime(blockIndex), block.getEndTime(blockIndex),
+						block.descriptions[blockIndex]);
+				blockIndex++;
+				return true;
+			}
+			
+			block = null;
+			if (endOfDocument) return false;
+			
+			String text = doc.readParagraph();
+			
+			if (text == null) {
+				endOfDocument = true;
+				endBlock();
+				blockCache.save();
+				
+			} else if (isDateHeader(text)) {
+				endBlock();
+				blockParagraphs.add(text);
+				
+			} else if (!blockParagraphs.isEmpty()) {
+				blockParagraphs.add(text);
+				
+			} else if (oldStyleData ? readOldCalendarData(text, handler) : readNewCalendarData(text, handler)) {
+				return true;
+			}
+		}
+	}
+	
+	/**
+	 * Ends the day block being read and gets its events from the
+	 * block cache or, if it has changed, by parsing it
+	 * 
+	 * @throws InvalidDataException
+	 *     if the calendar data is not valid
+	 */
+	private void endBlock() throws InvalidDataException {
+		if (blockParagraphs.isEmpty()) return;
+		
+		ByteBuffer fingerprint = DayBlockCache.getFingerprint(blockParagraphs);
+		block = blockCache.get(fingerprint);
+		
+		if (block != null) {
+			blocksReused++;
+		} else {
+			block = parseBlock();
+			blocksParsed++;
+			blockCache.skipTo(block.date);
+		}
+		
+		blockCache.put(fingerprint, block);
+		blockParagraphs.clear();
+		blockIndex = 0;
+	}
+	
+	/**
+	 * Parses the paragraphs of the day block being read
+	 * 
+	 * @return
+	 *     the events of the block
+	 * @throws InvalidDataException
+	 *     if the calendar data is not valid
+	 */
+	private DayBlockCache.Block parseBlock() throws InvalidDataException {
+		final List<LocalTime> times = new ArrayList<>();
+		final List<LocalTime> endTimes = new ArrayList<>();
+		final List<String> descriptions = new ArrayList<>();
+		
+		CalendarDataHandler collector = new CalendarDataHandler() {
+			@Override
+			public void addCalendarEvent(LocalDate date, LocalTime time, String text) {
+				addCalendarEvent(date, time, null, text);
+			}
+			
+			@Override
+			public void addCalendarEvent(LocalDate date, LocalTime startTime, LocalTime endTime, String text) {
+				times.add(startTime);
+				endTimes.add(endTime);
+				descriptions.add(text);
+			}
+		};
+		
+		for (String text : blockParagraphs) {
+			if (oldStyleData) {
+				readOldCalendarData(text, collector);
+			} else {
+				readNewCalendarData(text, collector);
+			}
+		}
+		
+		DayBlockCache.Block block = new DayBlockCache.Block(currentDate, times.size());
+		
+		for (int i = 0; i < times.size(); i++) {
+			LocalTime time    = times.get(i);
+			LocalTime endTime = endTimes.get(i);
+			block.minutes[i]      = (short) ((time == null) ? -1 : time.getHour() * 60 + time.getMinute());
+			block.endMinutes[i]   = (short) ((endTime == null) ? -1 : endTime.getHour() * 60 + endTime.getMinute());
+			block.descriptions[i] = descriptions.get(i);
+		}
+		
+		return block;
+	}
+	
+	/**
+	 * Determines if a paragraph is the date header that starts a day block
+	 * 
+	 * @param text
+	 *     the text of the paragraph
+	 * @return
+	 *     true if the paragraph is a date
+	 */
+	private boolean isDateHeader(String text) {
+		return (oldStyleData ? DATE_PATTERN : DAY_DATE_PATTERN).matcher(text).matches();
+	}
+	
+	/**
+	 * Gets the number of day blocks parsed since the data was opened
+	 * 
+	 * @return
+	 *     the number of blocks that were not found in the block cache
+	 */
+	public int getBlocksParsed() {
+		if (merger == null) return blocksParsed;
+		
+		int blocksParsed = 0;
+		for (CalendarDataReader reader : readers) blocksParsed += reader.getBlocksParsed();
+		return blocksParsed;
+	}
+	
+	/**
+	 * Gets the number of day blocks found in the block cache since the data was opened
+	 * 
+	 * @return
+	 *     the number of blocks that were not parsed again
+	 */
+	public int getBlocksReused() {
+		if (merger == null) return blocksReused;
+		
+		int blocksReused = 0;
+		for (CalendarDataReader reader : readers) blocksReused += reader.getBlocksReused();
+		return blocksReused;
+	}
+	
+	/**
+	 * Gets the number of events found in more than one file that were
+	 * only passed on once since the data was opened
+	 * 
+	 * @return
+	 *     the number of duplicate events dropped
+	 */
+	public int getDuplicatesDropped() {
+		return (merger != null) ? merger.getDuplicatesDropped() : 0;
+	}
+	
+	/**
+	 * Opens the paragraphs of a calendar data file
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @return
+	 *     a reader of the lines of standard input or of a text file or
+	 *     of the paragraphs of a Microsoft Word document
+	 * @throws IOException
+	 *     if the file could not be opened
+	 */
+	private static ParagraphReader openParagraphs(File file) throws IOException {
+		if (file.equals(STANDARD_INPUT)) return new TextLineReader(System.in);
+		if (isTextFile(file)) return new TextLineReader(file);
+		
+		return new DocxParagraphReader(file);
+	}
+	
+	/**
+	 * Determines if a calendar data file is plain text
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @return
+	 *     true if the name of the file ends in .txt
+	 */
+	private static boolean isTextFile(File file) {
+		return file.getName().toLowerCase(Locale.US).endsWith(".txt");
+	}
+	
+	/**
+	 * Closes the calendar data
+	 * 
+	 * @throws IOException
+	 *     if the calendar data could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (merger != null) {
+			merger.close();
+			return;
+		}
+		
+		if (blockCache != null) {
+			blockCache.close();
+			blockCache = null;
+		}
+		
+		block = null;
+		
+		if (doc != null) {
+			try {
+				doc.close();
+			} finally {
+				doc = null;
+			}
+		}
+	}
+	
+	/**
+	 * Reads a paragraph of the calendar data from a Microsoft Word document.  The data
+	 * in the Word document was copied from the church web site under Leader and Clerk
+	 * Resources.
+	 * 
+	 * @param text
+	 *     the text of the paragraph
+	 * @param handler
+	 *     the handler that receives the events
+	 * @return
+	 *     true if an event was passed to the handler
+	 * @throws InvalidDataException
+	 *     if an event comes before any date
+	 */
+	private boolean readOldCalendarData(String text, CalendarDataHandler handler) throws InvalidDataException {
+		if (DATE_PATTERN.matcher(text).matches()) {
+			currentDate = LocalDate.parse(text, DATE_FORMATTER);
+			currentTime = null;
+			
+		} else if (TIME_PATTERN.matcher(text).matches()) {
+			if (text.equals("All Day")) {
+				currentTime = null;
+			} else {
+				text = text.substring(0, text.length()-1) + (text.endsWith("a") ? " AM" : " PM");
+				currentTime = LocalTime.parse(text, TIME_FORMATTER);
+			}
+			
+		} else {
+			if (currentDate == null) {
+				throw new InvalidDataException("Date must be first item in list!");
+			}
+			
+			// The old style of calendar data only lists the start times
+			handler.addCalendarEvent(currentDate, currentTime, null, text);
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Reads a paragraph of the calendar data from a Microsoft Word document.  The data
+	 * in the Word document was copied from a print of the Agenda View of the Stake
+	 * Calendar on the Church web site.
+	 * 
+	 * @param text
+	 *     the text of the paragraph
+	 * @param handler
+	 *     the handler that receives the events
+	 * @return
+	 *     true if an event was passed to the handler
+	 * @throws InvalidDataException
+	 *     if an event comes before any date
+	 */
+	private boolean readNewCalendarData(String text, CalendarDataHandler handler) throws InvalidDataException {
+		Matcher dayDateMatcher   = DAY_DATE_PATTERN.matcher(text);
+		Matcher timeEventMatcher = TIME_EVENT_PATTERN.matcher(text);
+		
+		if (dayDateMatcher.matches()) {
+			String month = dayDateMatcher.group(1);
+			String day   = dayDateMatcher.group(2);
+			String year  = dayDateMatcher.group(3);
+			
+			String date = String.format("%s %s, %s", month, day, year);
+			currentDate = LocalDate.parse(date, DATE_FORMATTER2);
+			currentTime = null;
+			
+		} else if (timeEventMatcher.matches()) {
+			if (currentDate == null) {
+				throw new InvalidDataException("Date must preceed any events in list!");
+			}
+			
+			String time      = timeEventMatcher.group(1);
+			String startTime = timeEventMatcher.group(2);
+			String startAmPm = timeEventMatcher.group(4);
+			String endTime   = timeEventMatcher.group(5);
+			String endAmPm   = timeEventMatcher.group(7);
+			text             = timeEventMatcher.group(8);
+			
+			LocalTime currentEndTime = null;
+			
+			if (time.equals("All Day")) {
+				currentTime = null;
+			} else {
+				if (!startTime.contains(":")) startTime += ":00";
+				if (startAmPm == null) startAmPm = endAmPm;
+				time = startTime + " " + startAmPm.toUpperCase();
+				currentTime    = LocalTime.parse(time, TIME_FORMATTER);
+				currentEndTime = parseEndTime(endTime, endAmPm);
+			}
+			
+			handler.addCalendarEvent(currentDate, currentTime, currentEndTime, text);
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Parses the time an event ends.  The end time is only extra information
+	 * about the event, so an end time that is not a time is treated as unknown
+	 * rather than stopping the calendar data from being read.
+	 * 
+	 * @param endTime
+	 *     the hour and optional minutes the event ends
+	 * @param endAmPm
+	 *     am or pm
+	 * @return
+	 *     the time the event ends or null if it is not a time
+	 */
+	private static LocalTime parseEndTime(String endTime, String endAmPm) {
+		if (!endTime.contains(":")) endTime += ":00";
+		
+		try {
+			return LocalTime.parse(endTime + " " + endAmPm.toUpperCase(), TIME_FORMATTER);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+	
+	/***************************************************************************
+	 * Thrown when the calendar data is not in the expected form, as it is by
+	 * the reader of the upcoming events and by the CalendarDataMerger
+	 ***************************************************************************/
+	public static class InvalidDataException extends com.wpw.events.CalendarDataReader.InvalidDataException {
+		private static final long serialVersionUID = 1L;
+		
+		public InvalidDataException(String message) {
+			super(message);
+		}
+	}
+}
@@ -1,11 +1,12 @@
 package com.wpw.twoweekcal;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.Month;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.wpw.events.DatedEvent;
 
 /*******************************************************************************
  * Represents a single calendar event (which can span multiple days)
@@ -15,7 +16,7 @@ import java.time.temporal.TemporalAdjusters;
  * @since   2017-12-14
  *
  *******************************************************************************/
-public class CalendarEvent {
+public class CalendarEvent implements DatedEvent {
 	public static final DateTimeFormatter DATE_FORMATTER1 = DateTimeFormatter.ofPattern("EE, MMM d");
 	public static final DateTimeFormatter DATE_FORMATTER2 = DateTimeFormatter.ofPattern("MMM d");
 	public static final DateTimeFormatter DATE_FORMATTER3 = DateTimeFormatter.ofPattern("d");
@@ -23,19 +24,27 @@ public class CalendarEvent {
 	
 	public static final DateTimeFormatter HEADER_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMMM d");
 	
-	private static boolean includeAllDates = false;
-	private static boolean wordFormat = true;
+	// Orders events by date and time (all day events first) and then by the order they were created
+	public static final Comparator<CalendarEvent> DATE_TIME_ORDER = new Comparator<CalendarEvent>() {
+		@Override
+		public int compare(CalendarEvent e1, CalendarEvent e2) {
+			int result = e1.startDate.compareTo(e2.startDate);
+			if (result == 0) result = Integer.compare(e1.getStartMinute(), e2.getStartMinute());
+			if (result == 0) result = Long.compare(e1.sequence, e2.sequence);
+			return result;
+		}
+	};
 	
-	private static LocalDate lastDatePrinted   = LocalDate.of(1970, Month.JANUARY, 1);
-	private static LocalDate calendarStartDate = LocalDate.now().minusDays(1).with(TemporalAdjusters.next(DayOfWeek.THURSDAY));
-	private static LocalDate calendarEndDate   = calendarStartDate.plusWeeks(2).minusDays(1);
+	private static final AtomicLong nextSequence = new AtomicLong();
 	
 	private LocalDate startDate;
 	private LocalDate endDate;
 	private LocalTime startTime;
+	private LocalTime endTime;
 	private String description;
 	private boolean allDay;
 	private boolean multiDay;
+	private long sequence;
 	
 	/**
 	 * Class constructor for an all day event
@@ -46,10 +55,10 @@ public class CalendarEvent {
 	 *     the event description
 	 */
 	public CalendarEvent(LocalDate startDate, String description) {
-		setCalendarDates(startDate);
 		this.startDate   = startDate;
 		this.endDate     = startDate;
 		this.description = description;
+		this.sequence    = nextSequence.getAndIncrement();
 		allDay = true;
 	}
 	
@@ -64,14 +73,79 @@ public class CalendarEvent {
 	 *     the event description
 	 */
 	public CalendarEvent(LocalDate startDate, LocalTime startTime, String description) {
-		setCalendarDates(startDate);
+		this(startDate, startTime, null, description);
+	}
+	
+	/**
+	 * Class constructor for an event at a specific time with a known end time
+	 * 
+	 * @param startDate
+	 *     the date of the event
+	 * @param startTime
+	 *     the time of the event
+	 * @param endTime
+	 *     the time the event ends or null if it is not known
+	 * @param description
+	 *     the event description
+	 */
+	public CalendarEvent(LocalDate startDate, LocalTime startTime, LocalTime endTime, String description) {
 		this.startDate   = startDate;
 		this.startTime   = startTime;
+		this.endTime     = endTime;
 		this.endDate     = startDate;
 		this.description = description;
+		this.sequence    = nextSequence.getAndIncrement();
 		allDay = false;
 	}
 	
+	/**
+	 * Class constructor for an event restored from a saved copy
+	 * 
+	 * @param startDate
+	 *     the start date of the event
+	 * @param endDate
+	 *     the end date of the event
+	 * @param startTime
+	 *     the time of the event or null for an all day event
+	 * @param description
+	 *     the event description
+	 * @param sequence
+	 *     the order the original event was created in
+	 */
+	CalendarEvent(LocalDate startDate, LocalDate endDate, LocalTime startTime, String description, long sequence) {
+		this(startDate, endDate, startTime, null, description, sequence);
+	}
+	
+	/**
+	 * Class constructor for an event with a known end time restored from a saved
+	 * copy.  The event keeps the order of the original event, so restoring an
+	 * event writes no state shared with other threads.
+	 * 
+	 * @param startDate
+	 *     the start date of the event
+	 * @param endDate
+	 *     the end date of the event
+	 * @param startTime
+	 *     the time of the event or null for an all day event
+	 * @param endTime
+	 *     the time the event ends or null if it is not known
+	 * @param description
+	 *     the event description
+	 * @param sequence
+	 *     the order the original event was created in
+	 */
+	CalendarEvent(LocalDate startDate, LocalDate endDate, LocalTime startTime, LocalTime endTime,
+			String description, long sequence) {
+		this.startDate   = startDate;
+		this.endDate     = endDate;
+		this.startTime   = startTime;
+		this.endTime     = endTime;
+		this.description = description;
+		this.sequence    = sequence;
+		allDay   = (startTime == null);
+		multiDay = !startDate.equals(endDate);
+	}
+	
 	/**
 	 * Sets a new end date for the event - only works for events on consecutive dates
 	 * 
@@ -80,7 +154,6 @@ public class CalendarEvent {
 	 */
 	public void setEndDate(LocalDate endDate) {
 		if (isNextDay(endDate)) {
-			setCalendarDates(endDate);
 			this.endDate = endDate;
 			multiDay = true;
 		}
@@ -99,27 +172,17 @@ public class CalendarEvent {
 	}
 	
 	/**
-	 * Sets the calendar start and end dates when all dates are included
-	 * 
-	 * @param date
-	 *     a date in the calendar
-	 */
-	private static void setCalendarDates(LocalDate date) {
-		if (includeAllDates) {
-			if (date.isBefore(calendarStartDate)) calendarStartDate = date;
-			if (date.isAfter(calendarEndDate)) calendarEndDate = date;
-		}
-	}
-	
-	/**
-	 * Determines if this event should be included in the output
+	 * Determines if this event falls within the given calendar dates
 	 * 
+	 * @param calendarStartDate
+	 *     the start date of the calendar
+	 * @param calendarEndDate
+	 *     the end date of the calendar
 	 * @return
-	 *     true if this event should be included in the output
+	 *     true if any day of this event falls within the calendar dates
 	 */
-	public boolean isIncluded() {
-		return  (includeAllDates ||
-				(startDate.compareTo(calendarStartDate) >= 0 && startDate.compareTo(calendarEndDate) <= 0) ||
+	public boolean isIncluded(LocalDate calendarStartDate, LocalDate calendarEndDate) {
+		return  ((startDate.compareTo(calendarStartDate) >= 0 && startDate.compareTo(calendarEndDate) <= 0) ||
 				(endDate.compareTo(  calendarStartDate) >= 0 && endDate.compareTo(  calendarEndDate) <= 0) ||
 				(startDate.compareTo(calendarStartDate) <= 0 && endDate.compareTo(  calendarEndDate) >= 0));
 	}
@@ -130,37 +193,19 @@ public class CalendarEvent {
 	 */
 	@Override
 	public String toString() {
-		return String.format("%-16s %-10s %s", getDateString(), getTimeString(), description);
+		return String.format("%-16s %-10s %s", getDateString(false), getTimeString(), description);
 	}
 	
 	/**
 	 * Gets the event date in string format
 	 * 
+	 * @param wordFormat
+	 *     true if the dash should be formatted for MS Word
 	 * @return
 	 *     the event date in string format
 	 */
-	public String getDateString() {
-		if (multiDay) {
-			if (startDate.getMonth().equals(endDate.getMonth())) {
-				return startDate.format(DATE_FORMATTER1) + getDash() + endDate.format(DATE_FORMATTER3);
-			} else {
-				return startDate.format(DATE_FORMATTER1) + getDash() + endDate.format(DATE_FORMATTER2);
-			}
-			
-		} else if (startDate.equals(lastDatePrinted)) {
-			return "";
-			
-		} else {
-			lastDatePrinted = startDate;
-			return startDate.format(DATE_FORMATTER1);
-		}
-	}
-	
-	/**
-	 * Resets the last date printed
-	 */
-	public static void resetLastDatePrinted() {
-		lastDatePrinted = LocalDate.of(1970, Month.JANUARY, 1);
+	public String getDateString(boolean wordFormat) {
+		return EventFormatter.getDateString(startDate.toEpochDay(), endDate.toEpochDay(), wordFormat);
 	}
 	
 	/**
@@ -170,7 +215,7 @@ public class CalendarEvent {
 	 *     the event time in string format
 	 */
 	public String getTimeString() {
-		return allDay ? "" : startTime.format(TIME_FORMATTER1);
+		return EventFormatter.getTimeString(getStartMinute());
 	}
 	
 	/**
@@ -184,53 +229,122 @@ public class CalendarEvent {
 	}
 	
 	/**
-	 * Determines if all dates for calendar events should be included in the output
+	 * Gets the start date of the event
 	 * 
-	 * @param includeAllDates
-	 *     the boolean parameter to determine if all dates should be included
+	 * @return
+	 *     the start date of the event
 	 */
-	public static void setIncludeAllDates(boolean includeAllDates) {
-		CalendarEvent.includeAllDates = includeAllDates;
+	public LocalDate getStartDate() {
+		return startDate;
 	}
 	
 	/**
-	 * Sets the start and end dates of the two week calendar
+	 * Gets the end date of the event
 	 * 
-	 * @param startDate
-	 *     the start date for the two week calendar
+	 * @return
+	 *     the end date of the event
 	 */
-	public static void setTwoWeekCalendarDates(LocalDate startDate) {
-		calendarStartDate = startDate;
-		calendarEndDate   = calendarStartDate.plusWeeks(2).minusDays(1);
+	public LocalDate getEndDate() {
+		return endDate;
 	}
 	
 	/**
-	 * Gets the calendar dates for the calendar header
+	 * Gets the start time of the event
 	 * 
 	 * @return
-	 *     a string of the calendar dates
+	 *     the start time of the event or null for an all day event
+	 */
+	public LocalTime getStartTime() {
+		return startTime;
+	}
+	
+	/**
+	 * Gets the start time of the event as the minute of the day
+	 * 
+	 * @return
+	 *     the minute of the day or -1 for an all day event
+	 */
+	public int getStartMinute() {
+		return allDay ? -1 : startTime.getHour() * 60 + startTime.getMinute();
+	}
+	
+	/**
+	 * Gets the time the event ends
+	 * 
+	 * @return
+	 *     the end time of the event or null for an all day event
+	 *     or an event whose end time is not known
+	 */
+	public LocalTime getEndTime() {
+		return allDay ? null : endTime;
+	}
+	
+	/**
+	 * Gets the end time of the event as the minute of the day
+	 * 
+	 * @return
+	 *     the minute of the day or -1 for an all day event
+	 *     or an event whose end time is not known
+	 */
+	public int getEndMinute() {
+		return (allDay || endTime == null) ? -1 : endTime.getHour() * 60 + endTime.getMinute();
+	}
+	
+	/**
+	 * Gets the order the event was created in
+	 * 
+	 * @return
+	 *     a number that increases with each event created
 	 */
-	public static String getCalendarDates() {
-		return calendarStartDate.format(HEADER_DATE_FORMATTER) + getDash() + calendarEndDate.format(HEADER_DATE_FORMATTER);
+	long getSequence() {
+		return sequence;
 	}
 	
 	/**
-	 * Determines if output characters should be for a MS Word document or standard out
+	 * Determines if this is an all day event
 	 * 
+	 * @return
+	 *     true if this is an all day event
+	 */
+	public boolean isAllDay() {
+		return allDay;
+	}
+	
+	/**
+	 * Determines if this event spans multiple days
+	 * 
+	 * @return
+	 *     true if this event spans multiple days
+	 */
+	public boolean isMultiDay() {
+		return multiDay;
+	}
+	
+	/**
+	 * Gets the calendar dates for the calendar header
+	 * 
+	 * @param startDate
+	 *     the start date of the calendar
+	 * @param endDate
+	 *     the end date of the calendar
 	 * @param wordFormat
-	 *     the boolean parameter to determine the format of output characters
+	 *     true if the dash should be formatted for MS Word
+	 * @return
+	 *     a string of the calendar dates
 	 */
-	public static void setWordFormat(boolean wordFormat) {
-		CalendarEvent.wordFormat = wordFormat;
+	public static String getCalendarDates(LocalDate startDate, LocalDate endDate, boolean wordFormat) {
+		return startDate.format(HEADER_DATE_FORMATTER) + getDash(wordFormat) + endDate.format(HEADER_DATE_FORMATTER);
 	}
-
+	
 	/**
 	 * Gets the dash formated for MS Word or standard out
 	 * 
+	 * @param wordFormat
+	 *     true if the dash should be formatted for MS Word
 	 * @return
 	 *     the dash formated for MS Word or standard out
 	 */
-	private static String getDash() {
+	public static String getDash(boolean wordFormat) {
 		return (wordFormat) ? " \u2013 " : " - ";
 	}
 }
@@ -0,0 +1,240 @@
+package com.wpw.twoweekcal;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.wpw.events.CalendarDataHandler;
+import com.wpw.events.UpcomingEvents;
+
+/*******************************************************************************
+ * An immutable in-memory index of the events read from the calendar data
+ * 
+ * The calendar data is read once and each event is given to the two week
+ * calendar (with and without skipping events) and the upcoming events (which
+ * classifies each event for both the upcoming and major events lists), so each
+ * of them applies its own skip and ward rules exactly as it does when run from
+ * the command line.  Every event read is also added to an EventIndex, so
+ * the event descriptions can be searched.  Every calendar is frozen and the
+ * event index is built before the index is created, so the events are never
+ * changed after the index is loaded and the index can be read by any number
+ * of threads without locking.
+ * 
+ * Each index has a unique version number.  The index is no longer current
+ * when the calendar data or any of the skipped event files change.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public final class CalendarIndex {
+	
+	// Files the index depends on
+	private static final File[] SKIP_FILES = {
+			TwoWeekCalendar.SKIP_EVENTS,
+			TwoWeekCalendar.SKIP_IF_CONTAINS,
+			UpcomingEvents.SKIP_EVENTS_UPCOMING,
+			UpcomingEvents.SKIP_EVENTS_MAJOR,
+			UpcomingEvents.SKIP_IF_CONTAINS };
+	
+	private static final AtomicLong nextVersion = new AtomicLong(1);
+	
+	private final long version;
+	private final String fingerprint;
+	
+	private final TwoWeekCalendar twoWeekCalendar;
+	private final TwoWeekCalendar allEventsCalendar;
+	
+	private final UpcomingEvents upcomingEvents;
+	
+	private final EventIndex eventIndex;
+	
+	/**
+	 * Class constructor
+	 */
+	private CalendarIndex(String fingerprint, TwoWeekCalendar twoWeekCalendar, TwoWeekCalendar allEventsCalendar,
+			UpcomingEvents upcomingEvents, EventIndex eventIndex) {
+		this.version           = nextVersion.getAndIncrement();
+		this.fingerprint       = fingerprint;
+		this.twoWeekCalendar   = twoWeekCalendar;
+		this.allEventsCalendar = allEventsCalendar;
+		this.upcomingEvents    = upcomingEvents;
+		this.eventIndex        = eventIndex;
+	}
+	
+	/**
+	 * Loads a new index from the calendar data
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @param oldStyleData
+	 *     true if the file contains the old style of calendar data
+	 * @return
+	 *     the new index or null if there were errors reading the data
+	 */
+	public static CalendarIndex load(File file, boolean oldStyleData) {
+		String fingerprint = getFingerprint(file);
+		
+		final TwoWeekCalendar twoWeekCalendar   = new TwoWeekCalendar(false);
+		final TwoWeekCalendar allEventsCalendar = new TwoWeekCalendar(true);
+		final UpcomingEvents  upcomingEvents    = new UpcomingEvents(UpcomingEvents.ALL_PROFILES);
+		final EventIndex      eventIndex        = new EventIndex();
+		
+		twoWeekCalendar.reloadSkipLists();
+		upcomingEvents.reloadSkipLists();
+		
+		CalendarDataHandler handler = new CalendarDataHandler() {
+			@Override
+			public void addCalendarEvent(LocalDate date, LocalTime time, String text) {
+				addCalendarEvent(date, time, null, text);
+			}
+			
+			@Override
+			public void addCalendarEvent(LocalDate date, LocalTime time, LocalTime endTime, String text) {
+				twoWeekCalendar.addCalendarEvent(date, time, endTime, text);
+				allEventsCalendar.addCalendarEvent(date, time, endTime, text);
+				upcomingEvents.addCalendarEvent(date, time, text);
+				eventIndex.addCalendarEvent(date, time, text);
+			}
+		};
+		
+		CalendarDataReader reader = new CalendarDataReader(file, oldStyleData);
+		reader.setUseBlockCache(true);
+		
+		if (!reader.read(handler)) return null;
+		
+		// Add the pending all day events, sort the events and compress
+		// the posting lists before the index is shared
+		twoWeekCalendar.freeze();
+		allEventsCalendar.freeze();
+		upcomingEvents.freeze();
+		eventIndex.build();
+		
+		return new CalendarIndex(fingerprint, twoWeekCalendar, allEventsCalendar, upcomingEvents, eventIndex);
+	}
+	
+	/**
+	 * Gets a fingerprint of the calendar data and skipped event files
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @return
+	 *     the last modified time and length of each file
+	 */
+	private static String getFingerprint(File file) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(file.lastModified()).append(':').append(file.length());
+		
+		for (File skipFile : SKIP_FILES) {
+			sb.append(';').append(skipFile.lastModified()).append(':').append(skipFile.length());
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Determines if the index is still current
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @return
+	 *     true if neither the calendar data nor the skipped
+	 *     event files have changed since the index was loaded
+	 */
+	public boolean isCurrent(File file) {
+		return fingerprint.equals(getFingerprint(file));
+	}
+	
+	/**
+	 * Gets the version of the index
+	 * 
+	 * @return
+	 *     a number that is unique to this index
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Gets the stake events
+	 * 
+	 * @param keepAllEvents
+	 *     true if skipped events should be included
+	 * @return
+	 *     the stake events
+	 */
+	public Iterable<CalendarEvent> getStakeEvents(boolean keepAllEvents) {
+		return (keepAllEvents ? allEventsCalendar : twoWeekCalendar).getStakeEvents();
+	}
+	
+	/**
+	 * Gets the ward events
+	 * 
+	 * @param keepAllEvents
+	 *     true if skipped events should be included
+	 * @return
+	 *     the ward events for every ward
+	 */
+	public Iterable<CalendarEvent> getWardEvents(boolean keepAllEvents) {
+		return (keepAllEvents ? allEventsCalendar : twoWeekCalendar).getWardEvents();
+	}
+	
+	/**
+	 * Gets the stake events that fall within the given dates
+	 * 
+	 * @param keepAllEvents
+	 *     true if skipped events should be included
+	 * @param startDate
+	 *     the first date of the events
+	 * @param endDate
+	 *     the last date of the events
+	 * @return
+	 *     the stake events
+	 */
+	public Iterable<CalendarEvent> getStakeEvents(boolean keepAllEvents, LocalDate startDate, LocalDate endDate) {
+		return (keepAllEvents ? allEventsCalendar : twoWeekCalendar).getStakeEvents(startDate, endDate);
+	}
+	
+	/**
+	 * Gets the ward events that fall within the given dates
+	 * 
+	 * @param keepAllEvents
+	 *     true if skipped events should be included
+	 * @param startDate
+	 *     the first date of the events
+	 * @param endDate
+	 *     the last date of the events
+	 * @return
+	 *     the ward events for every ward
+	 */
+	public Iterable<CalendarEvent> getWardEvents(boolean keepAllEvents, LocalDate startDate, LocalDate endDate) {
+		return (keepAllEvents ? allEventsCalendar : twoWeekCalendar).getWardEvents(startDate, endDate);
+	}
+	
+	/**
+	 * Gets the upcoming events
+	 * 
+	 * @param majorEventsOnly
+	 *     true if only the major events should be returned
+	 * @return
+	 *     the upcoming events
+	 */
+	public Iterable<com.wpw.events.CalendarEvent> getUpcomingEvents(boolean majorEventsOnly) {
+		return upcomingEvents.getEvents(majorEventsOnly ? UpcomingEvents.MAJOR_PROFILE : UpcomingEvents.UPCOMING_PROFILE);
+	}
+	
+	/**
+	 * Finds the events whose descriptions match a query
+	 * 
+	 * @param query
+	 *     the query
+	 * @return
+	 *     the matching events in date and time order
+	 */
+	public List<CalendarEvent> search(EventIndex.Query query) {
+		return eventIndex.search(query);
+	}
+}
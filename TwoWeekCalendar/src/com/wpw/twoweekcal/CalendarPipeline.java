@@ -0,0 +1,395 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.wpw.events.CalendarDataHandler;
+
+/*******************************************************************************
+ * Reads, classifies and renders a two week calendar in stages that run at
+ * the same time
+ * 
+ * The paragraphs of the calendar data are read ahead on one thread (see
+ * ParagraphPrefetcher), the events are parsed, skipped, merged into multi-day
+ * all day events and sorted into stake and ward events on a second thread,
+ * and the calendar is rendered on the calling thread.  The stages are joined
+ * by bounded queues, so a stage that gets ahead waits for the next one and
+ * the time to write a large calendar comes close to the time of the slowest
+ * stage instead of the time of all of them.
+ * 
+ * An event is passed on once no event still to be read can change it or come
+ * before it: once the calendar data has moved on to a later date and, for an
+ * all day event, once the next date has been read without the same event
+ * being found on it (as EventSpliterator does).  An event that is passed on
+ * no longer changes, so it is packed into a CompactEvent that is handed to
+ * the renderer or kept in an event sink without any copying.  The stake
+ * events are rendered as soon as they are passed on.  The ward section
+ * follows the stake section, so the ward events are kept in the ward event
+ * sink until the stake section is done.
+ * 
+ * When all dates are included the dates of the calendar are not known until
+ * the last event is read, so the calendar is only rendered once the data
+ * has been read, but the reading and parsing stages still run at the same
+ * time.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+final class CalendarPipeline implements CalendarDataHandler, Callable<Boolean> {
+	
+	// Events in each batch and batches waiting to be rendered
+	private static final int BATCH_SIZE     = 256;
+	private static final int QUEUE_CAPACITY = 16;
+	
+	// Batch that tells the renderer there are no more stake events
+	private static final List<CompactEvent> END_OF_EVENTS = Collections.emptyList();
+	
+	private final TwoWeekCalendar calendar;
+	private final CalendarDataReader reader;
+	private final EventSink stakeEvents;
+	private final EventSink wardEvents;
+	private final boolean keepStakeEvents;
+	
+	// Dates of the calendar when they are known before the data is read
+	private final boolean fixedDates;
+	private final LocalDate startDate;
+	private final LocalDate endDate;
+	
+	// All day events that could still be extended and the events read but not yet passed on
+	private final Map<String, CalendarEvent> allDayEventMap = new HashMap<>();
+	private final PriorityQueue<CalendarEvent> pendingEvents = new PriorityQueue<>(CalendarEvent.DATE_TIME_ORDER);
+	private final Map<String, EventDescription> descriptions = new LruMap<>(LruMap.DESCRIPTION_ENTRIES);
+	
+	// Latest date read from the calendar data
+	private LocalDate currentDate = LocalDate.MIN;
+	
+	// Stake events waiting to be rendered and the batch being filled
+	private final BlockingQueue<List<CompactEvent>> stakeBatches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private List<CompactEvent> stakeBatch = new ArrayList<>(BATCH_SIZE);
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param calendar
+	 *     the calendar whose skip and ward rules select the events
+	 * @param reader
+	 *     the reader of the calendar data
+	 * @param stakeEvents
+	 *     the sink of the stake events when the calendar is rendered after
+	 *     the data is read or they are kept
+	 * @param wardEvents
+	 *     the sink of the ward events
+	 * @param keepStakeEvents
+	 *     true if the stake events should also be kept in their sink
+	 */
+	CalendarPipeline(TwoWeekCalendar calendar, CalendarDataReader reader,
+			EventSink stakeEvents, EventSink wardEvents, boolean keepStakeEvents) {
+		this.calendar        = calendar;
+		this.reader          = reader;
+		this.stakeEvents     = stakeEvents;
+		this.wardEvents      = wardEvents;
+		this.keepStakeEvents = keepStakeEvents;
+		
+		this.fixedDates = !calendar.isIncludeAllDates();
+		this.startDate  = calendar.getCalendarStartDate();
+		this.endDate    = calendar.getCalendarEndDate();
+		
+		reader.setPrefetchParagraphs(true);
+	}
+	
+	/**
+	 * Reads the calendar data and renders the calendar
+	 * 
+	 * @param renderPass
+	 *     the render pass of the calendar
+	 * @return
+	 *     true if there were no errors reading the data
+	 * @throws IOException
+	 *     if any of the output could not be written
+	 */
+	boolean render(RenderPass renderPass) throws IOException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Boolean> classifier = executor.submit(this);
+		
+		try {
+			if (fixedDates) {
+				renderPass.render(startDate, endDate, getQueuedStakeEvents(), wardEvents.getEvents(startDate, endDate));
+				
+			} else {
+				if (!classifier.get()) return false;
+				
+				LocalDate calendarStartDate = calendar.getCalendarStartDate();
+				LocalDate calendarEndDate   = calendar.getCalendarEndDate();
+				renderPass.render(calendarStartDate, calendarEndDate, stakeEvents.getEvents(calendarStartDate, calendarEndDate),
+						wardEvents.getEvents(calendarStartDate, calendarEndDate));
+			}
+			
+			return classifier.get();
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+			
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+			return false;
+			
+		} finally {
+			// Stops the classifier if the output could not be written
+			classifier.cancel(true);
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Reads and classifies the events of the calendar data
+	 * 
+	 * @return
+	 *     true if there were no errors reading the data
+	 * @throws InterruptedException
+	 *     if the renderer stopped before all of the events were passed on
+	 */
+	@Override
+	public Boolean call() throws InterruptedException {
+		boolean success = false;
+		
+		try {
+			success = reader.read(this);
+			
+			// Every event can be passed on once there is no more data
+			allDayEventMap.clear();
+			passEvents(true);
+			
+		} finally {
+			if (fixedDates) {
+				if (!stakeBatch.isEmpty()) stakeBatches.put(stakeBatch);
+				stakeBatches.put(END_OF_EVENTS);
+			}
+		}
+		
+		return success;
+	}
+	
+	/**
+	 * Adds an event read from the calendar data unless it is skipped
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param time
+	 *     the time of the event or null for an all day event
+	 * @param text
+	 *     the event description
+	 */
+	@Override
+	public void addCalendarEvent(LocalDate date, LocalTime time, String text) {
+		addCalendarEvent(date, time, null, text);
+	}
+	
+	/**
+	 * Adds an event read from the calendar data unless it is skipped.  When
+	 * the dates of the calendar are known, events at specific times before
+	 * the calendar dates are not built and reading stops once the data has
+	 * passed the calendar dates, as it does for the two week calendar.
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param time
+	 *     the time of the event or null for an all day event
+	 * @param endTime
+	 *     the time the event ends or null if it is not known
+	 * @param text
+	 *     the event description
+	 */
+	@Override
+	public void addCalendarEvent(LocalDate date, LocalTime time, LocalTime endTime, String text) {
+		if (date.isAfter(currentDate)) {
+			currentDate = date;
+			closeAllDayEvents();
+			passEvents(false);
+		}
+		
+		if (fixedDates) {
+			if (time != null && date.isBefore(startDate)) return;
+			
+			if (date.isAfter(endDate) && !hasOpenEvents()) {
+				reader.stop();
+				return;
+			}
+		}
+		
+		if (calendar.skipEvent(text)) return;
+		
+		// The dates of the calendar are read once the classifier is done
+		if (!fixedDates) calendar.includeDate(date);
+		
+		if (time == null) {
+			CalendarEvent event = allDayEventMap.get(text);
+			
+			if (event != null && event.isNextDay(date)) {
+				event.setEndDate(date);
+				return;
+			}
+			
+			event = new CalendarEvent(date, text);
+			allDayEventMap.put(text, event);
+			pendingEvents.add(event);
+			
+		} else {
+			pendingEvents.add(new CalendarEvent(date, time, endTime, text));
+		}
+	}
+	
+	/**
+	 * Removes the all day events that can no longer be extended
+	 * to the current date from the all day event map
+	 */
+	private void closeAllDayEvents() {
+		Iterator<CalendarEvent> iterator = allDayEventMap.values().iterator();
+		
+		while (iterator.hasNext()) {
+			if (!iterator.next().isNextDay(currentDate)) iterator.remove();
+		}
+	}
+	
+	/**
+	 * Determines if an all day event in the calendar can still be extended
+	 * 
+	 * @return
+	 *     true if more of the calendar data is needed
+	 */
+	private boolean hasOpenEvents() {
+		for (CalendarEvent event : allDayEventMap.values()) {
+			if (event.isIncluded(startDate, endDate)) return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Passes on the events that no event still to be read can change or come before
+	 * 
+	 * @param endOfData
+	 *     true if all of the data has been read
+	 */
+	private void passEvents(boolean endOfData) {
+		CalendarEvent event;
+		
+		while ((event = pendingEvents.peek()) != null) {
+			if (!endOfData && (!event.getStartDate().isBefore(currentDate) ||
+					allDayEventMap.get(event.getDescription()) == event)) {
+				return;
+			}
+			
+			passEvent(pendingEvents.poll());
+		}
+	}
+	
+	/**
+	 * Packs an event and passes it to the renderer or the event sinks
+	 * 
+	 * @param calendarEvent
+	 *     the event
+	 */
+	private void passEvent(CalendarEvent calendarEvent) {
+		EventDescription description = descriptions.get(calendarEvent.getDescription());
+		
+		if (description == null) {
+			description = new EventDescription(calendarEvent.getDescription(), calendar.getStake());
+			descriptions.put(description.getText(), description);
+		}
+		
+		CompactEvent event = new CompactEvent(calendarEvent, description);
+		
+		if (event.isWardEvent()) {
+			if (event.isForWard(calendar.getSpecificWard())) {
+				TwoWeekCalendar.WARD_EVENTS_CLASSIFIED.increment();
+				wardEvents.add(event);
+			} else {
+				TwoWeekCalendar.OTHER_WARD_EVENTS_CLASSIFIED.increment();
+			}
+			return;
+		}
+		
+		TwoWeekCalendar.STAKE_EVENTS_CLASSIFIED.increment();
+		
+		if (!fixedDates || keepStakeEvents) stakeEvents.add(event);
+		if (!fixedDates) return;
+		
+		stakeBatch.add(event);
+		
+		if (stakeBatch.size() == BATCH_SIZE) {
+			try {
+				stakeBatches.put(stakeBatch);
+			} catch (InterruptedException e) {
+				// The renderer has stopped, so no more events are needed
+				Thread.currentThread().interrupt();
+				reader.stop();
+			}
+			
+			stakeBatch = new ArrayList<>(BATCH_SIZE);
+		}
+	}
+	
+	/**
+	 * Gets the stake events as they are passed on by the classifier, unpacked
+	 * for the renderers
+	 * 
+	 * @return
+	 *     the stake events in date and time order, which can only be iterated once
+	 */
+	private Iterable<CalendarEvent> getQueuedStakeEvents() {
+		return new Iterable<CalendarEvent>() {
+			@Override
+			public Iterator<CalendarEvent> iterator() {
+				return new Iterator<CalendarEvent>() {
+					private List<CompactEvent> batch = Collections.emptyList();
+					private int index;
+					private boolean endOfEvents;
+					
+					@Override
+					public boolean hasNext() {
+						while (index == batch.size()) {
+							if (endOfEvents) return false;
+							
+							try {
+								batch = stakeBatches.take();
+								index = 0;
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+								throw new IllegalStateException("Interrupted while waiting for events!", e);
+							}
+							
+							if (batch == END_OF_EVENTS) endOfEvents = true;
+						}
+						
+						return true;
+					}
+					
+					@Override
+					public CalendarEvent next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						return batch.get(index++).toCalendarEvent();
+					}
+				};
+			}
+		};
+	}
+}
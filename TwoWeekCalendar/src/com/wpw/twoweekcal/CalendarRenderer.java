@@ -0,0 +1,69 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/*******************************************************************************
+ * Renders a two week calendar in a specific output format
+ * 
+ * A renderer receives the calendar one event at a time from a RenderPass and
+ * writes its output directly to a stream, so several renderers can share a
+ * single traversal of the stake and ward events.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public interface CalendarRenderer {
+	
+	/**
+	 * Starts the calendar output
+	 * 
+	 * @param startDate
+	 *     the start date of the calendar
+	 * @param endDate
+	 *     the end date of the calendar
+	 * @throws IOException
+	 *     if the output could not be written
+	 */
+	void startCalendar(LocalDate startDate, LocalDate endDate) throws IOException;
+	
+	/**
+	 * Starts a new section of the calendar
+	 * 
+	 * @param title
+	 *     the section title (E.g. Stake-wide)
+	 * @throws IOException
+	 *     if the output could not be written
+	 */
+	void startSection(String title) throws IOException;
+	
+	/**
+	 * Writes a single event in the current section
+	 * 
+	 * @param event
+	 *     the event to write
+	 * @param showDate
+	 *     false if the event is on the same date as the previous event
+	 * @throws IOException
+	 *     if the output could not be written
+	 */
+	void writeEvent(CalendarEvent event, boolean showDate) throws IOException;
+	
+	/**
+	 * Ends the current section of the calendar
+	 * 
+	 * @throws IOException
+	 *     if the output could not be written
+	 */
+	void endSection() throws IOException;
+	
+	/**
+	 * Ends the calendar output and flushes anything still buffered
+	 * 
+	 * @throws IOException
+	 *     if the output could not be written
+	 */
+	void endCalendar() throws IOException;
+}
@@ -0,0 +1,566 @@
+package com.wpw.twoweekcal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.wpw.events.MetricsRegistry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/*******************************************************************************
+ * Serves the two week calendar and upcoming events over HTTP
+ * 
+ * The calendar data is read once into a CalendarIndex that is held in memory
+ * by an EventStore, so each request only selects and renders the events.  The
+ * calendar data file and skipped event files are checked for changes every few
+ * seconds and a new version of the index is published by the store when it has
+ * been read.  Requests never wait on a reload, and requests that are already
+ * running keep using the version they started with.
+ * 
+ * Rendered calendars are kept in a RenderCache keyed by the request and the
+ * index version, so repeated requests are not rendered again.  The cache is
+ * cleared when a new version is published and a calendar rendered from an
+ * older version is not cached, so an older version is reclaimed as soon as
+ * the requests using it are done.
+ * 
+ * The metrics of the calendar are served in the Prometheus text format and,
+ * if a metrics file is given, written to it each time the calendar data is
+ * checked for changes.
+ * 
+ *     /two-week?start=MM/DD/YYYY&ward=BP&all=true&keep=true&format=docx|text|html|md|json
+ *     /upcoming?major=true&format=docx|text|html|md|json
+ *     /search?q=QUERY&from=MM/DD/YYYY&to=MM/DD/YYYY&ward=BP&format=docx|text|html|md|json
+ *     /stats
+ *     /metrics
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class CalendarServer {
+	
+	// The default port the server listens on
+	public static final int DEFAULT_PORT = 8080;
+	
+	// Number of seconds between checks for changes to the calendar data
+	private static final long RELOAD_INTERVAL = 5;
+	
+	// Limits of the rendered calendar cache
+	private static final int  CACHE_ENTRIES = 256;
+	private static final long CACHE_BYTES   = 64L * 1024 * 1024;
+	
+	private final File calendarData;
+	
+	private final EventStore store;
+	
+	private final RenderCache cache = new RenderCache(CACHE_ENTRIES, CACHE_BYTES);
+	
+	// File the metrics are written to or null if they are only served
+	private File metricsFile;
+	
+	private HttpServer server;
+	private ExecutorService requestExecutor;
+	private ScheduledExecutorService reloadExecutor;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param calendarData
+	 *     the calendar data file
+	 * @param oldStyleData
+	 *     true if the file contains the old style of calendar data
+	 */
+	public CalendarServer(File calendarData, boolean oldStyleData) {
+		this.calendarData = calendarData;
+		this.store        = new EventStore(calendarData, oldStyleData);
+	}
+	
+	/**
+	 * Sets the file the metrics are written to each time
+	 * the calendar data is checked for changes
+	 * 
+	 * @param metricsFile
+	 *     the metrics file or null if the metrics are only served
+	 */
+	public void setMetricsFile(File metricsFile) {
+		this.metricsFile = metricsFile;
+	}
+	
+	/**
+	 * Reads the calendar data and starts the server
+	 * 
+	 * @param port
+	 *     the port to listen on
+	 * @return
+	 *     true if the server was started
+	 */
+	public boolean start(int port) {
+		if (store.load() == null) return false;
+		
+		try {
+			server = HttpServer.create(new InetSocketAddress(port), 0);
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+		
+		server.createContext("/two-week", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleTwoWeek(exchange);
+			}
+		});
+		
+		server.createContext("/upcoming", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleUpcoming(exchange);
+			}
+		});
+		
+		server.createContext("/search", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleSearch(exchange);
+			}
+		});
+		
+		server.createContext("/stats", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					sendResponse(exchange, "TEXT", cache.getStatistics().getBytes(StandardCharsets.UTF_8));
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		
+		server.createContext("/metrics", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					sendResponse(exchange, "TEXT", MetricsRegistry.getDefault().getSnapshot().getBytes(StandardCharsets.UTF_8));
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		
+		requestExecutor = newRequestExecutor();
+		server.setExecutor(requestExecutor);
+		server.start();
+		
+		reloadExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "calendar-reload");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		
+		reloadExecutor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				reload();
+				writeMetrics();
+			}
+		}, RELOAD_INTERVAL, RELOAD_INTERVAL, TimeUnit.SECONDS);
+		
+		System.out.println("Serving " + calendarData + " on port " + server.getAddress().getPort());
+		return true;
+	}
+	
+	/**
+	 * Stops the server
+	 */
+	public void stop() {
+		if (server != null) server.stop(0);
+		if (requestExecutor != null) requestExecutor.shutdown();
+		if (reloadExecutor != null) reloadExecutor.shutdown();
+	}
+	
+	/**
+	 * Reads the calendar data again if it has changed and publishes the new
+	 * version of the index
+	 */
+	private void reload() {
+		if (store.current().isCurrent(calendarData)) return;
+		
+		if (store.reloadIfChanged() == null) {
+			System.out.println("Error reading " + calendarData + "!  Still serving the previous calendar.");
+		} else {
+			cache.clear();
+			System.out.println("Reloaded " + calendarData);
+		}
+	}
+	
+	/**
+	 * Writes the metrics to the metrics file if one was given
+	 */
+	private void writeMetrics() {
+		if (metricsFile == null) return;
+		
+		try {
+			MetricsRegistry.getDefault().write(metricsFile);
+		} catch (IOException e) {
+			System.out.println("Error writing " + metricsFile + "!  " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Handles a request for a two week calendar
+	 * 
+	 * @param exchange
+	 *     the HTTP request and response
+	 * @throws IOException
+	 *     if the response could not be written
+	 */
+	private void handleTwoWeek(HttpExchange exchange) throws IOException {
+		try {
+			Map<String, String> params = getParameters(exchange);
+			
+			LocalDate startDate = LocalDate.now().minusDays(1).with(TemporalAdjusters.next(DayOfWeek.THURSDAY));
+			String start = params.get("start");
+			if (start != null) {
+				if (!TwoWeekCalendar.DATE_PATTERN.matcher(start).matches()) {
+					sendError(exchange, 400, "Invalid start date!  " + start);
+					return;
+				}
+				startDate = LocalDate.parse(start, TwoWeekCalendar.DATE_FORMATTER);
+			}
+			LocalDate endDate = startDate.plusWeeks(2).minusDays(1);
+			
+			String ward = params.get("ward");
+			if (ward != null) {
+				ward = ward.toUpperCase();
+				if (!WardClassifier.WARD_CODE_PATTERN.matcher(ward).matches()) {
+					sendError(exchange, 400, "Invalid ward code!  " + ward);
+					return;
+				}
+			}
+			
+			boolean includeAllDates = Boolean.parseBoolean(params.get("all"));
+			boolean keepAllEvents   = Boolean.parseBoolean(params.get("keep"));
+			
+			OutputFormat format = OutputFormat.forName(params.containsKey("format") ? params.get("format") : "docx");
+			if (format == null) {
+				sendError(exchange, 400, "Invalid format!  " + params.get("format"));
+				return;
+			}
+			
+			CalendarIndex calendarIndex = store.current();
+			
+			String key = RenderCache.key("two-week", startDate, ward, includeAllDates, keepAllEvents,
+					format, calendarIndex.getVersion());
+			byte[] body = cache.get(key);
+			
+			if (body == null) {
+				Iterable<CalendarEvent> stakeEvents = includeAllDates ? calendarIndex.getStakeEvents(keepAllEvents)
+						: calendarIndex.getStakeEvents(keepAllEvents, startDate, endDate);
+				Iterable<CalendarEvent> allWardEvents = includeAllDates ? calendarIndex.getWardEvents(keepAllEvents)
+						: calendarIndex.getWardEvents(keepAllEvents, startDate, endDate);
+				List<CalendarEvent> wardEvents  = new ArrayList<>();
+				
+				for (CalendarEvent event : allWardEvents) {
+					if (WardClassifier.isForWard(event.getDescription(), ward)) {
+						wardEvents.add(event);
+					}
+				}
+				
+				if (includeAllDates) {
+					for (CalendarEvent event : stakeEvents) {
+						if (event.getStartDate().isBefore(startDate)) startDate = event.getStartDate();
+						if (event.getEndDate().isAfter(endDate)) endDate = event.getEndDate();
+					}
+					for (CalendarEvent event : wardEvents) {
+						if (event.getStartDate().isBefore(startDate)) startDate = event.getStartDate();
+						if (event.getEndDate().isAfter(endDate)) endDate = event.getEndDate();
+					}
+				}
+				
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				RenderPass renderPass = new RenderPass();
+				renderPass.addRenderer(format.createRenderer(out));
+				renderPass.render(startDate, endDate, stakeEvents, wardEvents);
+				
+				body = out.toByteArray();
+				if (store.isCurrent(calendarIndex)) cache.put(key, body);
+			}
+			
+			sendResponse(exchange, format.name(), body);
+			
+		} catch (DateTimeParseException e) {
+			sendError(exchange, 400, "Invalid start date!  " + e.getParsedString());
+			
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	/**
+	 * Handles a request for upcoming events
+	 * 
+	 * @param exchange
+	 *     the HTTP request and response
+	 * @throws IOException
+	 *     if the response could not be written
+	 */
+	private void handleUpcoming(HttpExchange exchange) throws IOException {
+		try {
+			Map<String, String> params = getParameters(exchange);
+			
+			boolean majorEventsOnly = Boolean.parseBoolean(params.get("major"));
+			
+			com.wpw.events.OutputFormat format =
+					com.wpw.events.OutputFormat.forName(params.containsKey("format") ? params.get("format") : "docx");
+			if (format == null) {
+				sendError(exchange, 400, "Invalid format!  " + params.get("format"));
+				return;
+			}
+			
+			CalendarIndex calendarIndex = store.current();
+			
+			String key = RenderCache.key("upcoming", majorEventsOnly, format, calendarIndex.getVersion());
+			byte[] body = cache.get(key);
+			
+			if (body == null) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				com.wpw.events.RenderPass renderPass = new com.wpw.events.RenderPass();
+				renderPass.addRenderer(format.createRenderer(out));
+				renderPass.render(calendarIndex.getUpcomingEvents(majorEventsOnly));
+				
+				body = out.toByteArray();
+				if (store.isCurrent(calendarIndex)) cache.put(key, body);
+			}
+			
+			sendResponse(exchange, format.name(), body);
+			
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	/**
+	 * Handles a search of the event descriptions.  The matching events of all
+	 * dates are rendered as a calendar from the first to the last event found.
+	 * 
+	 * @param exchange
+	 *     the HTTP request and response
+	 * @throws IOException
+	 *     if the response could not be written
+	 */
+	private void handleSearch(HttpExchange exchange) throws IOException {
+		try {
+			Map<String, String> params = getParameters(exchange);
+			
+			EventIndex.Query query;
+			try {
+				query = EventIndex.Query.parse(params.containsKey("q") ? params.get("q") : "");
+				
+				LocalDate fromDate = null;
+				LocalDate toDate   = null;
+				if (params.containsKey("from")) fromDate = parseDate(params.get("from"));
+				if (params.containsKey("to"))   toDate   = parseDate(params.get("to"));
+				if (fromDate != null || toDate != null) query.setDates(fromDate, toDate);
+				
+				if (params.containsKey("ward")) query.setWard(params.get("ward"));
+				
+			} catch (IllegalArgumentException e) {
+				sendError(exchange, 400, e.getMessage());
+				return;
+			}
+			
+			OutputFormat format = OutputFormat.forName(params.containsKey("format") ? params.get("format") : "text");
+			if (format == null) {
+				sendError(exchange, 400, "Invalid format!  " + params.get("format"));
+				return;
+			}
+			
+			CalendarIndex calendarIndex = store.current();
+			
+			String key = RenderCache.key("search", query, format, calendarIndex.getVersion());
+			byte[] body = cache.get(key);
+			
+			if (body == null) {
+				List<CalendarEvent> stakeEvents = new ArrayList<>();
+				List<CalendarEvent> wardEvents  = new ArrayList<>();
+				LocalDate startDate = null;
+				LocalDate endDate   = null;
+				
+				for (CalendarEvent event : calendarIndex.search(query)) {
+					if (WardClassifier.isWardEvent(event.getDescription())) {
+						wardEvents.add(event);
+					} else {
+						stakeEvents.add(event);
+					}
+					
+					if (startDate == null || event.getStartDate().isBefore(startDate)) startDate = event.getStartDate();
+					if (endDate == null || event.getEndDate().isAfter(endDate)) endDate = event.getEndDate();
+				}
+				
+				if (startDate == null) {
+					startDate = LocalDate.now();
+					endDate   = startDate;
+				}
+				
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				RenderPass renderPass = new RenderPass();
+				renderPass.addRenderer(format.createRenderer(out));
+				renderPass.render(startDate, endDate, stakeEvents, wardEvents);
+				
+				body = out.toByteArray();
+				if (store.isCurrent(calendarIndex)) cache.put(key, body);
+			}
+			
+			sendResponse(exchange, format.name(), body);
+			
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	/**
+	 * Parses a date parameter
+	 * 
+	 * @param text
+	 *     the date in the format MM/DD/YYYY
+	 * @return
+	 *     the date
+	 * @throws IllegalArgumentException
+	 *     if the date is not valid
+	 */
+	private static LocalDate parseDate(String text) {
+		try {
+			if (TwoWeekCalendar.DATE_PATTERN.matcher(text).matches()) {
+				return LocalDate.parse(text, TwoWeekCalendar.DATE_FORMATTER);
+			}
+		} catch (DateTimeParseException e) {
+		}
+		
+		throw new IllegalArgumentException("Invalid date!  " + text);
+	}
+	
+	/**
+	 * Gets the query parameters of a request
+	 * 
+	 * @param exchange
+	 *     the HTTP request and response
+	 * @return
+	 *     a map of parameter names to values
+	 * @throws UnsupportedEncodingException
+	 *     never, UTF-8 is always supported
+	 */
+	private static Map<String, String> getParameters(HttpExchange exchange) throws UnsupportedEncodingException {
+		Map<String, String> params = new HashMap<>();
+		
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query == null) return params;
+		
+		for (String param : query.split("&")) {
+			int equals = param.indexOf('=');
+			if (equals < 0) {
+				params.put(URLDecoder.decode(param, "UTF-8"), "");
+			} else {
+				params.put(URLDecoder.decode(param.substring(0, equals), "UTF-8"),
+						URLDecoder.decode(param.substring(equals + 1), "UTF-8"));
+			}
+		}
+		
+		return params;
+	}
+	
+	/**
+	 * Sends a rendered calendar
+	 * 
+	 * @param exchange
+	 *     the HTTP request and response
+	 * @param formatName
+	 *     the name of the output format
+	 * @param body
+	 *     the rendered calendar
+	 * @throws IOException
+	 *     if the response could not be sent
+	 */
+	private static void sendResponse(HttpExchange exchange, String formatName, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", getContentType(formatName));
+		exchange.sendResponseHeaders(200, body.length);
+		exchange.getResponseBody().write(body);
+	}
+	
+	/**
+	 * Sends an error response
+	 * 
+	 * @param exchange
+	 *     the HTTP request and response
+	 * @param status
+	 *     the HTTP status code
+	 * @param message
+	 *     the error message
+	 * @throws IOException
+	 *     if the response could not be sent
+	 */
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		exchange.getResponseBody().write(body);
+	}
+	
+	/**
+	 * Gets the content type for an output format
+	 * 
+	 * @param formatName
+	 *     the name of the output format
+	 * @return
+	 *     the content type
+	 */
+	private static String getContentType(String formatName) {
+		switch (formatName) {
+			case "DOCX":     return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+			case "HTML":     return "text/html; charset=UTF-8";
+			case "MARKDOWN": return "text/markdown; charset=UTF-8";
+			case "JSON":     return "application/json; charset=UTF-8";
+			default:         return "text/plain; charset=UTF-8";
+		}
+	}
+	
+	/**
+	 * Creates the executor that handles requests.  Each request runs on its own
+	 * virtual thread when the Java runtime supports them (Java 21 and later)
+	 * and on a pooled thread otherwise.
+	 * 
+	 * @return
+	 *     the request executor
+	 */
+	private static ExecutorService newRequestExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+}
@@ -0,0 +1,307 @@
+package com.wpw.twoweekcal;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+
+/*******************************************************************************
+ * A calendar event that no longer changes, packed into a few primitive fields
+ * 
+ * A CalendarEvent holds separate date and time objects and its end date is
+ * still changed while the all day events of the following dates are read.
+ * Once an event is final it is packed into a CompactEvent: the dates are kept
+ * as epoch days, the times as minutes of the day and the description as a
+ * reference to an EventDescription shared by every event with the same text,
+ * which also holds the wards of the event as a bit mask.  A compact event
+ * takes 40 bytes where a CalendarEvent with its dates and times takes about
+ * 150 more than its own copy of the description.  None of its fields change,
+ * so it can be handed from one thread to another without copying or locking.
+ * 
+ * The date and time strings come from EventFormatter, so they are built once
+ * for each date and time instead of once for each event.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class CompactEvent {
+	
+	// Start minute of an all day event and end minute of an event whose end time is not known
+	public static final short NO_TIME = -1;
+	
+	// Orders events by date and time (all day events first) and then by the order they were created
+	public static final Comparator<CompactEvent> DATE_TIME_ORDER = new Comparator<CompactEvent>() {
+		@Override
+		public int compare(CompactEvent e1, CompactEvent e2) {
+			int result = Integer.compare(e1.startDay, e2.startDay);
+			if (result == 0) result = Integer.compare(e1.startMinute, e2.startMinute);
+			if (result == 0) result = Long.compare(e1.sequence, e2.sequence);
+			return result;
+		}
+	};
+	
+	private final int startDay;
+	private final int endDay;
+	private final short startMinute;
+	private final short endMinute;
+	private final EventDescription description;
+	private final long sequence;
+	
+	/**
+	 * Class constructor that packs an event that will no longer change
+	 * 
+	 * @param event
+	 *     the event
+	 * @param description
+	 *     the shared description of the event
+	 */
+	public CompactEvent(CalendarEvent event, EventDescription description) {
+		this(Math.toIntExact(event.getStartDate().toEpochDay()), Math.toIntExact(event.getEndDate().toEpochDay()),
+				event.getStartMinute(), event.getEndMinute(), description, event.getSequence());
+	}
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param startDay
+	 *     the epoch day of the start date of the event
+	 * @param endDay
+	 *     the epoch day of the end date of the event
+	 * @param startMinute
+	 *     the minute of the day the event starts or NO_TIME for an all day event
+	 * @param endMinute
+	 *     the minute of the day the event ends or NO_TIME if it is not known
+	 * @param description
+	 *     the shared description of the event
+	 * @param sequence
+	 *     the order the original event was created in
+	 */
+	CompactEvent(int startDay, int endDay, int startMinute, int endMinute, EventDescription description, long sequence) {
+		this.startDay    = startDay;
+		this.endDay      = endDay;
+		this.startMinute = (short) startMinute;
+		this.endMinute   = (startMinute < 0) ? NO_TIME : (short) endMinute;
+		this.description = description;
+		this.sequence    = sequence;
+	}
+	
+	/**
+	 * Unpacks the event for the renderers
+	 * 
+	 * @return
+	 *     a new CalendarEvent with the same dates, times, description and order
+	 */
+	public CalendarEvent toCalendarEvent() {
+		return new CalendarEvent(getStartDate(), getEndDate(), getStartTime(), getEndTime(), description.getText(), sequence);
+	}
+	
+	/**
+	 * Determines if this event falls within the given calendar dates
+	 * 
+	 * @param calendarStartDay
+	 *     the epoch day of the start date of the calendar
+	 * @param calendarEndDay
+	 *     the epoch day of the end date of the calendar
+	 * @return
+	 *     true if any day of this event falls within the calendar dates
+	 */
+	public boolean isIncluded(long calendarStartDay, long calendarEndDay) {
+		return startDay <= calendarEndDay && endDay >= calendarStartDay;
+	}
+	
+	/**
+	 * @return
+	 *     the current event in string format
+	 */
+	@Override
+	public String toString() {
+		return String.format("%-16s %-10s %s", getDateString(false), getTimeString(), description);
+	}
+	
+	/**
+	 * Gets the full event date in string format
+	 * 
+	 * @param wordFormat
+	 *     true if the dash should be formatted for MS Word
+	 * @return
+	 *     the event date in string format
+	 */
+	public String getDateString(boolean wordFormat) {
+		return EventFormatter.getDateString(startDay, endDay, wordFormat);
+	}
+	
+	/**
+	 * Gets the event time in string format
+	 * 
+	 * @return
+	 *     the event time in string format
+	 */
+	public String getTimeString() {
+		return EventFormatter.getTimeString(startMinute);
+	}
+	
+	/**
+	 * Gets the event description
+	 * 
+	 * @return
+	 *     the event description
+	 */
+	public String getDescription() {
+		return description.getText();
+	}
+	
+	/**
+	 * Gets the shared description of the event
+	 * 
+	 * @return
+	 *     the shared description of the event
+	 */
+	public EventDescription getEventDescription() {
+		return description;
+	}
+	
+	/**
+	 * Gets the wards of the event
+	 * 
+	 * @return
+	 *     the ward mask (see StakeDefinition.getWardMask)
+	 */
+	public int getWardMask() {
+		return description.getWardMask();
+	}
+	
+	/**
+	 * Determines if this is a ward event
+	 * 
+	 * @return
+	 *     true if the description contains ward specific character patterns
+	 */
+	public boolean isWardEvent() {
+		return description.isWardEvent();
+	}
+	
+	/**
+	 * Determines if this is an event for a specific ward
+	 * 
+	 * @param wardCode
+	 *     the ward code or null for all wards
+	 * @return
+	 *     true if no specific ward was given or if the event is for the specific ward
+	 */
+	public boolean isForWard(String wardCode) {
+		return description.isForWard(wardCode);
+	}
+	
+	/**
+	 * Gets the start date of the event as an epoch day
+	 * 
+	 * @return
+	 *     the epoch day of the start date
+	 */
+	public int getStartDay() {
+		return startDay;
+	}
+	
+	/**
+	 * Gets the end date of the event as an epoch day
+	 * 
+	 * @return
+	 *     the epoch day of the end date
+	 */
+	public int getEndDay() {
+		return endDay;
+	}
+	
+	/**
+	 * Gets the start date of the event
+	 * 
+	 * @return
+	 *     the start date of the event
+	 */
+	public LocalDate getStartDate() {
+		return LocalDate.ofEpochDay(startDay);
+	}
+	
+	/**
+	 * Gets the end date of the event
+	 * 
+	 * @return
+	 *     the end date of the event
+	 */
+	public LocalDate getEndDate() {
+		return (endDay == startDay) ? getStartDate() : LocalDate.ofEpochDay(endDay);
+	}
+	
+	/**
+	 * Gets the start time of the event as the minute of the day
+	 * 
+	 * @return
+	 *     the minute of the day or NO_TIME for an all day event
+	 */
+	public int getStartMinute() {
+		return startMinute;
+	}
+	
+	/**
+	 * Gets the end time of the event as the minute of the day
+	 * 
+	 * @return
+	 *     the minute of the day or NO_TIME for an all day event
+	 *     or an event whose end time is not known
+	 */
+	public int getEndMinute() {
+		return endMinute;
+	}
+	
+	/**
+	 * Gets the start time of the event
+	 * 
+	 * @return
+	 *     the start time of the event or null for an all day event
+	 */
+	public LocalTime getStartTime() {
+		return (startMinute < 0) ? null : LocalTime.of(startMinute / 60, startMinute % 60);
+	}
+	
+	/**
+	 * Gets the time the event ends
+	 * 
+	 * @return
+	 *     the end time of the event or null for an all day event
+	 *     or an event whose end time is not known
+	 */
+	public LocalTime getEndTime() {
+		return (endMinute < 0) ? null : LocalTime.of(endMinute / 60, endMinute % 60);
+	}
+	
+	/**
+	 * Gets the order the event was created in
+	 * 
+	 * @return
+	 *     a number that increases with each event created
+	 */
+	long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * Determines if this is an all day event
+	 * 
+	 * @return
+	 *     true if this is an all day event
+	 */
+	public boolean isAllDay() {
+		return startMinute < 0;
+	}
+	
+	/**
+	 * Determines if this event spans multiple days
+	 * 
+	 * @return
+	 *     true if this event spans multiple days
+	 */
+	public boolean isMultiDay() {
+		return endDay != startDay;
+	}
+}
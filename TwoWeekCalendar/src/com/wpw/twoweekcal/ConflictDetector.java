@@ -0,0 +1,248 @@
+package com.wpw.twoweekcal;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.wpw.events.StakeDefinition;
+
+/*******************************************************************************
+ * Finds events of different units (the stake and each ward) whose times overlap
+ * 
+ * The stake and ward events are read together in date and time order and
+ * swept once.  The events that have started but not ended are kept in a
+ * queue ordered by end time, so each event only drops the events that ended
+ * before it started and is compared with the events still going on.  Finding
+ * the conflicts takes O(n log n) time for n events plus the time to list
+ * them, and only the events of one day are held at a time.
+ * 
+ * Two events conflict when they are on the same date, their times overlap
+ * and they are for different units, like two wards meeting at the same time
+ * or a stake event during a ward activity.  Events of the same unit at the
+ * same time are usually planned that way (classes, quorums) and are not
+ * listed.  All day events and events whose end time is not known (the old
+ * style of calendar data only lists start times) are not checked.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class ConflictDetector {
+	
+	// Unit of the events that are not ward events
+	public static final String STAKE_UNIT = WardClassifier.STAKE_UNIT;
+	
+	// Unit of the ward events whose ward is not known
+	public static final String WARD_UNIT = WardClassifier.WARD_UNIT;
+	
+	// Minute an event that ends after midnight is treated as ending at
+	private static final int END_OF_DAY = 24 * 60;
+	
+	private final StakeDefinition stake;
+	private final Map<String, String> unitMap = new HashMap<>();
+	
+	private int eventsChecked;
+	
+	/**
+	 * Class constructor for the events of the default stake
+	 */
+	public ConflictDetector() {
+		this(StakeDefinition.getDefault());
+	}
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param stake
+	 *     the stake whose wards the events are for
+	 */
+	public ConflictDetector(StakeDefinition stake) {
+		this.stake = stake;
+	}
+	
+	/**
+	 * Finds the conflicts between the stake and ward events
+	 * 
+	 * @param stakeEvents
+	 *     the stake events in date and time order
+	 * @param wardEvents
+	 *     the ward events in date and time order
+	 * @return
+	 *     the conflicts in date and time order of the later event
+	 */
+	public List<Conflict> findConflicts(Iterable<CalendarEvent> stakeEvents, Iterable<CalendarEvent> wardEvents) {
+		List<Conflict> conflicts = new ArrayList<>();
+		List<Conflict> eventConflicts = new ArrayList<>();
+		
+		PriorityQueue<CalendarEvent> activeEvents = new PriorityQueue<>(16, new Comparator<CalendarEvent>() {
+			@Override
+			public int compare(CalendarEvent e1, CalendarEvent e2) {
+				return Integer.compare(getEndMinute(e1), getEndMinute(e2));
+			}
+		});
+		
+		Iterator<CalendarEvent> stakeIterator = stakeEvents.iterator();
+		Iterator<CalendarEvent> wardIterator  = wardEvents.iterator();
+		CalendarEvent nextStakeEvent = stakeIterator.hasNext() ? stakeIterator.next() : null;
+		CalendarEvent nextWardEvent  = wardIterator.hasNext() ? wardIterator.next() : null;
+		
+		LocalDate currentDate = null;
+		eventsChecked = 0;
+		
+		while (nextStakeEvent != null || nextWardEvent != null) {
+			CalendarEvent event;
+			
+			if (nextWardEvent == null || (nextStakeEvent != null &&
+					CalendarEvent.DATE_TIME_ORDER.compare(nextStakeEvent, nextWardEvent) <= 0)) {
+				event = nextStakeEvent;
+				nextStakeEvent = stakeIterator.hasNext() ? stakeIterator.next() : null;
+			} else {
+				event = nextWardEvent;
+				nextWardEvent = wardIterator.hasNext() ? wardIterator.next() : null;
+			}
+			
+			if (event.isAllDay() || event.getEndMinute() < 0) continue;
+			
+			eventsChecked++;
+			
+			if (!event.getStartDate().equals(currentDate)) {
+				currentDate = event.getStartDate();
+				activeEvents.clear();
+			}
+			
+			while (!activeEvents.isEmpty() && getEndMinute(activeEvents.peek()) <= event.getStartMinute()) {
+				activeEvents.poll();
+			}
+			
+			String unit = getUnit(event.getDescription());
+			
+			for (CalendarEvent activeEvent : activeEvents) {
+				if (!unit.equals(getUnit(activeEvent.getDescription()))) {
+					eventConflicts.add(new Conflict(activeEvent, event));
+				}
+			}
+			
+			// The queue is not in start time order, so the conflicts of each event are sorted
+			if (!eventConflicts.isEmpty()) {
+				Collections.sort(eventConflicts);
+				conflicts.addAll(eventConflicts);
+				eventConflicts.clear();
+			}
+			
+			activeEvents.add(event);
+		}
+		
+		return conflicts;
+	}
+	
+	/**
+	 * Gets the number of events with start and end times checked by the last
+	 * call to findConflicts
+	 * 
+	 * @return
+	 *     the number of events checked
+	 */
+	public int getEventsChecked() {
+		return eventsChecked;
+	}
+	
+	/**
+	 * Gets the unit an event is for
+	 * 
+	 * @param description
+	 *     the event description
+	 * @return
+	 *     the ward code, STAKE_UNIT for a stake event
+	 *     or WARD_UNIT for a ward event of an unknown ward
+	 */
+	public String getUnit(String description) {
+		String unit = unitMap.get(description);
+		if (unit != null) return unit;
+		
+		unit = stake.getUnit(description);
+		unitMap.put(description, unit);
+		return unit;
+	}
+	
+	/**
+	 * Gets the end time of an event as the minute of the day.  An event that
+	 * ends before its start time ends after midnight.
+	 * 
+	 * @param event
+	 *     an event with start and end times
+	 * @return
+	 *     the minute of the day the event ends
+	 */
+	private static int getEndMinute(CalendarEvent event) {
+		int endMinute = event.getEndMinute();
+		return (endMinute < event.getStartMinute()) ? END_OF_DAY : endMinute;
+	}
+	
+	/***************************************************************************
+	 * Two events of different units whose times overlap
+	 ***************************************************************************/
+	public static final class Conflict implements Comparable<Conflict> {
+		private final CalendarEvent firstEvent;
+		private final CalendarEvent secondEvent;
+		
+		private Conflict(CalendarEvent firstEvent, CalendarEvent secondEvent) {
+			this.firstEvent  = firstEvent;
+			this.secondEvent = secondEvent;
+		}
+		
+		/**
+		 * @return
+		 *     the event that starts first
+		 */
+		public CalendarEvent getFirstEvent() {
+			return firstEvent;
+		}
+		
+		/**
+		 * @return
+		 *     the event that starts during the first event
+		 */
+		public CalendarEvent getSecondEvent() {
+			return secondEvent;
+		}
+		
+		@Override
+		public int compareTo(Conflict other) {
+			int result = CalendarEvent.DATE_TIME_ORDER.compare(secondEvent, other.secondEvent);
+			if (result == 0) result = CalendarEvent.DATE_TIME_ORDER.compare(firstEvent, other.firstEvent);
+			return result;
+		}
+		
+		/**
+		 * @return
+		 *     the date and times of both events
+		 */
+		@Override
+		public String toString() {
+			return String.format("%-10s  %-19s %s  overlaps  %-19s %s",
+					firstEvent.getStartDate().format(CalendarDataReader.DATE_FORMATTER),
+					getTimes(firstEvent), firstEvent.getDescription(),
+					getTimes(secondEvent), secondEvent.getDescription());
+		}
+		
+		/**
+		 * Gets the start and end time of an event
+		 * 
+		 * @param event
+		 *     an event with start and end times
+		 * @return
+		 *     the start and end time (E.g. 7:00 PM - 8:30 PM)
+		 */
+		private static String getTimes(CalendarEvent event) {
+			return event.getStartTime().format(CalendarEvent.TIME_FORMATTER1) + " - " +
+					event.getEndTime().format(CalendarEvent.TIME_FORMATTER1);
+		}
+	}
+}
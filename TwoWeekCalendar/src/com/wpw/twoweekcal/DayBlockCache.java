@@ -0,0 +1,491 @@
+package com.wpw.twoweekcal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*******************************************************************************
+ * A cache of the events parsed from each day of the calendar data
+ * 
+ * A day block is the paragraphs from one date header to the next.  Each block
+ * is fingerprinted by a SHA-1 digest of its paragraphs and the events parsed
+ * from it are saved next to the calendar data.  On the next run only the
+ * blocks whose fingerprint is not in the cache are parsed again.  The events
+ * of each day are cached before all day events are merged, so multi-day
+ * events are merged across the edges of changed blocks as they are read.
+ * 
+ * The cache is never held in memory.  The saved blocks are read in document
+ * order alongside the calendar data, looking a few blocks ahead to step over
+ * the days that were changed, inserted or removed, and the new cache is
+ * written to a temporary file as each block is read.  The blocks are in date
+ * order, so when a block has to be parsed the saved blocks dated before it
+ * are passed over as well.  Any number of days can then be removed from the
+ * start of the calendar data (as a newer export that drops the past months
+ * does) and the blocks after them are still found.  The new cache only
+ * replaces the saved one once the whole document has been read, and only if
+ * a block has changed.
+ * 
+ * The cache is saved as a binary file holding the data style followed by
+ * each block as:
+ * 
+ *     fingerprint, date, event count, (start minute, end minute, description)...
+ * 
+ * Each description is written in full the first time it is used and as the
+ * index of that first use after that, since most descriptions repeat from
+ * week to week.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+final class DayBlockCache implements Closeable {
+	
+	// File name extension for saved caches
+	public static final String EXTENSION = "blocks";
+	
+	// Identifies a saved cache and its format
+	private static final int MAGIC   = 0x44424331;
+	private static final int VERSION = 4;
+	
+	// Separates the paragraphs in a fingerprint
+	private static final byte PARAGRAPH_END = 0;
+	
+	// Number of saved blocks read ahead of the calendar data
+	private static final int LOOKAHEAD = 64;
+	
+	private final File file;
+	private final boolean oldStyleData;
+	
+	// Saved cache, the descriptions read from it and the next blocks in it
+	private DataInputStream in;
+	private final List<String> savedDescriptions = new ArrayList<>();
+	private final Map<ByteBuffer, Block> savedBlocks = new LinkedHashMap<>();
+	
+	// New cache and the index of each description written to it
+	private File tempFile;
+	private DataOutputStream out;
+	private final Map<String, Integer> descriptionIndexes = new HashMap<>();
+	
+	// Set once the new cache differs from the saved cache
+	private boolean changed = false;
+	
+	/**
+	 * Class constructor that opens the saved cache and starts the new cache
+	 * 
+	 * @param file
+	 *     the cache file
+	 * @param oldStyleData
+	 *     true if the calendar data is the old style of calendar data
+	 */
+	DayBlockCache(File file, boolean oldStyleData) {
+		this.file         = file;
+		this.oldStyleData = oldStyleData;
+		
+		openSavedCache();
+		openNewCache();
+	}
+	
+	/**
+	 * Gets the cache file for a calendar data file
+	 * 
+	 * @param calendarData
+	 *     the calendar data file (E.g. Calendar Data.docx)
+	 * @return
+	 *     the cache file (E.g. Calendar Data.blocks)
+	 */
+	static File getFile(File calendarData) {
+		String name = calendarData.getName();
+		int dot = name.lastIndexOf('.');
+		if (dot > 0) name = name.substring(0, dot);
+		
+		return new File(calendarData.getParentFile(), name + "." + EXTENSION);
+	}
+	
+	/**
+	 * Gets the fingerprint of a day block
+	 * 
+	 * @param paragraphs
+	 *     the paragraphs of the block starting with its date header
+	 * @return
+	 *     the SHA-1 digest of the paragraphs
+	 */
+	static ByteBuffer getFingerprint(List<String> paragraphs) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			
+			for (String paragraph : paragraphs) {
+				digest.update(paragraph.getBytes(StandardCharsets.UTF_8));
+				digest.update(PARAGRAPH_END);
+			}
+			
+			return ByteBuffer.wrap(digest.digest());
+			
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Gets the events of a block that was parsed by a previous run.  The saved
+	 * blocks ahead of it are passed over, since they are no longer in the
+	 * calendar data.
+	 * 
+	 * @param fingerprint
+	 *     the fingerprint of the block
+	 * @return
+	 *     the events of the block or null if the block must be parsed
+	 */
+	Block get(ByteBuffer fingerprint) {
+		readSavedBlocks();
+		
+		if (!savedBlocks.containsKey(fingerprint)) {
+			changed = true;
+			return null;
+		}
+		
+		Iterator<Map.Entry<ByteBuffer, Block>> iterator = savedBlocks.entrySet().iterator();
+		
+		while (true) {
+			Map.Entry<ByteBuffer, Block> entry = iterator.next();
+			iterator.remove();
+			
+			if (entry.getKey().equals(fingerprint)) return entry.getValue();
+			
+			changed = true;
+		}
+	}
+	
+	/**
+	 * Passes over the saved blocks dated before a block that had to be parsed.
+	 * The saved blocks are in date order, so none of them can be found in the
+	 * rest of the calendar data.
+	 * 
+	 * @param date
+	 *     the date of the block that was parsed
+	 */
+	void skipTo(LocalDate date) {
+		do {
+			readSavedBlocks();
+			
+			Iterator<Block> iterator = savedBlocks.values().iterator();
+			
+			while (iterator.hasNext() && iterator.next().date.isBefore(date)) {
+				iterator.remove();
+				changed = true;
+			}
+			
+		} while (savedBlocks.isEmpty() && in != null);
+	}
+	
+	/**
+	 * Adds the events of the next block of the calendar data to the new cache
+	 * 
+	 * @param fingerprint
+	 *     the fingerprint of the block
+	 * @param block
+	 *     the events of the block
+	 */
+	void put(ByteBuffer fingerprint, Block block) {
+		if (out == null) return;
+		
+		try {
+			out.writeByte(fingerprint.remaining());
+			out.write(fingerprint.array(), fingerprint.arrayOffset() + fingerprint.position(), fingerprint.remaining());
+			out.writeLong(block.date.toEpochDay());
+			out.writeInt(block.minutes.length);
+			
+			for (int i = 0; i < block.minutes.length; i++) {
+				out.writeShort(block.minutes[i]);
+				out.writeShort(block.endMinutes[i]);
+				writeDescription(block.descriptions[i]);
+			}
+			
+		} catch (IOException e) {
+			abandonNewCache(e);
+		}
+	}
+	
+	/**
+	 * Replaces the saved cache with the new cache once the whole calendar data
+	 * has been read, unless every saved block was found in the same order.  The
+	 * cache only saves parsing, so the data can still be used if the cache
+	 * could not be saved.
+	 */
+	void save() {
+		readSavedBlocks();
+		if (!savedBlocks.isEmpty()) changed = true;
+		
+		// The saved cache must be closed before it can be replaced on Windows
+		closeSavedCache();
+		if (out == null) return;
+		
+		try {
+			out.close();
+			out = null;
+			
+			if (changed) {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				tempFile = null;
+			}
+			
+		} catch (IOException e) {
+			abandonNewCache(e);
+		}
+		
+		close();
+	}
+	
+	/**
+	 * Closes the saved cache and removes the new cache if it was not saved
+	 */
+	@Override
+	public void close() {
+		closeSavedCache();
+		savedBlocks.clear();
+		
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+			}
+			out = null;
+		}
+		
+		if (tempFile != null) {
+			tempFile.delete();
+			tempFile = null;
+		}
+	}
+	
+	/**
+	 * Opens the saved cache if there is one for the same style of data.  The
+	 * cache only saves parsing, so a cache that cannot be read is not used.
+	 */
+	private void openSavedCache() {
+		changed = true;
+		if (!file.exists()) return;
+		
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+			
+			if (in.readInt() == MAGIC && in.readInt() == VERSION && in.readBoolean() == oldStyleData) {
+				changed = false;
+			} else {
+				closeSavedCache();
+			}
+			
+		} catch (IOException e) {
+			closeSavedCache();
+		}
+	}
+	
+	/**
+	 * Reads the saved blocks until there are enough to look ahead through
+	 */
+	private void readSavedBlocks() {
+		try {
+			while (in != null && savedBlocks.size() < LOOKAHEAD) {
+				int length;
+				
+				try {
+					length = in.readUnsignedByte();
+				} catch (EOFException e) {
+					closeSavedCache();
+					return;
+				}
+				
+				byte[] fingerprint = new byte[length];
+				in.readFully(fingerprint);
+				
+				LocalDate date = LocalDate.ofEpochDay(in.readLong());
+				Block block = new Block(date, in.readInt());
+				
+				for (int i = 0; i < block.minutes.length; i++) {
+					block.minutes[i]      = in.readShort();
+					block.endMinutes[i]   = in.readShort();
+					block.descriptions[i] = readDescription();
+				}
+				
+				ByteBuffer key = ByteBuffer.wrap(fingerprint);
+				if (!savedBlocks.containsKey(key)) savedBlocks.put(key, block);
+			}
+			
+		} catch (IOException | RuntimeException e) {
+			closeSavedCache();
+			changed = true;
+		}
+	}
+	
+	/**
+	 * Reads a description from the saved cache
+	 * 
+	 * @return
+	 *     the description
+	 * @throws IOException
+	 *     if the saved cache could not be read
+	 */
+	private String readDescription() throws IOException {
+		int index = in.readInt();
+		if (index < savedDescriptions.size()) return savedDescriptions.get(index);
+		
+		if (index != savedDescriptions.size()) throw new IOException("Invalid description index!  " + index);
+		
+		byte[] description = new byte[in.readInt()];
+		in.readFully(description);
+		
+		String text = new String(description, StandardCharsets.UTF_8);
+		savedDescriptions.add(text);
+		return text;
+	}
+	
+	/**
+	 * Closes the saved cache
+	 */
+	private void closeSavedCache() {
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+			}
+			in = null;
+		}
+		
+		savedDescriptions.clear();
+	}
+	
+	/**
+	 * Starts the new cache in a temporary file next to the saved cache
+	 */
+	private void openNewCache() {
+		try {
+			File directory = file.getAbsoluteFile().getParentFile();
+			tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16));
+			
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeBoolean(oldStyleData);
+			
+		} catch (IOException e) {
+			abandonNewCache(e);
+		}
+	}
+	
+	/**
+	 * Writes a description to the new cache
+	 * 
+	 * @param description
+	 *     the description
+	 * @throws IOException
+	 *     if the new cache could not be written
+	 */
+	private void writeDescription(String description) throws IOException {
+		Integer index = descriptionIndexes.get(description);
+		
+		if (index != null) {
+			out.writeInt(index);
+			return;
+		}
+		
+		byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+		
+		out.writeInt(descriptionIndexes.size());
+		out.writeInt(bytes.length);
+		out.write(bytes);
+		
+		descriptionIndexes.put(description, descriptionIndexes.size());
+	}
+	
+	/**
+	 * Stops writing the new cache after an error, leaving the saved cache as
+	 * it was.  The calendar data is still read without it.
+	 * 
+	 * @param e
+	 *     the error writing the new cache
+	 */
+	private void abandonNewCache(IOException e) {
+		System.out.println("Error saving block cache!  " + file);
+		e.printStackTrace();
+		
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException closeError) {
+			}
+			out = null;
+		}
+		
+		if (tempFile != null) {
+			tempFile.delete();
+			tempFile = null;
+		}
+		
+		descriptionIndexes.clear();
+	}
+	
+	/***************************************************************************
+	 * The events parsed from one day block
+	 ***************************************************************************/
+	static final class Block {
+		final LocalDate date;
+		
+		// Start minute of each event or -1 for an all day event
+		// and end minute of each event or -1 if it is not known
+		final short[] minutes;
+		final short[] endMinutes;
+		final String[] descriptions;
+		
+		Block(LocalDate date, int eventCount) {
+			this.date         = date;
+			this.minutes      = new short[eventCount];
+			this.endMinutes   = new short[eventCount];
+			this.descriptions = new String[eventCount];
+		}
+		
+		/**
+		 * Gets the start time of an event in the block
+		 * 
+		 * @param index
+		 *     the index of the event
+		 * @return
+		 *     the start time or null for an all day event
+		 */
+		LocalTime getTime(int index) {
+			return (minutes[index] < 0) ? null : LocalTime.ofSecondOfDay(minutes[index] * 60L);
+		}
+		
+		/**
+		 * Gets the end time of an event in the block
+		 * 
+		 * @param index
+		 *     the index of the event
+		 * @return
+		 *     the end time or null if it is not known
+		 */
+		LocalTime getEndTime(int index) {
+			return (endMinutes[index] < 0) ? null : LocalTime.ofSecondOfDay(endMinutes[index] * 60L);
+		}
+	}
+}
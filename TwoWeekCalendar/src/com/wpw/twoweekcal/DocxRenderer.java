@@ -0,0 +1,90 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+import com.wpw.events.DocxWriter;
+
+/*******************************************************************************
+ * Renders the two week calendar as a Microsoft Word document
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class DocxRenderer implements CalendarRenderer {
+	
+	// Styles defined once in the document: a paragraph style with tab stops at 1.5 and
+	// 2.5 inches (1440 = 1 inch) in Times New Roman and character styles for bold and
+	// section header text
+	private static final String STYLES =
+			"<w:style w:type=\"paragraph\" w:customStyle=\"1\" w:styleId=\"Calendar\">" +
+			"<w:name w:val=\"Calendar\"/>" +
+			"<w:pPr>" +
+			"<w:tabs><w:tab w:val=\"left\" w:pos=\"2160\"/><w:tab w:val=\"left\" w:pos=\"3600\"/></w:tabs>" +
+			"<w:spacing w:after=\"0\" w:line=\"240\" w:lineRule=\"auto\"/>" +
+			"<w:ind w:left=\"3600\" w:hanging=\"3600\"/>" +
+			"</w:pPr>" +
+			"<w:rPr><w:rFonts w:ascii=\"Times New Roman\" w:hAnsi=\"Times New Roman\" w:cs=\"Times New Roman\"/></w:rPr>" +
+			"</w:style>" +
+			"<w:style w:type=\"character\" w:customStyle=\"1\" w:styleId=\"CalendarBold\">" +
+			"<w:name w:val=\"Calendar Bold\"/><w:rPr><w:b/></w:rPr>" +
+			"</w:style>" +
+			"<w:style w:type=\"character\" w:customStyle=\"1\" w:styleId=\"CalendarHeader\">" +
+			"<w:name w:val=\"Calendar Header\"/><w:rPr><w:b/><w:u w:val=\"single\"/></w:rPr>" +
+			"</w:style>";
+	
+	// Style references for each paragraph and for plain, bold and section header text
+	private static final String PARAGRAPH_PROPERTIES  = "<w:pPr><w:pStyle w:val=\"Calendar\"/></w:pPr>";
+	private static final String PLAIN_RUN_PROPERTIES  = "";
+	private static final String BOLD_RUN_PROPERTIES   = "<w:rPr><w:rStyle w:val=\"CalendarBold\"/></w:rPr>";
+	private static final String HEADER_RUN_PROPERTIES = "<w:rPr><w:rStyle w:val=\"CalendarHeader\"/></w:rPr>";
+	
+	private final DocxWriter docx;
+	
+	private boolean firstSection = true;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param out
+	 *     the stream the document is written to
+	 */
+	public DocxRenderer(OutputStream out) {
+		docx = new DocxWriter(out);
+	}
+	
+	@Override
+	public void startCalendar(LocalDate startDate, LocalDate endDate) throws IOException {
+		docx.startDocument(STYLES);
+		docx.writeParagraph(PARAGRAPH_PROPERTIES, BOLD_RUN_PROPERTIES,
+				"", "", CalendarEvent.getCalendarDates(startDate, endDate, true));
+	}
+	
+	@Override
+	public void startSection(String title) throws IOException {
+		if (!firstSection) {
+			docx.writeParagraph(PARAGRAPH_PROPERTIES, PLAIN_RUN_PROPERTIES, "");
+		}
+		
+		firstSection = false;
+		docx.writeParagraph(PARAGRAPH_PROPERTIES, HEADER_RUN_PROPERTIES, title);
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event, boolean showDate) throws IOException {
+		docx.writeParagraph(PARAGRAPH_PROPERTIES, PLAIN_RUN_PROPERTIES,
+				showDate ? event.getDateString(true) : "", event.getTimeString(), event.getDescription());
+	}
+	
+	@Override
+	public void endSection() throws IOException {
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		docx.endDocument();
+	}
+}
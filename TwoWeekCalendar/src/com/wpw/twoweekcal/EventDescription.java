@@ -0,0 +1,97 @@
+package com.wpw.twoweekcal;
+
+import com.wpw.events.StakeDefinition;
+
+/*******************************************************************************
+ * The description of an event and the wards it is for, shared by every
+ * CompactEvent with the same description
+ * 
+ * Most events repeat the same few hundred descriptions, so each description
+ * is kept (and classified) once and the events only hold a reference to it.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class EventDescription {
+	
+	private final String text;
+	private final StakeDefinition stake;
+	private final int wardMask;
+	
+	/**
+	 * Class constructor that finds the wards of the default stake the description is for
+	 * 
+	 * @param text
+	 *     the text of the description
+	 */
+	public EventDescription(String text) {
+		this(text, StakeDefinition.getDefault());
+	}
+	
+	/**
+	 * Class constructor that finds the wards the description is for
+	 * 
+	 * @param text
+	 *     the text of the description
+	 * @param stake
+	 *     the stake whose wards the description is classified by
+	 */
+	public EventDescription(String text, StakeDefinition stake) {
+		this.text     = text;
+		this.stake    = stake;
+		this.wardMask = stake.getWardMask(text);
+	}
+	
+	/**
+	 * Gets the text of the description
+	 * 
+	 * @return
+	 *     the text of the description
+	 */
+	public String getText() {
+		return text;
+	}
+	
+	/**
+	 * Gets the wards of the description
+	 * 
+	 * @return
+	 *     the ward mask (see StakeDefinition.getWardMask)
+	 */
+	public int getWardMask() {
+		return wardMask;
+	}
+	
+	/**
+	 * Determines if the description is for a ward event
+	 * 
+	 * @return
+	 *     true if the description contains ward specific character patterns
+	 */
+	public boolean isWardEvent() {
+		return wardMask != 0;
+	}
+	
+	/**
+	 * Determines if the description is for a specific ward
+	 * 
+	 * @param wardCode
+	 *     the ward code or null for all wards
+	 * @return
+	 *     true if no specific ward was given or if the description is for the specific ward
+	 */
+	public boolean isForWard(String wardCode) {
+		return wardCode == null || (wardMask & stake.getWardBit(wardCode)) != 0;
+	}
+	
+	/**
+	 * @return
+	 *     the text of the description
+	 */
+	@Override
+	public String toString() {
+		return text;
+	}
+}
@@ -0,0 +1,126 @@
+package com.wpw.twoweekcal;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+
+/*******************************************************************************
+ * Builds the date and time strings of events once and shares them between
+ * every event on the same date or at the same time
+ * 
+ * The string of every minute of the day is built when the class is loaded.
+ * The strings of a date are built the first time the date is asked for and
+ * kept in a slot picked by its epoch day, so the consecutive dates of a
+ * calendar never replace each other and the memory used does not grow with
+ * the number of dates.  The slots only ever hold strings that do not change,
+ * so they can be read and filled from any thread without locking.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class EventFormatter {
+	
+	// Number of dates whose strings are kept (more than eleven years of consecutive dates)
+	private static final int DATE_SLOTS = 4096;
+	
+	private static final String[] TIME_STRINGS = getTimeStrings();
+	private static final DateStrings[] DATE_STRINGS = new DateStrings[DATE_SLOTS];
+	
+	private EventFormatter() {
+	}
+	
+	/**
+	 * Gets the date of an event in string format
+	 * 
+	 * @param startDay
+	 *     the epoch day of the start date of the event
+	 * @param endDay
+	 *     the epoch day of the end date of the event
+	 * @param wordFormat
+	 *     true if the dash should be formatted for MS Word
+	 * @return
+	 *     the event date in string format
+	 */
+	public static String getDateString(long startDay, long endDay, boolean wordFormat) {
+		DateStrings start = getDateStrings(startDay);
+		if (startDay == endDay) return start.weekdayMonthDay;
+		
+		DateStrings end = getDateStrings(endDay);
+		
+		if (start.month == end.month) {
+			return start.weekdayMonthDay + CalendarEvent.getDash(wordFormat) + end.day;
+		} else {
+			return start.weekdayMonthDay + CalendarEvent.getDash(wordFormat) + end.monthDay;
+		}
+	}
+	
+	/**
+	 * Gets the time of an event in string format
+	 * 
+	 * @param minute
+	 *     the minute of the day the event starts or a negative number for an all day event
+	 * @return
+	 *     the event time in string format
+	 */
+	public static String getTimeString(int minute) {
+		return (minute < 0) ? "" : TIME_STRINGS[minute];
+	}
+	
+	/**
+	 * Gets the strings of a date, building them if they are not kept
+	 * 
+	 * @param epochDay
+	 *     the epoch day of the date
+	 * @return
+	 *     the strings of the date
+	 */
+	private static DateStrings getDateStrings(long epochDay) {
+		int slot = (int) (epochDay & (DATE_SLOTS - 1));
+		DateStrings dateStrings = DATE_STRINGS[slot];
+		
+		if (dateStrings == null || dateStrings.epochDay != epochDay) {
+			dateStrings = new DateStrings(LocalDate.ofEpochDay(epochDay));
+			DATE_STRINGS[slot] = dateStrings;
+		}
+		
+		return dateStrings;
+	}
+	
+	/**
+	 * Builds the string of every minute of the day
+	 * 
+	 * @return
+	 *     the time strings indexed by the minute of the day
+	 */
+	private static String[] getTimeStrings() {
+		String[] timeStrings = new String[24 * 60];
+		
+		for (int minute = 0; minute < timeStrings.length; minute++) {
+			timeStrings[minute] = LocalTime.of(minute / 60, minute % 60).format(CalendarEvent.TIME_FORMATTER1);
+		}
+		
+		return timeStrings;
+	}
+	
+	/***************************************************************************
+	 * The strings of a single date.  The fields are final, so a slot filled on
+	 * one thread is seen whole on every other thread.
+	 ***************************************************************************/
+	private static final class DateStrings {
+		private final long epochDay;
+		private final Month month;
+		private final String weekdayMonthDay;
+		private final String monthDay;
+		private final String day;
+		
+		private DateStrings(LocalDate date) {
+			this.epochDay        = date.toEpochDay();
+			this.month           = date.getMonth();
+			this.weekdayMonthDay = date.format(CalendarEvent.DATE_FORMATTER1);
+			this.monthDay        = date.format(CalendarEvent.DATE_FORMATTER2);
+			this.day             = date.format(CalendarEvent.DATE_FORMATTER3);
+		}
+	}
+}
@@ -0,0 +1,971 @@
+package com.wpw.twoweekcal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.wpw.events.CalendarDataHandler;
+
+/*******************************************************************************
+ * A full-text index of the event descriptions in the calendar data
+ * 
+ * Every event read from the calendar data is given an event id in the order
+ * it was read, before any events are skipped or merged, so the index can find
+ * any event that was ever listed.  Each word of a description is a term and
+ * each term has a posting list of the ids of the events whose description
+ * holds it.  The posting lists are kept in id order as the differences from
+ * one id to the next, written as variable length integers, so a weekly event
+ * costs about one byte per term per week.
+ * 
+ * A query is a list of terms, prefixes ending in * and phrases in quotes that
+ * must all match, along with optional dates and a ward:
+ * 
+ *     youth temple from:10/18/2023 to:10/18/2026 ward:BP
+ *     "temple trip" bapt*
+ * 
+ * The events are in date order in the calendar data, so the dates of a query
+ * are found by a binary search of the event dates before any posting list is
+ * read.  Like the two week calendar, a ward only removes the events of the
+ * other wards.
+ * 
+ * The index can be saved next to the calendar data and is used again for as
+ * long as the calendar data has not changed.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class EventIndex implements CalendarDataHandler {
+	
+	// File name extension for saved indexes
+	public static final String EXTENSION = "index";
+	
+	// Identifies a saved index and its format
+	private static final int MAGIC   = 0x45564958;
+	private static final int VERSION = 1;
+	
+	// Splits a description into terms
+	private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+	
+	// Splits a query into phrases and words
+	private static final Pattern QUERY_PART = Pattern.compile("\"([^\"]*)\"?|(\\S+)");
+	
+	// Event ids in the order the events were read and the date,
+	// start minute (or -1 for an all day event) and description of each
+	private int eventCount;
+	private int[] days           = new int[1024];
+	private short[] minutes      = new short[1024];
+	private int[] descriptionIds = new int[1024];
+	private boolean dateOrder    = true;
+	
+	private List<String> descriptions = new ArrayList<>();
+	
+	// Terms of each description and the event ids of each term while the index is built
+	private Map<String, Integer> descriptionIdMap = new HashMap<>();
+	private List<int[]> descriptionTerms = new ArrayList<>();
+	private Map<String, Integer> termIdMap = new HashMap<>();
+	private List<IntList> termEvents = new ArrayList<>();
+	
+	// Sorted terms and the compressed posting list and number of events of each term
+	private String[] terms;
+	private byte[][] postings;
+	private int[] postingCounts;
+	
+	private boolean built = false;
+	
+	/**
+	 * Opens the index of a calendar data file.  The saved index is used if the
+	 * calendar data has not changed since it was saved and otherwise the
+	 * calendar data is read and the new index is saved.
+	 * 
+	 * @param calendarData
+	 *     the calendar data file
+	 * @param oldStyleData
+	 *     true if the file contains the old style of calendar data
+	 * @return
+	 *     the index or null if there were errors reading the data
+	 */
+	public static EventIndex open(File calendarData, boolean oldStyleData) {
+		File file = getFile(calendarData);
+		
+		EventIndex index = load(file, calendarData, oldStyleData);
+		if (index != null) return index;
+		
+		index = new EventIndex();
+		
+		CalendarDataReader reader = new CalendarDataReader(calendarData, oldStyleData);
+		reader.setUseBlockCache(true);
+		
+		if (!reader.read(index)) return null;
+		
+		try {
+			index.save(file, calendarData, oldStyleData);
+		} catch (IOException e) {
+			System.out.println("Error saving event index!  " + file);
+			e.printStackTrace();
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Gets the index file for a calendar data file
+	 * 
+	 * @param calendarData
+	 *     the calendar data file (E.g. Calendar Data.docx)
+	 * @return
+	 *     the index file (E.g. Calendar Data.index)
+	 */
+	public static File getFile(File calendarData) {
+		String name = calendarData.getName();
+		int dot = name.lastIndexOf('.');
+		if (dot > 0) name = name.substring(0, dot);
+		
+		return new File(calendarData.getParentFile(), name + "." + EXTENSION);
+	}
+	
+	/**
+	 * Adds an event read from the calendar data to the index
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param time
+	 *     the time of the event or null for an all day event
+	 * @param text
+	 *     the event description
+	 */
+	@Override
+	public synchronized void addCalendarEvent(LocalDate date, LocalTime time, String text) {
+		if (built) throw new IllegalStateException("Event index is already built!");
+		
+		if (eventCount == days.length) {
+			days           = Arrays.copyOf(days, eventCount * 2);
+			minutes        = Arrays.copyOf(minutes, eventCount * 2);
+			descriptionIds = Arrays.copyOf(descriptionIds, eventCount * 2);
+		}
+		
+		int eventId = eventCount++;
+		int descriptionId = getDescriptionId(text);
+		
+		days[eventId]           = (int) date.toEpochDay();
+		minutes[eventId]        = (short) ((time == null) ? -1 : time.getHour() * 60 + time.getMinute());
+		descriptionIds[eventId] = descriptionId;
+		
+		if (eventId > 0 && days[eventId] < days[eventId - 1]) dateOrder = false;
+		
+		for (int termId : descriptionTerms.get(descriptionId)) {
+			termEvents.get(termId).add(eventId);
+		}
+	}
+	
+	/**
+	 * Gets the id of a description, adding the description and its terms
+	 * to the index the first time it is found
+	 * 
+	 * @param text
+	 *     the event description
+	 * @return
+	 *     the description id
+	 */
+	private int getDescriptionId(String text) {
+		Integer descriptionId = descriptionIdMap.get(text);
+		if (descriptionId != null) return descriptionId;
+		
+		List<String> words = getTerms(text);
+		int[] termIds = new int[words.size()];
+		int termCount = 0;
+		
+		for (String word : words) {
+			Integer termId = termIdMap.get(word);
+			
+			if (termId == null) {
+				termId = termEvents.size();
+				termIdMap.put(word, termId);
+				termEvents.add(new IntList());
+			}
+			
+			// Each event is only listed once for a term used twice in a description
+			boolean found = false;
+			for (int i = 0; i < termCount; i++) {
+				if (termIds[i] == termId) found = true;
+			}
+			if (!found) termIds[termCount++] = termId;
+		}
+		
+		descriptionId = descriptions.size();
+		descriptions.add(text);
+		descriptionIdMap.put(text, descriptionId);
+		descriptionTerms.add(Arrays.copyOf(termIds, termCount));
+		
+		return descriptionId;
+	}
+	
+	/**
+	 * Compresses the posting lists once all of the events have been added.
+	 * No more events can be added once the index is built, which is done
+	 * by the first search if it has not been done already.
+	 */
+	synchronized void build() {
+		if (built) return;
+		
+		final String[] termNames = new String[termIdMap.size()];
+		for (Map.Entry<String, Integer> entry : termIdMap.entrySet()) {
+			termNames[entry.getValue()] = entry.getKey();
+		}
+		
+		Integer[] order = new Integer[termNames.length];
+		for (int i = 0; i < order.length; i++) order[i] = i;
+		
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer t1, Integer t2) {
+				return termNames[t1].compareTo(termNames[t2]);
+			}
+		});
+		
+		terms         = new String[order.length];
+		postings      = new byte[order.length][];
+		postingCounts = new int[order.length];
+		
+		for (int i = 0; i < order.length; i++) {
+			IntList events = termEvents.get(order[i]);
+			terms[i]         = termNames[order[i]];
+			postings[i]      = compress(events.values, events.size);
+			postingCounts[i] = events.size;
+		}
+		
+		days           = Arrays.copyOf(days, eventCount);
+		minutes        = Arrays.copyOf(minutes, eventCount);
+		descriptionIds = Arrays.copyOf(descriptionIds, eventCount);
+		
+		descriptionIdMap = null;
+		descriptionTerms = null;
+		termIdMap        = null;
+		termEvents       = null;
+		
+		built = true;
+	}
+	
+	/**
+	 * Gets the number of events in the index
+	 * 
+	 * @return
+	 *     the number of events read from the calendar data
+	 */
+	public int size() {
+		build();
+		return eventCount;
+	}
+	
+	/**
+	 * Finds the events that match a query.  All day events found on
+	 * consecutive dates are merged into a multi-day event as they are in
+	 * the two week calendar.
+	 * 
+	 * @param query
+	 *     the query
+	 * @return
+	 *     the matching events in date and time order
+	 */
+	public List<CalendarEvent> search(Query query) {
+		build();
+		
+		List<CalendarEvent> events = new ArrayList<>();
+		
+		long fromDay = Math.max(query.fromDate.toEpochDay(), Integer.MIN_VALUE);
+		long toDay   = Math.min(query.toDate.toEpochDay(), Integer.MAX_VALUE);
+		if (fromDay > toDay) return events;
+		
+		// Only the events between the dates need to be read from the posting lists
+		int firstId = 0;
+		int lastId  = eventCount;
+		
+		if (dateOrder) {
+			firstId = firstEventOnOrAfter(fromDay);
+			lastId  = firstEventOnOrAfter(toDay + 1);
+		}
+		
+		int[] matches = findMatches(query, firstId, lastId);
+		if (matches == null) return events;
+		
+		// Phrases and wards are checked once for each description
+		byte[] descriptionMatches = new byte[descriptions.size()];
+		Map<String, CalendarEvent> allDayEventMap = new HashMap<>();
+		
+		for (int eventId : matches) {
+			if (days[eventId] < fromDay || days[eventId] > toDay) continue;
+			
+			int descriptionId = descriptionIds[eventId];
+			
+			if (descriptionMatches[descriptionId] == 0) {
+				descriptionMatches[descriptionId] = isMatch(query, descriptions.get(descriptionId)) ? (byte) 1 : (byte) 2;
+			}
+			
+			if (descriptionMatches[descriptionId] != 1) continue;
+			
+			String description = descriptions.get(descriptionId);
+			LocalDate date = LocalDate.ofEpochDay(days[eventId]);
+			
+			if (minutes[eventId] < 0) {
+				CalendarEvent event = allDayEventMap.get(description);
+				
+				if (event != null && event.isNextDay(date)) {
+					event.setEndDate(date);
+					continue;
+				}
+				
+				event = new CalendarEvent(date, date, null, description, eventId);
+				allDayEventMap.put(description, event);
+				events.add(event);
+				
+			} else {
+				LocalTime time = LocalTime.ofSecondOfDay(minutes[eventId] * 60L);
+				events.add(new CalendarEvent(date, date, time, description, eventId));
+			}
+		}
+		
+		if (!dateOrder) events.sort(CalendarEvent.DATE_TIME_ORDER);
+		
+		return events;
+	}
+	
+	/**
+	 * Finds the ids of the events between two ids whose descriptions hold
+	 * every term of a query and a term starting with every prefix
+	 * 
+	 * @param query
+	 *     the query
+	 * @param firstId
+	 *     the first event id
+	 * @param lastId
+	 *     the event id after the last event id
+	 * @return
+	 *     the matching event ids in order or null if there are none
+	 */
+	private int[] findMatches(Query query, int firstId, int lastId) {
+		List<Integer> termIndexes = new ArrayList<>();
+		
+		for (String[] phrase : query.phrases) {
+			for (String term : phrase) {
+				int termIndex = Arrays.binarySearch(terms, term);
+				if (termIndex < 0) return null;
+				termIndexes.add(termIndex);
+			}
+		}
+		
+		// Start with the shortest posting list so every other list only filters it
+		termIndexes.sort(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer t1, Integer t2) {
+				return Integer.compare(postingCounts[t1], postingCounts[t2]);
+			}
+		});
+		
+		int[] matches = null;
+		
+		for (int termIndex : termIndexes) {
+			matches = intersect(matches, postings[termIndex], firstId, lastId);
+			if (matches.length == 0) return null;
+		}
+		
+		for (String prefix : query.prefixes) {
+			matches = intersect(matches, getPrefixEvents(prefix, firstId, lastId));
+			if (matches.length == 0) return null;
+		}
+		
+		if (matches == null) {
+			matches = new int[lastId - firstId];
+			for (int i = 0; i < matches.length; i++) matches[i] = firstId + i;
+		}
+		
+		return matches;
+	}
+	
+	/**
+	 * Gets the ids of the events between two ids with a term starting with a prefix
+	 * 
+	 * @param prefix
+	 *     the prefix
+	 * @param firstId
+	 *     the first event id
+	 * @param lastId
+	 *     the event id after the last event id
+	 * @return
+	 *     the event ids in order
+	 */
+	private int[] getPrefixEvents(String prefix, int firstId, int lastId) {
+		IntList events = new IntList();
+		
+		int termIndex = Arrays.binarySearch(terms, prefix);
+		if (termIndex < 0) termIndex = -termIndex - 1;
+		
+		for (; termIndex < terms.length && terms[termIndex].startsWith(prefix); termIndex++) {
+			PostingIterator iterator = new PostingIterator(postings[termIndex]);
+			
+			for (int eventId = iterator.next(); eventId >= 0 && eventId < lastId; eventId = iterator.next()) {
+				if (eventId >= firstId) events.add(eventId);
+			}
+		}
+		
+		int[] values = Arrays.copyOf(events.values, events.size);
+		Arrays.sort(values);
+		
+		// Remove the events listed under more than one term with the prefix
+		int size = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (size == 0 || values[size - 1] != values[i]) values[size++] = values[i];
+		}
+		
+		return Arrays.copyOf(values, size);
+	}
+	
+	/**
+	 * Keeps the event ids that are also in a compressed posting list
+	 * 
+	 * @param matches
+	 *     the event ids in order or null to keep every event in the posting list
+	 * @param posting
+	 *     the compressed posting list
+	 * @param firstId
+	 *     the first event id
+	 * @param lastId
+	 *     the event id after the last event id
+	 * @return
+	 *     the event ids in both lists in order
+	 */
+	private static int[] intersect(int[] matches, byte[] posting, int firstId, int lastId) {
+		IntList events = new IntList();
+		PostingIterator iterator = new PostingIterator(posting);
+		int index = 0;
+		
+		for (int eventId = iterator.next(); eventId >= 0 && eventId < lastId; eventId = iterator.next()) {
+			if (eventId < firstId) continue;
+			
+			if (matches == null) {
+				events.add(eventId);
+				continue;
+			}
+			
+			while (index < matches.length && matches[index] < eventId) index++;
+			if (index == matches.length) break;
+			
+			if (matches[index] == eventId) events.add(eventId);
+		}
+		
+		return Arrays.copyOf(events.values, events.size);
+	}
+	
+	/**
+	 * Keeps the event ids that are in both of two lists
+	 * 
+	 * @param matches
+	 *     the event ids in order or null to keep every event in the other list
+	 * @param events
+	 *     the other event ids in order
+	 * @return
+	 *     the event ids in both lists in order
+	 */
+	private static int[] intersect(int[] matches, int[] events) {
+		if (matches == null) return events;
+		
+		int[] both = new int[Math.min(matches.length, events.length)];
+		int size = 0;
+		
+		for (int i = 0, j = 0; i < matches.length && j < events.length; ) {
+			if (matches[i] < events[j]) {
+				i++;
+			} else if (matches[i] > events[j]) {
+				j++;
+			} else {
+				both[size++] = matches[i];
+				i++;
+				j++;
+			}
+		}
+		
+		return Arrays.copyOf(both, size);
+	}
+	
+	/**
+	 * Determines if a description holds every phrase of a query
+	 * and is not for a ward other than the ward of the query
+	 * 
+	 * @param query
+	 *     the query
+	 * @param description
+	 *     the event description
+	 * @return
+	 *     true if the description matches the query
+	 */
+	private static boolean isMatch(Query query, String description) {
+		if (WardClassifier.isWardEvent(description) && !WardClassifier.isForWard(description, query.wardCode)) {
+			return false;
+		}
+		
+		List<String> words = null;
+		
+		for (String[] phrase : query.phrases) {
+			if (phrase.length < 2) continue;
+			
+			if (words == null) words = getTerms(description);
+			if (!containsPhrase(words, phrase)) return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Determines if a list of terms holds the terms of a phrase in order
+	 * 
+	 * @param words
+	 *     the terms of a description
+	 * @param phrase
+	 *     the terms of the phrase
+	 * @return
+	 *     true if the phrase is found
+	 */
+	private static boolean containsPhrase(List<String> words, String[] phrase) {
+		for (int start = 0; start + phrase.length <= words.size(); start++) {
+			int i = 0;
+			while (i < phrase.length && words.get(start + i).equals(phrase[i])) i++;
+			
+			if (i == phrase.length) return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Finds the first event on or after a date.  Only used when the
+	 * events were read in date order.
+	 * 
+	 * @param day
+	 *     the epoch day of the date
+	 * @return
+	 *     the id of the first event on or after the date
+	 *     or the number of events if there is none
+	 */
+	private int firstEventOnOrAfter(long day) {
+		int low  = 0;
+		int high = eventCount;
+		
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			
+			if (days[middle] < day) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Splits text into lower case terms
+	 * 
+	 * @param text
+	 *     the text
+	 * @return
+	 *     the terms in the order they are found
+	 */
+	static List<String> getTerms(String text) {
+		List<String> words = new ArrayList<>();
+		
+		for (String word : TERM_SEPARATOR.split(text.toLowerCase())) {
+			if (!word.isEmpty()) words.add(word);
+		}
+		
+		return words;
+	}
+	
+	/**
+	 * Compresses a posting list as the difference from each event id to the
+	 * next, written as variable length integers of seven bits per byte
+	 * 
+	 * @param values
+	 *     the event ids in order
+	 * @param size
+	 *     the number of event ids
+	 * @return
+	 *     the compressed posting list
+	 */
+	private static byte[] compress(int[] values, int size) {
+		byte[] data = new byte[size * 5];
+		int position = 0;
+		int previous = -1;
+		
+		for (int i = 0; i < size; i++) {
+			int delta = values[i] - previous;
+			previous  = values[i];
+			
+			while ((delta & ~0x7f) != 0) {
+				data[position++] = (byte) ((delta & 0x7f) | 0x80);
+				delta >>>= 7;
+			}
+			data[position++] = (byte) delta;
+		}
+		
+		return Arrays.copyOf(data, position);
+	}
+	
+	/**
+	 * Loads a saved index if it was saved for the calendar data as it is now
+	 * 
+	 * @param file
+	 *     the index file
+	 * @param calendarData
+	 *     the calendar data file
+	 * @param oldStyleData
+	 *     true if the file contains the old style of calendar data
+	 * @return
+	 *     the saved index or null if there is no current saved index
+	 */
+	private static EventIndex load(File file, File calendarData, boolean oldStyleData) {
+		if (!file.exists()) return null;
+		
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readBoolean() != oldStyleData) return null;
+			if (in.readLong() != calendarData.lastModified() || in.readLong() != calendarData.length()) return null;
+			
+			EventIndex index = new EventIndex();
+			
+			int descriptionCount = in.readInt();
+			for (int i = 0; i < descriptionCount; i++) {
+				index.descriptions.add(readString(in));
+			}
+			
+			index.eventCount     = in.readInt();
+			index.dateOrder      = in.readBoolean();
+			index.days           = new int[index.eventCount];
+			index.minutes        = new short[index.eventCount];
+			index.descriptionIds = new int[index.eventCount];
+			
+			for (int i = 0; i < index.eventCount; i++) {
+				index.days[i]           = in.readInt();
+				index.minutes[i]        = in.readShort();
+				index.descriptionIds[i] = in.readInt();
+			}
+			
+			int termCount = in.readInt();
+			index.terms         = new String[termCount];
+			index.postings      = new byte[termCount][];
+			index.postingCounts = new int[termCount];
+			
+			for (int i = 0; i < termCount; i++) {
+				index.terms[i]         = readString(in);
+				index.postingCounts[i] = in.readInt();
+				index.postings[i]      = new byte[in.readInt()];
+				in.readFully(index.postings[i]);
+			}
+			
+			index.descriptionIdMap = null;
+			index.descriptionTerms = null;
+			index.termIdMap        = null;
+			index.termEvents       = null;
+			index.built            = true;
+			
+			return index;
+			
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Saves the index
+	 * 
+	 * @param file
+	 *     the index file
+	 * @param calendarData
+	 *     the calendar data file the index was read from
+	 * @param oldStyleData
+	 *     true if the file contains the old style of calendar data
+	 * @throws IOException
+	 *     if the file could not be written
+	 */
+	private void save(File file, File calendarData, boolean oldStyleData) throws IOException {
+		build();
+		
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeBoolean(oldStyleData);
+			out.writeLong(calendarData.lastModified());
+			out.writeLong(calendarData.length());
+			
+			out.writeInt(descriptions.size());
+			for (String description : descriptions) {
+				writeString(out, description);
+			}
+			
+			out.writeInt(eventCount);
+			out.writeBoolean(dateOrder);
+			
+			for (int i = 0; i < eventCount; i++) {
+				out.writeInt(days[i]);
+				out.writeShort(minutes[i]);
+				out.writeInt(descriptionIds[i]);
+			}
+			
+			out.writeInt(terms.length);
+			
+			for (int i = 0; i < terms.length; i++) {
+				writeString(out, terms[i]);
+				out.writeInt(postingCounts[i]);
+				out.writeInt(postings[i].length);
+				out.write(postings[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Reads a string of any length from a saved index
+	 * 
+	 * @param in
+	 *     the saved index
+	 * @return
+	 *     the string
+	 * @throws IOException
+	 *     if the string could not be read
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Writes a string of any length to a saved index
+	 * 
+	 * @param out
+	 *     the saved index
+	 * @param text
+	 *     the string
+	 * @throws IOException
+	 *     if the string could not be written
+	 */
+	private static void writeString(DataOutputStream out, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	/***************************************************************************
+	 * A query of the event index
+	 ***************************************************************************/
+	public static final class Query {
+		private final List<String[]> phrases = new ArrayList<>();
+		private final List<String> prefixes  = new ArrayList<>();
+		
+		private LocalDate fromDate = LocalDate.MIN;
+		private LocalDate toDate   = LocalDate.MAX;
+		private String wardCode;
+		
+		private Query() {
+		}
+		
+		/**
+		 * Parses a query.  Words and phrases in quotes must all be found in a
+		 * description, a word ending in * matches any word starting with it,
+		 * and from:MM/DD/YYYY, to:MM/DD/YYYY and ward:CODE limit the events
+		 * to dates and a ward.
+		 * 
+		 * @param text
+		 *     the query
+		 * @return
+		 *     the parsed query
+		 * @throws IllegalArgumentException
+		 *     if a date or ward code is not valid
+		 */
+		public static Query parse(String text) {
+			Query query = new Query();
+			Matcher matcher = QUERY_PART.matcher(text);
+			
+			while (matcher.find()) {
+				if (matcher.group(1) != null) {
+					query.addPhrase(getTerms(matcher.group(1)));
+					continue;
+				}
+				
+				String word = matcher.group(2);
+				String lower = word.toLowerCase();
+				
+				if (lower.startsWith("from:")) {
+					query.setDates(parseDate(word.substring(5)), query.toDate);
+				} else if (lower.startsWith("to:")) {
+					query.setDates(query.fromDate, parseDate(word.substring(3)));
+				} else if (lower.startsWith("ward:")) {
+					query.setWard(word.substring(5));
+				} else if (word.endsWith("*")) {
+					List<String> words = getTerms(word.substring(0, word.length() - 1));
+					if (words.isEmpty()) continue;
+					
+					// A prefix like bishop's* is the term bishop and the prefix s
+					for (String term : words.subList(0, words.size() - 1)) {
+						query.addPhrase(Arrays.asList(term));
+					}
+					query.prefixes.add(words.get(words.size() - 1));
+				} else {
+					query.addPhrase(getTerms(word));
+				}
+			}
+			
+			return query;
+		}
+		
+		/**
+		 * Adds a phrase of one or more terms
+		 * 
+		 * @param words
+		 *     the terms of the phrase
+		 */
+		private void addPhrase(List<String> words) {
+			if (!words.isEmpty()) phrases.add(words.toArray(new String[words.size()]));
+		}
+		
+		/**
+		 * Parses a date in a query
+		 * 
+		 * @param text
+		 *     the date in the format MM/DD/YYYY
+		 * @return
+		 *     the date
+		 * @throws IllegalArgumentException
+		 *     if the date is not valid
+		 */
+		private static LocalDate parseDate(String text) {
+			try {
+				if (CalendarDataReader.DATE_PATTERN.matcher(text).matches()) {
+					return LocalDate.parse(text, CalendarDataReader.DATE_FORMATTER);
+				}
+			} catch (DateTimeParseException e) {
+			}
+			
+			throw new IllegalArgumentException("Invalid date specified!  " + text);
+		}
+		
+		/**
+		 * Limits the query to events that fall within the given dates
+		 * 
+		 * @param fromDate
+		 *     the first date or null for no first date
+		 * @param toDate
+		 *     the last date or null for no last date
+		 */
+		public void setDates(LocalDate fromDate, LocalDate toDate) {
+			this.fromDate = (fromDate == null) ? LocalDate.MIN : fromDate;
+			this.toDate   = (toDate == null) ? LocalDate.MAX : toDate;
+		}
+		
+		/**
+		 * Limits the query to the stake events and the events of a ward
+		 * 
+		 * @param wardCode
+		 *     the ward code or null for the events of every ward
+		 * @throws IllegalArgumentException
+		 *     if the ward code is not valid
+		 */
+		public void setWard(String wardCode) {
+			if (wardCode != null && !WardClassifier.WARD_CODE_PATTERN.matcher(wardCode.toUpperCase()).matches()) {
+				throw new IllegalArgumentException("Invalid ward pattern specified!  " + wardCode);
+			}
+			
+			this.wardCode = (wardCode == null) ? null : wardCode.toUpperCase();
+		}
+		
+		/**
+		 * @return
+		 *     the query in the form it is parsed from
+		 */
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			
+			for (String[] phrase : phrases) {
+				String words = String.join(" ", phrase);
+				sb.append(sb.length() == 0 ? "" : " ").append(phrase.length > 1 ? "\"" + words + "\"" : words);
+			}
+			for (String prefix : prefixes) {
+				sb.append(sb.length() == 0 ? "" : " ").append(prefix).append('*');
+			}
+			if (!fromDate.equals(LocalDate.MIN)) {
+				sb.append(sb.length() == 0 ? "" : " ").append("from:").append(fromDate.format(CalendarDataReader.DATE_FORMATTER));
+			}
+			if (!toDate.equals(LocalDate.MAX)) {
+				sb.append(sb.length() == 0 ? "" : " ").append("to:").append(toDate.format(CalendarDataReader.DATE_FORMATTER));
+			}
+			if (wardCode != null) {
+				sb.append(sb.length() == 0 ? "" : " ").append("ward:").append(wardCode);
+			}
+			
+			return sb.toString();
+		}
+	}
+	
+	/***************************************************************************
+	 * Reads the event ids of a compressed posting list in order
+	 ***************************************************************************/
+	private static class PostingIterator {
+		private final byte[] data;
+		private int position;
+		private int previous = -1;
+		
+		private PostingIterator(byte[] data) {
+			this.data = data;
+		}
+		
+		/**
+		 * @return
+		 *     the next event id or -1 at the end of the posting list
+		 */
+		private int next() {
+			if (position >= data.length) return -1;
+			
+			int delta = 0;
+			int shift = 0;
+			byte b;
+			
+			do {
+				b = data[position++];
+				delta |= (b & 0x7f) << shift;
+				shift += 7;
+			} while (b < 0);
+			
+			previous += delta;
+			return previous;
+		}
+	}
+	
+	/***************************************************************************
+	 * A growable list of primitive ints
+	 ***************************************************************************/
+	private static class IntList {
+		private int[] values = new int[4];
+		private int size;
+		
+		private void add(int value) {
+			if (size == values.length) values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+	}
+}
@@ -0,0 +1,908 @@
+package com.wpw.twoweekcal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/*******************************************************************************
+ * Collects events and returns them in date and time order
+ * 
+ * Events are kept in memory until their estimated size passes the memory
+ * budget.  The events in memory are then sorted and written to a temporary
+ * file as a sorted run.  When the events are read back the sorted runs and
+ * the events still in memory are merged, so an event set larger than the heap
+ * can still be rendered.  With no memory budget the sink never writes to disk
+ * and the events come back in exactly the same order.
+ * 
+ * Most events repeat every week at the same time (seminary, youth nights,
+ * temple shifts), so events at a specific time are kept as weekly series:
+ * one rule of description, weekday, start and end time plus the weeks the
+ * series skips.  Each occurrence only costs its place in the original order,
+ * and the occurrences are expanded as they are read back, only for the dates
+ * that are asked for.  A series costs more than a single event, so an event
+ * at a specific time is held for a week as a candidate and a series is only
+ * started when the same event is added a week later.  A candidate that is
+ * not repeated by then is kept as a single event.
+ * 
+ * The events in memory are kept sorted by date once they are read, so the
+ * events of a few weeks are found with a binary search on the start date
+ * instead of a scan of every event.  The weekly series are kept sorted by
+ * their last occurrence, so the series that ended before the dates asked for
+ * are passed over with a binary search as well and only the series that
+ * overlap the dates are expanded.  This lets any number of calendars of
+ * different dates be rendered from the same sink at the same time.
+ * 
+ * Once a sink is frozen no more events can be added, so its events are read
+ * without taking the lock of the sink and readers never wait on each other.
+ * 
+ * The other events are kept as CompactEvents that share one description for
+ * each description text, and they are only unpacked into CalendarEvents as
+ * they are read back.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class EventSink implements Iterable<CalendarEvent>, Closeable {
+	
+	// Estimated bytes used by a compact event and its place in the list
+	private static final long EVENT_OVERHEAD = 48;
+	
+	// Estimated bytes used by a weekly series not counting its description
+	// and by each occurrence of the series
+	private static final long SERIES_OVERHEAD = 200;
+	private static final long OCCURRENCE_SIZE = 12;
+	
+	private final long memoryBudget;
+	
+	private final List<CompactEvent> events = new ArrayList<>();
+	private final Map<SeriesKey, WeeklySeries> series = new HashMap<>();
+	
+	// Weekly series in order of their last occurrence or null if a series
+	// has been added or changed since they were sorted
+	private WeeklySeries[] seriesByLastDay;
+	
+	// Events at a specific time from the last week that could still start a
+	// weekly series in the order they were added and the latest day added
+	private final Map<SeriesKey, CompactEvent> candidates = new LinkedHashMap<>();
+	private int latestDay = Integer.MIN_VALUE;
+	private final Map<String, EventDescription> descriptions = new LruMap<>(LruMap.DESCRIPTION_ENTRIES);
+	private final List<File> runs = new ArrayList<>();
+	
+	private long memoryUsed;
+	private boolean sorted = true;
+	private int size;
+	
+	// True once no more events can be added
+	private volatile boolean frozen = false;
+	
+	// Most days past its start date that any event not in a weekly series ends
+	private int maxEventDays;
+	
+	/**
+	 * Class constructor for a sink that keeps every event in memory
+	 */
+	public EventSink() {
+		this(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param memoryBudget
+	 *     the estimated number of bytes of events to keep in memory
+	 *     before writing them to disk
+	 */
+	public EventSink(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+	}
+	
+	/**
+	 * Adds an event to the sink.  The event is packed, so it may be changed
+	 * after it is added.
+	 * 
+	 * @param event
+	 *     the event to add
+	 * @throws UncheckedIOException
+	 *     if the events could not be written to disk
+	 */
+	public synchronized void add(CalendarEvent event) {
+		if (frozen) throw new IllegalStateException("Event sink is already frozen!");
+		
+		EventDescription description = descriptions.get(event.getDescription());
+		
+		if (description == null) {
+			description = new EventDescription(event.getDescription());
+			descriptions.put(description.getText(), description);
+		}
+		
+		add(new CompactEvent(event, description));
+	}
+	
+	/**
+	 * Adds an event to the sink
+	 * 
+	 * @param event
+	 *     the event to add
+	 * @throws UncheckedIOException
+	 *     if the events could not be written to disk
+	 * @throws IllegalStateException
+	 *     if the sink is frozen
+	 */
+	public synchronized void add(CompactEvent event) {
+		if (frozen) throw new IllegalStateException("Event sink is already frozen!");
+		
+		size++;
+		
+		if (event.isAllDay()) {
+			addEvent(event);
+			memoryUsed += EVENT_OVERHEAD;
+		} else {
+			addTimedEvent(event);
+		}
+		
+		if (memoryUsed > memoryBudget) {
+			spill();
+		}
+	}
+	
+	/**
+	 * Adds an event at a specific time to its weekly series.  An event with no
+	 * series starts one if it is a week after a candidate for the same series,
+	 * and is otherwise kept as a candidate itself.
+	 * 
+	 * @param event
+	 *     the event to add
+	 */
+	private void addTimedEvent(CompactEvent event) {
+		SeriesKey key = new SeriesKey(event);
+		WeeklySeries weeklySeries = series.get(key);
+		
+		if (weeklySeries != null) {
+			if (weeklySeries.add(event)) {
+				seriesByLastDay = null;
+				memoryUsed += OCCURRENCE_SIZE;
+			} else {
+				addEvent(event);
+				memoryUsed += EVENT_OVERHEAD;
+			}
+			return;
+		}
+		
+		CompactEvent candidate = candidates.remove(key);
+		
+		if (candidate != null && event.getStartDay() - candidate.getStartDay() == 7) {
+			weeklySeries = new WeeklySeries(candidate);
+			weeklySeries.add(event);
+			series.put(key, weeklySeries);
+			seriesByLastDay = null;
+			
+			// The candidate was counted as a single event
+			memoryUsed += SERIES_OVERHEAD + 2L * event.getDescription().length() + OCCURRENCE_SIZE - EVENT_OVERHEAD;
+			return;
+		}
+		
+		if (candidate != null) addEvent(candidate);
+		
+		candidates.put(key, event);
+		memoryUsed += EVENT_OVERHEAD;
+		
+		if (event.getStartDay() > latestDay) {
+			latestDay = event.getStartDay();
+			addOldCandidates();
+		}
+	}
+	
+	/**
+	 * Keeps the candidates that are more than a week older than the latest
+	 * event as single events, since nothing added later can repeat them
+	 */
+	private void addOldCandidates() {
+		Iterator<CompactEvent> iterator = candidates.values().iterator();
+		
+		while (iterator.hasNext()) {
+			CompactEvent candidate = iterator.next();
+			if (latestDay - candidate.getStartDay() <= 7) return;
+			
+			iterator.remove();
+			addEvent(candidate);
+		}
+	}
+	
+	/**
+	 * Keeps every candidate as a single event before the events are read
+	 */
+	private void addCandidates() {
+		for (CompactEvent candidate : candidates.values()) {
+			addEvent(candidate);
+		}
+		
+		candidates.clear();
+	}
+	
+	/**
+	 * Adds an event that is not part of a weekly series.  The memory used by
+	 * the event is counted by the caller.
+	 * 
+	 * @param event
+	 *     the event to add
+	 */
+	private void addEvent(CompactEvent event) {
+		events.add(event);
+		sorted = false;
+		maxEventDays = Math.max(maxEventDays, event.getEndDay() - event.getStartDay());
+	}
+	
+	/**
+	 * Gets the number of events in the sink
+	 * 
+	 * @return
+	 *     the number of events
+	 */
+	public synchronized int size() {
+		return size;
+	}
+	
+	/**
+	 * Sorts the events in memory and stops any more events from being added,
+	 * so the events can be read by any number of threads without locking
+	 */
+	public synchronized void freeze() {
+		if (frozen) return;
+		
+		addCandidates();
+		
+		if (!sorted) {
+			Collections.sort(events, CompactEvent.DATE_TIME_ORDER);
+			sorted = true;
+		}
+		
+		if (seriesByLastDay == null) sortSeries();
+		
+		frozen = true;
+	}
+	
+	/**
+	 * Determines if the sink is frozen
+	 * 
+	 * @return
+	 *     true if no more events can be added
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	/**
+	 * Gets the number of sorted runs that have been written to disk
+	 * 
+	 * @return
+	 *     the number of sorted runs
+	 */
+	public synchronized int getRunCount() {
+		return runs.size();
+	}
+	
+	/**
+	 * Gets an iterator over the events in date and time order
+	 * 
+	 * @return
+	 *     an iterator over the events
+	 * @throws UncheckedIOException
+	 *     if the sorted runs could not be read
+	 */
+	@Override
+	public Iterator<CalendarEvent> iterator() {
+		return iterator(LocalDate.MIN, LocalDate.MAX);
+	}
+	
+	/**
+	 * Gets the events that fall within the given dates.  The occurrences of
+	 * weekly series outside of the dates are never expanded.
+	 * 
+	 * @param startDate
+	 *     the first date of the events
+	 * @param endDate
+	 *     the last date of the events
+	 * @return
+	 *     the events that fall within the dates in date and time order
+	 */
+	public Iterable<CalendarEvent> getEvents(final LocalDate startDate, final LocalDate endDate) {
+		return new Iterable<CalendarEvent>() {
+			@Override
+			public Iterator<CalendarEvent> iterator() {
+				return EventSink.this.iterator(startDate, endDate);
+			}
+		};
+	}
+	
+	/**
+	 * Gets an iterator over the events that fall within the given dates.  The
+	 * events in memory are only read from the first one that could reach the
+	 * start date to the last one that starts by the end date.
+	 * 
+	 * @param startDate
+	 *     the first date of the events
+	 * @param endDate
+	 *     the last date of the events
+	 * @return
+	 *     an iterator over the events in date and time order
+	 * @throws UncheckedIOException
+	 *     if the sorted runs could not be read
+	 */
+	private Iterator<CalendarEvent> iterator(LocalDate startDate, LocalDate endDate) {
+		if (frozen) return createIterator(startDate, endDate);
+		
+		synchronized (this) {
+			addCandidates();
+			
+			if (!sorted) {
+				Collections.sort(events, CompactEvent.DATE_TIME_ORDER);
+				sorted = true;
+			}
+			
+			if (seriesByLastDay == null) sortSeries();
+			
+			return createIterator(startDate, endDate);
+		}
+	}
+	
+	/**
+	 * Creates an iterator over the sorted events that fall within the given
+	 * dates.  The events in memory are copied first unless the sink is frozen.
+	 * 
+	 * @param startDate
+	 *     the first date of the events
+	 * @param endDate
+	 *     the last date of the events
+	 * @return
+	 *     an iterator over the events in date and time order
+	 */
+	private Iterator<CalendarEvent> createIterator(LocalDate startDate, LocalDate endDate) {
+		boolean allDates = startDate.equals(LocalDate.MIN) && endDate.equals(LocalDate.MAX);
+		List<CompactEvent> windowEvents = allDates ? events : getWindowEvents(startDate, endDate);
+		
+		if (runs.isEmpty() && series.isEmpty()) {
+			return new UnpackIterator(windowEvents.iterator(), startDate, endDate);
+		}
+		
+		List<Iterator<CalendarEvent>> iterators = new ArrayList<>();
+		for (File run : runs) {
+			iterators.add(allDates ? new RunIterator(run) : new IncludedIterator(new RunIterator(run), startDate, endDate));
+		}
+		
+		Iterator<CompactEvent> eventIterator = frozen ? windowEvents.iterator() : new ArrayList<>(windowEvents).iterator();
+		iterators.add(new UnpackIterator(eventIterator, startDate, endDate));
+		
+		long startDay = startDate.equals(LocalDate.MIN) ? Long.MIN_VALUE : startDate.toEpochDay();
+		long endDay   = endDate.equals(LocalDate.MAX) ? Long.MAX_VALUE : endDate.toEpochDay();
+		
+		for (int i = getFirstSeriesIndex(startDay); i < seriesByLastDay.length; i++) {
+			WeeklySeries weeklySeries = seriesByLastDay[i];
+			
+			if (weeklySeries.firstDay <= endDay) {
+				iterators.add(weeklySeries.iterator(startDate, endDate));
+			}
+		}
+		
+		return new MergeIterator(iterators);
+	}
+	
+	/**
+	 * Sorts the weekly series by their last occurrence
+	 */
+	private void sortSeries() {
+		seriesByLastDay = series.values().toArray(new WeeklySeries[0]);
+		
+		Arrays.sort(seriesByLastDay, new Comparator<WeeklySeries>() {
+			@Override
+			public int compare(WeeklySeries s1, WeeklySeries s2) {
+				return Integer.compare(s1.getLastDay(), s2.getLastDay());
+			}
+		});
+	}
+	
+	/**
+	 * Finds the first of the sorted weekly series whose last occurrence is on or after a date
+	 * 
+	 * @param day
+	 *     the epoch day of the date
+	 * @return
+	 *     the index of the series or the number of series if every series ends before the date
+	 */
+	private int getFirstSeriesIndex(long day) {
+		int low  = 0;
+		int high = seriesByLastDay.length;
+		
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			
+			if (seriesByLastDay[middle].getLastDay() < day) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Gets the sorted events in memory that could fall within the given dates
+	 * 
+	 * @param startDate
+	 *     the first date of the events
+	 * @param endDate
+	 *     the last date of the events
+	 * @return
+	 *     a view of the events that start between the start date, less the
+	 *     most days any event spans, and the end date
+	 */
+	private List<CompactEvent> getWindowEvents(LocalDate startDate, LocalDate endDate) {
+		int fromIndex = startDate.equals(LocalDate.MIN) ? 0 : getFirstIndex(startDate.toEpochDay() - maxEventDays);
+		int toIndex   = endDate.equals(LocalDate.MAX) ? events.size() : getFirstIndex(endDate.toEpochDay() + 1);
+		
+		return events.subList(fromIndex, Math.max(fromIndex, toIndex));
+	}
+	
+	/**
+	 * Finds the first of the sorted events in memory that starts on or after a date
+	 * 
+	 * @param day
+	 *     the epoch day of the date
+	 * @return
+	 *     the index of the event or the number of events if every event starts before the date
+	 */
+	private int getFirstIndex(long day) {
+		int low  = 0;
+		int high = events.size();
+		
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			
+			if (events.get(middle).getStartDay() < day) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Deletes the sorted runs written to disk
+	 */
+	@Override
+	public synchronized void close() {
+		for (File run : runs) {
+			run.delete();
+		}
+		
+		runs.clear();
+	}
+	
+	/**
+	 * Sorts the events in memory, including the occurrences of the weekly
+	 * series, and writes them to disk as a sorted run
+	 */
+	private void spill() {
+		addCandidates();
+		
+		for (WeeklySeries weeklySeries : series.values()) {
+			for (int i = 0; i < weeklySeries.count; i++) {
+				events.add(weeklySeries.get(i));
+			}
+		}
+		
+		series.clear();
+		seriesByLastDay = null;
+		Collections.sort(events, CompactEvent.DATE_TIME_ORDER);
+		
+		try {
+			File run = File.createTempFile("events", ".run");
+			run.deleteOnExit();
+			runs.add(run);
+			
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+				for (CompactEvent event : events) {
+					byte[] description = event.getDescription().getBytes(StandardCharsets.UTF_8);
+					
+					out.writeLong(event.getSequence());
+					out.writeLong(event.getStartDay());
+					out.writeLong(event.getEndDay());
+					out.writeShort(event.getStartMinute());
+					out.writeShort(event.getEndMinute());
+					out.writeInt(description.length);
+					out.write(description);
+				}
+			}
+			
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		events.clear();
+		sorted = true;
+		memoryUsed = 0;
+	}
+	
+	/***************************************************************************
+	 * Reads the events in a sorted run back from disk
+	 ***************************************************************************/
+	private static class RunIterator implements Iterator<CalendarEvent> {
+		private DataInputStream in;
+		private CalendarEvent next;
+		
+		private RunIterator(File run) {
+			try {
+				in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 1 << 16));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			
+			next = read();
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		
+		@Override
+		public CalendarEvent next() {
+			if (next == null) throw new NoSuchElementException();
+			
+			CalendarEvent event = next;
+			next = read();
+			return event;
+		}
+		
+		/**
+		 * Reads the next event from the sorted run
+		 * 
+		 * @return
+		 *     the next event or null at the end of the run
+		 */
+		private CalendarEvent read() {
+			if (in == null) return null;
+			
+			try {
+				long sequence;
+				try {
+					sequence = in.readLong();
+				} catch (EOFException e) {
+					in.close();
+					in = null;
+					return null;
+				}
+				
+				LocalDate startDate = LocalDate.ofEpochDay(in.readLong());
+				LocalDate endDate   = LocalDate.ofEpochDay(in.readLong());
+				int minute          = in.readShort();
+				int endMinute       = in.readShort();
+				byte[] description  = new byte[in.readInt()];
+				in.readFully(description);
+				
+				LocalTime startTime = (minute < 0) ? null : LocalTime.of(minute / 60, minute % 60);
+				LocalTime endTime   = (endMinute < 0) ? null : LocalTime.of(endMinute / 60, endMinute % 60);
+				
+				return new CalendarEvent(startDate, endDate, startTime, endTime,
+						new String(description, StandardCharsets.UTF_8), sequence);
+				
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/***************************************************************************
+	 * Merges sorted iterators into a single sorted iterator
+	 ***************************************************************************/
+	private static class MergeIterator implements Iterator<CalendarEvent> {
+		private final PriorityQueue<Cursor> queue;
+		
+		private MergeIterator(List<Iterator<CalendarEvent>> iterators) {
+			queue = new PriorityQueue<>(Math.max(1, iterators.size()));
+			
+			for (Iterator<CalendarEvent> iterator : iterators) {
+				if (iterator.hasNext()) {
+					queue.add(new Cursor(iterator));
+				}
+			}
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return !queue.isEmpty();
+		}
+		
+		@Override
+		public CalendarEvent next() {
+			Cursor cursor = queue.poll();
+			if (cursor == null) throw new NoSuchElementException();
+			
+			CalendarEvent event = cursor.current;
+			
+			if (cursor.iterator.hasNext()) {
+				cursor.current = cursor.iterator.next();
+				queue.add(cursor);
+			}
+			
+			return event;
+		}
+	}
+	
+	/***************************************************************************
+	 * The current event of one of the merged iterators
+	 ***************************************************************************/
+	private static class Cursor implements Comparable<Cursor> {
+		private final Iterator<CalendarEvent> iterator;
+		private CalendarEvent current;
+		
+		private Cursor(Iterator<CalendarEvent> iterator) {
+			this.iterator = iterator;
+			this.current  = iterator.next();
+		}
+		
+		@Override
+		public int compareTo(Cursor other) {
+			return CalendarEvent.DATE_TIME_ORDER.compare(current, other.current);
+		}
+	}
+	
+	/***************************************************************************
+	 * Identifies the weekly series of an event at a specific time
+	 ***************************************************************************/
+	private static class SeriesKey {
+		private final String description;
+		private final int startMinute;
+		private final int endMinute;
+		private final int dayOfWeek;
+		
+		private SeriesKey(CompactEvent event) {
+			this.description = event.getDescription();
+			this.startMinute = event.getStartMinute();
+			this.endMinute   = event.getEndMinute();
+			this.dayOfWeek   = Math.floorMod(event.getStartDay(), 7);
+		}
+		
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof SeriesKey)) return false;
+			
+			SeriesKey other = (SeriesKey) object;
+			return startMinute == other.startMinute && endMinute == other.endMinute &&
+					dayOfWeek == other.dayOfWeek && description.equals(other.description);
+		}
+		
+		@Override
+		public int hashCode() {
+			return ((description.hashCode() * 31 + startMinute) * 31 + endMinute) * 31 + dayOfWeek;
+		}
+	}
+	
+	/***************************************************************************
+	 * An event that repeats on the same weekday at the same time, kept as the
+	 * first date of the series, the week of each occurrence after it (so the
+	 * weeks that are skipped are the exceptions) and the place of each
+	 * occurrence in the original order
+	 ***************************************************************************/
+	private static class WeeklySeries {
+		private final EventDescription description;
+		private final int startMinute;
+		private final int endMinute;
+		private final int firstDay;
+		
+		private int[] weeks = new int[4];
+		private long[] sequences = new long[4];
+		private int count;
+		
+		private WeeklySeries(CompactEvent event) {
+			this.description = event.getEventDescription();
+			this.startMinute = event.getStartMinute();
+			this.endMinute   = event.getEndMinute();
+			this.firstDay    = event.getStartDay();
+			
+			weeks[count]       = 0;
+			sequences[count++] = event.getSequence();
+		}
+		
+		/**
+		 * Adds an occurrence to the series
+		 * 
+		 * @param event
+		 *     an event with the same description, weekday, start time and end time
+		 * @return
+		 *     false if the event does not come after the last occurrence
+		 *     and must be kept on its own
+		 */
+		private boolean add(CompactEvent event) {
+			int week = (event.getStartDay() - firstDay) / 7;
+			
+			if (week <= weeks[count - 1]) return false;
+			
+			if (count == weeks.length) {
+				weeks     = Arrays.copyOf(weeks, count * 2);
+				sequences = Arrays.copyOf(sequences, count * 2);
+			}
+			
+			weeks[count]       = week;
+			sequences[count++] = event.getSequence();
+			return true;
+		}
+		
+		/**
+		 * Gets the epoch day of the last occurrence of the series
+		 * 
+		 * @return
+		 *     the epoch day
+		 */
+		private int getLastDay() {
+			return firstDay + 7 * weeks[count - 1];
+		}
+		
+		/**
+		 * Gets an occurrence of the series
+		 * 
+		 * @param index
+		 *     the index of the occurrence
+		 * @return
+		 *     the occurrence
+		 */
+		private CompactEvent get(int index) {
+			int day = firstDay + 7 * weeks[index];
+			return new CompactEvent(day, day, startMinute, endMinute, description, sequences[index]);
+		}
+		
+		/**
+		 * Gets an iterator over the occurrences that fall within the given dates
+		 * 
+		 * @param startDate
+		 *     the first date of the occurrences
+		 * @param endDate
+		 *     the last date of the occurrences
+		 * @return
+		 *     an iterator over the occurrences in date order
+		 */
+		private Iterator<CalendarEvent> iterator(LocalDate startDate, LocalDate endDate) {
+			long startDay = Math.max(firstDay, startDate.toEpochDay());
+			long endDay   = Math.min(firstDay + 7L * weeks[count - 1], endDate.toEpochDay());
+			
+			if (startDay > endDay) return Collections.<CalendarEvent>emptyIterator();
+			
+			final int lastWeek = (int) ((endDay - firstDay) / 7);
+			final int end = count;
+			
+			int first = Arrays.binarySearch(weeks, 0, end, (int) ((startDay - firstDay + 6) / 7));
+			final int firstIndex = (first < 0) ? -first - 1 : first;
+			
+			return new Iterator<CalendarEvent>() {
+				private int index = firstIndex;
+				
+				@Override
+				public boolean hasNext() {
+					return index < end && weeks[index] <= lastWeek;
+				}
+				
+				@Override
+				public CalendarEvent next() {
+					if (!hasNext()) throw new NoSuchElementException();
+					
+					return get(index++).toCalendarEvent();
+				}
+			};
+		}
+	}
+	
+	/***************************************************************************
+	 * Unpacks the compact events of an iterator that fall within the given
+	 * dates, so the events outside of the dates are never unpacked
+	 ***************************************************************************/
+	private static class UnpackIterator implements Iterator<CalendarEvent> {
+		private final Iterator<CompactEvent> iterator;
+		private final long startDay;
+		private final long endDay;
+		private CompactEvent next;
+		
+		private UnpackIterator(Iterator<CompactEvent> iterator, LocalDate startDate, LocalDate endDate) {
+			this.iterator = iterator;
+			this.startDay = startDate.equals(LocalDate.MIN) ? Long.MIN_VALUE : startDate.toEpochDay();
+			this.endDay   = endDate.equals(LocalDate.MAX) ? Long.MAX_VALUE : endDate.toEpochDay();
+			advance();
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		
+		@Override
+		public CalendarEvent next() {
+			if (next == null) throw new NoSuchElementException();
+			
+			CompactEvent event = next;
+			advance();
+			return event.toCalendarEvent();
+		}
+		
+		private void advance() {
+			next = null;
+			
+			while (iterator.hasNext()) {
+				CompactEvent event = iterator.next();
+				
+				if (event.isIncluded(startDay, endDay)) {
+					next = event;
+					return;
+				}
+			}
+		}
+	}
+	
+	/***************************************************************************
+	 * Returns only the events of an iterator that fall within the given dates
+	 ***************************************************************************/
+	private static class IncludedIterator implements Iterator<CalendarEvent> {
+		private final Iterator<CalendarEvent> iterator;
+		private final LocalDate startDate;
+		private final LocalDate endDate;
+		private CalendarEvent next;
+		
+		private IncludedIterator(Iterator<CalendarEvent> iterator, LocalDate startDate, LocalDate endDate) {
+			this.iterator  = iterator;
+			this.startDate = startDate;
+			this.endDate   = endDate;
+			advance();
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		
+		@Override
+		public CalendarEvent next() {
+			if (next == null) throw new NoSuchElementException();
+			
+			CalendarEvent event = next;
+			advance();
+			return event;
+		}
+		
+		private void advance() {
+			next = null;
+			
+			while (iterator.hasNext()) {
+				CalendarEvent event = iterator.next();
+				
+				if (event.isIncluded(startDate, endDate)) {
+					next = event;
+					return;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.wpw.twoweekcal;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+
+import com.wpw.events.AbstractEventSnapshot;
+
+/*******************************************************************************
+ * A snapshot of the events selected for an output document
+ * 
+ * The snapshot is built by a render pass like any other output and is saved
+ * next to the output document.  On the next run the new snapshot is compared
+ * with the saved one to decide if the document needs to be written again.
+ * Each event is saved on one line as tab separated fields:
+ * 
+ *     section, start date, end date, start time, description
+ * 
+ * An event is known by its section, start date and description, so the end
+ * date and start time of an event can change without changing the event.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public class EventSnapshot extends AbstractEventSnapshot implements CalendarRenderer {
+	
+	// Marks the line holding the calendar dates
+	private static final String HEADER = "#";
+	
+	private String section = "";
+	
+	/**
+	 * Class constructor
+	 */
+	public EventSnapshot() {
+		super(5, 0, 1, 4);
+	}
+	
+	/**
+	 * Loads a saved snapshot
+	 * 
+	 * @param file
+	 *     the snapshot file
+	 * @return
+	 *     the saved snapshot or an empty snapshot if the file does not exist
+	 * @throws IOException
+	 *     if the file could not be read
+	 */
+	public static EventSnapshot load(File file) throws IOException {
+		EventSnapshot snapshot = new EventSnapshot();
+		snapshot.read(file);
+		return snapshot;
+	}
+	
+	@Override
+	public void startCalendar(LocalDate startDate, LocalDate endDate) throws IOException {
+		lines.add(HEADER + '\t' + startDate + '\t' + endDate);
+	}
+	
+	@Override
+	public void startSection(String title) throws IOException {
+		section = escape(title);
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event, boolean showDate) throws IOException {
+		String time = event.isAllDay() ? "" : event.getStartTime().toString();
+		
+		lines.add(section + '\t' + event.getStartDate() + '\t' + event.getEndDate() + '\t' +
+				time + '\t' + escape(event.getDescription()));
+	}
+	
+	@Override
+	public void endSection() throws IOException {
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+	}
+	
+	@Override
+	protected String format(String[] fields) {
+		String dates = fields[1].equals(fields[2]) ? fields[1] : fields[1] + " - " + fields[2];
+		return String.format("%-14s %-23s %-5s %s", fields[0], dates, fields[3], fields[4]);
+	}
+	
+	@Override
+	protected String getOrderChangedNote() {
+		return "(calendar dates or event order changed)";
+	}
+}
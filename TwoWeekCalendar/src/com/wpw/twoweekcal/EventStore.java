@@ -0,0 +1,143 @@
+package com.wpw.twoweekcal;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.wpw.events.MetricsRegistry;
+
+/*******************************************************************************
+ * Holds the current version of the calendar data as a CalendarIndex
+ * 
+ * A new version is loaded off to the side while the current version is still
+ * being read, then it is published with a single atomic swap.  Each version is
+ * frozen before it is published and never changed afterwards, so a reader only
+ * has to get the current version once to see a complete calendar for as long
+ * as it needs it, and it never waits on a load or sees a calendar that is half
+ * loaded.  A reader that started with an older version keeps it, and the older
+ * version is reclaimed by the garbage collector once no reader holds it.
+ * 
+ * Only the loads wait on each other, so two loads never read the calendar data
+ * at the same time and a version is never replaced by one loaded before it.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class EventStore {
+	
+	private static final MetricsRegistry.Histogram LOAD_SECONDS = MetricsRegistry.getDefault().histogram(
+			"twoweekcal_store_load_seconds", "Time spent loading each version of the calendar data");
+	private static final MetricsRegistry.Counter PUBLISHED = MetricsRegistry.getDefault().counter(
+			"twoweekcal_store_versions_published_total", "Versions of the calendar data published");
+	private static final MetricsRegistry.Counter LOAD_ERRORS = MetricsRegistry.getDefault().counter(
+			"twoweekcal_store_load_errors_total", "Versions of the calendar data that could not be loaded");
+	
+	private final File calendarData;
+	private final boolean oldStyleData;
+	
+	// The published version, which readers get without locking
+	private final AtomicReference<CalendarIndex> current = new AtomicReference<>();
+	
+	// Held while a version is loaded and published, never by readers
+	private final Object loadLock = new Object();
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param calendarData
+	 *     the calendar data file
+	 * @param oldStyleData
+	 *     true if the file contains the old style of calendar data
+	 */
+	public EventStore(File calendarData, boolean oldStyleData) {
+		this.calendarData = calendarData;
+		this.oldStyleData = oldStyleData;
+	}
+	
+	/**
+	 * Gets the current version of the calendar data.  This never waits on a
+	 * load, and the version returned is never changed.
+	 * 
+	 * @return
+	 *     the current version or null if no version has been loaded
+	 */
+	public CalendarIndex current() {
+		return current.get();
+	}
+	
+	/**
+	 * Determines if a version is still the current version
+	 * 
+	 * @param calendarIndex
+	 *     the version
+	 * @return
+	 *     true if no newer version has been published
+	 */
+	public boolean isCurrent(CalendarIndex calendarIndex) {
+		return current.get() == calendarIndex;
+	}
+	
+	/**
+	 * Loads a new version of the calendar data and publishes it
+	 * 
+	 * @return
+	 *     the new version or null if there were errors reading the data,
+	 *     in which case the current version is kept
+	 */
+	public CalendarIndex load() {
+		synchronized (loadLock) {
+			return loadVersion();
+		}
+	}
+	
+	/**
+	 * Loads and publishes a new version of the calendar data if the data or
+	 * any of the skipped event files have changed since the current version
+	 * was loaded
+	 * 
+	 * @return
+	 *     the new version or null if nothing changed or there
+	 *     were errors reading the data
+	 */
+	public CalendarIndex reloadIfChanged() {
+		synchronized (loadLock) {
+			CalendarIndex calendarIndex = current.get();
+			if (calendarIndex != null && calendarIndex.isCurrent(calendarData)) return null;
+			
+			return loadVersion();
+		}
+	}
+	
+	/**
+	 * Loads a new version and swaps it in as the current version.  The caller
+	 * holds the load lock.
+	 * 
+	 * @return
+	 *     the new version or null if there were errors reading the data
+	 */
+	private CalendarIndex loadVersion() {
+		long start = System.nanoTime();
+		CalendarIndex calendarIndex = CalendarIndex.load(calendarData, oldStyleData);
+		LOAD_SECONDS.observeSince(start);
+		
+		if (calendarIndex == null) {
+			LOAD_ERRORS.increment();
+			return null;
+		}
+		
+		current.set(calendarIndex);
+		PUBLISHED.increment();
+		return calendarIndex;
+	}
+	
+	/**
+	 * Gets the calendar data file
+	 * 
+	 * @return
+	 *     the calendar data file
+	 */
+	public File getCalendarData() {
+		return calendarData;
+	}
+}
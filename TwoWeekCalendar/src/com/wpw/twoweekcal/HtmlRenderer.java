@@ -0,0 +1,69 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+import com.wpw.events.XmlEscaper;
+
+/*******************************************************************************
+ * Renders the two week calendar as an HTML web page
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class HtmlRenderer implements CalendarRenderer {
+	
+	private final Writer writer;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param writer
+	 *     the writer the web page is written to
+	 */
+	public HtmlRenderer(Writer writer) {
+		this.writer = writer;
+	}
+	
+	@Override
+	public void startCalendar(LocalDate startDate, LocalDate endDate) throws IOException {
+		String dates = XmlEscaper.escape(CalendarEvent.getCalendarDates(startDate, endDate, true));
+		
+		writer.write("<!DOCTYPE html>\n");
+		writer.write("<html>\n<head>\n<meta charset=\"UTF-8\">\n");
+		writer.write("<title>Two Week Calendar " + dates + "</title>\n");
+		writer.write("<style>body{font-family:\"Times New Roman\",serif}" +
+				"td{padding:0 1em 0 0;vertical-align:top}td.date{width:9em}td.time{width:6em}</style>\n");
+		writer.write("</head>\n<body>\n");
+		writer.write("<h1>" + dates + "</h1>\n");
+	}
+	
+	@Override
+	public void startSection(String title) throws IOException {
+		writer.write("<h2>" + XmlEscaper.escape(title) + "</h2>\n");
+		writer.write("<table>\n");
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event, boolean showDate) throws IOException {
+		String date = showDate ? event.getDateString(true) : "";
+		
+		writer.write("<tr><td class=\"date\">" + XmlEscaper.escape(date) + "</td>");
+		writer.write("<td class=\"time\">" + XmlEscaper.escape(event.getTimeString()) + "</td>");
+		writer.write("<td>" + XmlEscaper.escape(event.getDescription()) + "</td></tr>\n");
+	}
+	
+	@Override
+	public void endSection() throws IOException {
+		writer.write("</table>\n");
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		writer.write("</body>\n</html>\n");
+		writer.flush();
+	}
+}
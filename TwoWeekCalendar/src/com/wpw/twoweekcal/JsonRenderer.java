@@ -0,0 +1,113 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/*******************************************************************************
+ * Renders the two week calendar as a JSON feed
+ * 
+ * Dates are written in ISO format (yyyy-mm-dd) and times in 24 hour format
+ * (hh:mm) along with the same display strings used in the other formats.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class JsonRenderer implements CalendarRenderer {
+	
+	private final Writer writer;
+	
+	private boolean firstSection;
+	private boolean firstEvent;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param writer
+	 *     the writer the feed is written to
+	 */
+	public JsonRenderer(Writer writer) {
+		this.writer = writer;
+	}
+	
+	@Override
+	public void startCalendar(LocalDate startDate, LocalDate endDate) throws IOException {
+		writer.write("{\n");
+		writer.write("  \"startDate\": \"" + startDate + "\",\n");
+		writer.write("  \"endDate\": \"" + endDate + "\",\n");
+		writer.write("  \"title\": " + quote(CalendarEvent.getCalendarDates(startDate, endDate, true)) + ",\n");
+		writer.write("  \"sections\": [");
+		firstSection = true;
+	}
+	
+	@Override
+	public void startSection(String title) throws IOException {
+		writer.write(firstSection ? "\n" : ",\n");
+		writer.write("    {\n");
+		writer.write("      \"title\": " + quote(title) + ",\n");
+		writer.write("      \"events\": [");
+		firstSection = false;
+		firstEvent   = true;
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event, boolean showDate) throws IOException {
+		writer.write(firstEvent ? "\n" : ",\n");
+		writer.write("        {\"startDate\": \"" + event.getStartDate() + "\"");
+		writer.write(", \"endDate\": \"" + event.getEndDate() + "\"");
+		writer.write(", \"time\": " + (event.isAllDay() ? "null" : "\"" + event.getStartTime() + "\""));
+		writer.write(", \"allDay\": " + event.isAllDay());
+		writer.write(", \"date\": " + quote(event.getDateString(true)));
+		writer.write(", \"timeString\": " + quote(event.getTimeString()));
+		writer.write(", \"description\": " + quote(event.getDescription()) + "}");
+		firstEvent = false;
+	}
+	
+	@Override
+	public void endSection() throws IOException {
+		writer.write(firstEvent ? "]\n" : "\n      ]\n");
+		writer.write("    }");
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		writer.write(firstSection ? "]\n" : "\n  ]\n");
+		writer.write("}\n");
+		writer.flush();
+	}
+	
+	/**
+	 * Quotes and escapes a string for JSON
+	 * 
+	 * @param text
+	 *     the text to quote
+	 * @return
+	 *     the quoted text
+	 */
+	static String quote(String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 8);
+		sb.append('"');
+		
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			switch (c) {
+				case '"':  sb.append("\\\""); break;
+				case '\\': sb.append("\\\\"); break;
+				case '\n': sb.append("\\n");  break;
+				case '\r': sb.append("\\r");  break;
+				case '\t': sb.append("\\t");  break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		
+		return sb.append('"').toString();
+	}
+}
@@ -0,0 +1,462 @@
+package com.wpw.twoweekcal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import com.wpw.events.UpcomingEvents;
+
+/*******************************************************************************
+ * Measures the throughput of the two week calendar and upcoming events
+ * 
+ * Calendar data of each requested size is generated into a temporary directory
+ * and each tool is run end-to-end on it in a separate JVM.  The events per
+ * second, peak resident memory and output size of each run are reported and
+ * the throughput is compared with a stored baseline.  The harness exits with
+ * a status of 1 when the throughput of any run falls further below the
+ * baseline than the allowed tolerance.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public class LoadHarness {
+	
+	// Stored throughput baseline
+	public static final File LOAD_BASELINE = new File("load_baseline.txt");
+	
+	// Prefix of the measurements printed by each run
+	private static final String RESULT_PREFIX = "LOAD-RESULT";
+	
+	private static final String TWO_WEEK = "two-week";
+	private static final String UPCOMING = "upcoming";
+	
+	private List<Integer> eventCounts = new ArrayList<>();
+	private boolean oldStyleData = false;
+	private boolean saveBaseline = false;
+	private int tolerance = 20;
+	private LocalDate startDate = CalendarDataGenerator.START_DATE;
+	private String runTool;
+	
+	/**
+	 * Main method for the load harness
+	 * 
+	 * @param args
+	 *     the arguments passed to the application
+	 */
+	public static void main(String[] args) {
+		LoadHarness loadHarness = new LoadHarness();
+		List<String> toolArgs = loadHarness.parseArgs(args);
+		
+		if (loadHarness.runTool != null) {
+			runTool(loadHarness.runTool, toolArgs.toArray(new String[0]));
+		} else if (!loadHarness.run()) {
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Parses the arguments passed to the application
+	 * and sets the appropriate settings
+	 * 
+	 * @param args
+	 *     the arguments passed to the application
+	 * @return
+	 *     the arguments that follow -r to pass to the tool
+	 */
+	private List<String> parseArgs(String[] args) {
+		List<String> toolArgs = new ArrayList<>();
+		
+		for (String arg : args) {
+			if (runTool != null) {
+				toolArgs.add(arg);
+				
+			} else if (arg.equals("-o")) {
+				oldStyleData = true;
+				
+			} else if (arg.equals("-b")) {
+				saveBaseline = true;
+				
+			} else if (arg.equals("-h")) {
+				showUsage();
+				System.exit(0);
+				
+			} else if (arg.startsWith("-r")) {
+				runTool = arg.substring(2);
+				
+			} else if (arg.startsWith("-s")) {
+				if (!CalendarDataReader.DATE_PATTERN.matcher(arg.substring(2)).matches()) {
+					System.out.println("Invalid start date specified!  " + arg.substring(2));
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				startDate = LocalDate.parse(arg.substring(2), CalendarDataReader.DATE_FORMATTER);
+				
+			} else if (arg.startsWith("-n") || arg.startsWith("-t")) {
+				try {
+					if (arg.startsWith("-n")) {
+						for (String count : arg.substring(2).split(",")) {
+							eventCounts.add(Integer.parseInt(count.trim()));
+						}
+					} else {
+						tolerance = Integer.parseInt(arg.substring(2));
+					}
+					
+				} catch (NumberFormatException e) {
+					System.out.println("Invalid number specified!  " + arg.substring(2));
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				
+			} else {
+				System.out.println("Invalid argument passed!  " + arg);
+				System.out.println("");
+				showUsage();
+				System.exit(0);
+			}
+		}
+		
+		if (eventCounts.isEmpty()) {
+			eventCounts.add(1000);
+			eventCounts.add(10000);
+			eventCounts.add(100000);
+		}
+		
+		return toolArgs;
+	}
+	
+	/**
+	 * Runs both tools on each size of calendar data and compares the
+	 * throughput with the stored baseline
+	 * 
+	 * @return
+	 *     true if no run regressed beyond the tolerance
+	 */
+	private boolean run() {
+		Properties baseline = loadBaseline();
+		boolean passed = true;
+		
+		System.out.println(String.format("%-10s %-5s %9s %9s %12s %10s %11s %12s  %s",
+				"Tool", "Style", "Events", "Seconds", "Events/sec", "Peak RSS", "Output", "Baseline", "Status"));
+		
+		for (int eventCount : eventCounts) {
+			File directory = null;
+			
+			try {
+				directory = Files.createTempDirectory("load").toFile();
+				copySkipFiles(directory);
+				
+				int written = new CalendarDataGenerator(eventCount, oldStyleData)
+						.generate(new File(directory, CalendarDataGenerator.CALENDAR_DATA.getName()), startDate, eventCount);
+				
+				List<String> tools = new ArrayList<>();
+				tools.add(TWO_WEEK);
+				
+				// Upcoming events only reads the new style of calendar data
+				if (!oldStyleData) tools.add(UPCOMING);
+				
+				for (String tool : tools) {
+					long[] result = runChild(directory, tool);
+					if (result == null) {
+						passed = false;
+						continue;
+					}
+					
+					long elapsed         = result[0];
+					long peakRss         = result[1];
+					long eventsPerSecond = (elapsed > 0) ? written * 1000000000L / elapsed : 0;
+					long outputSize      = getOutputSize(directory);
+					
+					String key = String.format("%s.%s.%d", tool, oldStyleData ? "old" : "new", eventCount);
+					String status = "NEW";
+					long expected = 0;
+					
+					if (baseline.containsKey(key)) {
+						expected = Long.parseLong(baseline.getProperty(key));
+						
+						if (eventsPerSecond * 100 < expected * (100 - tolerance)) {
+							status = "REGRESSED";
+							passed = false;
+						} else {
+							status = "OK";
+						}
+					}
+					
+					if (saveBaseline) {
+						baseline.setProperty(key, Long.toString(eventsPerSecond));
+					}
+					
+					System.out.println(String.format("%-10s %-5s %9d %9.3f %12d %8dMB %9dKB %12s  %s",
+							tool, oldStyleData ? "old" : "new", written, elapsed / 1e9, eventsPerSecond,
+							peakRss >> 20, outputSize >> 10, (expected > 0) ? Long.toString(expected) : "-", status));
+					
+					deleteOutputFiles(directory);
+				}
+				
+			} catch (IOException e) {
+				e.printStackTrace();
+				passed = false;
+				
+			} finally {
+				if (directory != null) {
+					for (File file : directory.listFiles()) {
+						file.delete();
+					}
+					directory.delete();
+				}
+			}
+		}
+		
+		if (saveBaseline) {
+			saveBaseline(baseline);
+		}
+		
+		if (!passed) {
+			System.out.println("");
+			System.out.println("Error:  Throughput regressed more than " + tolerance + "% below " + LOAD_BASELINE);
+		}
+		
+		return passed;
+	}
+	
+	/**
+	 * Runs a tool in a separate JVM in the given directory
+	 * 
+	 * @param directory
+	 *     the directory containing the calendar data
+	 * @param tool
+	 *     the tool to run
+	 * @return
+	 *     the elapsed nanoseconds and peak resident memory of the run
+	 *     or null if the run failed
+	 * @throws IOException
+	 *     if the JVM could not be started
+	 */
+	private long[] runChild(File directory, String tool) throws IOException {
+		List<String> command = new ArrayList<>();
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(LoadHarness.class.getName());
+		command.add("-r" + tool);
+		
+		if (tool.equals(TWO_WEEK)) {
+			command.add("-a");
+			if (oldStyleData) command.add("-o");
+		}
+		
+		ProcessBuilder processBuilder = new ProcessBuilder(command);
+		processBuilder.directory(directory);
+		processBuilder.redirectErrorStream(true);
+		
+		Process process = processBuilder.start();
+		long[] result = null;
+		
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(RESULT_PREFIX)) {
+					String[] fields = line.split(" ");
+					result = new long[] { Long.parseLong(fields[1]), Long.parseLong(fields[2]) };
+				} else if (line.startsWith("Error") || line.startsWith("Exception") || line.startsWith("\tat ")) {
+					System.out.println(tool + ":  " + line);
+				}
+			}
+		}
+		
+		try {
+			if (process.waitFor() != 0) result = null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result = null;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Runs a tool in this JVM and prints the elapsed nanoseconds
+	 * and peak resident memory of the run
+	 * 
+	 * @param tool
+	 *     the tool to run
+	 * @param args
+	 *     the arguments to pass to the tool
+	 */
+	private static void runTool(String tool, String[] args) {
+		long start = System.nanoTime();
+		
+		if (tool.equals(TWO_WEEK)) {
+			TwoWeekCalendar.main(args);
+		} else if (tool.equals(UPCOMING)) {
+			UpcomingEvents.main(args);
+		} else {
+			System.out.println("Invalid tool specified!  " + tool);
+			System.exit(1);
+		}
+		
+		long elapsed = System.nanoTime() - start;
+		System.out.println(RESULT_PREFIX + " " + elapsed + " " + getPeakRss());
+	}
+	
+	/**
+	 * Gets the peak resident memory of this JVM from /proc on Linux or
+	 * the peak usage of the JVM memory pools on other systems
+	 * 
+	 * @return
+	 *     the peak memory in bytes
+	 */
+	private static long getPeakRss() {
+		File status = new File("/proc/self/status");
+		
+		if (status.exists()) {
+			try {
+				for (String line : Files.readAllLines(status.toPath(), StandardCharsets.UTF_8)) {
+					if (line.startsWith("VmHWM:")) {
+						return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+					}
+				}
+			} catch (IOException | NumberFormatException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+	
+	/**
+	 * Copies the skip files in the current directory so each tool
+	 * skips the same events it would in a normal run
+	 * 
+	 * @param directory
+	 *     the directory the tools will be run in
+	 * @throws IOException
+	 *     if a skip file could not be copied
+	 */
+	private static void copySkipFiles(File directory) throws IOException {
+		File[] skipFiles = new File(".").listFiles();
+		if (skipFiles == null) return;
+		
+		for (File file : skipFiles) {
+			if (file.getName().startsWith("skip_") && file.getName().endsWith(".txt")) {
+				Files.copy(file.toPath(), new File(directory, file.getName()).toPath());
+			}
+		}
+	}
+	
+	/**
+	 * Gets the total size of the files written by a tool
+	 * 
+	 * @param directory
+	 *     the directory the tool was run in
+	 * @return
+	 *     the total size in bytes
+	 */
+	private static long getOutputSize(File directory) {
+		long size = 0;
+		
+		for (File file : directory.listFiles()) {
+			if (!file.getName().equals(CalendarDataGenerator.CALENDAR_DATA.getName())) {
+				size += file.length();
+			}
+		}
+		
+		return size;
+	}
+	
+	/**
+	 * Deletes the files written by a tool so the next tool starts clean
+	 * 
+	 * @param directory
+	 *     the directory the tool was run in
+	 */
+	private static void deleteOutputFiles(File directory) {
+		for (File file : directory.listFiles()) {
+			if (!file.getName().equals(CalendarDataGenerator.CALENDAR_DATA.getName())) {
+				file.delete();
+			}
+		}
+	}
+	
+	/**
+	 * Loads the stored throughput baseline
+	 * 
+	 * @return
+	 *     the events per second of each tool, style and size
+	 */
+	private static Properties loadBaseline() {
+		Properties baseline = new Properties();
+		
+		if (LOAD_BASELINE.exists()) {
+			try (InputStream in = new FileInputStream(LOAD_BASELINE)) {
+				baseline.load(in);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		return baseline;
+	}
+	
+	/**
+	 * Saves the throughput baseline
+	 * 
+	 * @param baseline
+	 *     the events per second of each tool, style and size
+	 */
+	private static void saveBaseline(Properties baseline) {
+		try (OutputStream out = new FileOutputStream(LOAD_BASELINE)) {
+			baseline.store(out, "Events per second of each tool, style and number of events");
+			System.out.println("");
+			System.out.println("Baseline saved to " + LOAD_BASELINE);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Shows the usage instructions for the application
+	 */
+	private static void showUsage() {
+		System.out.println("");
+		System.out.println("This application measures the throughput of the two week calendar and");
+		System.out.println("upcoming events on generated calendar data.");
+		System.out.println("");
+		System.out.println("Usage:");
+		System.out.println("    java -cp TwoWeekCalendar.jar com.wpw.twoweekcal.LoadHarness [-o] [-b] [-h] [-nCOUNTS] [-tPERCENT] [-sDATE]");
+		System.out.println("");
+		System.out.println("Optional Flags:");
+		System.out.println("    -o - generate old style calendar data (two week calendar only)");
+		System.out.println("    -b - save the measured throughput as the new baseline");
+		System.out.println("    -h - help - show these usage instructions");
+		System.out.println("    -n - the numbers of events to generate");
+		System.out.println("         followed by a comma separated list (default 1000,10000,100000)");
+		System.out.println("         (E.g. java -cp TwoWeekCalendar.jar com.wpw.twoweekcal.LoadHarness -n1000,1000000)");
+		System.out.println("    -t - the percentage the throughput may fall below the baseline (default 20)");
+		System.out.println("    -s - the date of the first generated event in the format mm/dd/yyyy (default "
+				+ CalendarDataGenerator.START_DATE.format(CalendarDataReader.DATE_FORMATTER) + ")");
+		System.out.println("");
+		System.out.println("The baseline is stored in " + LOAD_BASELINE + " in the current directory.");
+		System.out.println("");
+	}
+}
@@ -0,0 +1,45 @@
+package com.wpw.twoweekcal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*******************************************************************************
+ * A map that holds at most a fixed number of entries and drops the least
+ * recently used entry when it is full
+ * 
+ * It is used for the maps of descriptions that only save work, such as the
+ * shared description of each event text and the skip rule of each event text,
+ * so a calendar with any number of different descriptions keeps only the
+ * descriptions it has seen most recently.  A description that was dropped is
+ * simply classified again the next time it is seen.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+final class LruMap<K, V> extends LinkedHashMap<K, V> {
+	
+	private static final long serialVersionUID = 1L;
+	
+	// Entries kept by the description maps of the calendar
+	static final int DESCRIPTION_ENTRIES = 8192;
+	
+	private final int maxEntries;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param maxEntries
+	 *     the most entries the map holds
+	 */
+	LruMap(int maxEntries) {
+		super(16, 0.75f, true);
+		this.maxEntries = maxEntries;
+	}
+	
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+		return size() > maxEntries;
+	}
+}
@@ -0,0 +1,81 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/*******************************************************************************
+ * Renders the two week calendar as a Markdown document
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class MarkdownRenderer implements CalendarRenderer {
+	
+	private final Writer writer;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param writer
+	 *     the writer the document is written to
+	 */
+	public MarkdownRenderer(Writer writer) {
+		this.writer = writer;
+	}
+	
+	@Override
+	public void startCalendar(LocalDate startDate, LocalDate endDate) throws IOException {
+		writer.write("# " + CalendarEvent.getCalendarDates(startDate, endDate, true) + "\n");
+	}
+	
+	@Override
+	public void startSection(String title) throws IOException {
+		writer.write("\n## " + title + "\n\n");
+		writer.write("| Date | Time | Event |\n");
+		writer.write("| --- | --- | --- |\n");
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event, boolean showDate) throws IOException {
+		String date = showDate ? event.getDateString(true) : "";
+		writer.write("| " + escape(date) + " | " + escape(event.getTimeString()) + " | " + escape(event.getDescription()) + " |\n");
+	}
+	
+	@Override
+	public void endSection() throws IOException {
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		writer.flush();
+	}
+	
+	/**
+	 * Escapes characters that would break a Markdown table cell
+	 * 
+	 * @param text
+	 *     the text to escape
+	 * @return
+	 *     the escaped text
+	 */
+	private static String escape(String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 8);
+		
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			if (c == '|' || c == '\\' || c == '*' || c == '_' || c == '`' || c == '[' || c == ']') {
+				sb.append('\\').append(c);
+			} else if (c == '\n' || c == '\r') {
+				sb.append(' ');
+			} else {
+				sb.append(c);
+			}
+		}
+		
+		return sb.toString();
+	}
+}
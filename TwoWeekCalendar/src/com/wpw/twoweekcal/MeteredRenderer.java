@@ -0,0 +1,147 @@
+package com.wpw.twoweekcal;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+import com.wpw.events.MetricsRegistry;
+
+/*******************************************************************************
+ * Times a renderer and counts the bytes it writes
+ * 
+ * Only the time spent in the renderer is counted, not the time spent waiting
+ * for the events passed to it, so the render time of a calendar rendered
+ * while its data is still being read is the same as one rendered afterwards.
+ * The time and bytes of a calendar are added to the metrics registry when the
+ * calendar ends.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public class MeteredRenderer implements CalendarRenderer {
+	
+	private final CalendarRenderer renderer;
+	private final CountingOutputStream out;
+	private final MetricsRegistry.Histogram renderSeconds;
+	private final MetricsRegistry.Counter outputBytes;
+	
+	// Time spent in the renderer so far for the current calendar
+	private long renderNanos = 0;
+	
+	/**
+	 * Creates a renderer of a format that is timed and whose bytes are counted
+	 * 
+	 * @param format
+	 *     the output format
+	 * @param out
+	 *     the stream to write to (it is not closed by the renderer)
+	 * @return
+	 *     a new renderer
+	 */
+	static CalendarRenderer create(OutputFormat format, OutputStream out) {
+		CountingOutputStream countingOut = new CountingOutputStream(out);
+		return new MeteredRenderer(format, format.createUnmeteredRenderer(countingOut), countingOut);
+	}
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param format
+	 *     the output format of the renderer
+	 * @param renderer
+	 *     the renderer to time
+	 * @param out
+	 *     the stream the renderer writes to
+	 */
+	private MeteredRenderer(OutputFormat format, CalendarRenderer renderer, CountingOutputStream out) {
+		String name = format.getExtension();
+		MetricsRegistry registry = MetricsRegistry.getDefault();
+		
+		this.renderer      = renderer;
+		this.out           = out;
+		this.renderSeconds = registry.histogram("twoweekcal_render_seconds", "Time spent rendering each calendar", "format", name);
+		this.outputBytes   = registry.counter("twoweekcal_output_bytes_total", "Bytes of rendered calendars written", "format", name);
+	}
+	
+	@Override
+	public void startCalendar(LocalDate startDate, LocalDate endDate) throws IOException {
+		long start = System.nanoTime();
+		renderNanos = 0;
+		out.count = 0;
+		
+		try {
+			renderer.startCalendar(startDate, endDate);
+		} finally {
+			renderNanos += System.nanoTime() - start;
+		}
+	}
+	
+	@Override
+	public void startSection(String title) throws IOException {
+		long start = System.nanoTime();
+		
+		try {
+			renderer.startSection(title);
+		} finally {
+			renderNanos += System.nanoTime() - start;
+		}
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event, boolean showDate) throws IOException {
+		long start = System.nanoTime();
+		
+		try {
+			renderer.writeEvent(event, showDate);
+		} finally {
+			renderNanos += System.nanoTime() - start;
+		}
+	}
+	
+	@Override
+	public void endSection() throws IOException {
+		long start = System.nanoTime();
+		
+		try {
+			renderer.endSection();
+		} finally {
+			renderNanos += System.nanoTime() - start;
+		}
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		long start = System.nanoTime();
+		
+		renderer.endCalendar();
+		
+		renderSeconds.observe(renderNanos + System.nanoTime() - start);
+		outputBytes.add(out.count);
+	}
+	
+	/***************************************************************************
+	 * Counts the bytes written to a stream
+	 ***************************************************************************/
+	private static final class CountingOutputStream extends FilterOutputStream {
+		private long count = 0;
+		
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
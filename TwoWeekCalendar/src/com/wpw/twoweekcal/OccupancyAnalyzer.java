@@ -0,0 +1,266 @@
+package com.wpw.twoweekcal;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*******************************************************************************
+ * Fills an OccupancyMatrix from the events of the calendar data in a single
+ * streaming pass
+ * 
+ * The events are passed in as they are read and never kept.  Each event is
+ * reduced to one int holding its unit, weekday and first and last slot, and
+ * the ints are handed to the workers in batches.  Each worker fills its own
+ * matrix, so the workers never share any counts, and the matrices of the
+ * workers are merged once all of the events have been read.  The batches
+ * waiting for a worker are bounded, so a multi-year archive is analyzed in
+ * a fixed amount of memory.
+ * 
+ * All day events do not use a time slot and are only counted.  An event whose
+ * end time is not known (the old style of calendar data) only fills the slot
+ * it starts in, and an event that ends after midnight fills the rest of its
+ * day.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class OccupancyAnalyzer implements Closeable {
+	
+	// Number of events in each batch handed to a worker
+	private static final int BATCH_SIZE = 4096;
+	
+	// Batch that tells a worker there are no more events
+	private static final int[] END_OF_EVENTS = new int[0];
+	
+	private final String specificWard;
+	
+	private final ExecutorService executor;
+	private final BlockingQueue<int[]> batches;
+	private final List<Future<OccupancyMatrix>> workers = new ArrayList<>();
+	
+	// Index in OccupancyMatrix.UNITS of each description already classified
+	private final Map<String, Integer> unitMap = new HashMap<>();
+	
+	// Batch being filled and the number of events in it
+	private int[] batch = new int[BATCH_SIZE];
+	private int batchSize;
+	
+	private LocalDate firstDate;
+	private LocalDate lastDate;
+	private int eventCount;
+	private int allDayEventCount;
+	private int noEndTimeCount;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param workerCount
+	 *     the number of workers that fill matrices at the same time
+	 * @param specificWard
+	 *     the ward whose events are analyzed along with the stake events
+	 *     or null for the events of every ward
+	 */
+	public OccupancyAnalyzer(int workerCount, String specificWard) {
+		this.specificWard = specificWard;
+		
+		executor = Executors.newFixedThreadPool(workerCount);
+		batches  = new ArrayBlockingQueue<>(workerCount * 2);
+		
+		for (int i = 0; i < workerCount; i++) {
+			workers.add(executor.submit(new Worker()));
+		}
+	}
+	
+	/**
+	 * Adds an event to the analysis
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param startTime
+	 *     the time the event starts or null for an all day event
+	 * @param endTime
+	 *     the time the event ends or null if it is not known
+	 * @param description
+	 *     the event description
+	 * @throws InterruptedException
+	 *     if the thread was interrupted while waiting for a worker
+	 */
+	public void addEvent(LocalDate date, LocalTime startTime, LocalTime endTime, String description)
+			throws InterruptedException {
+			
+		int unit = getUnit(description);
+		if (unit < 0) return;
+		
+		if (firstDate == null || date.isBefore(firstDate)) firstDate = date;
+		if (lastDate == null || date.isAfter(lastDate)) lastDate = date;
+		eventCount++;
+		
+		if (startTime == null) {
+			allDayEventCount++;
+			return;
+		}
+		
+		int startMinute = startTime.getHour() * 60 + startTime.getMinute();
+		int startSlot   = startMinute / OccupancyMatrix.SLOT_MINUTES;
+		int endSlot     = startSlot + 1;
+		
+		if (endTime == null) {
+			noEndTimeCount++;
+		} else {
+			int endMinute = endTime.getHour() * 60 + endTime.getMinute();
+			
+			if (endMinute <= startMinute) {
+				endSlot = OccupancyMatrix.SLOTS_PER_DAY;
+			} else {
+				endSlot = Math.max(endSlot, (endMinute + OccupancyMatrix.SLOT_MINUTES - 1) / OccupancyMatrix.SLOT_MINUTES);
+			}
+		}
+		
+		int day = OccupancyMatrix.getDay(date.getDayOfWeek());
+		
+		// Unit in bits 18 and up, weekday in bits 15-17, start slot in bits 8-14 and end slot in bits 0-7
+		batch[batchSize++] = (unit << 18) | (day << 15) | (startSlot << 8) | endSlot;
+		
+		if (batchSize == BATCH_SIZE) {
+			batches.put(batch);
+			batch     = new int[BATCH_SIZE];
+			batchSize = 0;
+		}
+	}
+	
+	/**
+	 * Gets the unit of an event
+	 * 
+	 * @param description
+	 *     the event description
+	 * @return
+	 *     the index of the unit in OccupancyMatrix.UNITS
+	 *     or -1 if the event is for a ward that is not analyzed
+	 */
+	private int getUnit(String description) {
+		Integer unit = unitMap.get(description);
+		
+		if (unit == null) {
+			String unitName = WardClassifier.getUnit(description);
+			
+			if (specificWard != null && !unitName.equals(WardClassifier.STAKE_UNIT) && !unitName.equals(specificWard)) {
+				unit = -1;
+			} else {
+				unit = OccupancyMatrix.UNITS.indexOf(unitName);
+			}
+			
+			unitMap.put(description, unit);
+		}
+		
+		return unit;
+	}
+	
+	/**
+	 * Waits for the workers to count the events added and merges their matrices
+	 * 
+	 * @return
+	 *     the slot counts of all of the events added
+	 * @throws InterruptedException
+	 *     if the thread was interrupted while waiting for the workers
+	 * @throws ExecutionException
+	 *     if any of the workers failed
+	 */
+	public OccupancyMatrix finish() throws InterruptedException, ExecutionException {
+		int[] lastBatch = new int[batchSize];
+		System.arraycopy(batch, 0, lastBatch, 0, batchSize);
+		batches.put(lastBatch);
+		batchSize = 0;
+		
+		for (int i = 0; i < workers.size(); i++) {
+			batches.put(END_OF_EVENTS);
+		}
+		
+		OccupancyMatrix matrix = new OccupancyMatrix();
+		
+		for (Future<OccupancyMatrix> worker : workers) {
+			matrix.merge(worker.get());
+		}
+		
+		return matrix;
+	}
+	
+	/**
+	 * @return
+	 *     the first date of the events added or null if there were none
+	 */
+	public LocalDate getFirstDate() {
+		return firstDate;
+	}
+	
+	/**
+	 * @return
+	 *     the last date of the events added or null if there were none
+	 */
+	public LocalDate getLastDate() {
+		return lastDate;
+	}
+	
+	/**
+	 * @return
+	 *     the number of events added, not counting the events of wards that are not analyzed
+	 */
+	public int getEventCount() {
+		return eventCount;
+	}
+	
+	/**
+	 * @return
+	 *     the number of all day events added
+	 */
+	public int getAllDayEventCount() {
+		return allDayEventCount;
+	}
+	
+	/**
+	 * @return
+	 *     the number of events added whose end time is not known
+	 */
+	public int getNoEndTimeCount() {
+		return noEndTimeCount;
+	}
+	
+	/**
+	 * Stops the workers
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+	
+	/***************************************************************************
+	 * Fills a matrix from the batches until there are no more events
+	 ***************************************************************************/
+	private final class Worker implements Callable<OccupancyMatrix> {
+		@Override
+		public OccupancyMatrix call() throws InterruptedException {
+			OccupancyMatrix matrix = new OccupancyMatrix();
+			
+			while (true) {
+				int[] events = batches.take();
+				if (events == END_OF_EVENTS) return matrix;
+				
+				for (int event : events) {
+					matrix.add(event >>> 18, (event >>> 15) & 0x7, (event >>> 8) & 0x7F, event & 0xFF);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,368 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/*******************************************************************************
+ * Counts how often each time slot of the week is used by the events of each
+ * unit (the stake and each ward)
+ * 
+ * The counts are kept in a single int array of 15 minute slots by weekday by
+ * unit, so adding an event only increments the slots it covers and two
+ * matrices are merged by adding their arrays.  A matrix is not thread safe,
+ * so each worker fills its own matrix and the matrices are merged at the end.
+ * 
+ * The matrix is written as a text heat map of the busiest slots or as CSV
+ * with a row for every slot of every unit that has events.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class OccupancyMatrix {
+	
+	// Minutes in each slot and slots in each day and week
+	public static final int SLOT_MINUTES  = 15;
+	public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+	public static final int DAYS_PER_WEEK = 7;
+	
+	// Units of the matrix in the order they are listed
+	public static final List<String> UNITS = getUnits();
+	
+	// Title of the heat map of every unit
+	public static final String ALL_UNITS = "All Units";
+	
+	// Marks of the heat map from an empty slot to the busiest slot
+	private static final String SHADES = " .:-=+*#%@";
+	
+	// Number of the busiest slots listed under each heat map
+	private static final int BUSIEST_SLOTS = 5;
+	
+	private final int[] slotCounts  = new int[UNITS.size() * DAYS_PER_WEEK * SLOTS_PER_DAY];
+	private final int[] eventCounts = new int[UNITS.size()];
+	
+	/**
+	 * Gets the units of the matrix
+	 * 
+	 * @return
+	 *     the stake, each ward and the wards that are not known
+	 */
+	private static List<String> getUnits() {
+		List<String> units = new ArrayList<>();
+		units.add(WardClassifier.STAKE_UNIT);
+		units.addAll(WardClassifier.WARD_CODES);
+		units.add(WardClassifier.WARD_UNIT);
+		return Collections.unmodifiableList(units);
+	}
+	
+	/**
+	 * Gets the column of a weekday.  The week starts on Sunday.
+	 * 
+	 * @param dayOfWeek
+	 *     the weekday
+	 * @return
+	 *     the column of the weekday from 0 (Sunday) to 6 (Saturday)
+	 */
+	public static int getDay(DayOfWeek dayOfWeek) {
+		return dayOfWeek.getValue() % DAYS_PER_WEEK;
+	}
+	
+	/**
+	 * Adds an event to the slots it covers
+	 * 
+	 * @param unit
+	 *     the index of the unit in UNITS
+	 * @param day
+	 *     the column of the weekday (see getDay)
+	 * @param startSlot
+	 *     the slot the event starts in
+	 * @param endSlot
+	 *     the slot after the last slot the event covers
+	 */
+	public void add(int unit, int day, int startSlot, int endSlot) {
+		int base = (unit * DAYS_PER_WEEK + day) * SLOTS_PER_DAY;
+		
+		for (int slot = startSlot; slot < endSlot; slot++) {
+			slotCounts[base + slot]++;
+		}
+		
+		eventCounts[unit]++;
+	}
+	
+	/**
+	 * Adds the counts of another matrix to this matrix
+	 * 
+	 * @param other
+	 *     the matrix to merge
+	 */
+	public void merge(OccupancyMatrix other) {
+		for (int i = 0; i < slotCounts.length; i++) {
+			slotCounts[i] += other.slotCounts[i];
+		}
+		
+		for (int i = 0; i < eventCounts.length; i++) {
+			eventCounts[i] += other.eventCounts[i];
+		}
+	}
+	
+	/**
+	 * Gets the number of events of a unit in a slot
+	 * 
+	 * @param unit
+	 *     the index of the unit in UNITS
+	 * @param day
+	 *     the column of the weekday (see getDay)
+	 * @param slot
+	 *     the slot of the day
+	 * @return
+	 *     the number of events that cover the slot
+	 */
+	public int getCount(int unit, int day, int slot) {
+		return slotCounts[(unit * DAYS_PER_WEEK + day) * SLOTS_PER_DAY + slot];
+	}
+	
+	/**
+	 * Gets the number of events of a unit
+	 * 
+	 * @param unit
+	 *     the index of the unit in UNITS
+	 * @return
+	 *     the number of events added for the unit
+	 */
+	public int getEventCount(int unit) {
+		return eventCounts[unit];
+	}
+	
+	/**
+	 * Writes a heat map of every unit together and of each unit with events
+	 * 
+	 * @param writer
+	 *     the writer the heat maps are written to
+	 * @throws IOException
+	 *     if the heat maps could not be written
+	 */
+	public void writeHeatMap(Writer writer) throws IOException {
+		int[] allCounts = new int[DAYS_PER_WEEK * SLOTS_PER_DAY];
+		int allEvents = 0;
+		
+		for (int unit = 0; unit < UNITS.size(); unit++) {
+			int base = unit * allCounts.length;
+			
+			for (int i = 0; i < allCounts.length; i++) {
+				allCounts[i] += slotCounts[base + i];
+			}
+			
+			allEvents += eventCounts[unit];
+		}
+		
+		writeHeatMap(writer, ALL_UNITS, allCounts, 0, allEvents);
+		
+		for (int unit = 0; unit < UNITS.size(); unit++) {
+			if (eventCounts[unit] > 0) {
+				writeHeatMap(writer, UNITS.get(unit), slotCounts, unit * allCounts.length, eventCounts[unit]);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the heat map of one unit from the first to the last slot used
+	 * on any day, followed by the busiest slots
+	 * 
+	 * @param writer
+	 *     the writer the heat map is written to
+	 * @param title
+	 *     the title of the heat map
+	 * @param counts
+	 *     the array of slot counts
+	 * @param base
+	 *     the index of the first slot of the unit in the array
+	 * @param events
+	 *     the number of events of the unit
+	 * @throws IOException
+	 *     if the heat map could not be written
+	 */
+	private static void writeHeatMap(Writer writer, String title, int[] counts, int base, int events) throws IOException {
+		int maxCount  = 0;
+		int firstSlot = SLOTS_PER_DAY;
+		int lastSlot  = -1;
+		
+		for (int day = 0; day < DAYS_PER_WEEK; day++) {
+			for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+				int count = counts[base + day * SLOTS_PER_DAY + slot];
+				if (count == 0) continue;
+				
+				maxCount  = Math.max(maxCount, count);
+				firstSlot = Math.min(firstSlot, slot);
+				lastSlot  = Math.max(lastSlot, slot);
+			}
+		}
+		
+		writer.write(String.format("%s (%d events)%n", title, events));
+		if (maxCount == 0) {
+			writer.write(String.format("%n"));
+			return;
+		}
+		
+		StringBuilder header = new StringBuilder(String.format("%-10s", ""));
+		for (int day = 0; day < DAYS_PER_WEEK; day++) {
+			header.append(String.format(" %-4s", getDayName(day)));
+		}
+		writer.write(trimEnd(header));
+		writer.write(String.format("%n"));
+		
+		for (int slot = firstSlot; slot <= lastSlot; slot++) {
+			StringBuilder row = new StringBuilder(String.format("%-10s", getSlotTime(slot)));
+			
+			for (int day = 0; day < DAYS_PER_WEEK; day++) {
+				int count = counts[base + day * SLOTS_PER_DAY + slot];
+				int shade = (count == 0) ? 0 : (int) ((count * (long) (SHADES.length() - 1) + maxCount - 1) / maxCount);
+				char mark = SHADES.charAt(shade);
+				row.append(' ').append(mark).append(mark).append(mark).append(' ');
+			}
+			
+			writer.write(trimEnd(row));
+			writer.write(String.format("%n"));
+		}
+		
+		writer.write(String.format("%-10s %s = %d events in the slot%n", "", SHADES.substring(SHADES.length() - 1), maxCount));
+		writer.write(String.format("Busiest:%n"));
+		
+		for (int index : getBusiestSlots(counts, base)) {
+			int day  = index / SLOTS_PER_DAY;
+			int slot = index % SLOTS_PER_DAY;
+			
+			writer.write(String.format("    %-4s %-19s %d%n", getDayName(day),
+					getSlotTime(slot) + " - " + getSlotTime(slot + 1), counts[base + index]));
+		}
+		
+		writer.write(String.format("%n"));
+	}
+	
+	/**
+	 * Gets the busiest slots of one unit
+	 * 
+	 * @param counts
+	 *     the array of slot counts
+	 * @param base
+	 *     the index of the first slot of the unit in the array
+	 * @return
+	 *     the indexes of the busiest slots from the unit base, busiest first
+	 */
+	private static int[] getBusiestSlots(int[] counts, int base) {
+		int[] busiest = new int[BUSIEST_SLOTS];
+		int size = 0;
+		
+		for (int index = 0; index < DAYS_PER_WEEK * SLOTS_PER_DAY; index++) {
+			int count = counts[base + index];
+			if (count == 0 || (size == busiest.length && count <= counts[base + busiest[size - 1]])) continue;
+			
+			int position = Math.min(size, busiest.length - 1);
+			while (position > 0 && counts[base + busiest[position - 1]] < count) {
+				busiest[position] = busiest[position - 1];
+				position--;
+			}
+			
+			busiest[position] = index;
+			if (size < busiest.length) size++;
+		}
+		
+		int[] result = new int[size];
+		System.arraycopy(busiest, 0, result, 0, size);
+		return result;
+	}
+	
+	/**
+	 * Writes a row for every slot of every unit that has events
+	 * 
+	 * @param writer
+	 *     the writer the CSV is written to
+	 * @throws IOException
+	 *     if the CSV could not be written
+	 */
+	public void writeCsv(Writer writer) throws IOException {
+		writer.write(String.format("unit,weekday,start,end,events%n"));
+		
+		for (int unit = 0; unit < UNITS.size(); unit++) {
+			if (eventCounts[unit] == 0) continue;
+			
+			for (int day = 0; day < DAYS_PER_WEEK; day++) {
+				for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+					writer.write(String.format("%s,%s,%s,%s,%d%n", UNITS.get(unit), getDayName(day),
+							getSlotClock(slot), getSlotClock(slot + 1), getCount(unit, day, slot)));
+				}
+			}
+		}
+		
+		writer.flush();
+	}
+	
+	/**
+	 * Gets the short name of a weekday
+	 * 
+	 * @param day
+	 *     the column of the weekday (see getDay)
+	 * @return
+	 *     the short name of the weekday (E.g. Sun)
+	 */
+	private static String getDayName(int day) {
+		return DayOfWeek.of((day == 0) ? 7 : day).getDisplayName(TextStyle.SHORT, Locale.US);
+	}
+	
+	/**
+	 * Gets the time a slot starts
+	 * 
+	 * @param slot
+	 *     the slot of the day
+	 * @return
+	 *     the time the slot starts (E.g. 7:15 PM)
+	 */
+	private static String getSlotTime(int slot) {
+		return getSlotLocalTime(slot).format(CalendarEvent.TIME_FORMATTER1);
+	}
+	
+	/**
+	 * Gets the time a slot starts on a 24 hour clock
+	 * 
+	 * @param slot
+	 *     the slot of the day or SLOTS_PER_DAY for the end of the day
+	 * @return
+	 *     the time the slot starts (E.g. 19:15)
+	 */
+	private static String getSlotClock(int slot) {
+		return (slot == SLOTS_PER_DAY) ? "24:00" : getSlotLocalTime(slot).toString();
+	}
+	
+	/**
+	 * Gets the time a slot starts
+	 * 
+	 * @param slot
+	 *     the slot of the day or SLOTS_PER_DAY for midnight at the end of the day
+	 * @return
+	 *     the time the slot starts
+	 */
+	private static LocalTime getSlotLocalTime(int slot) {
+		return LocalTime.ofSecondOfDay((long) (slot % SLOTS_PER_DAY) * SLOT_MINUTES * 60);
+	}
+	
+	/**
+	 * Removes the spaces at the end of a row
+	 * 
+	 * @param row
+	 *     the row
+	 * @return
+	 *     the row without trailing spaces
+	 */
+	private static String trimEnd(StringBuilder row) {
+		int length = row.length();
+		while (length > 0 && row.charAt(length - 1) == ' ') length--;
+		return row.substring(0, length);
+	}
+}
@@ -0,0 +1,172 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.wpw.events.ParagraphReader;
+
+/*******************************************************************************
+ * Reads the paragraphs of the calendar data on a thread of its own, so the
+ * document is inflated and scanned while the paragraphs already read are
+ * being parsed
+ * 
+ * The paragraphs are handed over in batches through a bounded queue.  When
+ * the parser falls behind the queue fills and the reading thread waits, so
+ * no more than a few batches are ever held in memory.  An error reading the
+ * document is thrown to the parser once it reaches the paragraphs that were
+ * read before the error.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+final class ParagraphPrefetcher implements ParagraphReader {
+	
+	// Paragraphs in each batch and batches waiting to be parsed
+	private static final int BATCH_SIZE     = 256;
+	private static final int QUEUE_CAPACITY = 16;
+	
+	// Batch that tells the parser there are no more paragraphs
+	private static final String[] END_OF_PARAGRAPHS = new String[0];
+	
+	private final ParagraphReader paragraphs;
+	
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	private final BlockingQueue<String[]> batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final Future<Void> prefetcher;
+	
+	// Batch being parsed and the index of its next paragraph
+	private String[] batch = END_OF_PARAGRAPHS;
+	private int index;
+	private boolean endOfParagraphs;
+	
+	/**
+	 * Class constructor that starts reading the paragraphs
+	 * 
+	 * @param paragraphs
+	 *     the reader of the paragraphs, which is closed with this reader
+	 */
+	ParagraphPrefetcher(ParagraphReader paragraphs) {
+		this.paragraphs = paragraphs;
+		this.prefetcher = executor.submit(new Prefetcher());
+	}
+	
+	/**
+	 * Reads the text of the next paragraph, waiting for it to be read if needed
+	 * 
+	 * @return
+	 *     the text of the paragraph or null at the end of the data
+	 * @throws IOException
+	 *     if the data could not be read
+	 */
+	@Override
+	public String readParagraph() throws IOException {
+		if (index == batch.length) {
+			if (endOfParagraphs) return null;
+			
+			try {
+				batch = batches.take();
+				index = 0;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while reading the calendar data!");
+			}
+			
+			if (batch == END_OF_PARAGRAPHS) {
+				endOfParagraphs = true;
+				checkPrefetcher();
+				return null;
+			}
+		}
+		
+		return batch[index++];
+	}
+	
+	/**
+	 * Throws the error that stopped the reading thread, if any
+	 * 
+	 * @throws IOException
+	 *     if the data could not be read
+	 */
+	private void checkPrefetcher() throws IOException {
+		try {
+			prefetcher.get();
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading the calendar data!");
+			
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new IOException(cause);
+		}
+	}
+	
+	/**
+	 * Stops the reading thread and closes the paragraphs
+	 * 
+	 * @throws IOException
+	 *     if the paragraphs could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		executor.shutdownNow();
+		
+		try {
+			// The paragraphs can not be closed while the thread is reading them
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			paragraphs.close();
+		}
+	}
+	
+	/***************************************************************************
+	 * Reads the paragraphs into batches until the end of the data.  The thread
+	 * is only interrupted once the parser has closed the reader, so no end of
+	 * the paragraphs is queued then.
+	 ***************************************************************************/
+	private final class Prefetcher implements Callable<Void> {
+		@Override
+		public Void call() throws IOException, InterruptedException {
+			try {
+				String[] paragraphBatch = new String[BATCH_SIZE];
+				int size = 0;
+				String text;
+				
+				while ((text = paragraphs.readParagraph()) != null) {
+					paragraphBatch[size++] = text;
+					
+					if (size == BATCH_SIZE) {
+						batches.put(paragraphBatch);
+						paragraphBatch = new String[BATCH_SIZE];
+						size = 0;
+					}
+				}
+				
+				if (size > 0) batches.put(Arrays.copyOf(paragraphBatch, size));
+				
+			} catch (IOException | RuntimeException e) {
+				// The parser finds the error once it reaches the end of the batches
+				batches.put(END_OF_PARAGRAPHS);
+				throw e;
+			}
+			
+			batches.put(END_OF_PARAGRAPHS);
+			return null;
+		}
+	}
+}
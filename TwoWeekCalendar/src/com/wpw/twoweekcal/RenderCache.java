@@ -0,0 +1,159 @@
+package com.wpw.twoweekcal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*******************************************************************************
+ * A bounded least recently used cache of rendered calendars
+ * 
+ * The cache holds at most a fixed number of entries and a fixed number of
+ * bytes.  When either limit is exceeded the least recently used entries are
+ * evicted.  Keys should include everything the rendered output depends on,
+ * including the version of the calendar data, so entries for an old version
+ * of the data can never be returned.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class RenderCache {
+	
+	private final int maxEntries;
+	private final long maxBytes;
+	
+	// Entries in least recently used order
+	private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+	
+	private final AtomicLong hits      = new AtomicLong();
+	private final AtomicLong misses    = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param maxEntries
+	 *     the maximum number of entries in the cache
+	 * @param maxBytes
+	 *     the maximum number of bytes of rendered output in the cache
+	 */
+	public RenderCache(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes   = maxBytes;
+	}
+	
+	/**
+	 * Builds a cache key from its parts
+	 * 
+	 * @param parts
+	 *     the parts of the key (E.g. start date, ward code, format and version)
+	 * @return
+	 *     the cache key
+	 */
+	public static String key(Object... parts) {
+		StringBuilder sb = new StringBuilder();
+		
+		for (Object part : parts) {
+			if (sb.length() > 0) sb.append('|');
+			sb.append(part);
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Gets a rendered calendar from the cache
+	 * 
+	 * @param key
+	 *     the cache key
+	 * @return
+	 *     the rendered calendar or null if it is not in the cache
+	 */
+	public synchronized byte[] get(String key) {
+		byte[] value = entries.get(key);
+		
+		if (value == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Adds a rendered calendar to the cache and evicts the least
+	 * recently used entries if the cache is over either limit
+	 * 
+	 * @param key
+	 *     the cache key
+	 * @param value
+	 *     the rendered calendar
+	 */
+	public synchronized void put(String key, byte[] value) {
+		if (value.length > maxBytes) return;
+		
+		byte[] old = entries.put(key, value);
+		if (old != null) bytes -= old.length;
+		bytes += value.length;
+		
+		Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+		while ((entries.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+			bytes -= it.next().getValue().length;
+			it.remove();
+			evictions.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Removes every entry from the cache
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+	
+	/**
+	 * Gets the cache statistics
+	 * 
+	 * @return
+	 *     the cache statistics, one per line
+	 */
+	public synchronized String getStatistics() {
+		return String.format("hits %d%nmisses %d%nevictions %d%nentries %d%nbytes %d%n",
+				hits.get(), misses.get(), evictions.get(), entries.size(), bytes);
+	}
+	
+	/**
+	 * Gets the number of cache hits
+	 * 
+	 * @return
+	 *     the number of cache hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+	
+	/**
+	 * Gets the number of cache misses
+	 * 
+	 * @return
+	 *     the number of cache misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	/**
+	 * Gets the number of entries evicted from the cache
+	 * 
+	 * @return
+	 *     the number of evictions
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+}
@@ -0,0 +1,121 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/*******************************************************************************
+ * Traverses the stake and ward events once and sends each included event
+ * to every renderer
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class RenderPass {
+	
+	// Section titles
+	public static final String STAKE_SECTION = "Stake-wide";
+	public static final String WARD_SECTION  = "Ward Specific";
+	
+	private final List<CalendarRenderer> renderers = new ArrayList<>();
+	
+	private LocalDate lastDatePrinted;
+	
+	/**
+	 * Adds a renderer to the render pass
+	 * 
+	 * @param renderer
+	 *     the renderer to add
+	 */
+	public void addRenderer(CalendarRenderer renderer) {
+		renderers.add(renderer);
+	}
+	
+	/**
+	 * Renders the calendar to every renderer in a single pass over the events
+	 * 
+	 * @param startDate
+	 *     the start date of the calendar
+	 * @param endDate
+	 *     the end date of the calendar
+	 * @param stakeEvents
+	 *     the stake events
+	 * @param wardEvents
+	 *     the ward events
+	 * @throws IOException
+	 *     if any of the output could not be written
+	 */
+	public void render(LocalDate startDate, LocalDate endDate,
+			Iterable<CalendarEvent> stakeEvents, Iterable<CalendarEvent> wardEvents) throws IOException {
+		
+		for (CalendarRenderer renderer : renderers) {
+			renderer.startCalendar(startDate, endDate);
+		}
+		
+		renderSection(STAKE_SECTION, stakeEvents, startDate, endDate);
+		renderSection(WARD_SECTION, wardEvents, startDate, endDate);
+		
+		for (CalendarRenderer renderer : renderers) {
+			renderer.endCalendar();
+		}
+	}
+	
+	/**
+	 * Renders a single section of the calendar
+	 * 
+	 * @param title
+	 *     the section title
+	 * @param events
+	 *     the events in the section
+	 * @param startDate
+	 *     the start date of the calendar
+	 * @param endDate
+	 *     the end date of the calendar
+	 * @throws IOException
+	 *     if any of the output could not be written
+	 */
+	private void renderSection(String title, Iterable<CalendarEvent> events,
+			LocalDate startDate, LocalDate endDate) throws IOException {
+		lastDatePrinted = null;
+		
+		for (CalendarRenderer renderer : renderers) {
+			renderer.startSection(title);
+		}
+		
+		for (CalendarEvent event : events) {
+			if (event.isIncluded(startDate, endDate)) {
+				boolean showDate = isNewDate(event);
+				
+				for (CalendarRenderer renderer : renderers) {
+					renderer.writeEvent(event, showDate);
+				}
+			}
+		}
+		
+		for (CalendarRenderer renderer : renderers) {
+			renderer.endSection();
+		}
+	}
+	
+	/**
+	 * Determines if the date should be shown for an event.  Multi-day events
+	 * always show their dates and single day events only show the date when
+	 * it differs from the previous single day event.
+	 * 
+	 * @param event
+	 *     the event
+	 * @return
+	 *     true if the date should be shown
+	 */
+	private boolean isNewDate(CalendarEvent event) {
+		if (event.isMultiDay()) return true;
+		
+		if (event.getStartDate().equals(lastDatePrinted)) return false;
+		
+		lastDatePrinted = event.getStartDate();
+		return true;
+	}
+}
@@ -0,0 +1,102 @@
+package com.wpw.twoweekcal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.wpw.events.StakeDefinition;
+
+/*******************************************************************************
+ * Keeps the stake definitions that have been compiled, so the calendars of
+ * every stake handled by one process share a single compiled definition of
+ * each stake
+ * 
+ * A definition is found by the canonical path of its file and is compiled
+ * again only when the file has changed since it was compiled.  Definitions
+ * are read without locking and only the first thread to ask for a new or
+ * changed definition compiles it; any other thread asking for the same file
+ * at the same time waits for that definition instead of compiling its own.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class StakeRegistry {
+	
+	// Registry used by the calendar
+	private static final StakeRegistry DEFAULT = new StakeRegistry();
+	
+	private final ConcurrentMap<File, Entry> entries = new ConcurrentHashMap<>();
+	
+	/**
+	 * Gets the registry used by the calendar
+	 * 
+	 * @return
+	 *     the registry
+	 */
+	public static StakeRegistry getDefault() {
+		return DEFAULT;
+	}
+	
+	/**
+	 * Gets the compiled definition of a stake, compiling it if it has not been
+	 * compiled or its file has changed
+	 * 
+	 * @param file
+	 *     the stake definition file
+	 * @return
+	 *     the stake definition
+	 * @throws IOException
+	 *     if the file could not be read
+	 * @throws IllegalArgumentException
+	 *     if the definition is not valid
+	 */
+	public StakeDefinition get(File file) throws IOException {
+		File key = file.getCanonicalFile();
+		long lastModified = key.lastModified();
+		long length = key.length();
+		
+		Entry entry = entries.get(key);
+		if (entry != null && entry.isCurrent(lastModified, length)) return entry.definition;
+		
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry != null && entry.isCurrent(lastModified, length)) return entry.definition;
+			
+			entry = new Entry(StakeDefinition.load(key), lastModified, length);
+			entries.put(key, entry);
+			return entry.definition;
+		}
+	}
+	
+	/**
+	 * Gets the number of stake definitions that have been compiled
+	 * 
+	 * @return
+	 *     the number of stake definitions
+	 */
+	public int size() {
+		return entries.size();
+	}
+	
+	/***************************************************************************
+	 * A compiled stake definition and the state of its file when it was read
+	 ***************************************************************************/
+	private static final class Entry {
+		private final StakeDefinition definition;
+		private final long lastModified;
+		private final long length;
+		
+		private Entry(StakeDefinition definition, long lastModified, long length) {
+			this.definition   = definition;
+			this.lastModified = lastModified;
+			this.length       = length;
+		}
+		
+		private boolean isCurrent(long lastModified, long length) {
+			return this.lastModified == lastModified && this.length == length;
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.wpw.twoweekcal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/*******************************************************************************
+ * Renders the two week calendar as plain text in the same layout that
+ * is printed to standard out
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class TextRenderer implements CalendarRenderer {
+	
+	private static final String NEW_LINE = System.lineSeparator();
+	
+	private final Writer writer;
+	
+	private boolean firstSection = true;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param writer
+	 *     the writer the calendar is written to
+	 */
+	public TextRenderer(Writer writer) {
+		this.writer = writer;
+	}
+	
+	@Override
+	public void startCalendar(LocalDate startDate, LocalDate endDate) throws IOException {
+		writer.write(NEW_LINE);
+		writer.write(String.format("%28s%s%n", "", CalendarEvent.getCalendarDates(startDate, endDate, false)));
+	}
+	
+	@Override
+	public void startSection(String title) throws IOException {
+		if (!firstSection) writer.write(NEW_LINE);
+		
+		firstSection = false;
+		writer.write(title);
+		writer.write(NEW_LINE);
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event, boolean showDate) throws IOException {
+		String date = showDate ? event.getDateString(false) : "";
+		writer.write(String.format("%-16s %-10s %s%n", date, event.getTimeString(), event.getDescription()));
+	}
+	
+	@Override
+	public void endSection() throws IOException {
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		writer.flush();
+	}
+}
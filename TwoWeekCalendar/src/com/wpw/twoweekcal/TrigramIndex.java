@@ -0,0 +1,344 @@
+package com.wpw.twoweekcal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*******************************************************************************
+ * Finds the entry of a list that is most like a description, so one entry
+ * covers every spelling of an event ("Stake Council Mtg" and "Stake Council
+ * Meeting")
+ * 
+ * Each entry is broken into trigrams (every three characters of its lower case
+ * letters and digits with the words separated by single spaces) and each
+ * trigram lists the entries it is found in.  Two texts are compared with the
+ * Dice coefficient of their trigrams: twice the trigrams they share over the
+ * trigrams of both.
+ * 
+ * An entry can only reach the similarity threshold if it shares enough of the
+ * trigrams of the description, so it must share at least one of the rarest
+ * few.  Only the entries listed by those trigrams are compared, and only if
+ * their number of trigrams is close enough to the description's, so a
+ * description is checked against thousands of entries in about the time it
+ * takes to check it against the few entries that are alike.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class TrigramIndex {
+	
+	private final String[] entries;
+	private final double threshold;
+	
+	// Id of each trigram, the sorted trigram ids of each entry
+	// and the entries that have each trigram
+	private final Map<Long, Integer> trigramIds = new HashMap<>();
+	private final int[][] entryTrigrams;
+	private final int[][] trigramEntries;
+	
+	/**
+	 * Class constructor that indexes the entries
+	 * 
+	 * @param entries
+	 *     the entries
+	 * @param threshold
+	 *     the similarity (greater than 0 and at most 1) a description
+	 *     needs to match an entry
+	 */
+	public TrigramIndex(Collection<String> entries, double threshold) {
+		if (!(threshold > 0 && threshold <= 1)) {
+			throw new IllegalArgumentException("Invalid similarity threshold!  " + threshold);
+		}
+		
+		this.entries       = entries.toArray(new String[0]);
+		this.threshold     = threshold;
+		this.entryTrigrams = new int[this.entries.length][];
+		
+		List<List<Integer>> postings = new ArrayList<>();
+		
+		for (int entry = 0; entry < this.entries.length; entry++) {
+			long[] trigrams = getTrigrams(this.entries[entry]);
+			int[] ids = new int[trigrams.length];
+			
+			for (int i = 0; i < trigrams.length; i++) {
+				Integer id = trigramIds.get(trigrams[i]);
+				
+				if (id == null) {
+					id = postings.size();
+					trigramIds.put(trigrams[i], id);
+					postings.add(new ArrayList<Integer>());
+				}
+				
+				ids[i] = id;
+				postings.get(id).add(entry);
+			}
+			
+			Arrays.sort(ids);
+			entryTrigrams[entry] = ids;
+		}
+		
+		trigramEntries = new int[postings.size()][];
+		
+		for (int id = 0; id < trigramEntries.length; id++) {
+			List<Integer> posting = postings.get(id);
+			trigramEntries[id] = new int[posting.size()];
+			
+			for (int i = 0; i < posting.size(); i++) {
+				trigramEntries[id][i] = posting.get(i);
+			}
+		}
+	}
+	
+	/**
+	 * Finds the entry most like a description
+	 * 
+	 * @param text
+	 *     the description
+	 * @return
+	 *     the entry with the highest similarity (the first in the list of entries
+	 *     if more than one) or null if no entry reaches the threshold
+	 */
+	public Match find(String text) {
+		if (entries.length == 0) return null;
+		
+		long[] trigrams = getTrigrams(text);
+		int size = trigrams.length;
+		if (size == 0) return null;
+		
+		// Fewest trigrams an entry must share and its fewest and most trigrams
+		int minShared = (int) Math.ceil(threshold * size / (2 - threshold) - 1e-9);
+		int minEntry  = minShared;
+		int maxEntry  = (int) Math.floor(size * (2 - threshold) / threshold + 1e-9);
+		
+		// Orders the trigrams rarest first (those not in any entry have an id of -1)
+		Integer[] order = new Integer[size];
+		final int[] ids = new int[size];
+		
+		for (int i = 0; i < size; i++) {
+			Integer id = trigramIds.get(trigrams[i]);
+			ids[i]   = (id == null) ? -1 : id;
+			order[i] = i;
+		}
+		
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Integer.compare(getFrequency(ids[i1]), getFrequency(ids[i2]));
+			}
+		});
+		
+		// An entry sharing none of the rarest trigrams shares fewer than minShared
+		int prefixSize = size - minShared + 1;
+		BitSet candidates = new BitSet(entries.length);
+		
+		for (int i = 0; i < prefixSize; i++) {
+			int id = ids[order[i]];
+			if (id < 0) continue;
+			
+			for (int entry : trigramEntries[id]) {
+				int entrySize = entryTrigrams[entry].length;
+				if (entrySize >= minEntry && entrySize <= maxEntry) candidates.set(entry);
+			}
+		}
+		
+		int[] known = getKnownIds(ids);
+		
+		int bestEntry = -1;
+		double bestScore = 0;
+		
+		for (int entry = candidates.nextSetBit(0); entry >= 0; entry = candidates.nextSetBit(entry + 1)) {
+			int total = size + entryTrigrams[entry].length;
+			
+			// Fewest shared trigrams that reach the threshold and beat the best entry so far
+			int needed = (int) Math.max(Math.ceil(threshold * total / 2 - 1e-9), Math.floor(bestScore * total / 2 + 1e-9) + 1);
+			
+			int shared = countShared(known, entryTrigrams[entry], needed);
+			if (shared < 0) continue;
+			
+			double score = 2.0 * shared / total;
+			
+			if (score > bestScore) {
+				bestScore = score;
+				bestEntry = entry;
+			}
+		}
+		
+		return (bestEntry >= 0 && bestScore >= threshold) ? new Match(entries[bestEntry], bestScore) : null;
+	}
+	
+	/**
+	 * Gets the number of entries
+	 * 
+	 * @return
+	 *     the number of entries
+	 */
+	public int size() {
+		return entries.length;
+	}
+	
+	/**
+	 * Gets the similarity threshold
+	 * 
+	 * @return
+	 *     the similarity a description needs to match an entry
+	 */
+	public double getThreshold() {
+		return threshold;
+	}
+	
+	/**
+	 * Gets the number of entries that have a trigram
+	 * 
+	 * @param id
+	 *     the trigram id or -1 for a trigram not in any entry
+	 * @return
+	 *     the number of entries
+	 */
+	private int getFrequency(int id) {
+		return (id < 0) ? 0 : trigramEntries[id].length;
+	}
+	
+	/**
+	 * Gets the ids of the trigrams found in the entries
+	 * 
+	 * @param ids
+	 *     the trigram ids of a description
+	 * @return
+	 *     the sorted ids that are not -1
+	 */
+	private static int[] getKnownIds(int[] ids) {
+		int[] known = new int[ids.length];
+		int count = 0;
+		
+		for (int id : ids) {
+			if (id >= 0) known[count++] = id;
+		}
+		
+		known = Arrays.copyOf(known, count);
+		Arrays.sort(known);
+		return known;
+	}
+	
+	/**
+	 * Counts the ids found in both of two sorted lists, stopping as soon as
+	 * too few ids are left to be found in both
+	 * 
+	 * @param ids1
+	 *     the first sorted list
+	 * @param ids2
+	 *     the second sorted list
+	 * @param needed
+	 *     the fewest ids in both lists that are of any use
+	 * @return
+	 *     the number of ids in both lists or -1 if it is less than needed
+	 */
+	private static int countShared(int[] ids1, int[] ids2, int needed) {
+		int shared = 0;
+		int i = 0;
+		int j = 0;
+		
+		while (i < ids1.length && j < ids2.length) {
+			if (shared + Math.min(ids1.length - i, ids2.length - j) < needed) return -1;
+			
+			if (ids1[i] < ids2[j]) {
+				i++;
+			} else if (ids1[i] > ids2[j]) {
+				j++;
+			} else {
+				shared++;
+				i++;
+				j++;
+			}
+		}
+		
+		return (shared < needed) ? -1 : shared;
+	}
+	
+	/**
+	 * Gets the distinct trigrams of a text.  The text is reduced to its lower
+	 * case letters and digits with the words separated by single spaces, and
+	 * two spaces are added before it and one after it, so the start and end
+	 * of the text count as much as the middle.
+	 * 
+	 * @param text
+	 *     the text
+	 * @return
+	 *     the trigrams packed into longs (16 bits for each character) in sorted order
+	 */
+	static long[] getTrigrams(String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 3).append("  ");
+		
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			if (Character.isLetterOrDigit(c)) {
+				sb.append(Character.toLowerCase(c));
+			} else if (sb.charAt(sb.length() - 1) != ' ') {
+				sb.append(' ');
+			}
+		}
+		
+		if (sb.length() == 2) return new long[0];
+		if (sb.charAt(sb.length() - 1) != ' ') sb.append(' ');
+		
+		long[] trigrams = new long[sb.length() - 2];
+		
+		for (int i = 0; i < trigrams.length; i++) {
+			trigrams[i] = ((long) sb.charAt(i) << 32) | ((long) sb.charAt(i + 1) << 16) | sb.charAt(i + 2);
+		}
+		
+		Arrays.sort(trigrams);
+		
+		int count = 0;
+		for (int i = 0; i < trigrams.length; i++) {
+			if (count == 0 || trigrams[i] != trigrams[count - 1]) trigrams[count++] = trigrams[i];
+		}
+		
+		return Arrays.copyOf(trigrams, count);
+	}
+	
+	/***************************************************************************
+	 * An entry found for a description and how alike they are
+	 ***************************************************************************/
+	public static final class Match {
+		private final String entry;
+		private final double score;
+		
+		private Match(String entry, double score) {
+			this.entry = entry;
+			this.score = score;
+		}
+		
+		/**
+		 * @return
+		 *     the entry
+		 */
+		public String getEntry() {
+			return entry;
+		}
+		
+		/**
+		 * @return
+		 *     the similarity of the description and the entry (1 if they have the same trigrams)
+		 */
+		public double getScore() {
+			return score;
+		}
+		
+		/**
+		 * @return
+		 *     the entry and the similarity
+		 */
+		@Override
+		public String toString() {
+			return String.format("%s %.2f", entry, score);
+		}
+	}
+}
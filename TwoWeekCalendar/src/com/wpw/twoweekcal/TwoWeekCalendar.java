@@ -1,37 +1,47 @@
 package com.wpw.twoweekcal;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.math.BigInteger;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.apache.poi.openxml4j.opc.OPCPackage;
-import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
-import org.apache.poi.xwpf.usermodel.XWPFRun;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTPPr;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTabStop;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTabs;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.STTabJc;
+import com.wpw.events.CalendarDataHandler;
+import com.wpw.events.EventSpliterator;
+import com.wpw.events.MetricsRegistry;
+import com.wpw.events.StakeDefinition;
 
 /*******************************************************************************
  * Creates a two week calendar for publishing to the Cypress California Stake
@@ -46,58 +56,170 @@ import org.openxmlformats.schemas.wordprocessingml.x2006.main.STTabJc;
  * @since   2017-12-14
  *
  *******************************************************************************/
-public class TwoWeekCalendar {
+public class TwoWeekCalendar implements CalendarDataHandler {
 	
 	// Input and output files
-	public static final File CALENDAR_DATA = new File("Calendar Data.docx");		// Input file
-	public static final File TWO_WEEK_CAL  = new File("Two Week Calendar.docx");	// Output file
+	public static final File CALENDAR_DATA = StakeDefinition.getDefault().getCalendarDataFile();		// Input file
+	public static final File TWO_WEEK_CAL  = StakeDefinition.getDefault().getTwoWeekCalendarFile();	// Output file
+	public static final File OCCUPANCY    = new File("Occupancy.csv");			// Output file
 	
 	// Skipped events file
-	public static final File SKIP_EVENTS      = new File("skip_events.txt");
-	public static final File SKIP_IF_CONTAINS = new File("skip_if_contains.txt");
+	public static final File SKIP_EVENTS      = StakeDefinition.getDefault().getSkipEventsFile();
+	public static final File SKIP_IF_CONTAINS = StakeDefinition.getDefault().getSkipIfContainsFile();
 	
 	// Sets of events that should be skipped
 	public static final Set<String> SKIP_EVENTS_SET      = getFileContents(SKIP_EVENTS);
 	public static final Set<String> SKIP_IF_CONTAINS_SET = getFileContents(SKIP_IF_CONTAINS);
 	
+	// Start of a skipped event that also skips descriptions spelled differently
+	// and the similarity they need by default
+	public static final String FUZZY_SKIP_PREFIX       = "~";
+	public static final double DEFAULT_FUZZY_THRESHOLD = 0.7;
+	
+	// Most different skipped events listed in the skipped events report
+	private static final int MAX_SKIPPED_LISTED = 10000;
+	
+	// Counts of the events classified as stake events, events of the selected
+	// ward (or of any ward if none is selected) and events of other wards
+	static final MetricsRegistry.Counter STAKE_EVENTS_CLASSIFIED      = getClassifiedCounter("stake");
+	static final MetricsRegistry.Counter WARD_EVENTS_CLASSIFIED       = getClassifiedCounter("ward");
+	static final MetricsRegistry.Counter OTHER_WARD_EVENTS_CLASSIFIED = getClassifiedCounter("other_ward");
+	
 	// Date and time patterns to determine if text read is a date or time
-	public static final Pattern DATE_PATTERN = Pattern.compile("\\d{1,2}/\\d{1,2}/\\d{4}");
-	public static final Pattern TIME_PATTERN = Pattern.compile("(All Day|\\d{1,2}:\\d{2}[ap])");
+	public static final Pattern DATE_PATTERN = CalendarDataReader.DATE_PATTERN;
+	public static final Pattern TIME_PATTERN = CalendarDataReader.TIME_PATTERN;
 	
 	// Date and time patterns found in the new style of calendar data
-	public static final Pattern DAY_DATE_PATTERN   = Pattern.compile("[A-Z][a-z]+, ([A-Z][a-z]+) (\\d\\d?)[a-z][a-z], (\\d{4})");
-	public static final Pattern TIME_EVENT_PATTERN = Pattern.compile("(All Day|(\\d{1,2}(:\\d{2})?)(am|pm)? - \\d{1,2}(:\\d{2})?(am|pm)) - (.+)");
+	public static final Pattern DAY_DATE_PATTERN   = CalendarDataReader.DAY_DATE_PATTERN;
+	public static final Pattern TIME_EVENT_PATTERN = CalendarDataReader.TIME_EVENT_PATTERN;
 	
 	// Valid Ward Codes
-	public static final Pattern WARD_CODE_PATTERN = Pattern.compile("(BP|CY|LP|CR|VV|CP|WG|GG)");
+	public static final Pattern WARD_CODE_PATTERN = WardClassifier.WARD_CODE_PATTERN;
 	
 	// Date and time formatters to read the input date and time as a local date
-	public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("M/d/yyyy");
-	public static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("h:mm a");
+	public static final DateTimeFormatter DATE_FORMATTER = CalendarDataReader.DATE_FORMATTER;
+	public static final DateTimeFormatter TIME_FORMATTER = CalendarDataReader.TIME_FORMATTER;
 	
 	// Date and time formatters to read the input date and time as a local date for new style data
-	public static final DateTimeFormatter DATE_FORMATTER2 = DateTimeFormatter.ofPattern("MMMM d, yyyy");
+	public static final DateTimeFormatter DATE_FORMATTER2 = CalendarDataReader.DATE_FORMATTER2;
+	
+	// Sets of events that should be skipped by this calendar
+	private Set<String> skipEventsSet     = SKIP_EVENTS_SET;
+	private Set<String> skipIfContainsSet = SKIP_IF_CONTAINS_SET;
+	
+	// Index of the skipped events that also skip descriptions spelled differently,
+	// built when it is first needed, and the similarity they need
+	private TrigramIndex fuzzySkipIndex;
+	private double fuzzySkipThreshold = DEFAULT_FUZZY_THRESHOLD;
 	
 	// Booleans to determine if events should be skipped
 	// or the calendar should be printed to standard out
 	private boolean keepAllEvents = false;
 	private boolean printCalendar = false;
 	
+	// Dates of the two week calendar and a boolean to determine if the dates
+	// are widened to include every event read
+	private LocalDate calendarStartDate = LocalDate.now().minusDays(1).with(TemporalAdjusters.next(DayOfWeek.THURSDAY));
+	private LocalDate calendarEndDate   = calendarStartDate.plusWeeks(2).minusDays(1);
+	private boolean includeAllDates = false;
+	
 	// Boolean to determine if old or new style of calendar data will be read
 	private boolean readOldStyleData = false;
 	
+	// Boolean to determine if the output files are only written when the events change
+	private boolean incrementalUpdate = false;
+	
+	// Boolean to determine if events of different units at the same time are listed
+	private boolean checkConflicts = false;
+	
+	// Boolean to determine if the busiest time slots of every date are reported
+	private boolean analyzeOccupancy = false;
+	
+	// Files the calendar data is read from when not the default calendar data file
+	private List<File> calendarDataFiles = new ArrayList<>();
+	
+	// Last date of the rolling calendars or null if a single calendar is written
+	// and a boolean to determine if a rolling calendar is also written for each ward
+	private LocalDate rollingEndDate;
+	private boolean eachWard = false;
+	
+	// Port to serve the calendar on or zero if the calendar is not served
+	private int serverPort = 0;
+	
+	// File the metrics are written to or null if they are not written
+	private File metricsFile;
+	
 	// A specific ward to list
 	private String specificWard;
 	
+	// Stake whose wards, skipped events and files the calendar uses and the stakes
+	// given by stake definition files, whose calendars are written at the same time
+	private StakeDefinition stake = StakeDefinition.getDefault();
+	private List<StakeDefinition> stakes = new ArrayList<>();
+	
+	// Stream the calendar, skipped events and reports are printed to
+	private PrintStream console = System.out;
+	
+	// Query of the event descriptions or null if the calendar is written
+	private EventIndex.Query searchQuery;
+	
+	// Formats of the output files
+	private Set<OutputFormat> outputFormats = EnumSet.of(OutputFormat.DOCX);
+	private boolean formatsSpecified = false;
+	
 	// Maps of events that are all day events
 	// and events that have been skipped
 	private Map<String, CalendarEvent> allDayEventMap  = new HashMap<>();
 	private Map<String, Integer>       skippedEventMap = new TreeMap<>();
 	
-	// Lists of stake and ward events
-	private List<CalendarEvent> stakeEventList = new ArrayList<>();
-	private List<CalendarEvent> wardEventList  = new ArrayList<>();
+	// Number of skipped events not listed once the report is full
+	private int unlistedSkippedEvents = 0;
+	
+	// Map of the listed skipped events that were only like a skipped event
+	// to the skipped event and how alike they were
+	private Map<String, TrigramIndex.Match> fuzzySkipMatchMap = new HashMap<>();
+	
+	// Maps of the descriptions classified most recently, so an event that repeats
+	// every week is only checked against the skip sets and wards once
+	private Map<String, SkipRule>         skipDecisionMap = new LruMap<>(LruMap.DESCRIPTION_ENTRIES);
+	private Map<String, EventDescription> descriptions    = new LruMap<>(LruMap.DESCRIPTION_ENTRIES);
+	
+	// Sinks of stake and ward events in date and time order
+	private EventSink stakeEvents;
+	private EventSink wardEvents;
 	
+	// True once the calendar is frozen and no more events can be added
+	private volatile boolean frozen = false;
+	
+	// Reader of the calendar data and the dates it is read for when
+	// only the events of the two week calendar dates are needed, the
+	// dates are kept for the skipped events report once it is read
+	private CalendarDataReader windowReader;
+	private LocalDate windowStartDate;
+	private LocalDate windowEndDate;
+	
+	
+	/**
+	 * Class constructor for the two week calendar which writes events to disk
+	 * when they no longer fit in memory
+	 */
+	public TwoWeekCalendar() {
+		long memoryBudget = Runtime.getRuntime().maxMemory() / 8;
+		stakeEvents = new EventSink(memoryBudget);
+		wardEvents  = new EventSink(memoryBudget);
+	}
+	
+	/**
+	 * Class constructor for a calendar that keeps all of its events in memory
+	 * 
+	 * @param keepAllEvents
+	 *     true if no events should be skipped
+	 */
+	public TwoWeekCalendar(boolean keepAllEvents) {
+		this.keepAllEvents = keepAllEvents;
+		stakeEvents = new EventSink();
+		wardEvents  = new EventSink();
+	}
 	
 	/**
 	 * Main method for the two week calendar application
@@ -108,7 +230,67 @@ public class TwoWeekCalendar {
 	public static void main(String[] args) {
 		TwoWeekCalendar twoWeekCalendar = new TwoWeekCalendar();
 		twoWeekCalendar.parseArgs(args);
-		twoWeekCalendar.run();
+		
+		if (twoWeekCalendar.stakes.size() > 1) {
+			runStakes(args, twoWeekCalendar.stakes);
+		} else {
+			twoWeekCalendar.run();
+		}
+		
+		if (twoWeekCalendar.metricsFile != null && twoWeekCalendar.serverPort == 0) {
+			twoWeekCalendar.writeMetrics();
+		}
+	}
+	
+	/**
+	 * Writes the calendar of each stake at the same time.  Each stake has its
+	 * own calendar with the same settings, which prints to a buffer that is
+	 * printed once the calendars of every stake have been written, so the
+	 * output of each stake is printed together in the order the stakes were
+	 * given.
+	 * 
+	 * @param args
+	 *     the arguments passed to the application
+	 * @param stakes
+	 *     the stakes
+	 */
+	private static void runStakes(String[] args, List<StakeDefinition> stakes) {
+		List<Callable<String>> tasks = new ArrayList<>();
+		
+		for (StakeDefinition stake : stakes) {
+			final TwoWeekCalendar calendar = new TwoWeekCalendar();
+			calendar.parseArgs(args);
+			calendar.setStake(stake);
+			
+			tasks.add(new Callable<String>() {
+				@Override
+				public String call() throws IOException {
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					calendar.console = new PrintStream(out, true, "UTF-8");
+					calendar.run();
+					calendar.console.flush();
+					return out.toString("UTF-8");
+				}
+			});
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(stakes.size(), Runtime.getRuntime().availableProcessors()));
+		
+		try {
+			List<Future<String>> futures = executor.invokeAll(tasks);
+			
+			for (int i = 0; i < futures.size(); i++) {
+				System.out.println(stakes.get(i).getName());
+				System.out.print(futures.get(i).get());
+			}
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		} finally {
+			executor.shutdown();
+		}
 	}
 	
 	/**
@@ -121,26 +303,122 @@ public class TwoWeekCalendar {
 	private void parseArgs(String[] args) {
 		for (String arg : args) {
 			if (arg.equals("-a" )) {
-				CalendarEvent.setIncludeAllDates(true);
+				includeAllDates = true;
 				
 			} else if (arg.equals("-k")) {
 				keepAllEvents = true;
 				
 			} else if (arg.equals("-p")) {
-				CalendarEvent.setWordFormat(false);
 				printCalendar = true;
+				if (!formatsSpecified) outputFormats.clear();
 				
 			} else if (arg.equals("-o")) {
 				readOldStyleData = true;
 				
+			} else if (arg.equals("-i")) {
+				incrementalUpdate = true;
+				
+			} else if (arg.equals("-c")) {
+				checkConflicts = true;
+				
+			} else if (arg.equals("-u")) {
+				analyzeOccupancy = true;
+				
+			} else if (arg.equals("-e")) {
+				eachWard = true;
+				
 			} else if (arg.equals("-h")) {
 				showUsage();
 				System.exit(0);
 				
+			} else if (arg.startsWith("-s")) {
+				serverPort = CalendarServer.DEFAULT_PORT;
+				if (arg.length() > 2) {
+					try {
+						serverPort = Integer.parseInt(arg.substring(2));
+					} catch (NumberFormatException e) {
+						System.out.println("Invalid port specified!  " + arg.substring(2));
+						System.out.println("");
+						showUsage();
+						System.exit(0);
+					}
+				}
+				
+			} else if (arg.startsWith("-d")) {
+				File file = new File(arg.substring(2));
+				if (!file.equals(CalendarDataReader.STANDARD_INPUT) && !file.isFile()) {
+					System.out.println("Calendar data file not found!  " + arg.substring(2));
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				calendarDataFiles.add(file);
+				
+			} else if (arg.startsWith("-f")) {
+				if (!formatsSpecified) outputFormats.clear();
+				formatsSpecified = true;
+				
+				for (String extension : arg.substring(2).split(",")) {
+					OutputFormat format = OutputFormat.forName(extension.trim());
+					if (format == null) {
+						System.out.println("Invalid output format specified!  " + extension);
+						System.out.println("");
+						showUsage();
+						System.exit(0);
+					}
+					outputFormats.add(format);
+				}
+				
+			} else if (arg.startsWith("-x")) {
+				if (arg.length() == 2) {
+					System.out.println("Invalid metrics file specified!  " + arg.substring(2));
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				metricsFile = new File(arg.substring(2));
+				
+			} else if (arg.startsWith("-q")) {
+				try {
+					searchQuery = EventIndex.Query.parse(arg.substring(2));
+				} catch (IllegalArgumentException e) {
+					System.out.println(e.getMessage());
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				
+			} else if (arg.startsWith("-r")) {
+				if (!DATE_PATTERN.matcher(arg.substring(2)).matches()) {
+					System.out.println("Invalid rolling end date specified!  " + arg.substring(2));
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				rollingEndDate = LocalDate.parse(arg.substring(2), DATE_FORMATTER);
+				
+			} else if (arg.startsWith("-t")) {
+				try {
+					fuzzySkipThreshold = Double.parseDouble(arg.substring(2));
+				} catch (NumberFormatException e) {
+					fuzzySkipThreshold = -1;
+				}
+				
+				if (!(fuzzySkipThreshold > 0 && fuzzySkipThreshold <= 1)) {
+					System.out.println("Invalid similarity specified!  " + arg.substring(2));
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				
 			} else if (arg.startsWith("-w")) {
 				specificWard = arg.substring(2).toUpperCase();
-				if (!WARD_CODE_PATTERN.matcher(specificWard).matches()) {
-					System.out.println("Invalid ward pattern specified!  " + specificWard);
+				
+			} else if (arg.startsWith("-n")) {
+				try {
+					stakes.add(StakeRegistry.getDefault().get(new File(arg.substring(2))));
+				} catch (IOException | IllegalArgumentException e) {
+					System.out.println("Invalid stake definition specified!  " + e.getMessage());
 					System.out.println("");
 					showUsage();
 					System.exit(0);
@@ -148,8 +426,8 @@ public class TwoWeekCalendar {
 				
 			} else {
 				if (DATE_PATTERN.matcher(arg).matches()) {
-					LocalDate startDate = LocalDate.parse(arg, DATE_FORMATTER);
-					CalendarEvent.setTwoWeekCalendarDates(startDate);
+					calendarStartDate = LocalDate.parse(arg, DATE_FORMATTER);
+					calendarEndDate   = calendarStartDate.plusWeeks(2).minusDays(1);
 				} else {
 					System.out.println("Invalid argument passed!  " + arg);
 					System.out.println("");
@@ -158,317 +436,535 @@ public class TwoWeekCalendar {
 				}
 			}
 		}
+		
+		for (StakeDefinition wardStake : stakes.isEmpty() ? Collections.singletonList(stake) : stakes) {
+			if (specificWard != null && !wardStake.isWardCode(specificWard)) {
+				System.out.println("Invalid ward pattern specified!  " + specificWard);
+				System.out.println("");
+				showUsage();
+				System.exit(0);
+			}
+		}
+		
+		if (!stakes.isEmpty() && (serverPort > 0 || searchQuery != null || analyzeOccupancy)) {
+			System.out.println("Stake definitions can only be used to write the calendar!");
+			System.out.println("");
+			showUsage();
+			System.exit(0);
+		}
+		
+		if (stakes.size() > 1 && !calendarDataFiles.isEmpty()) {
+			System.out.println("Calendar data files can not be given for more than one stake!");
+			System.out.println("");
+			showUsage();
+			System.exit(0);
+		}
+		
+		if (stakes.size() == 1) setStake(stakes.get(0));
 	}
 	
 	/**
 	 * Calls the methods to read the calendar data and create the two week calendar
 	 */
 	private void run() {
-		if (readCalendarData()) {
-			if (printCalendar) {
-				printCalendar();
-			} else {
-				writeCalendar();
+		if (calendarDataFiles.isEmpty()) calendarDataFiles.add(stake.getCalendarDataFile());
+		
+		if (calendarDataFiles.size() > 1 && (serverPort > 0 || searchQuery != null)) {
+			System.out.println("Only one calendar data file can be served or searched!");
+			System.exit(1);
+		}
+		
+		if (calendarDataFiles.contains(CalendarDataReader.STANDARD_INPUT) && (serverPort > 0 || searchQuery != null)) {
+			System.out.println("Standard input can not be served or searched!");
+			System.exit(1);
+		}
+		
+		if (serverPort > 0) {
+			CalendarServer server = new CalendarServer(calendarDataFiles.get(0), readOldStyleData);
+			server.setMetricsFile(metricsFile);
+			
+			if (!server.start(serverPort)) {
+				System.exit(1);
 			}
+			
+			return;
+			
+		} else if (searchQuery != null) {
+			searchCalendarData();
+			
+		} else if (analyzeOccupancy) {
+			analyzeOccupancy();
+			
+		} else if (rollingEndDate != null) {
+			List<LocalDate> startDates = getRollingStartDates();
+			
+			if (startDates.isEmpty()) {
+				System.out.println("Rolling end date is before the start date!  " + rollingEndDate.format(DATE_FORMATTER));
+				System.exit(1);
+			}
+			
+			LocalDate lastEndDate = startDates.get(startDates.size() - 1).plusWeeks(2).minusDays(1);
+			
+			if (readCalendarData(startDates.get(0), lastEndDate)) {
+				writeRollingCalendars(startDates);
+				
+				if (checkConflicts) printConflicts(startDates.get(0), lastEndDate);
+			}
+			
+			stakeEvents.close();
+			wardEvents.close();
+			
+		} else {
+			LocalDate startDate = calendarStartDate;
+			LocalDate endDate   = calendarEndDate;
+			
+			if (incrementalUpdate) {
+				if (readCalendarData(startDate, endDate)) {
+					updateCalendar();
+					
+					if (checkConflicts) printConflicts(startDate, endDate);
+				}
+				
+			} else if (writeCalendar(true, createPipeline())) {
+				if (checkConflicts) printConflicts(startDate, endDate);
+			}
+			
+			stakeEvents.close();
+			wardEvents.close();
 		}
 	}
 	
 	/**
-	 * Reads the calendar data from a Microsoft Word document.
+	 * Writes the metrics of the run to the metrics file
+	 */
+	private void writeMetrics() {
+		try {
+			MetricsRegistry.getDefault().write(metricsFile);
+		} catch (IOException e) {
+			System.out.println("Error writing " + metricsFile + "!  " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Reads the calendar data from a Microsoft Word document.  When all dates
+	 * are included the whole document is read, so the block cache is used to
+	 * only parse the days that have changed since the last run.  The events
+	 * of more than one document are merged in date and time order and the
+	 * events found in more than one document are only read once.
 	 * 
+	 * @param startDate
+	 *     the first date of the events needed
+	 * @param endDate
+	 *     the last date of the events needed
 	 * @return
 	 *     true if there were no errors reading the data
 	 */
-	private boolean readCalendarData() {
-		if (readOldStyleData) {
-			return readOldCalendarData();
+	private boolean readCalendarData(LocalDate startDate, LocalDate endDate) {
+		CalendarDataReader reader = new CalendarDataReader(calendarDataFiles, readOldStyleData);
+		
+		if (includeAllDates) {
+			reader.setUseBlockCache(true);
 		} else {
-			return readNewCalendarData();
+			windowReader    = reader;
+			windowStartDate = startDate;
+			windowEndDate   = endDate;
+		}
+		
+		try {
+			return reader.read(this);
+		} finally {
+			windowReader = null;
 		}
 	}
 	
 	/**
-	 * Reads the calendar data from a Microsoft Word document.  The data in the Word
-	 * document was copied from the church web site under Leader and Clerk Resources.
+	 * Creates the pipeline that reads the calendar data while the calendar
+	 * is being rendered.  When all dates are included the whole document is
+	 * read, so the block cache is used as it is by readCalendarData.
 	 * 
 	 * @return
-	 *     true if there were no errors reading the data
+	 *     the pipeline of the calendar
 	 */
-	private boolean readOldCalendarData() {
-		LocalDate currentDate = null;
-		LocalTime currentTime = null;
+	private CalendarPipeline createPipeline() {
+		CalendarDataReader reader = new CalendarDataReader(calendarDataFiles, readOldStyleData);
+		reader.setUseBlockCache(includeAllDates);
 		
-		FileInputStream fis = null;
-		XWPFDocument doc = null;
+		if (!includeAllDates) {
+			windowStartDate = calendarStartDate;
+			windowEndDate   = calendarEndDate;
+		}
 		
-		try {
-			fis = new FileInputStream(CALENDAR_DATA);
-			doc = new XWPFDocument(OPCPackage.open(fis));
-			
-			for (XWPFParagraph p : doc.getParagraphs()) {
-				String text = p.getText();
-				
-				if (DATE_PATTERN.matcher(text).matches()) {
-					currentDate = LocalDate.parse(text, DATE_FORMATTER);
-					currentTime = null;
-					
-				} else if (TIME_PATTERN.matcher(text).matches()) {
-					if (text.equals("All Day")) {
-						currentTime = null;
-					} else {
-						text = text.substring(0, text.length()-1) + (text.endsWith("a") ? " AM" : " PM");
-						currentTime = LocalTime.parse(text, TIME_FORMATTER);
-					}
-					
-				} else {
-					if (currentDate == null) {
-						System.out.println("Error:  Date must be first item in list!");
-						return false;
-					}
-					
-					addCalendarEvent(currentDate, currentTime, text);
-				}
-			}
-			
-			return true;
-			
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-			return false;
-			
-		} catch (InvalidFormatException e) {
-			e.printStackTrace();
-			return false;
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-			return false;
+		// The stake events are only kept after they are rendered when they are checked for conflicts
+		return new CalendarPipeline(this, reader, stakeEvents, wardEvents, checkConflicts);
+	}
+	
+	/**
+	 * Prints the events whose descriptions match the search query.  The event
+	 * index saved next to the calendar data is used if the calendar data has
+	 * not changed, so only the first search after a change reads the data.
+	 */
+	private void searchCalendarData() {
+		EventIndex eventIndex = EventIndex.open(calendarDataFiles.get(0), readOldStyleData);
+		if (eventIndex == null) return;
+		
+		if (specificWard != null) searchQuery.setWard(specificWard);
+		
+		long startTime = System.nanoTime();
+		List<CalendarEvent> events = eventIndex.search(searchQuery);
+		long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+		
+		System.out.println("");
+		
+		for (CalendarEvent event : events) {
+			String dates = event.getStartDate().format(DATE_FORMATTER);
+			if (event.isMultiDay()) dates += " - " + event.getEndDate().format(DATE_FORMATTER);
 			
-		} finally {
-			try {
-				if (doc != null) doc.close();
-				if (fis != null) fis.close();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+			System.out.println(String.format("%-23s %-10s %s", dates, event.getTimeString(), event.getDescription()));
 		}
+		
+		System.out.println("");
+		System.out.println(events.size() + " events found in " + elapsedTime + " ms");
 	}
 	
 	/**
-	 * Reads the calendar data from a Microsoft Word document.  The data in the Word
-	 * document was copied from a print of the Agenda View of the Stake Calendar
-	 * on the Church web site.
+	 * Determines if the calendar data, which is in date order, has been read
+	 * past the two week calendar dates and no all day event in the calendar
+	 * can still be extended by the events on a later date
 	 * 
+	 * @param date
+	 *     the date of the event just read
 	 * @return
-	 *     true if there were no errors reading the data
+	 *     true if no more events are needed
 	 */
-	private boolean readNewCalendarData() {
-		LocalDate currentDate = null;
-		LocalTime currentTime = null;
+	private boolean isPastWindow(LocalDate date) {
+		if (!date.isAfter(windowEndDate)) return false;
 		
-		FileInputStream fis = null;
-		XWPFDocument doc = null;
+		LocalDate previousDate = date.minusDays(1);
 		
-		try {
-			fis = new FileInputStream(CALENDAR_DATA);
-			doc = new XWPFDocument(OPCPackage.open(fis));
+		for (CalendarEvent event : allDayEventMap.values()) {
+			if (!event.getEndDate().isBefore(previousDate) && event.isIncluded(windowStartDate, windowEndDate)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Adds an event read from the calendar data to the calendar unless it
+	 * is skipped.  All day events on consecutive dates are merged into a
+	 * single multi-day event, so an all day event is only added to the event
+	 * sinks once the same description is found on a later date or the events
+	 * are requested.  When only the two week calendar dates are needed, events
+	 * at specific times before the calendar dates are not built and reading
+	 * stops once the data has passed the calendar dates.
+	 * 
+	 * @param currentDate
+	 *     the date of the event
+	 * @param currentTime
+	 *     the time of the event or null for an all day event
+	 * @param text
+	 *     the event description
+	 */
+	@Override
+	public void addCalendarEvent(LocalDate currentDate, LocalTime currentTime, String text) {
+		addCalendarEvent(currentDate, currentTime, null, text);
+	}
+	
+	/**
+	 * Adds an event read from the calendar data to the calendar
+	 * along with its end time unless it is skipped
+	 * 
+	 * @param currentDate
+	 *     the date of the event
+	 * @param currentTime
+	 *     the time of the event or null for an all day event
+	 * @param endTime
+	 *     the time the event ends or null if it is not known
+	 * @param text
+	 *     the event description
+	 * @throws IllegalStateException
+	 *     if the calendar is frozen
+	 */
+	@Override
+	public void addCalendarEvent(LocalDate currentDate, LocalTime currentTime, LocalTime endTime, String text) {
+		if (frozen) throw new IllegalStateException("Calendar is already frozen!");
+		
+		if (windowReader != null) {
+			if (currentTime != null && currentDate.isBefore(windowStartDate)) return;
 			
-			for (XWPFParagraph p : doc.getParagraphs()) {
-				String text = p.getText();
-				
-				Matcher dayDateMatcher   = DAY_DATE_PATTERN.matcher(text);
-				Matcher timeEventMatcher = TIME_EVENT_PATTERN.matcher(text);
+			if (isPastWindow(currentDate)) {
+				windowReader.stop();
+				return;
+			}
+		}
+		
+		if (skipEvent(text)) return;
+		
+		includeDate(currentDate);
+		
+		CalendarEvent event = null;
+		
+		if (currentTime == null) {
+			if (allDayEventMap.containsKey(text)) {
+				event = allDayEventMap.get(text);
 				
-				if (dayDateMatcher.matches()) {
-					String month = dayDateMatcher.group(1);
-					String day   = dayDateMatcher.group(2);
-					String year  = dayDateMatcher.group(3);
-					
-					String date = String.format("%s %s, %s", month, day, year);
-					currentDate = LocalDate.parse(date, DATE_FORMATTER2);
-					currentTime = null;
-					
-				} else if (timeEventMatcher.matches()) {
-					if (currentDate == null) {
-						System.out.println("Error:  Date must preceed any events in list!");
-						return false;
-					}
-					
-					String time      = timeEventMatcher.group(1);
-					String startTime = timeEventMatcher.group(2);
-					String startAmPm = timeEventMatcher.group(4);
-					String endAmPm   = timeEventMatcher.group(6);
-					text             = timeEventMatcher.group(7);
-					
-					if (time.equals("All Day")) {
-						currentTime = null;
-					} else {
-						if (!startTime.contains(":")) startTime += ":00";
-						if (startAmPm == null) startAmPm = endAmPm;
-						time = startTime + " " + startAmPm.toUpperCase();
-						currentTime = LocalTime.parse(time, TIME_FORMATTER);
-					}
-					
-					addCalendarEvent(currentDate, currentTime, text);
+				if (event.isNextDay(currentDate)) {
+					event.setEndDate(currentDate);
+				} else {
+					addEvent(event);
+					event = new CalendarEvent(currentDate, text);
+					allDayEventMap.put(text, event);
 				}
+				
+			} else {
+				event = new CalendarEvent(currentDate, text);
+				allDayEventMap.put(text, event);
 			}
 			
-			return true;
-			
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-			return false;
-			
-		} catch (InvalidFormatException e) {
-			e.printStackTrace();
-			return false;
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-			return false;
+		} else {
+			event = new CalendarEvent(currentDate, currentTime, endTime, text);
+			addEvent(event);
+		}
+	}
+	
+	/**
+	 * Reads the events of the calendar data lazily.  The calendar data is only
+	 * read as far as is needed for the events taken from the stream, so callers
+	 * that only need the next few events or the events of one ward can stop
+	 * early.  The events are skipped, merged and selected by ward by the rules
+	 * of this calendar and the stream should be closed if it is not read to
+	 * the end.
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @param oldStyleData
+	 *     true if the file contains the old style of calendar data
+	 * @return
+	 *     the stake and ward events in date and time order
+	 * @throws IOException
+	 *     if the calendar data could not be opened
+	 */
+	public Stream<CalendarEvent> streamEvents(File file, boolean oldStyleData) throws IOException {
+		final EventSpliterator<CalendarEvent> spliterator = new EventSpliterator<CalendarEvent>(
+				new CalendarDataReader(file, oldStyleData), CalendarEvent.DATE_TIME_ORDER) {
+				
+			@Override
+			protected boolean select(String text) {
+				if (skipEvent(text)) return false;
+				return !stake.isWardEvent(text) || stake.isForWard(text, specificWard);
+			}
 			
-		} finally {
-			try {
-				if (doc != null) doc.close();
-				if (fis != null) fis.close();
-			} catch (IOException e) {
-				e.printStackTrace();
+			@Override
+			protected CalendarEvent createEvent(LocalDate date, LocalTime time, LocalTime endTime, String text) {
+				return (time == null) ? new CalendarEvent(date, text) : new CalendarEvent(date, time, endTime, text);
+			}
+		};
+		
+		return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
+			@Override
+			public void run() {
+				spliterator.close();
 			}
+		});
+	}
+	
+	/**
+	 * Widens the calendar dates to include a date when all dates are included
+	 * 
+	 * @param date
+	 *     the date of an event in the calendar
+	 */
+	void includeDate(LocalDate date) {
+		if (includeAllDates) {
+			if (date.isBefore(calendarStartDate)) calendarStartDate = date;
+			if (date.isAfter(calendarEndDate)) calendarEndDate = date;
+		}
+	}
+	
+	/**
+	 * Determines if the calendar dates are widened to include every event
+	 * 
+	 * @return
+	 *     true if all dates are included
+	 */
+	boolean isIncludeAllDates() {
+		return includeAllDates;
+	}
+	
+	/**
+	 * Gets the start date of the calendar
+	 * 
+	 * @return
+	 *     the start date of the calendar
+	 */
+	LocalDate getCalendarStartDate() {
+		return calendarStartDate;
+	}
+	
+	/**
+	 * Gets the end date of the calendar
+	 * 
+	 * @return
+	 *     the end date of the calendar
+	 */
+	LocalDate getCalendarEndDate() {
+		return calendarEndDate;
+	}
+	
+	/**
+	 * Gets the ward whose events are selected
+	 * 
+	 * @return
+	 *     the ward code or null if the events of every ward are selected
+	 */
+	public String getSpecificWard() {
+		return specificWard;
+	}
+	
+	/**
+	 * Selects the events of a specific ward
+	 * 
+	 * @param wardCode
+	 *     the ward code or null to select the events of every ward
+	 */
+	public void setSpecificWard(String wardCode) {
+		if (wardCode != null && !stake.isWardCode(wardCode.toUpperCase())) {
+			throw new IllegalArgumentException("Invalid ward pattern specified!  " + wardCode);
 		}
+		
+		specificWard = (wardCode == null) ? null : wardCode.toUpperCase();
+	}
+	
+	/**
+	 * Gets the stake whose wards, skipped events and files the calendar uses
+	 * 
+	 * @return
+	 *     the stake
+	 */
+	public StakeDefinition getStake() {
+		return stake;
 	}
 	
-	private void addCalendarEvent(LocalDate currentDate, LocalTime currentTime, String text) {
-		if (skipEvent(text)) return;
-		
-		CalendarEvent event = null;
-		
-		if (currentTime == null) {
-			if (allDayEventMap.containsKey(text)) {
-				event = allDayEventMap.get(text);
-				
-				if (event.isNextDay(currentDate)) {
-					event.setEndDate(currentDate);
-				} else {
-					event = new CalendarEvent(currentDate, text);
-					addEvent(event);
-					allDayEventMap.put(text, event);
-				}
-				
-			} else {
-				event = new CalendarEvent(currentDate, text);
-				addEvent(event);
-				allDayEventMap.put(text, event);
-			}
-			
-		} else {
-			event = new CalendarEvent(currentDate, currentTime, text);
-			addEvent(event);
+	/**
+	 * Sets the stake whose wards, skipped events and files the calendar uses
+	 * and reads the skipped event files of the stake.  The stake must be set
+	 * before any calendar data is read.
+	 * 
+	 * @param stake
+	 *     the stake
+	 */
+	public void setStake(StakeDefinition stake) {
+		if (specificWard != null && !stake.isWardCode(specificWard)) {
+			throw new IllegalArgumentException("Invalid ward pattern specified!  " + specificWard);
 		}
+		
+		this.stake = stake;
+		descriptions.clear();
+		reloadSkipLists();
 	}
 	
 	/**
-	 * Adds an event to the appropriate event list
+	 * Gets the stake events that were not skipped
 	 * 
-	 * @param event
-	 *     the event to add
+	 * @return
+	 *     the stake events in date and time order
 	 */
-	private void addEvent(CalendarEvent event) {
-		String eventDescription = event.getDescription();
-		
-		if (isWardEvent(eventDescription)) {
-			if (addWard(eventDescription)) {
-				wardEventList.add(event);
-			}
-		} else {
-			stakeEventList.add(event);
-		}
+	public Iterable<CalendarEvent> getStakeEvents() {
+		if (!frozen) addAllDayEvents();
+		return stakeEvents;
 	}
 	
 	/**
-	 * Determines if the event is a ward event by looking for 
-	 * specific character patterns in the event description
+	 * Gets the ward events that were not skipped
 	 * 
-	 * @param eventDescription
-	 *     the event description
 	 * @return
-	 *     true if the description contains ward specific character patterns
-	 */
-	private boolean isWardEvent(String eventDescription) {
-		String educ = eventDescription.toUpperCase();
-		
-		if (educ.contains("STAKE")) return false;
-		if (educ.contains("SEMINARY")) return false;
-		if (educ.contains("WARD CONFERENCE")) return false;
-		if (educ.contains("BRANCH CONFERENCE")) return false;
-		if (educ.contains("FAMILY HISTORY MARATHON")) return false;
-		
-		return (eventDescription.contains("BP") ||
-				eventDescription.contains("Buena Park") ||
-				eventDescription.contains("CY") ||
-				eventDescription.contains("Cyp") ||
-				eventDescription.contains("Cypress") ||
-				eventDescription.contains("LP") ||
-				eventDescription.contains("La Palma") ||
-				eventDescription.contains("CR") ||
-				eventDescription.contains("Crescent") ||
-				eventDescription.contains("VV") ||
-				eventDescription.contains("V V") ||
-				eventDescription.contains("V. V.") ||
-				eventDescription.contains("Valley View") ||
-				eventDescription.contains("WG") ||
-				eventDescription.contains("West Grove") ||
-				eventDescription.contains("GG") ||
-				eventDescription.contains("Garden Grove") ||
-				eventDescription.contains("Korean"));
-	}
-	
-	/**
-	 * Determines if the ward should be added to the ward event list
-	 * 
-	 * @param eventDescription
-	 *     the event description
+	 *     the ward events in date and time order
+	 */
+	public Iterable<CalendarEvent> getWardEvents() {
+		if (!frozen) addAllDayEvents();
+		return wardEvents;
+	}
+	
+	/**
+	 * Gets the stake events that were not skipped and fall within the given
+	 * dates.  Events that repeat every week are only expanded for the dates.
+	 * 
+	 * @param startDate
+	 *     the first date of the events
+	 * @param endDate
+	 *     the last date of the events
 	 * @return
-	 *     true if no specific ward was given or if the event is for the specific ward
+	 *     the stake events in date and time order
 	 */
-	private boolean addWard(String eventDescription) {
-		if (specificWard == null) return true;
-		
-		for (String wardDescription : getWardDescriptions()) {
-			if (eventDescription.contains(wardDescription)) {
-				return true;
-			}
+	public Iterable<CalendarEvent> getStakeEvents(LocalDate startDate, LocalDate endDate) {
+		if (!frozen) addAllDayEvents();
+		return stakeEvents.getEvents(startDate, endDate);
+	}
+	
+	/**
+	 * Gets the ward events that were not skipped and fall within the given
+	 * dates.  Events that repeat every week are only expanded for the dates.
+	 * 
+	 * @param startDate
+	 *     the first date of the events
+	 * @param endDate
+	 *     the last date of the events
+	 * @return
+	 *     the ward events in date and time order
+	 */
+	public Iterable<CalendarEvent> getWardEvents(LocalDate startDate, LocalDate endDate) {
+		if (!frozen) addAllDayEvents();
+		return wardEvents.getEvents(startDate, endDate);
+	}
+	
+	/**
+	 * Adds the all day events that are still pending and freezes the event
+	 * sinks, so the events can be read by any number of threads without
+	 * locking.  No more events can be added to a frozen calendar.
+	 */
+	synchronized void freeze() {
+		addAllDayEvents();
+		stakeEvents.freeze();
+		wardEvents.freeze();
+		frozen = true;
+	}
+	
+	/**
+	 * Adds the all day events that could still be extended to the event sinks
+	 */
+	private synchronized void addAllDayEvents() {
+		for (CalendarEvent event : allDayEventMap.values()) {
+			addEvent(event);
 		}
 		
-		return false;
+		allDayEventMap.clear();
 	}
 	
 	/**
-	 * Gets an array of ward descriptions based on the specific ward
+	 * Adds an event to the appropriate event list
 	 * 
-	 * @return
-	 *     an array of ward descriptions
-	 */
-	private String[] getWardDescriptions() {
-		if (specificWard == null) {
-			return new String[] {};
-		} else if (specificWard.equals("BP")) {
-			return new String[] {"BP", "Buena Park Ward"};
-		} else if (specificWard.equals("CY")) {
-			return new String[] {"CY", "Cypress Ward"};
-		} else if (specificWard.equals("LP")) {
-			return new String[] {"LP", "La Palma Ward"};
-		} else if (specificWard.equals("CR")) {
-			return new String[] {"CR", "Crescent Ward"};
-		} else if (specificWard.equals("VV")) {
-			return new String[] {"VV", "V V", "V. V.", "Valley View Ward"};
-		} else if (specificWard.equals("CP")) {
-			return new String[] {"CP", "Cypress Park Ward"};
-		} else if (specificWard.equals("WG")) {
-			return new String[] {"WG", "West Grove Ward"};
-		} else if (specificWard.equals("GG")) {
-			return new String[] {"GG", "Garden Grove 11th Branch", "Korean"};
+	 * @param event
+	 *     the event to add
+	 */
+	private void addEvent(CalendarEvent event) {
+		EventDescription description = descriptions.get(event.getDescription());
+		
+		if (description == null) {
+			description = new EventDescription(event.getDescription(), stake);
+			descriptions.put(description.getText(), description);
+		}
+		
+		if (description.isWardEvent()) {
+			if (description.isForWard(specificWard)) {
+				WARD_EVENTS_CLASSIFIED.increment();
+				wardEvents.add(new CompactEvent(event, description));
+			} else {
+				OTHER_WARD_EVENTS_CLASSIFIED.increment();
+			}
 		} else {
-			return new String[] {};
+			STAKE_EVENTS_CLASSIFIED.increment();
+			stakeEvents.add(new CompactEvent(event, description));
 		}
 	}
 	
@@ -518,215 +1014,539 @@ public class TwoWeekCalendar {
 	 * @return
 	 *     true if the event should be skipped
 	 */
-	private boolean skipEvent(String text) {
+	boolean skipEvent(String text) {
 		if (keepAllEvents) return false;
 		
-		if (isSkippedEvent(text)) {
-			int count = 0;
+		SkipRule rule = skipDecisionMap.get(text);
+		if (rule == null) {
+			rule = getSkipRule(text);
+			skipDecisionMap.put(text, rule);
+		}
+		
+		if (rule != SkipRule.NONE) {
+			rule.skipped.increment();
 			
-			if (skippedEventMap.containsKey(text)) {
-				count = skippedEventMap.get(text);
+			if (isListedSkippedEvent(text)) {
+				int count = 0;
+				
+				if (skippedEventMap.containsKey(text)) {
+					count = skippedEventMap.get(text);
+				}
+				
+				skippedEventMap.put(text, ++count);
+			} else {
+				unlistedSkippedEvents++;
 			}
+			return true;
 			
-			skippedEventMap.put(text, ++count);
+		} else if (text.trim().isEmpty()) {
+			SkipRule.BLANK.skipped.increment();
 			return true;
 			
 		} else {
-			return text.trim().isEmpty();
+			return false;
 		}
 	}
 	
 	/**
-	 * Determines if an event is in either of the skip sets
+	 * Determines if an event is in either of the skip sets or is like
+	 * one of the skipped events that start with the fuzzy skip prefix
 	 * 
 	 * @param text
 	 *     the description of the event
 	 * @return
-	 *     true if the event should be skipped
+	 *     the rule that skips the event or NONE if it is not skipped
 	 */
-	private boolean isSkippedEvent(String text) {
-		for (String str : SKIP_IF_CONTAINS_SET) {
-			if (text.contains(str)) return true;
+	private SkipRule getSkipRule(String text) {
+		for (String str : skipIfContainsSet) {
+			if (text.contains(str)) return SkipRule.CONTAINS;
 		}
 		
-		return SKIP_EVENTS_SET.contains(text);
+		if (skipEventsSet.contains(text)) return SkipRule.EXACT;
+		
+		TrigramIndex.Match match = getFuzzySkipIndex().find(text);
+		if (match == null) return SkipRule.NONE;
+		
+		if (isListedSkippedEvent(text)) fuzzySkipMatchMap.put(text, match);
+		return SkipRule.FUZZY;
+	}
+	
+	/**
+	 * Determines if a skipped event is listed in the skipped events report,
+	 * which lists at most MAX_SKIPPED_LISTED different events
+	 * 
+	 * @param text
+	 *     the description of the skipped event
+	 * @return
+	 *     true if the event is or can still be listed
+	 */
+	private boolean isListedSkippedEvent(String text) {
+		return skippedEventMap.size() < MAX_SKIPPED_LISTED || skippedEventMap.containsKey(text);
+	}
+	
+	/**
+	 * Gets the counter of the events classified as one kind of unit
+	 * 
+	 * @param unit
+	 *     stake, ward or other_ward
+	 * @return
+	 *     the counter
+	 */
+	private static MetricsRegistry.Counter getClassifiedCounter(String unit) {
+		return MetricsRegistry.getDefault().counter("twoweekcal_events_classified_total",
+				"Events added to a calendar by the unit they are for", "unit", unit);
 	}
 	
 	/**
-	 * Writes the formatted calendar information to a Microsoft Word document
+	 * Gets the index of the skipped events that start with the fuzzy skip
+	 * prefix, building it the first time it is needed
+	 * 
+	 * @return
+	 *     the index of the fuzzy skipped events
 	 */
-	private void writeCalendar() {
+	private TrigramIndex getFuzzySkipIndex() {
+		if (fuzzySkipIndex == null) {
+			Set<String> entries = new TreeSet<>();
+			
+			for (String str : skipEventsSet) {
+				if (str.startsWith(FUZZY_SKIP_PREFIX)) entries.add(str.substring(FUZZY_SKIP_PREFIX.length()).trim());
+			}
+			
+			fuzzySkipIndex = new TrigramIndex(entries, fuzzySkipThreshold);
+		}
 		
-		XWPFDocument doc = null;
-		FileOutputStream fos = null;
-		XWPFParagraph p;
-		XWPFRun run;
+		return fuzzySkipIndex;
+	}
+	
+	/**
+	 * Reads the skipped event files again so changes made
+	 * since the application started are used
+	 */
+	public void reloadSkipLists() {
+		skipEventsSet     = getFileContents(stake.getSkipEventsFile());
+		skipIfContainsSet = getFileContents(stake.getSkipIfContainsFile());
+		fuzzySkipIndex    = null;
+		skipDecisionMap.clear();
+		fuzzySkipMatchMap.clear();
+	}
+	
+	/**
+	 * Compares the selected events with the snapshot saved by the previous run
+	 * and only writes the output files if the events have changed
+	 */
+	private void updateCalendar() {
+		File snapshotFile = EventSnapshot.getFile(stake.getTwoWeekCalendarFile());
+		EventSnapshot snapshot = new EventSnapshot();
 		
 		try {
-			doc = new XWPFDocument();
-			
-			p = doc.createParagraph();
-			setParagraph(p);
-			run = p.createRun();
-			run.setFontFamily("Times New Roman");
-			run.setBold(true);
-			run.addTab();
-			run.addTab();
-			run.setText(CalendarEvent.getCalendarDates());
-			
-			p = doc.createParagraph();
-			setParagraph(p);
-			run = p.createRun();
-			run.setFontFamily("Times New Roman");
-			run.setUnderline(UnderlinePatterns.SINGLE);
-			run.setBold(true);
-			run.setText("Stake-wide");
-			
-			for (CalendarEvent event : stakeEventList) {
-				if (event.isIncluded()) {
-					p = doc.createParagraph();
-					setParagraph(p);
-					run = p.createRun();
-					run.setFontFamily("Times New Roman");
-					run.setText(event.getDateString());
-					run.addTab();
-					run.setText(event.getTimeString());
-					run.addTab();
-					run.setText(event.getDescription());
-				}
+			RenderPass renderPass = new RenderPass();
+			renderPass.addRenderer(snapshot);
+			LocalDate startDate = calendarStartDate;
+			LocalDate endDate   = calendarEndDate;
+			renderPass.render(startDate, endDate, getStakeEvents(startDate, endDate), getWardEvents(startDate, endDate));
+			
+			EventSnapshot.SnapshotDiff diff = snapshot.diff(EventSnapshot.load(snapshotFile));
+			
+			if (diff.isEmpty() && outputFilesExist()) {
+				writeCalendar(false);
+				console.println("No changes!  " + stake.getTwoWeekCalendarFile() + " was not written.");
+				return;
 			}
 			
-			p = doc.createParagraph();
-			setParagraph(p);
-			run = p.createRun();
-			run.setFontFamily("Times New Roman");
-			run.setText("");
-			
-			CalendarEvent.resetLastDatePrinted();
-			
-			p = doc.createParagraph();
-			setParagraph(p);
-			run = p.createRun();
-			run.setFontFamily("Times New Roman");
-			run.setUnderline(UnderlinePatterns.SINGLE);
-			run.setBold(true);
-			run.setText("Ward Specific");
-			
-			for (CalendarEvent event : wardEventList) {
-				if (event.isIncluded()) {
-					p = doc.createParagraph();
-					setParagraph(p);
-					run = p.createRun();
-					run.setFontFamily("Times New Roman");
-					run.setText(event.getDateString());
-					run.addTab();
-					run.setText(event.getTimeString());
-					run.addTab();
-					run.setText(event.getDescription());
+			if (writeCalendar(true)) {
+				snapshot.save(snapshotFile);
+				diff.printReport(console);
+			}
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Determines if all of the output files exist
+	 * 
+	 * @return
+	 *     true if all of the output files exist
+	 */
+	private boolean outputFilesExist() {
+		for (OutputFormat format : outputFormats) {
+			if (!format.getFile(stake.getTwoWeekCalendarFile()).exists()) return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Writes the formatted calendar information to each of the output files
+	 * and to standard out in a single pass over the events
+	 * 
+	 * @param writeFiles
+	 *     false if only standard out should be written
+	 * @return
+	 *     true if there were no errors writing the calendar
+	 */
+	private boolean writeCalendar(boolean writeFiles) {
+		return writeCalendar(writeFiles, null);
+	}
+	
+	/**
+	 * Writes the formatted calendar information to each of the output files
+	 * and to standard out in a single pass over the events.  Each file is
+	 * written next to the output file and only replaces it once the whole
+	 * calendar has been written, so an error part way through the calendar
+	 * data never leaves a partial calendar behind.
+	 * 
+	 * @param writeFiles
+	 *     false if only standard out should be written
+	 * @param pipeline
+	 *     the pipeline that reads the calendar data while the calendar is
+	 *     rendered or null if the calendar data has already been read
+	 * @return
+	 *     true if there were no errors reading the data or writing the calendar
+	 */
+	private boolean writeCalendar(boolean writeFiles, CalendarPipeline pipeline) {
+		RenderPass renderPass = new RenderPass();
+		List<OutputStream> outputStreams = new ArrayList<>();
+		Map<File, File> tempFiles = new LinkedHashMap<>();
+		boolean success = false;
+		
+		try {
+			if (writeFiles) {
+				for (OutputFormat format : outputFormats) {
+					File file = format.getFile(stake.getTwoWeekCalendarFile());
+					File tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+					tempFiles.put(file, tempFile);
+					
+					OutputStream out = new FileOutputStream(tempFile);
+					outputStreams.add(out);
+					renderPass.addRenderer(format.createRenderer(out));
 				}
 			}
 			
-			fos = new FileOutputStream(TWO_WEEK_CAL);
-			doc.write(fos);
-			fos.close();
+			if (printCalendar) {
+				renderPass.addRenderer(new TextRenderer(new OutputStreamWriter(console)));
+			}
 			
-			printSkippedEvents();
+			if (pipeline != null) {
+				success = pipeline.render(renderPass);
+			} else {
+				LocalDate startDate = calendarStartDate;
+				LocalDate endDate   = calendarEndDate;
+				renderPass.render(startDate, endDate, getStakeEvents(startDate, endDate), getWardEvents(startDate, endDate));
+				success = true;
+			}
 			
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
 			e.printStackTrace();
 		} finally {
-			try {
-				if (doc != null) doc.close();
-				if (fos != null) fos.close();
-			} catch (IOException e) {
-				e.printStackTrace();
+			for (OutputStream out : outputStreams) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+					success = false;
+				}
 			}
+			
+			success = replaceOutputFiles(tempFiles, success);
 		}
+		
+		printSkippedEvents();
+		return success;
 	}
 	
 	/**
-	 * Sets the formatting of a paragraph in the MS Word document
+	 * Replaces each output file with the temporary file it was written to
+	 * or, if the calendar was not written, removes the temporary files
 	 * 
-	 * @param p
-	 *     the MS Word paragraph
+	 * @param tempFiles
+	 *     the temporary file of each output file
+	 * @param success
+	 *     true if the calendar was written to the temporary files
+	 * @return
+	 *     true if every output file was replaced
 	 */
-	private void setParagraph(XWPFParagraph p) {
-		p.setIndentationHanging(3600);
-		p.setIndentationLeft(3600);
-		p.setIndentFromLeft(3600);
-		p.setSpacingAfter(0);
-		p.setSpacingBetween(1.0);
-		setTabStop(p, STTabJc.LEFT, new BigInteger("2160"));
-		setTabStop(p, STTabJc.LEFT, new BigInteger("3600"));
+	private static boolean replaceOutputFiles(Map<File, File> tempFiles, boolean success) {
+		for (Map.Entry<File, File> entry : tempFiles.entrySet()) {
+			File tempFile = entry.getValue();
+			
+			if (success) {
+				try {
+					Files.move(tempFile.toPath(), entry.getKey().toPath(), StandardCopyOption.REPLACE_EXISTING);
+					continue;
+				} catch (IOException e) {
+					e.printStackTrace();
+					success = false;
+				}
+			}
+			
+			if (!tempFile.delete()) tempFile.deleteOnExit();
+		}
+		
+		return success;
 	}
 	
 	/**
-	 * Sets a tab stop in a paragraph in the MS Word document
-	 * 
-	 * @param p
-	 *     the MS Word paragraph
-	 * @param tabType
-	 *     the tab type (Left, Center, Right, etc.)
-	 * @param pos
-	 *     the position of the tab (1440 = 1 inch)
+	 * Prints a list of skipped events.  An event skipped for being like a
+	 * fuzzy skipped event is followed by that event and how alike they are.
+	 * When only the two week calendar dates were read the counts are only
+	 * those of the dates read, which the list says.
+	 */
+	private void printSkippedEvents() {
+		if (!keepAllEvents) {
+			console.println("");
+			console.println("SKIPPED EVENTS");
+			if (windowStartDate != null) {
+				console.println("(counted for " + windowStartDate.format(DATE_FORMATTER) + " - "
+						+ windowEndDate.format(DATE_FORMATTER) + " only, use -a to count every date)");
+			}
+			for (String text : skippedEventMap.keySet()) {
+				TrigramIndex.Match match = fuzzySkipMatchMap.get(text);
+				
+				if (match == null) {
+					console.println(text + " (" + skippedEventMap.get(text) + ")");
+				} else {
+					console.println(text + " (" + skippedEventMap.get(text) + ") " + FUZZY_SKIP_PREFIX + match);
+				}
+			}
+			if (unlistedSkippedEvents > 0) {
+				console.println("... and " + unlistedSkippedEvents + " more skipped events not listed");
+			}
+			console.println("");
+		}
+	}
+	
+	/**
+	 * Prints a heat map of the time slots used by the events of every date
+	 * and writes the slot counts to a CSV file.  The calendar data is read in
+	 * a single pass and the events are counted as they are read, so years of
+	 * data can be analyzed without keeping the events.
 	 */
-	private void setTabStop(XWPFParagraph p, STTabJc.Enum tabType, BigInteger pos) {
-		CTP ctp = p.getCTP();
+	private void analyzeOccupancy() {
+		int workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		final OccupancyAnalyzer analyzer = new OccupancyAnalyzer(workerCount, specificWard);
 		
-		CTPPr ppr = ctp.getPPr();
-		if (ppr == null) {
-			ppr = ctp.addNewPPr();
+		CalendarDataReader reader = new CalendarDataReader(calendarDataFiles, readOldStyleData);
+		reader.setUseBlockCache(true);
+		
+		long startTime = System.nanoTime();
+		
+		try {
+			boolean success = reader.read(new CalendarDataHandler() {
+				@Override
+				public void addCalendarEvent(LocalDate date, LocalTime time, String text) {
+					addCalendarEvent(date, time, null, text);
+				}
+				
+				@Override
+				public void addCalendarEvent(LocalDate date, LocalTime startTime, LocalTime endTime, String text) {
+					if (skipEvent(text)) return;
+					
+					try {
+						analyzer.addEvent(date, startTime, endTime, text);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException("Interrupted while analyzing events!", e);
+					}
+				}
+			});
+			
+			if (!success) return;
+			
+			OccupancyMatrix matrix = analyzer.finish();
+			long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+			
+			OutputStreamWriter writer = new OutputStreamWriter(System.out);
+			writer.write(String.format("%nOCCUPANCY%n"));
+			if (analyzer.getFirstDate() != null) {
+				writer.write(String.format("%s - %s, %d events (%d all day events are not in a time slot)%n%n",
+						analyzer.getFirstDate().format(DATE_FORMATTER), analyzer.getLastDate().format(DATE_FORMATTER),
+						analyzer.getEventCount(), analyzer.getAllDayEventCount()));
+			}
+			matrix.writeHeatMap(writer);
+			
+			if (analyzer.getNoEndTimeCount() > 0) {
+				writer.write(String.format("End times are not listed in the old style of calendar data, " +
+						"so each event only fills the slot it starts in.%n%n"));
+			}
+			
+			writer.write(String.format("%d events analyzed in %d ms%n", analyzer.getEventCount(), elapsedTime));
+			writer.flush();
+			
+			try (OutputStreamWriter csv = new OutputStreamWriter(new FileOutputStream(OCCUPANCY), "UTF-8")) {
+				matrix.writeCsv(csv);
+			}
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			analyzer.close();
 		}
+	}
+	
+	/**
+	 * Gets the start dates of the rolling calendars, every two weeks from the
+	 * calendar start date through the rolling end date
+	 * 
+	 * @return
+	 *     the start date of each two week calendar
+	 */
+	private List<LocalDate> getRollingStartDates() {
+		List<LocalDate> startDates = new ArrayList<>();
 		
-		CTTabs tabs = ppr.getTabs();
-		if (tabs == null) {
-			tabs = ppr.addNewTabs();
+		for (LocalDate date = calendarStartDate; !date.isAfter(rollingEndDate); date = date.plusWeeks(2)) {
+			startDates.add(date);
 		}
 		
-		CTTabStop tabStop = tabs.addNewTab();
-		tabStop.setVal(tabType);
-		tabStop.setPos(pos);
+		return startDates;
 	}
 	
 	/**
-	 * Prints the calendar to standard out
+	 * Writes a two week calendar for each of the start dates, and for each ward
+	 * when requested, from the events read in a single pass.  The calendars are
+	 * rendered at the same time and each one only reads the events of its own
+	 * dates from the sorted event sinks.  The calendars printed to standard out
+	 * are printed in date order once they have all been rendered.
+	 * 
+	 * @param startDates
+	 *     the start date of each two week calendar
 	 */
-	private void printCalendar() {
-		System.out.println("");
-		System.out.printf("%28s%s%n", "", CalendarEvent.getCalendarDates());
-		System.out.println("Stake-wide");
-		for (CalendarEvent event : stakeEventList) {
-			if (event.isIncluded()) {
-				System.out.println(event);
-			}
-		}
-		System.out.println("");
+	private void writeRollingCalendars(List<LocalDate> startDates) {
+		List<String> wardCodes = new ArrayList<>();
+		wardCodes.add(specificWard);
+		if (eachWard && specificWard == null) wardCodes.addAll(stake.getWardCodes());
 		
-		CalendarEvent.resetLastDatePrinted();
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		long startTime = System.nanoTime();
 		
-		System.out.println("Ward Specific");
-		for (CalendarEvent event : wardEventList) {
-			if (event.isIncluded()) {
-				System.out.println(event);
+		try {
+			List<Future<String>> futures = new ArrayList<>();
+			
+			for (final LocalDate startDate : startDates) {
+				for (final String wardCode : wardCodes) {
+					futures.add(executor.submit(new Callable<String>() {
+						@Override
+						public String call() throws IOException {
+							return writeRollingCalendar(startDate, wardCode);
+						}
+					}));
+				}
 			}
+			
+			for (Future<String> future : futures) {
+				String calendar = future.get();
+				if (calendar != null) console.print(calendar);
+			}
+			
+			long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+			console.println("");
+			console.println(futures.size() + " two week calendars rendered in " + elapsedTime + " ms");
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		} finally {
+			executor.shutdown();
 		}
+		
 		printSkippedEvents();
 	}
 	
 	/**
-	 * Prints a list of skipped events
+	 * Writes one of the rolling calendars to each of the output files
+	 * 
+	 * @param startDate
+	 *     the start date of the calendar
+	 * @param wardCode
+	 *     the ward whose events are listed or null for every ward
+	 * @return
+	 *     the calendar to print to standard out or null if it is not printed
+	 * @throws IOException
+	 *     if any of the output files could not be written
 	 */
-	private void printSkippedEvents() {
-		if (!keepAllEvents) {
-			System.out.println("");
-			System.out.println("SKIPPED EVENTS");
-			for (String text : skippedEventMap.keySet()) {
-				System.out.println(text + " (" + skippedEventMap.get(text) + ")");
+	private String writeRollingCalendar(LocalDate startDate, String wardCode) throws IOException {
+		LocalDate endDate = startDate.plusWeeks(2).minusDays(1);
+		
+		RenderPass renderPass = new RenderPass();
+		List<OutputStream> outputStreams = new ArrayList<>();
+		StringWriter calendar = null;
+		
+		try {
+			File file = stake.getTwoWeekCalendarFile();
+			String name = file.getName();
+			name = name.substring(0, name.lastIndexOf('.')) + " " + startDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
+			if (wardCode != null) name += " " + wardCode;
+			
+			for (OutputFormat format : outputFormats) {
+				OutputStream out = new FileOutputStream(format.getFile(new File(file.getParentFile(), name)));
+				outputStreams.add(out);
+				renderPass.addRenderer(format.createRenderer(out));
 			}
-			System.out.println("");
+			
+			if (printCalendar) {
+				calendar = new StringWriter();
+				renderPass.addRenderer(new TextRenderer(calendar));
+			}
+			
+			Iterable<CalendarEvent> windowWardEvents = getWardEvents(startDate, endDate);
+			
+			if (wardCode != null && !wardCode.equals(specificWard)) {
+				List<CalendarEvent> events = new ArrayList<>();
+				
+				for (CalendarEvent event : windowWardEvents) {
+					if (stake.isForWard(event.getDescription(), wardCode)) {
+						events.add(event);
+					}
+				}
+				
+				windowWardEvents = events;
+			}
+			
+			renderPass.render(startDate, endDate, getStakeEvents(startDate, endDate), windowWardEvents);
+			
+		} finally {
+			for (OutputStream out : outputStreams) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		return (calendar == null) ? null : calendar.toString();
+	}
+	
+	/**
+	 * Prints a list of the events of different units whose times overlap
+	 * 
+	 * @param startDate
+	 *     the first date of the events checked
+	 * @param endDate
+	 *     the last date of the events checked
+	 */
+	private void printConflicts(LocalDate startDate, LocalDate endDate) {
+		ConflictDetector conflictDetector = new ConflictDetector(stake);
+		List<ConflictDetector.Conflict> conflicts =
+				conflictDetector.findConflicts(getStakeEvents(startDate, endDate), getWardEvents(startDate, endDate));
+		
+		console.println("CONFLICTS");
+		for (ConflictDetector.Conflict conflict : conflicts) {
+			console.println(conflict);
+		}
+		
+		if (conflictDetector.getEventsChecked() == 0 && readOldStyleData) {
+			console.println("End times are not listed in the old style of calendar data.");
 		}
+		console.println("");
 	}
 	
 	/**
@@ -738,7 +1558,7 @@ public class TwoWeekCalendar {
 		System.out.println("Cypress California Stake.");
 		System.out.println("");
 		System.out.println("Usage:");
-		System.out.println("    java -jar TwoWeekCalendar.jar [-a] [-k] [-p] [-h] [-o] [-wCODE] [start_date]");
+		System.out.println("    java -jar TwoWeekCalendar.jar [-a] [-k] [-p] [-h] [-o] [-i] [-c] [-u] [-e] [-dFILE]... [-rDATE] [-wCODE] [-fFORMATS] [-sPORT] [-qQUERY] [-tSIMILARITY] [-xFILE] [-nFILE]... [start_date]");
 		System.out.println("");
 		System.out.println("Optional Flags:");
 		System.out.println("    -a - include all dates");
@@ -746,14 +1566,77 @@ public class TwoWeekCalendar {
 		System.out.println("    -p - print to standard out");
 		System.out.println("    -h - help - show these usage instructions");
 		System.out.println("    -o - read old style calendar data");
+		System.out.println("    -i - incremental - only write the output files when the events change");
+		System.out.println("    -c - conflicts - list events of different wards or the stake at the same time");
+		System.out.println("    -u - utilization - print a heat map of the busiest weekday time slots of every");
+		System.out.println("         date for the stake and each ward instead of writing the calendar");
+		System.out.println("         and write the counts of each 15 minute slot to Occupancy.csv");
+		System.out.println("    -d - read the calendar data from a file other than Calendar Data.docx");
+		System.out.println("         followed by the file name, repeated to merge the events of several");
+		System.out.println("         files in date order with the events found in more than one file listed once");
+		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar \"-dStake Calendar.docx\" \"-dBP Calendar.docx\")");
+		System.out.println("         a file ending in .txt is read as plain text with one paragraph on each line");
+		System.out.println("         and -d- reads plain text from standard input");
+		System.out.println("         (E.g. pbpaste | java -jar TwoWeekCalendar.jar -d- -p)");
+		System.out.println("    -r - rolling - write a two week calendar for every two weeks through a date");
+		System.out.println("         followed by the last date in the format mm/dd/yyyy");
+		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar -r12/31/2026 10/22/2026)");
+		System.out.println("         each calendar is named for its start date (Two Week Calendar 2026-10-22.docx)");
+		System.out.println("    -e - each ward - also write a rolling calendar for each ward");
 		System.out.println("    -w - show only a specific ward");
 		System.out.println("         followed by the ward code");
 		System.out.println("         (BP|CY|LP|CR|VV|CP|WG|GG)");
 		System.out.println("         BP=Buena Park, CY=Cypress, etc.");
 		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar -wBP)");
+		System.out.println("    -f - write the calendar in specific formats");
+		System.out.println("         followed by a comma separated list of formats");
+		System.out.println("         (docx|txt|html|md|json)");
+		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar -fdocx,html,json)");
+		System.out.println("    -s - serve the two week calendar and upcoming events over HTTP");
+		System.out.println("         optionally followed by the port (default 8080)");
+		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar -s8080)");
+		System.out.println("         /two-week?start=mm/dd/yyyy&ward=CODE&format=docx|text|html|md|json");
+		System.out.println("         /upcoming?major=true&format=docx|text|html|md|json");
+		System.out.println("         /search?q=QUERY&from=mm/dd/yyyy&to=mm/dd/yyyy&ward=CODE&format=docx|text|html|md|json");
+		System.out.println("    -q - search the event descriptions of all dates instead of writing the calendar");
+		System.out.println("         followed by the words to find, \"a phrase\", a prefix*,");
+		System.out.println("         from:mm/dd/yyyy, to:mm/dd/yyyy and ward:CODE");
+		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar \"-qyouth temple from:1/1/2024\")");
+		System.out.println("    -t - the similarity from 0 to 1 a description needs to be skipped by a line of");
+		System.out.println("         " + SKIP_EVENTS + " that starts with " + FUZZY_SKIP_PREFIX + " (default " + DEFAULT_FUZZY_THRESHOLD + ")");
+		System.out.println("         (E.g. ~Stake Council Meeting also skips Stake Council Mtg)");
+		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar -t0.8)");
+		System.out.println("    -x - write the metrics of the run in the Prometheus text format to a file");
+		System.out.println("         followed by the file name (rewritten every few seconds while serving,");
+		System.out.println("         the server also lists them at /metrics)");
+		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar -xmetrics.prom)");
+		System.out.println("    -n - write the calendar of a stake other than the Cypress California Stake");
+		System.out.println("         followed by the stake definition file, which lists the name of the stake,");
+		System.out.println("         its wards and their aliases, the words of stake events and the files");
+		System.out.println("         of the stake, repeated to write the calendars of several stakes at once");
+		System.out.println("         (E.g. java -jar TwoWeekCalendar.jar \"-nOrange/Orange Stake.properties\")");
 		System.out.println("");
 		System.out.println("    start_date - an optional start date in the format mm/dd/yyyy");
 		System.out.println("                 the default start date is the next Thursday");
 		System.out.println("");
 	}
+	
+	/***************************************************************************
+	 * The rules an event can be skipped by and the count of the events each
+	 * rule has skipped
+	 ***************************************************************************/
+	private enum SkipRule {
+		NONE(null),
+		CONTAINS("contains"),
+		EXACT("exact"),
+		FUZZY("fuzzy"),
+		BLANK("blank");
+		
+		private final MetricsRegistry.Counter skipped;
+		
+		private SkipRule(String name) {
+			this.skipped = (name == null) ? null : MetricsRegistry.getDefault().counter(
+					"twoweekcal_events_skipped_total", "Events skipped by each skip rule", "rule", name);
+		}
+	}
 }
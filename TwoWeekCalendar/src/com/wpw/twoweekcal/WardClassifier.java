@@ -0,0 +1,115 @@
+package com.wpw.twoweekcal;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.wpw.events.StakeDefinition;
+
+/*******************************************************************************
+ * Classifies events as stake or ward events by looking for ward specific
+ * character patterns in the event description
+ * 
+ * The rules are those of the default stake (see StakeDefinition).  A calendar
+ * of another stake classifies its events with the definition of that stake.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public final class WardClassifier {
+	
+	// Valid Ward Codes
+	public static final Pattern WARD_CODE_PATTERN = StakeDefinition.getDefault().getWardCodePattern();
+	public static final List<String> WARD_CODES    = StakeDefinition.getDefault().getWardCodes();
+	
+	// Unit of the events that are not ward events
+	public static final String STAKE_UNIT = StakeDefinition.STAKE_UNIT;
+	
+	// Unit of the ward events whose ward is not known
+	public static final String WARD_UNIT = StakeDefinition.WARD_UNIT;
+	
+	// Bit set in the ward mask of every ward event, above the bit of each ward code
+	public static final int WARD_EVENT = StakeDefinition.WARD_EVENT;
+	
+	private WardClassifier() {
+	}
+	
+	/**
+	 * Determines if the event is a ward event by looking for 
+	 * specific character patterns in the event description
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @return
+	 *     true if the description contains ward specific character patterns
+	 */
+	public static boolean isWardEvent(String eventDescription) {
+		return StakeDefinition.getDefault().isWardEvent(eventDescription);
+	}
+	
+	/**
+	 * Determines if a ward event is for a specific ward
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @param wardCode
+	 *     the ward code or null for all wards
+	 * @return
+	 *     true if no specific ward was given or if the event is for the specific ward
+	 */
+	public static boolean isForWard(String eventDescription, String wardCode) {
+		return StakeDefinition.getDefault().isForWard(eventDescription, wardCode);
+	}
+	
+	/**
+	 * Gets the unit an event is for
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @return
+	 *     the ward code, STAKE_UNIT for a stake event
+	 *     or WARD_UNIT for a ward event of an unknown ward
+	 */
+	public static String getUnit(String eventDescription) {
+		return StakeDefinition.getDefault().getUnit(eventDescription);
+	}
+	
+	/**
+	 * Gets the wards an event is for as a bit mask, so the wards only need to be
+	 * found once for each description
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @return
+	 *     0 for a stake event or WARD_EVENT and the bit of each ward code
+	 *     (see getWardBit) the event is for
+	 */
+	public static int getWardMask(String eventDescription) {
+		return StakeDefinition.getDefault().getWardMask(eventDescription);
+	}
+	
+	/**
+	 * Gets the bit of a ward code in a ward mask
+	 * 
+	 * @param wardCode
+	 *     the ward code
+	 * @return
+	 *     the bit of the ward code or 0 if it is not a valid ward code
+	 */
+	public static int getWardBit(String wardCode) {
+		return StakeDefinition.getDefault().getWardBit(wardCode);
+	}
+	
+	/**
+	 * Gets an array of ward descriptions based on the ward code
+	 * 
+	 * @param wardCode
+	 *     the ward code
+	 * @return
+	 *     an array of ward descriptions
+	 */
+	public static String[] getWardDescriptions(String wardCode) {
+		return StakeDefinition.getDefault().getWardDescriptions(wardCode);
+	}
+}
@@ -0,0 +1,266 @@
+package com.wpw.events;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*******************************************************************************
+ * A snapshot of the events selected for an output document
+ * 
+ * The snapshot is built by a render pass like any other output and is saved
+ * next to the output document.  On the next run the new snapshot is compared
+ * with the saved one to decide if the document needs to be written again.
+ * Each event is saved on one line as tab separated fields.
+ * 
+ * The two week calendar and the upcoming events each save their own fields
+ * (see their EventSnapshot), and an event is known by its key fields, so the
+ * rest of its fields can change without the event being added and removed.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public abstract class AbstractEventSnapshot {
+	
+	// File name extension for saved snapshots
+	public static final String EXTENSION = "snapshot";
+	
+	// Number of fields of each event and the fields that tell the events apart
+	private final int fieldCount;
+	private final int[] keyFields;
+	
+	protected final List<String> lines = new ArrayList<>();
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param fieldCount
+	 *     the number of fields saved for each event
+	 * @param keyFields
+	 *     the index of each field that tells the events apart
+	 */
+	protected AbstractEventSnapshot(int fieldCount, int... keyFields) {
+		this.fieldCount = fieldCount;
+		this.keyFields  = keyFields;
+	}
+	
+	/**
+	 * Gets the snapshot file for an output file
+	 * 
+	 * @param outputFile
+	 *     the output file (E.g. Major Events.docx)
+	 * @return
+	 *     the snapshot file (E.g. Major Events.snapshot)
+	 */
+	public static File getFile(File outputFile) {
+		String name = outputFile.getName();
+		int dot = name.lastIndexOf('.');
+		if (dot > 0) name = name.substring(0, dot);
+		
+		return new File(outputFile.getParentFile(), name + "." + EXTENSION);
+	}
+	
+	/**
+	 * Reads a saved snapshot into this snapshot
+	 * 
+	 * @param file
+	 *     the snapshot file, which is skipped if it does not exist
+	 * @throws IOException
+	 *     if the file could not be read
+	 */
+	protected void read(File file) throws IOException {
+		if (!file.exists()) return;
+		
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				lines.add(line);
+			}
+		}
+	}
+	
+	/**
+	 * Saves the snapshot
+	 * 
+	 * @param file
+	 *     the snapshot file
+	 * @throws IOException
+	 *     if the file could not be written
+	 */
+	public void save(File file) throws IOException {
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			for (String line : lines) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		}
+	}
+	
+	/**
+	 * Compares this snapshot with a previous snapshot
+	 * 
+	 * @param previous
+	 *     the previous snapshot
+	 * @return
+	 *     the differences between the snapshots
+	 */
+	public SnapshotDiff diff(AbstractEventSnapshot previous) {
+		SnapshotDiff diff = new SnapshotDiff(!lines.equals(previous.lines));
+		
+		Map<String, String[]> previousEntries = previous.getEntries();
+		Map<String, String[]> currentEntries  = getEntries();
+		
+		for (Map.Entry<String, String[]> entry : currentEntries.entrySet()) {
+			String[] old = previousEntries.get(entry.getKey());
+			
+			if (old == null) {
+				diff.added.add(entry.getValue());
+			} else if (!Arrays.equals(old, entry.getValue())) {
+				diff.changed.add(entry.getValue());
+				diff.changedFrom.add(old);
+			}
+		}
+		
+		for (Map.Entry<String, String[]> entry : previousEntries.entrySet()) {
+			if (!currentEntries.containsKey(entry.getKey())) {
+				diff.removed.add(entry.getValue());
+			}
+		}
+		
+		return diff;
+	}
+	
+	/**
+	 * Gets the snapshot entries keyed by their key fields.  Repeated events
+	 * get an occurrence number added to the key.
+	 * 
+	 * @return
+	 *     the fields of each event keyed by event
+	 */
+	private Map<String, String[]> getEntries() {
+		Map<String, String[]> entries = new LinkedHashMap<>();
+		
+		for (String line : lines) {
+			String[] fields = line.split("\t", -1);
+			if (fields.length != fieldCount) continue;
+			
+			StringBuilder key = new StringBuilder();
+			for (int keyField : keyFields) key.append(fields[keyField]).append('\t');
+			
+			int occurrence = 1;
+			while (entries.containsKey(key.toString() + occurrence)) {
+				occurrence++;
+			}
+			
+			entries.put(key.toString() + occurrence, fields);
+		}
+		
+		return entries;
+	}
+	
+	/**
+	 * Formats the fields of an event for the change report
+	 * 
+	 * @param fields
+	 *     the fields of an event
+	 * @return
+	 *     the formatted event
+	 */
+	protected abstract String format(String[] fields);
+	
+	/**
+	 * Gets the note of the change report when only the order of the lines changed
+	 * 
+	 * @return
+	 *     the note
+	 */
+	protected String getOrderChangedNote() {
+		return "(event order changed)";
+	}
+	
+	/**
+	 * Escapes the characters used to separate fields and lines
+	 * 
+	 * @param text
+	 *     the text to escape
+	 * @return
+	 *     the escaped text
+	 */
+	protected static String escape(String text) {
+		return text.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+	}
+	
+	/***************************************************************************
+	 * The differences between two snapshots
+	 ***************************************************************************/
+	public class SnapshotDiff {
+		private final boolean different;
+		
+		private final List<String[]> added       = new ArrayList<>();
+		private final List<String[]> removed     = new ArrayList<>();
+		private final List<String[]> changed     = new ArrayList<>();
+		private final List<String[]> changedFrom = new ArrayList<>();
+		
+		private SnapshotDiff(boolean different) {
+			this.different = different;
+		}
+		
+		/**
+		 * Determines if the snapshots are identical
+		 * 
+		 * @return
+		 *     true if the snapshots are identical
+		 */
+		public boolean isEmpty() {
+			return !different;
+		}
+		
+		/**
+		 * Prints a report of the added, removed and changed events
+		 */
+		public void printReport() {
+			printReport(System.out);
+		}
+		
+		/**
+		 * Prints a report of the added, removed and changed events
+		 * 
+		 * @param out
+		 *     the stream to print the report to
+		 */
+		public void printReport(PrintStream out) {
+			out.println("");
+			out.println("CHANGED EVENTS");
+			
+			for (String[] fields : added) {
+				out.println("+ " + format(fields));
+			}
+			
+			for (String[] fields : removed) {
+				out.println("- " + format(fields));
+			}
+			
+			for (int i = 0; i < changed.size(); i++) {
+				out.println("~ " + format(changed.get(i)) + "  (was " + format(changedFrom.get(i)) + ")");
+			}
+			
+			if (different && added.isEmpty() && removed.isEmpty() && changed.isEmpty()) {
+				out.println(getOrderChangedNote());
+			}
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.wpw.events;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/*******************************************************************************
+ * Receives the events read from the calendar data
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public interface CalendarDataHandler {
+	
+	/**
+	 * Adds an event read from the calendar data
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param time
+	 *     the time of the event or null for an all day event
+	 * @param text
+	 *     the event description
+	 */
+	void addCalendarEvent(LocalDate date, LocalTime time, String text);
+	
+	/**
+	 * Adds an event read from the calendar data along with its end time.  The
+	 * reader of the two week calendar and the CalendarDataMerger always call
+	 * this method, so handlers that need the end time override it and the
+	 * rest ignore the end time.
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param startTime
+	 *     the start time of the event or null for an all day event
+	 * @param endTime
+	 *     the end time of the event or null if it is not known
+	 * @param text
+	 *     the event description
+	 */
+	default void addCalendarEvent(LocalDate date, LocalTime startTime, LocalTime endTime, String text) {
+		addCalendarEvent(date, startTime, text);
+	}
+}
@@ -0,0 +1,346 @@
+package com.wpw.events;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/*******************************************************************************
+ * Merges the calendar data of several files into a single stream of events
+ * in date and time order
+ * 
+ * The stake calendar and each ward calendar are exported separately and each
+ * file lists its days in date order.  The files are read at the same time, one
+ * event at a time, and a queue keyed on the date and time of the next event of
+ * each file gives the events in order, so only one event of each file is held
+ * in memory no matter how many events the files have.  When files are given
+ * the same date and time, the event of the file listed first comes first.
+ * 
+ * An event found in more than one file (like a stake event that is also on a
+ * ward calendar) is only passed on once.  Each event is reduced to a
+ * fingerprint of its date, start and end time and description, and the event is
+ * dropped when its fingerprint has already been seen.  Only the events of the
+ * same date can be duplicates, so the fingerprints are cleared each time the
+ * date changes.
+ * 
+ * Each file is read by its own CalendarDataSource, so the same merger serves
+ * the calendar data readers of the two week calendar and of the upcoming
+ * events.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class CalendarDataMerger implements Closeable {
+	
+	private final Source[] sources;
+	
+	// Sources with an event waiting, ordered by the date and time of the event
+	private final PriorityQueue<Source> queue;
+	
+	// Fingerprints and description ids of the events of the current date
+	private final FingerprintSet fingerprints = new FingerprintSet();
+	private final Map<String, Integer> descriptionIds = new HashMap<>();
+	private long currentEpochDay;
+	
+	private boolean opened;
+	private int duplicatesDropped;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param files
+	 *     the calendar data files in the order their events are preferred
+	 * @param readers
+	 *     the reader of each of the files
+	 */
+	public CalendarDataMerger(List<File> files, List<? extends CalendarDataSource> readers) {
+		if (files.size() != readers.size()) throw new IllegalArgumentException("Each calendar data file needs a reader!");
+		
+		sources = new Source[files.size()];
+		
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = new Source(files.get(i), readers.get(i), i);
+		}
+		
+		queue = new PriorityQueue<>(Math.max(1, sources.length));
+	}
+	
+	/**
+	 * Opens each of the files and reads its first event
+	 * 
+	 * @throws IOException
+	 *     if the calendar data could not be opened or is not valid
+	 */
+	public void open() throws IOException {
+		if (opened) throw new IllegalStateException("Calendar data is already open!");
+		
+		opened = true;
+		queue.clear();
+		fingerprints.clear();
+		descriptionIds.clear();
+		currentEpochDay   = Long.MIN_VALUE;
+		duplicatesDropped = 0;
+		
+		for (Source source : sources) {
+			source.reader.open();
+			source.date = null;
+			
+			if (source.advance()) queue.add(source);
+		}
+	}
+	
+	/**
+	 * Passes the next event of the merged files to the handler, skipping any
+	 * event that has already been passed on from another file
+	 * 
+	 * @param handler
+	 *     the handler that receives the event
+	 * @return
+	 *     true if an event was passed to the handler or false at the end of the data
+	 * @throws IOException
+	 *     if the calendar data could not be read or is not valid
+	 */
+	public boolean next(CalendarDataHandler handler) throws IOException {
+		if (!opened) throw new IllegalStateException("Calendar data is not open!");
+		
+		Source source;
+		
+		while ((source = queue.poll()) != null) {
+			LocalDate date      = source.date;
+			LocalTime startTime = source.startTime;
+			LocalTime endTime   = source.endTime;
+			String    text      = source.text;
+			int       minute    = source.minute;
+			int       endMinute = source.endMinute;
+			
+			if (source.advance()) queue.add(source);
+			
+			if (isDuplicate(date, minute, endMinute, text)) {
+				duplicatesDropped++;
+				continue;
+			}
+			
+			handler.addCalendarEvent(date, startTime, endTime, text);
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Determines if an event has already been passed on
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param minute
+	 *     the minute of the day the event starts or -1 for an all day event
+	 * @param endMinute
+	 *     the minute of the day the event ends or -1 if it is not known
+	 * @param text
+	 *     the event description
+	 * @return
+	 *     true if the same event has been passed on from any of the files
+	 */
+	private boolean isDuplicate(LocalDate date, int minute, int endMinute, String text) {
+		long epochDay = date.toEpochDay();
+		
+		if (epochDay != currentEpochDay) {
+			currentEpochDay = epochDay;
+			fingerprints.clear();
+			descriptionIds.clear();
+		}
+		
+		Integer descriptionId = descriptionIds.get(text);
+		
+		if (descriptionId == null) {
+			descriptionId = descriptionIds.size() + 1;
+			descriptionIds.put(text, descriptionId);
+		}
+		
+		// 22 bits of epoch day, 11 bits each of start and end minute and 20 bits of description id
+		long fingerprint = (epochDay << 42) | ((long) (minute + 1) << 31) | ((long) (endMinute + 1) << 20) |
+				(descriptionId & 0xFFFFF);
+		
+		return !fingerprints.add(fingerprint);
+	}
+	
+	/**
+	 * Gets the number of events dropped since the files were opened because
+	 * the same event was found in another file
+	 * 
+	 * @return
+	 *     the number of duplicate events
+	 */
+	public int getDuplicatesDropped() {
+		return duplicatesDropped;
+	}
+	
+	/**
+	 * Closes each of the files
+	 * 
+	 * @throws IOException
+	 *     if any of the files could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException exception = null;
+		
+		for (Source source : sources) {
+			try {
+				source.reader.close();
+			} catch (IOException e) {
+				if (exception == null) exception = e;
+			}
+		}
+		
+		queue.clear();
+		opened = false;
+		
+		if (exception != null) throw exception;
+	}
+	
+	/***************************************************************************
+	 * One of the merged files and its next event
+	 ***************************************************************************/
+	private static final class Source implements CalendarDataHandler, Comparable<Source> {
+		private final File file;
+		private final CalendarDataSource reader;
+		private final int index;
+		
+		private LocalDate date;
+		private LocalTime startTime;
+		private LocalTime endTime;
+		private String text;
+		private int minute;
+		private int endMinute;
+		
+		private Source(File file, CalendarDataSource reader, int index) {
+			this.file   = file;
+			this.reader = reader;
+			this.index  = index;
+		}
+		
+		/**
+		 * Reads the next event of the file
+		 * 
+		 * @return
+		 *     true if an event was read or false at the end of the file
+		 * @throws IOException
+		 *     if the file could not be read, is not valid or its days
+		 *     are not in date order
+		 */
+		private boolean advance() throws IOException {
+			LocalDate previousDate = date;
+			
+			if (!reader.next(this)) return false;
+			
+			if (previousDate != null && date.isBefore(previousDate)) {
+				throw new CalendarDataReader.InvalidDataException("Calendar data is not in date order!  " +
+						file.getName() + " lists " + date.format(UpcomingEvents.DATE_FORMATTER) +
+						" after " + previousDate.format(UpcomingEvents.DATE_FORMATTER));
+			}
+			
+			return true;
+		}
+		
+		@Override
+		public void addCalendarEvent(LocalDate date, LocalTime time, String text) {
+			addCalendarEvent(date, time, null, text);
+		}
+		
+		@Override
+		public void addCalendarEvent(LocalDate date, LocalTime startTime, LocalTime endTime, String text) {
+			this.date      = date;
+			this.startTime = startTime;
+			this.endTime   = endTime;
+			this.text      = text;
+			this.minute    = (startTime == null) ? -1 : startTime.getHour() * 60 + startTime.getMinute();
+			this.endMinute = (endTime == null) ? -1 : endTime.getHour() * 60 + endTime.getMinute();
+		}
+		
+		@Override
+		public int compareTo(Source other) {
+			int result = date.compareTo(other.date);
+			if (result == 0) result = Integer.compare(minute, other.minute);
+			if (result == 0) result = Integer.compare(index, other.index);
+			return result;
+		}
+	}
+	
+	/***************************************************************************
+	 * An open addressing hash set of event fingerprints.  Zero marks an empty
+	 * slot, which is never a fingerprint because description ids start at 1.
+	 ***************************************************************************/
+	private static final class FingerprintSet {
+		private long[] table = new long[64];
+		private int size;
+		
+		/**
+		 * Adds a fingerprint to the set
+		 * 
+		 * @param fingerprint
+		 *     a fingerprint other than zero
+		 * @return
+		 *     true if the fingerprint was not already in the set
+		 */
+		private boolean add(long fingerprint) {
+			if ((size + 1) * 4 > table.length * 3) grow();
+			
+			int mask = table.length - 1;
+			int slot = hash(fingerprint) & mask;
+			
+			while (table[slot] != 0) {
+				if (table[slot] == fingerprint) return false;
+				slot = (slot + 1) & mask;
+			}
+			
+			table[slot] = fingerprint;
+			size++;
+			return true;
+		}
+		
+		/**
+		 * Removes all of the fingerprints
+		 */
+		private void clear() {
+			if (size > 0) {
+				Arrays.fill(table, 0);
+				size = 0;
+			}
+		}
+		
+		/**
+		 * Doubles the size of the table
+		 */
+		private void grow() {
+			long[] oldTable = table;
+			table = new long[oldTable.length * 2];
+			
+			int mask = table.length - 1;
+			
+			for (long fingerprint : oldTable) {
+				if (fingerprint == 0) continue;
+				
+				int slot = hash(fingerprint) & mask;
+				while (table[slot] != 0) slot = (slot + 1) & mask;
+				table[slot] = fingerprint;
+			}
+		}
+		
+		/**
+		 * Spreads the bits of a fingerprint
+		 */
+		private static int hash(long fingerprint) {
+			long h = fingerprint * 0x9E3779B97F4A7C15L;
+			return (int) (h >>> 32);
+		}
+	}
+}
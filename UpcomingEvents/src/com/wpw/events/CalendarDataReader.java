@@ -0,0 +1,310 @@
+package com.wpw.events;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*******************************************************************************
+ * Reads calendar data that has been copied from a print of the Agenda View of
+ * the Stake Calendar on the church web site and pasted into a Microsoft Word
+ * document
+ * 
+ * Each event read is passed to a CalendarDataHandler.  The data can be read
+ * all at once or, after opening it, one event at a time so that a caller can
+ * stop reading as soon as it has the events it needs.
+ * 
+ * The same data can also be saved as plain text with one paragraph on each
+ * line (see TextLineReader), in a file ending in .txt or piped to standard
+ * input (a file named -), so the data does not have to be pasted into a Word
+ * document first.
+ * 
+ * When the data is read from more than one file the events of the files are
+ * merged in date and time order and the events found in more than one file
+ * are only passed on once (see CalendarDataMerger).
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class CalendarDataReader implements CalendarDataSource {
+	
+	// Date and time patterns and formatters of the calendar data
+	private static final Pattern DAY_DATE_PATTERN   = UpcomingEvents.DAY_DATE_PATTERN;
+	private static final Pattern TIME_EVENT_PATTERN = UpcomingEvents.TIME_EVENT_PATTERN;
+	
+	private static final DateTimeFormatter TIME_FORMATTER  = UpcomingEvents.TIME_FORMATTER;
+	private static final DateTimeFormatter DATE_FORMATTER2 = UpcomingEvents.DATE_FORMATTER2;
+	
+	// Calendar data file name that reads the data from standard input
+	public static final File STANDARD_INPUT = new File("-");
+	
+	private final File file;
+	
+	// Merger of the files when the data is read from more than one file
+	private final CalendarDataMerger merger;
+	
+	// Document being read and the current date and time while reading it
+	private ParagraphReader doc;
+	private LocalDate currentDate;
+	private LocalTime currentTime;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 */
+	public CalendarDataReader(File file) {
+		this(Collections.singletonList(file));
+	}
+	
+	/**
+	 * Class constructor for calendar data that is read from several files
+	 * 
+	 * @param files
+	 *     the calendar data files, each listing its days in date order
+	 *     (the events of the first file come first at the same date and time)
+	 */
+	public CalendarDataReader(List<File> files) {
+		if (files.isEmpty()) throw new IllegalArgumentException("No calendar data files!");
+		
+		this.file   = (files.size() == 1) ? files.get(0) : null;
+		this.merger = (files.size() == 1) ? null : new CalendarDataMerger(files, getReaders(files));
+	}
+	
+	/**
+	 * Gets a reader for each of several calendar data files
+	 * 
+	 * @param files
+	 *     the calendar data files
+	 * @return
+	 *     the reader of each file
+	 */
+	private static List<CalendarDataReader> getReaders(List<File> files) {
+		List<CalendarDataReader> readers = new ArrayList<>();
+		for (File file : files) readers.add(new CalendarDataReader(file));
+		return readers;
+	}
+	
+	/**
+	 * Reads the calendar data and passes each event to the handler
+	 * 
+	 * @param handler
+	 *     the handler that receives the events
+	 * @return
+	 *     true if there were no errors reading the data
+	 */
+	public boolean read(CalendarDataHandler handler) {
+		try {
+			open();
+			
+			while (next(handler)) {
+				// Each event has been passed to the handler
+			}
+			
+			return true;
+			
+		} catch (InvalidDataException e) {
+			System.out.println("Error:  " + e.getMessage());
+			return false;
+			
+		} catch (NoSuchFileException e) {
+			e.printStackTrace();
+			return false;
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+			
+		} finally {
+			try {
+				close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Opens the calendar data so the events can be read one at a time
+	 * 
+	 * @throws IOException
+	 *     if the calendar data could not be opened
+	 */
+	@Override
+	public void open() throws IOException {
+		if (merger != null) {
+			merger.open();
+			return;
+		}
+		
+		if (doc != null) throw new IllegalStateException("Calendar data is already open!");
+		
+		doc = openParagraphs(file);
+		currentDate = null;
+		currentTime = null;
+	}
+	
+	/**
+	 * Reads only as much of the calendar data as is needed to pass the next
+	 * event to the handler
+	 * 
+	 * @param handler
+	 *     the handler that receives the event
+	 * @return
+	 *     true if an event was passed to the handler or false at the end of the data
+	 * @throws IOException
+	 *     if the calendar data could not be read or is not valid
+	 */
+	@Override
+	public boolean next(CalendarDataHandler handler) throws IOException {
+		if (merger != null) return merger.next(handler);
+		if (doc == null) throw new IllegalStateException("Calendar data is not open!");
+		
+		String text;
+		
+		while ((text = doc.readParagraph()) != null) {
+			if (readCalendarData(text, handler)) return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Opens the paragraphs of a calendar data file
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @return
+	 *     a reader of the lines of standard input or of a text file or
+	 *     of the paragraphs of a Microsoft Word document
+	 * @throws IOException
+	 *     if the file could not be opened
+	 */
+	private static ParagraphReader openParagraphs(File file) throws IOException {
+		if (file.equals(STANDARD_INPUT)) return new TextLineReader(System.in);
+		if (isTextFile(file)) return new TextLineReader(file);
+		
+		return new DocxParagraphReader(file);
+	}
+	
+	/**
+	 * Determines if a calendar data file is plain text
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @return
+	 *     true if the name of the file ends in .txt
+	 */
+	private static boolean isTextFile(File file) {
+		return file.getName().toLowerCase(Locale.US).endsWith(".txt");
+	}
+	
+	/**
+	 * Closes the calendar data
+	 * 
+	 * @throws IOException
+	 *     if the calendar data could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (merger != null) {
+			merger.close();
+			return;
+		}
+		
+		if (doc != null) {
+			try {
+				doc.close();
+			} finally {
+				doc = null;
+			}
+		}
+	}
+	
+	/**
+	 * Gets the number of events found in more than one file that were
+	 * only passed on once since the data was opened
+	 * 
+	 * @return
+	 *     the number of duplicate events dropped
+	 */
+	public int getDuplicatesDropped() {
+		return (merger != null) ? merger.getDuplicatesDropped() : 0;
+	}
+	
+	/**
+	 * Reads a paragraph of the calendar data from a Microsoft Word document.  The data
+	 * in the Word document was copied from a print of the Agenda View of the Stake
+	 * Calendar on the Church web site.
+	 * 
+	 * @param text
+	 *     the text of the paragraph
+	 * @param handler
+	 *     the handler that receives the events
+	 * @return
+	 *     true if an event was passed to the handler
+	 * @throws InvalidDataException
+	 *     if an event comes before any date
+	 */
+	private boolean readCalendarData(String text, CalendarDataHandler handler) throws InvalidDataException {
+		Matcher dayDateMatcher   = DAY_DATE_PATTERN.matcher(text);
+		Matcher timeEventMatcher = TIME_EVENT_PATTERN.matcher(text);
+		
+		if (dayDateMatcher.matches()) {
+			String month = dayDateMatcher.group(1);
+			String day   = dayDateMatcher.group(2);
+			String year  = dayDateMatcher.group(3);
+			
+			String date = String.format("%s %s, %s", month, day, year);
+			currentDate = LocalDate.parse(date, DATE_FORMATTER2);
+			currentTime = null;
+			
+		} else if (timeEventMatcher.matches()) {
+			if (currentDate == null) {
+				throw new InvalidDataException("Date must preceed any events in list!");
+			}
+			
+			String time      = timeEventMatcher.group(1);
+			String startTime = timeEventMatcher.group(2);
+			String startAmPm = timeEventMatcher.group(4);
+			String endAmPm   = timeEventMatcher.group(6);
+			text             = timeEventMatcher.group(7);
+			
+			if (time.equals("All Day")) {
+				currentTime = null;
+			} else {
+				if (!startTime.contains(":")) startTime += ":00";
+				if (startAmPm == null) startAmPm = endAmPm;
+				time = startTime + " " + startAmPm.toUpperCase();
+				currentTime = LocalTime.parse(time, TIME_FORMATTER);
+			}
+			
+			handler.addCalendarEvent(currentDate, currentTime, text);
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/***************************************************************************
+	 * Thrown when the calendar data is not in the expected form
+	 ***************************************************************************/
+	public static class InvalidDataException extends IOException {
+		private static final long serialVersionUID = 1L;
+		
+		public InvalidDataException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.wpw.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*******************************************************************************
+ * Reads the events of the calendar data one at a time
+ * 
+ * The calendar data readers of the two week calendar and of the upcoming
+ * events both read this way, so the events of several files can be merged by
+ * the same CalendarDataMerger whichever application reads them.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public interface CalendarDataSource extends Closeable {
+	
+	/**
+	 * Opens the calendar data so the events can be read one at a time
+	 * 
+	 * @throws IOException
+	 *     if the calendar data could not be opened
+	 */
+	void open() throws IOException;
+	
+	/**
+	 * Reads only as much of the calendar data as is needed to pass the next
+	 * event to the handler
+	 * 
+	 * @param handler
+	 *     the handler that receives the event
+	 * @return
+	 *     true if an event was passed to the handler or false at the end of the data
+	 * @throws IOException
+	 *     if the calendar data could not be read or is not valid
+	 */
+	boolean next(CalendarDataHandler handler) throws IOException;
+}
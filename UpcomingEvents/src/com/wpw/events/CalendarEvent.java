@@ -3,6 +3,8 @@ package com.wpw.events;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
 
 /*******************************************************************************
  * Represents a single calendar event (which can span multiple days)
@@ -12,16 +14,32 @@ import java.time.format.DateTimeFormatter;
  * @since   2017-12-14
  *
  *******************************************************************************/
-public class CalendarEvent {
+public class CalendarEvent implements DatedEvent {
 	public static final DateTimeFormatter DATE_FORMATTER1 = DateTimeFormatter.ofPattern("M/d");
 	public static final DateTimeFormatter DATE_FORMATTER2 = DateTimeFormatter.ofPattern("d");
 	
+	// Orders events by date and time (all day events first) and then by the order they were created
+	public static final Comparator<CalendarEvent> DATE_TIME_ORDER = new Comparator<CalendarEvent>() {
+		@Override
+		public int compare(CalendarEvent e1, CalendarEvent e2) {
+			int result = e1.startDate.compareTo(e2.startDate);
+			if (result == 0) result = Integer.compare(e1.getStartMinute(), e2.getStartMinute());
+			if (result == 0) result = Long.compare(e1.sequence, e2.sequence);
+			return result;
+		}
+	};
+	
+	private static final AtomicLong nextSequence = new AtomicLong();
+	
 	private static boolean wordFormat = true;
 	
 	private LocalDate startDate;
 	private LocalDate endDate;
+	private LocalTime startTime;
 	private String description;
 	private boolean multiDay;
+	private long sequence;
+	private int profiles;
 	
 	/**
 	 * Class constructor for an all day event
@@ -35,6 +53,7 @@ public class CalendarEvent {
 		this.startDate   = startDate;
 		this.endDate     = startDate;
 		this.description = description;
+		this.sequence    = nextSequence.getAndIncrement();
 	}
 	
 	/**
@@ -50,7 +69,37 @@ public class CalendarEvent {
 	public CalendarEvent(LocalDate startDate, LocalTime startTime, String description) {
 		this.startDate   = startDate;
 		this.endDate     = startDate;
+		this.startTime   = startTime;
 		this.description = description;
+		this.sequence    = nextSequence.getAndIncrement();
+	}
+	
+	/**
+	 * Class constructor for an event restored from a saved copy.  The event
+	 * keeps the order of the original event, so restoring an event writes no
+	 * state shared with other threads.
+	 * 
+	 * @param startDate
+	 *     the start date of the event
+	 * @param endDate
+	 *     the end date of the event
+	 * @param startTime
+	 *     the time of the event or null for an all day event
+	 * @param description
+	 *     the event description
+	 * @param sequence
+	 *     the order the original event was created in
+	 * @param profiles
+	 *     the bitmask of the profiles the event is included in
+	 */
+	CalendarEvent(LocalDate startDate, LocalDate endDate, LocalTime startTime, String description, long sequence, int profiles) {
+		this.startDate   = startDate;
+		this.endDate     = endDate;
+		this.startTime   = startTime;
+		this.description = description;
+		this.sequence    = sequence;
+		this.profiles    = profiles;
+		multiDay = !startDate.equals(endDate);
 	}
 	
 	/**
@@ -84,7 +133,19 @@ public class CalendarEvent {
 	 */
 	@Override
 	public String toString() {
-		return String.format("%s %s %s", getDateString(), getDash(), description);
+		return toString(wordFormat);
+	}
+	
+	/**
+	 * Gets the event in string format
+	 * 
+	 * @param wordFormat
+	 *     true if the dash should be formatted for MS Word
+	 * @return
+	 *     the event in string format
+	 */
+	public String toString(boolean wordFormat) {
+		return String.format("%s %s %s", getDateString(), getDash(wordFormat), description);
 	}
 	
 	/**
@@ -116,6 +177,78 @@ public class CalendarEvent {
 		return description;
 	}
 	
+	/**
+	 * Gets the start date of the event
+	 * 
+	 * @return
+	 *     the start date of the event
+	 */
+	public LocalDate getStartDate() {
+		return startDate;
+	}
+	
+	/**
+	 * Gets the end date of the event
+	 * 
+	 * @return
+	 *     the end date of the event
+	 */
+	public LocalDate getEndDate() {
+		return endDate;
+	}
+	
+	/**
+	 * Gets the start time of the event as the minute of the day
+	 * 
+	 * @return
+	 *     the minute of the day or -1 for an all day event
+	 */
+	public int getStartMinute() {
+		return (startTime == null) ? -1 : startTime.getHour() * 60 + startTime.getMinute();
+	}
+	
+	/**
+	 * Gets the order the event was created in
+	 * 
+	 * @return
+	 *     a number that increases with each event created
+	 */
+	long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * Sets the profiles (e.g. upcoming or major events) the event is included in
+	 * 
+	 * @param profiles
+	 *     the bitmask of the profiles the event is included in
+	 */
+	public void setProfiles(int profiles) {
+		this.profiles = profiles;
+	}
+	
+	/**
+	 * Gets the profiles (e.g. upcoming or major events) the event is included in
+	 * 
+	 * @return
+	 *     the bitmask of the profiles the event is included in
+	 */
+	public int getProfiles() {
+		return profiles;
+	}
+	
+	/**
+	 * Determines if the event is included in a profile
+	 * 
+	 * @param profile
+	 *     the profile bit
+	 * @return
+	 *     true if the event is included in the profile
+	 */
+	public boolean isInProfile(int profile) {
+		return (profiles & profile) != 0;
+	}
+	
 	/**
 	 * Determines if output characters should be for a MS Word document or standard out
 	 * 
@@ -129,10 +262,12 @@ public class CalendarEvent {
 	/**
 	 * Gets the dash formated for MS Word or standard out
 	 * 
+	 * @param wordFormat
+	 *     true if the dash should be formatted for MS Word
 	 * @return
 	 *     the dash formated for MS Word or standard out
 	 */
-	private static String getDash() {
+	public static String getDash(boolean wordFormat) {
 		return (wordFormat) ? "\u2013" : "-";
 	}
 }
@@ -0,0 +1,44 @@
+package com.wpw.events;
+
+import java.io.IOException;
+
+/*******************************************************************************
+ * Renders a list of upcoming events in a specific output format
+ * 
+ * A renderer receives the events one at a time from a RenderPass and writes
+ * its output directly to a stream, so several renderers can share a single
+ * traversal of the events.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public interface CalendarRenderer {
+	
+	/**
+	 * Starts the output
+	 * 
+	 * @throws IOException
+	 *     if the output could not be written
+	 */
+	void startCalendar() throws IOException;
+	
+	/**
+	 * Writes a single event
+	 * 
+	 * @param event
+	 *     the event to write
+	 * @throws IOException
+	 *     if the output could not be written
+	 */
+	void writeEvent(CalendarEvent event) throws IOException;
+	
+	/**
+	 * Ends the output and flushes anything still buffered
+	 * 
+	 * @throws IOException
+	 *     if the output could not be written
+	 */
+	void endCalendar() throws IOException;
+}
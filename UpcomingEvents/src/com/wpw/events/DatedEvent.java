@@ -0,0 +1,49 @@
+package com.wpw.events;
+
+import java.time.LocalDate;
+
+/*******************************************************************************
+ * An event read from the calendar data whose end date can be moved to the
+ * next day, so an all day event found on consecutive days becomes a single
+ * multi-day event
+ * 
+ * The events of the two week calendar and of the upcoming events both are,
+ * so the same EventSpliterator reads the events of either application.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public interface DatedEvent {
+	
+	/**
+	 * @return
+	 *     the start date of the event
+	 */
+	LocalDate getStartDate();
+	
+	/**
+	 * @return
+	 *     the event description
+	 */
+	String getDescription();
+	
+	/**
+	 * Determines if the given date is the day after the end date of the event
+	 * 
+	 * @param date
+	 *     the date in question
+	 * @return
+	 *     true if the given date is the day after the end date of the event
+	 */
+	boolean isNextDay(LocalDate date);
+	
+	/**
+	 * Sets a new end date for the event - only works for events on consecutive dates
+	 * 
+	 * @param endDate
+	 *     the end date of the event
+	 */
+	void setEndDate(LocalDate endDate);
+}
@@ -0,0 +1,348 @@
+package com.wpw.events;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/*******************************************************************************
+ * Reads the text of each paragraph in a Microsoft Word document
+ * 
+ * The document is memory mapped and only the word/document.xml entry is found
+ * through the zip central directory.  The entry is inflated as a stream
+ * straight into an XML stream reader, so the other parts of the document
+ * (styles, themes and any images pasted from the web page) are never read and
+ * the document is never copied into the heap.
+ * 
+ * Like XWPFDocument.getParagraphs(), only the paragraphs in the body of the
+ * document are returned, not the paragraphs inside tables.  Like
+ * XWPFParagraph.getText(), only the content of the runs is read, so the tab
+ * stops in the paragraph properties are not text.  Tabs in a run are returned
+ * as tab characters and line breaks as new line characters.  DocxReaderCheck
+ * compares the paragraphs read with those read by Apache POI.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public class DocxParagraphReader implements ParagraphReader {
+	
+	public static final String DOCUMENT_PART = "word/document.xml";
+	
+	private static final String WORD_NAMESPACE = DocxWriter.WORD_NAMESPACE;
+	
+	// Zip record signatures and sizes
+	private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+	private static final int CENTRAL_DIRECTORY_ENTRY  = 0x02014b50;
+	private static final int LOCAL_FILE_HEADER        = 0x04034b50;
+	private static final int END_RECORD_SIZE    = 22;
+	private static final int CENTRAL_ENTRY_SIZE = 46;
+	private static final int LOCAL_HEADER_SIZE  = 30;
+	private static final int MAX_COMMENT_SIZE   = 0xffff;
+	
+	// Zip compression methods
+	private static final int STORED   = 0;
+	private static final int DEFLATED = 8;
+	
+	private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+	
+	private final FileChannel channel;
+	private final Inflater inflater = new Inflater(true);
+	private final XMLStreamReader xml;
+	
+	// Depth of the current element below the document body or -1 outside the body
+	private int bodyDepth = -1;
+	
+	// Depth of the run (w:r) being read or -1 outside a run
+	private int runDepth = -1;
+	
+	/**
+	 * Class constructor that opens the document and finds its body text
+	 * 
+	 * @param file
+	 *     the Microsoft Word document
+	 * @throws IOException
+	 *     if the document could not be read or is not a valid document
+	 */
+	public DocxParagraphReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		
+		try {
+			MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			map.order(ByteOrder.LITTLE_ENDIAN);
+			
+			xml = XML_INPUT_FACTORY.createXMLStreamReader(openDocumentPart(map), "UTF-8");
+			
+		} catch (IOException | XMLStreamException | RuntimeException e) {
+			inflater.end();
+			channel.close();
+			throw (e instanceof IOException) ? (IOException) e : new IOException("Invalid document!  " + file, e);
+		}
+	}
+	
+	/**
+	 * Reads the text of the next paragraph in the body of the document
+	 * 
+	 * @return
+	 *     the text of the paragraph or null at the end of the document
+	 * @throws IOException
+	 *     if the document could not be read
+	 */
+	@Override
+	public String readParagraph() throws IOException {
+		try {
+			StringBuilder text = null;
+			
+			while (xml.hasNext()) {
+				int event = xml.next();
+				
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					String name = xml.getLocalName();
+					boolean word = WORD_NAMESPACE.equals(xml.getNamespaceURI());
+					
+					if (bodyDepth < 0) {
+						if (word && name.equals("body")) bodyDepth = 0;
+						continue;
+					}
+					
+					bodyDepth++;
+					
+					if (!word) continue;
+					
+					if (bodyDepth == 1 && name.equals("p")) {
+						text = new StringBuilder();
+					} else if (text != null && runDepth < 0 && name.equals("r")) {
+						runDepth = bodyDepth;
+					} else if (text == null || bodyDepth != runDepth + 1) {
+						continue;
+					} else if (name.equals("t")) {
+						text.append(xml.getElementText());
+						bodyDepth--;
+					} else if (name.equals("tab")) {
+						text.append('\t');
+					} else if (name.equals("br") || name.equals("cr")) {
+						text.append('\n');
+					}
+					
+				} else if (event == XMLStreamConstants.END_ELEMENT && bodyDepth >= 0) {
+					if (bodyDepth == 1 && text != null) {
+						bodyDepth--;
+						return text.toString();
+					}
+					
+					if (bodyDepth == runDepth) runDepth = -1;
+					bodyDepth--;
+				}
+			}
+			
+			return null;
+			
+		} catch (XMLStreamException e) {
+			throw new IOException("Invalid document!  " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Closes the document
+	 * 
+	 * @throws IOException
+	 *     if the document could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			xml.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			inflater.end();
+			channel.close();
+		}
+	}
+	
+	/**
+	 * Finds the document part through the zip central directory
+	 * and opens a stream of its uncompressed contents
+	 * 
+	 * @param zip
+	 *     the memory mapped document
+	 * @return
+	 *     the uncompressed document part
+	 * @throws IOException
+	 *     if the document is not a valid zip file or has no document part
+	 */
+	private InputStream openDocumentPart(ByteBuffer zip) throws IOException {
+		int end = findEndOfCentralDirectory(zip);
+		int entries = zip.getShort(end + 10) & 0xffff;
+		int offset  = zip.getInt(end + 16);
+		
+		byte[] partName = DOCUMENT_PART.getBytes(StandardCharsets.UTF_8);
+		
+		for (int i = 0; i < entries; i++) {
+			if (offset < 0 || offset + CENTRAL_ENTRY_SIZE > zip.limit() || zip.getInt(offset) != CENTRAL_DIRECTORY_ENTRY) {
+				throw new IOException("Invalid zip central directory!");
+			}
+			
+			int method        = zip.getShort(offset + 10) & 0xffff;
+			long compressed   = zip.getInt(offset + 20) & 0xffffffffL;
+			int nameLength    = zip.getShort(offset + 28) & 0xffff;
+			int extraLength   = zip.getShort(offset + 30) & 0xffff;
+			int commentLength = zip.getShort(offset + 32) & 0xffff;
+			int headerOffset  = zip.getInt(offset + 42);
+			
+			if (nameEquals(zip, offset + CENTRAL_ENTRY_SIZE, nameLength, partName)) {
+				return openEntry(zip, headerOffset, method, compressed);
+			}
+			
+			offset += CENTRAL_ENTRY_SIZE + nameLength + extraLength + commentLength;
+		}
+		
+		throw new IOException("No " + DOCUMENT_PART + " found!");
+	}
+	
+	/**
+	 * Finds the end of central directory record, which is followed only by
+	 * the zip file comment
+	 * 
+	 * @param zip
+	 *     the memory mapped document
+	 * @return
+	 *     the position of the end of central directory record
+	 * @throws IOException
+	 *     if there is no end of central directory record
+	 */
+	private static int findEndOfCentralDirectory(ByteBuffer zip) throws IOException {
+		int last  = zip.limit() - END_RECORD_SIZE;
+		int first = Math.max(0, last - MAX_COMMENT_SIZE);
+		
+		for (int position = last; position >= first; position--) {
+			if (zip.getInt(position) == END_OF_CENTRAL_DIRECTORY) return position;
+		}
+		
+		throw new IOException("Not a zip file!");
+	}
+	
+	/**
+	 * Opens a stream of the uncompressed contents of a zip entry
+	 * 
+	 * @param zip
+	 *     the memory mapped document
+	 * @param headerOffset
+	 *     the position of the local file header of the entry
+	 * @param method
+	 *     the compression method of the entry
+	 * @param compressed
+	 *     the compressed size of the entry
+	 * @return
+	 *     the uncompressed contents of the entry
+	 * @throws IOException
+	 *     if the entry is not valid or uses an unsupported compression method
+	 */
+	private InputStream openEntry(ByteBuffer zip, int headerOffset, int method, long compressed) throws IOException {
+		if (headerOffset < 0 || headerOffset + LOCAL_HEADER_SIZE > zip.limit() || zip.getInt(headerOffset) != LOCAL_FILE_HEADER) {
+			throw new IOException("Invalid zip local file header!");
+		}
+		
+		int nameLength  = zip.getShort(headerOffset + 26) & 0xffff;
+		int extraLength = zip.getShort(headerOffset + 28) & 0xffff;
+		long start      = headerOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+		
+		if (start + compressed > zip.limit()) {
+			throw new IOException("Invalid zip entry size!");
+		}
+		
+		ByteBuffer data = zip.duplicate();
+		data.position((int) start);
+		data.limit((int) (start + compressed));
+		
+		InputStream in = new ByteBufferInputStream(data.slice());
+		
+		switch (method) {
+			case STORED:   return in;
+			case DEFLATED: return new InflaterInputStream(in, inflater, 1 << 16);
+			default:       throw new IOException("Unsupported zip compression method!  " + method);
+		}
+	}
+	
+	/**
+	 * Determines if an entry name in the central directory matches a name
+	 * 
+	 * @param zip
+	 *     the memory mapped document
+	 * @param position
+	 *     the position of the entry name
+	 * @param length
+	 *     the length of the entry name
+	 * @param name
+	 *     the name to match
+	 * @return
+	 *     true if the names match
+	 */
+	private static boolean nameEquals(ByteBuffer zip, int position, int length, byte[] name) {
+		if (length != name.length || position + length > zip.limit()) return false;
+		
+		for (int i = 0; i < length; i++) {
+			if (zip.get(position + i) != name[i]) return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Creates an XML input factory that does not read external entities
+	 * 
+	 * @return
+	 *     the XML input factory
+	 */
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return factory;
+	}
+	
+	/***************************************************************************
+	 * Reads a byte buffer as an input stream without copying it
+	 ***************************************************************************/
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+		
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+		
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+		}
+		
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0) return 0;
+			if (!buffer.hasRemaining()) return -1;
+			
+			length = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, length);
+			return length;
+		}
+		
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
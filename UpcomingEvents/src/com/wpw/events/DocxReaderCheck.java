@@ -0,0 +1,286 @@
+package com.wpw.events;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/*******************************************************************************
+ * Checks that DocxParagraphReader reads the same paragraphs as Apache POI
+ * 
+ * DocxParagraphReader replaced XWPFDocument for reading the calendar data, so
+ * this check reads each document with both and lists the paragraphs whose
+ * text is different.  With no documents given it writes calendar data whose
+ * paragraphs have tab stops and other paragraph and run properties, as the
+ * paragraphs of a document saved by Microsoft Word do, and checks that.  The
+ * check exits with a status of 1 when any paragraph is different.
+ * 
+ * Apache POI is not needed to build or run the applications, so XWPFDocument
+ * is only found on the class path when the check is run.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public class DocxReaderCheck {
+	
+	private static final String XWPF_DOCUMENT = "org.apache.poi.xwpf.usermodel.XWPFDocument";
+	
+	// Most different paragraphs listed for each document
+	private static final int MAX_LISTED = 20;
+	
+	private static final DateTimeFormatter DAY_DATE_FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMMM d");
+	
+	// Paragraph and run properties of the paragraphs of the generated document
+	private static final String[] PARAGRAPH_PROPERTIES = {
+			"",
+			"<w:pPr><w:tabs><w:tab w:val=\"left\" w:pos=\"720\"/><w:tab w:val=\"right\" w:pos=\"9360\"/></w:tabs></w:pPr>",
+			"<w:pPr><w:pStyle w:val=\"Heading2\"/><w:tabs><w:tab w:val=\"center\" w:pos=\"4680\"/></w:tabs><w:spacing w:after=\"0\"/></w:pPr>",
+			"<w:pPr><w:jc w:val=\"center\"/><w:rPr><w:b/></w:rPr></w:pPr>",
+			"<w:pPr><w:ind w:left=\"360\"/><w:tabs><w:tab w:val=\"clear\" w:pos=\"720\"/><w:tab w:val=\"left\" w:pos=\"1440\"/></w:tabs></w:pPr>" };
+			
+	private static final String[] RUN_PROPERTIES = {
+			"",
+			"<w:rPr><w:b/></w:rPr>",
+			"<w:rPr><w:rFonts w:ascii=\"Arial\" w:hAnsi=\"Arial\"/><w:sz w:val=\"20\"/></w:rPr>" };
+			
+	/**
+	 * Main method for the document reader check
+	 * 
+	 * @param args
+	 *     the arguments passed to the application
+	 */
+	public static void main(String[] args) {
+		List<File> files = new ArrayList<>();
+		
+		for (String arg : args) {
+			if (arg.equals("-h")) {
+				showUsage();
+				System.exit(0);
+				
+			} else if (arg.startsWith("-")) {
+				System.out.println("Invalid argument passed!  " + arg);
+				System.out.println("");
+				showUsage();
+				System.exit(0);
+				
+			} else if (!new File(arg).isFile()) {
+				System.out.println("Document not found!  " + arg);
+				System.exit(1);
+				
+			} else {
+				files.add(new File(arg));
+			}
+		}
+		
+		boolean passed = true;
+		
+		try {
+			if (files.isEmpty()) {
+				File file = File.createTempFile("check", ".docx");
+				file.deleteOnExit();
+				
+				writeCheckDocument(file);
+				passed = check(file);
+				file.delete();
+				
+			} else {
+				for (File file : files) {
+					if (!check(file)) passed = false;
+				}
+			}
+			
+		} catch (ClassNotFoundException e) {
+			System.out.println("Apache POI is not on the class path!  " + e.getMessage());
+			System.exit(1);
+			
+		} catch (IOException | ReflectiveOperationException e) {
+			e.printStackTrace();
+			passed = false;
+		}
+		
+		if (!passed) System.exit(1);
+	}
+	
+	/**
+	 * Reads a document with both readers and lists the paragraphs whose
+	 * text is different
+	 * 
+	 * @param file
+	 *     the Microsoft Word document
+	 * @return
+	 *     true if every paragraph is the same
+	 * @throws IOException
+	 *     if the document could not be read
+	 * @throws ReflectiveOperationException
+	 *     if XWPFDocument could not be found or used
+	 */
+	private static boolean check(File file) throws IOException, ReflectiveOperationException {
+		List<String> expected = readWithPoi(file);
+		List<String> actual   = readWithReader(file);
+		int different = 0;
+		
+		for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+			String poiText    = (i < expected.size()) ? expected.get(i) : null;
+			String readerText = (i < actual.size()) ? actual.get(i) : null;
+			
+			if (Objects.equals(poiText, readerText)) continue;
+			
+			if (++different <= MAX_LISTED) {
+				System.out.println("Paragraph " + (i + 1) + " is different!");
+				System.out.println("    POI:    " + show(poiText));
+				System.out.println("    reader: " + show(readerText));
+			}
+		}
+		
+		System.out.println(file + ":  " + expected.size() + " paragraphs checked, " + different + " different");
+		return different == 0;
+	}
+	
+	/**
+	 * Reads the text of each paragraph with DocxParagraphReader
+	 * 
+	 * @param file
+	 *     the Microsoft Word document
+	 * @return
+	 *     the text of each paragraph
+	 * @throws IOException
+	 *     if the document could not be read
+	 */
+	private static List<String> readWithReader(File file) throws IOException {
+		List<String> paragraphs = new ArrayList<>();
+		
+		try (ParagraphReader reader = new DocxParagraphReader(file)) {
+			String text;
+			while ((text = reader.readParagraph()) != null) {
+				paragraphs.add(text);
+			}
+		}
+		
+		return paragraphs;
+	}
+	
+	/**
+	 * Reads the text of each paragraph with XWPFDocument.getParagraphs()
+	 * and XWPFParagraph.getText(), as the calendar data used to be read
+	 * 
+	 * @param file
+	 *     the Microsoft Word document
+	 * @return
+	 *     the text of each paragraph
+	 * @throws IOException
+	 *     if the document could not be read
+	 * @throws ReflectiveOperationException
+	 *     if XWPFDocument could not be found or used
+	 */
+	private static List<String> readWithPoi(File file) throws IOException, ReflectiveOperationException {
+		Class<?> documentClass = Class.forName(XWPF_DOCUMENT);
+		List<String> paragraphs = new ArrayList<>();
+		
+		try (InputStream in = new FileInputStream(file)) {
+			Object document = documentClass.getConstructor(InputStream.class).newInstance(in);
+			
+			try {
+				for (Object paragraph : (List<?>) documentClass.getMethod("getParagraphs").invoke(document)) {
+					paragraphs.add((String) paragraph.getClass().getMethod("getText").invoke(paragraph));
+				}
+			} finally {
+				((Closeable) document).close();
+			}
+		}
+		
+		return paragraphs;
+	}
+	
+	/**
+	 * Writes three weeks of calendar data whose paragraphs have different
+	 * paragraph and run properties, including tab stops
+	 * 
+	 * @param file
+	 *     the document to write
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	private static void writeCheckDocument(File file) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			DocxWriter docx = new DocxWriter(out);
+			docx.startDocument();
+			
+			LocalDate date = LocalDate.of(2026, 10, 22);
+			
+			for (int i = 0; i < 21; i++, date = date.plusDays(1)) {
+				String paragraphProperties = PARAGRAPH_PROPERTIES[i % PARAGRAPH_PROPERTIES.length];
+				String runProperties       = RUN_PROPERTIES[i % RUN_PROPERTIES.length];
+				
+				docx.writeParagraph(paragraphProperties, runProperties,
+						date.format(DAY_DATE_FORMATTER) + getOrdinalSuffix(date.getDayOfMonth()) + ", " + date.getYear());
+				docx.writeParagraph(paragraphProperties, "", "All Day - Stake Youth Camp");
+				docx.writeParagraph(paragraphProperties, runProperties, "7:00pm - 9:00pm - BP Youth Night");
+				docx.writeParagraph(paragraphProperties, runProperties, "7:00pm", "CY Ward Council");
+				docx.writeParagraph(paragraphProperties, "");
+			}
+			
+			docx.endDocument();
+		}
+	}
+	
+	/**
+	 * Gets the suffix of a day of the month as written in the calendar data
+	 * 
+	 * @param day
+	 *     the day of the month
+	 * @return
+	 *     st, nd, rd or th
+	 */
+	private static String getOrdinalSuffix(int day) {
+		if (day >= 11 && day <= 13) return "th";
+		
+		switch (day % 10) {
+			case 1:  return "st";
+			case 2:  return "nd";
+			case 3:  return "rd";
+			default: return "th";
+		}
+	}
+	
+	/**
+	 * Shows the text of a paragraph with its tabs and line breaks visible
+	 * 
+	 * @param text
+	 *     the text of the paragraph or null if there is no paragraph
+	 * @return
+	 *     the text to show
+	 */
+	private static String show(String text) {
+		if (text == null) return "(no paragraph)";
+		
+		return "\"" + text.replace("\t", "\\t").replace("\n", "\\n") + "\"";
+	}
+	
+	/**
+	 * Shows the usage instructions for the application
+	 */
+	private static void showUsage() {
+		System.out.println("");
+		System.out.println("This application checks that the calendar data is read as Apache POI reads it.");
+		System.out.println("");
+		System.out.println("Usage:");
+		System.out.println("    java -cp \"UpcomingEvents.jar;poi-3.17/*;poi-3.17/lib/*;poi-3.17/ooxml-lib/*\" com.wpw.events.DocxReaderCheck [-h] [file]...");
+		System.out.println("");
+		System.out.println("Optional Flags:");
+		System.out.println("    -h - help - show these usage instructions");
+		System.out.println("");
+		System.out.println("    file - a document to check, repeated to check several documents");
+		System.out.println("           (default a generated document whose paragraphs have tab stops)");
+		System.out.println("");
+	}
+}
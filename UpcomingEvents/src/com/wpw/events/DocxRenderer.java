@@ -0,0 +1,55 @@
+package com.wpw.events;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/*******************************************************************************
+ * Renders the upcoming events as a Microsoft Word document
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class DocxRenderer implements CalendarRenderer {
+	
+	// Paragraph style defined once in the document with single spacing, no space after
+	// and 9 point Calibri (font sizes are in half points)
+	private static final String STYLES =
+			"<w:style w:type=\"paragraph\" w:customStyle=\"1\" w:styleId=\"UpcomingEvent\">" +
+			"<w:name w:val=\"Upcoming Event\"/>" +
+			"<w:pPr><w:spacing w:after=\"0\" w:line=\"240\" w:lineRule=\"auto\"/></w:pPr>" +
+			"<w:rPr><w:rFonts w:ascii=\"Calibri\" w:hAnsi=\"Calibri\" w:cs=\"Calibri\"/><w:sz w:val=\"18\"/><w:szCs w:val=\"18\"/></w:rPr>" +
+			"</w:style>";
+	
+	// Style reference for each paragraph
+	private static final String PARAGRAPH_PROPERTIES = "<w:pPr><w:pStyle w:val=\"UpcomingEvent\"/></w:pPr>";
+	private static final String RUN_PROPERTIES       = "";
+	
+	private final DocxWriter docx;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param out
+	 *     the stream the document is written to
+	 */
+	public DocxRenderer(OutputStream out) {
+		docx = new DocxWriter(out);
+	}
+	
+	@Override
+	public void startCalendar() throws IOException {
+		docx.startDocument(STYLES);
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event) throws IOException {
+		docx.writeParagraph(PARAGRAPH_PROPERTIES, RUN_PROPERTIES, event.toString(true));
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		docx.endDocument();
+	}
+}
@@ -0,0 +1,183 @@
+package com.wpw.events;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/*******************************************************************************
+ * Writes a Microsoft Word document directly to an output stream
+ * 
+ * The document parts are streamed into the zip package as they are written,
+ * so no document object model is built in memory.  Only the parts required
+ * for a valid document (and the styles, when the document has any) are
+ * written, each with the same fixed timestamp so that the same content always
+ * produces an identical file.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class DocxWriter {
+	
+	// The WordprocessingML namespace
+	public static final String WORD_NAMESPACE = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+	
+	private static final String CONTENT_TYPES =
+			"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+			"<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+			"<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+			"<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+			"<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>" +
+			"%s</Types>";
+	
+	private static final String STYLES_CONTENT_TYPE =
+			"<Override PartName=\"/word/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml\"/>";
+	
+	private static final String PACKAGE_RELS =
+			"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+			"<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+			"<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"word/document.xml\"/>" +
+			"</Relationships>";
+	
+	private static final String DOCUMENT_RELS =
+			"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+			"<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+			"<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>" +
+			"</Relationships>";
+	
+	// Timestamp of every part in the zip package
+	private static final long ENTRY_TIME = LocalDateTime.of(2000, 1, 1, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	
+	private final ZipOutputStream zos;
+	private final Writer writer;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param out
+	 *     the stream the document is written to (it is not closed by this class)
+	 */
+	public DocxWriter(OutputStream out) {
+		zos    = new ZipOutputStream(out);
+		writer = new OutputStreamWriter(zos, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Writes the package parts and starts the document body
+	 * 
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	public void startDocument() throws IOException {
+		startDocument(null);
+	}
+	
+	/**
+	 * Writes the package parts and the style definitions and starts the
+	 * document body.  Paragraphs and runs can then refer to the styles with
+	 * w:pStyle and w:rStyle instead of repeating their formatting.
+	 * 
+	 * @param styles
+	 *     the style definitions XML (w:style elements) or null for no styles
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	public void startDocument(String styles) throws IOException {
+		writePart("[Content_Types].xml", String.format(CONTENT_TYPES, (styles == null) ? "" : STYLES_CONTENT_TYPE));
+		writePart("_rels/.rels", PACKAGE_RELS);
+		
+		if (styles != null) {
+			writePart("word/_rels/document.xml.rels", DOCUMENT_RELS);
+			writePart("word/styles.xml",
+					"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+					"<w:styles xmlns:w=\"" + WORD_NAMESPACE + "\">" + styles + "</w:styles>");
+		}
+		
+		zos.putNextEntry(newEntry("word/document.xml"));
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+		writer.write("<w:document xmlns:w=\"" + WORD_NAMESPACE + "\"><w:body>");
+	}
+	
+	/**
+	 * Writes a paragraph with a single run of text.  Each text segment
+	 * after the first is preceded by a tab.
+	 * 
+	 * @param paragraphProperties
+	 *     the paragraph properties XML (w:pPr) or an empty string
+	 * @param runProperties
+	 *     the run properties XML (w:rPr) or an empty string
+	 * @param segments
+	 *     the text segments in the run
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	public void writeParagraph(String paragraphProperties, String runProperties, String... segments) throws IOException {
+		writer.write("<w:p>");
+		writer.write(paragraphProperties);
+		writer.write("<w:r>");
+		writer.write(runProperties);
+		
+		for (int i = 0; i < segments.length; i++) {
+			if (i > 0) writer.write("<w:tab/>");
+			
+			if (!segments[i].isEmpty()) {
+				writer.write("<w:t xml:space=\"preserve\">");
+				writer.write(XmlEscaper.escape(segments[i]));
+				writer.write("</w:t>");
+			}
+		}
+		
+		writer.write("</w:r></w:p>");
+	}
+	
+	/**
+	 * Ends the document body and finishes the zip package
+	 * 
+	 * @throws IOException
+	 *     if the document could not be written
+	 */
+	public void endDocument() throws IOException {
+		writer.write("</w:body></w:document>");
+		writer.flush();
+		zos.closeEntry();
+		zos.finish();
+	}
+	
+	/**
+	 * Writes a complete part to the zip package
+	 * 
+	 * @param name
+	 *     the name of the part
+	 * @param content
+	 *     the content of the part
+	 * @throws IOException
+	 *     if the part could not be written
+	 */
+	private void writePart(String name, String content) throws IOException {
+		zos.putNextEntry(newEntry(name));
+		writer.write(content);
+		writer.flush();
+		zos.closeEntry();
+	}
+	
+	/**
+	 * Creates a zip entry with the fixed timestamp
+	 * 
+	 * @param name
+	 *     the name of the entry
+	 * @return
+	 *     the new zip entry
+	 */
+	private static ZipEntry newEntry(String name) {
+		ZipEntry entry = new ZipEntry(name);
+		entry.setTime(ENTRY_TIME);
+		return entry;
+	}
+}
@@ -0,0 +1,357 @@
+package com.wpw.events;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/*******************************************************************************
+ * Collects events and returns them in date and time order
+ * 
+ * Events are kept in memory until their estimated size passes the memory
+ * budget.  The events in memory are then sorted and written to a temporary
+ * file as a sorted run.  When the events are read back the sorted runs and
+ * the events still in memory are merged, so an event set larger than the heap
+ * can still be rendered.  With no memory budget the sink never writes to disk
+ * and the events come back in exactly the same order.
+ * 
+ * Events must not be changed after they are added to the sink.  Once a sink
+ * is frozen no more events can be added, so its events are read without
+ * taking the lock of the sink and readers never wait on each other.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class EventSink implements Iterable<CalendarEvent>, Closeable {
+	
+	// Estimated bytes used by an event not counting its description
+	private static final long EVENT_OVERHEAD = 160;
+	
+	private final long memoryBudget;
+	
+	private final List<CalendarEvent> events = new ArrayList<>();
+	private final List<File> runs = new ArrayList<>();
+	
+	private long memoryUsed;
+	private boolean sorted = true;
+	private int size;
+	
+	// True once no more events can be added
+	private volatile boolean frozen = false;
+	
+	/**
+	 * Class constructor for a sink that keeps every event in memory
+	 */
+	public EventSink() {
+		this(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param memoryBudget
+	 *     the estimated number of bytes of events to keep in memory
+	 *     before writing them to disk
+	 */
+	public EventSink(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+	}
+	
+	/**
+	 * Adds an event to the sink
+	 * 
+	 * @param event
+	 *     the event to add
+	 * @throws UncheckedIOException
+	 *     if the events could not be written to disk
+	 * @throws IllegalStateException
+	 *     if the sink is frozen
+	 */
+	public synchronized void add(CalendarEvent event) {
+		if (frozen) throw new IllegalStateException("Event sink is already frozen!");
+		
+		events.add(event);
+		sorted = false;
+		size++;
+		
+		memoryUsed += EVENT_OVERHEAD + 2L * event.getDescription().length();
+		if (memoryUsed > memoryBudget) {
+			spill();
+		}
+	}
+	
+	/**
+	 * Gets the number of events in the sink
+	 * 
+	 * @return
+	 *     the number of events
+	 */
+	public synchronized int size() {
+		return size;
+	}
+	
+	/**
+	 * Sorts the events in memory and stops any more events from being added,
+	 * so the events can be read by any number of threads without locking
+	 */
+	public synchronized void freeze() {
+		if (frozen) return;
+		
+		if (!sorted) {
+			Collections.sort(events, CalendarEvent.DATE_TIME_ORDER);
+			sorted = true;
+		}
+		
+		frozen = true;
+	}
+	
+	/**
+	 * Determines if the sink is frozen
+	 * 
+	 * @return
+	 *     true if no more events can be added
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	/**
+	 * Gets the number of sorted runs that have been written to disk
+	 * 
+	 * @return
+	 *     the number of sorted runs
+	 */
+	public synchronized int getRunCount() {
+		return runs.size();
+	}
+	
+	/**
+	 * Gets an iterator over the events in date and time order
+	 * 
+	 * @return
+	 *     an iterator over the events
+	 * @throws UncheckedIOException
+	 *     if the sorted runs could not be read
+	 */
+	@Override
+	public Iterator<CalendarEvent> iterator() {
+		if (frozen) return createIterator();
+		
+		synchronized (this) {
+			if (!sorted) {
+				Collections.sort(events, CalendarEvent.DATE_TIME_ORDER);
+				sorted = true;
+			}
+			
+			return createIterator();
+		}
+	}
+	
+	/**
+	 * Creates an iterator over the sorted events.  The events in memory are
+	 * copied first unless the sink is frozen.
+	 * 
+	 * @return
+	 *     an iterator over the events in date and time order
+	 */
+	private Iterator<CalendarEvent> createIterator() {
+		if (runs.isEmpty()) {
+			return Collections.unmodifiableList(events).iterator();
+		}
+		
+		List<Iterator<CalendarEvent>> iterators = new ArrayList<>();
+		for (File run : runs) {
+			iterators.add(new RunIterator(run));
+		}
+		iterators.add(frozen ? events.iterator() : new ArrayList<>(events).iterator());
+		
+		return new MergeIterator(iterators);
+	}
+	
+	/**
+	 * Deletes the sorted runs written to disk
+	 */
+	@Override
+	public synchronized void close() {
+		for (File run : runs) {
+			run.delete();
+		}
+		
+		runs.clear();
+	}
+	
+	/**
+	 * Sorts the events in memory and writes them to disk as a sorted run
+	 */
+	private void spill() {
+		Collections.sort(events, CalendarEvent.DATE_TIME_ORDER);
+		
+		try {
+			File run = File.createTempFile("events", ".run");
+			run.deleteOnExit();
+			runs.add(run);
+			
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+				for (CalendarEvent event : events) {
+					byte[] description = event.getDescription().getBytes(StandardCharsets.UTF_8);
+					
+					out.writeLong(event.getSequence());
+					out.writeLong(event.getStartDate().toEpochDay());
+					out.writeLong(event.getEndDate().toEpochDay());
+					out.writeShort(event.getStartMinute());
+					out.writeByte(event.getProfiles());
+					out.writeInt(description.length);
+					out.write(description);
+				}
+			}
+			
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		events.clear();
+		sorted = true;
+		memoryUsed = 0;
+	}
+	
+	/***************************************************************************
+	 * Reads the events in a sorted run back from disk
+	 ***************************************************************************/
+	private static class RunIterator implements Iterator<CalendarEvent> {
+		private DataInputStream in;
+		private CalendarEvent next;
+		
+		private RunIterator(File run) {
+			try {
+				in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 1 << 16));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			
+			next = read();
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		
+		@Override
+		public CalendarEvent next() {
+			if (next == null) throw new NoSuchElementException();
+			
+			CalendarEvent event = next;
+			next = read();
+			return event;
+		}
+		
+		/**
+		 * Reads the next event from the sorted run
+		 * 
+		 * @return
+		 *     the next event or null at the end of the run
+		 */
+		private CalendarEvent read() {
+			if (in == null) return null;
+			
+			try {
+				long sequence;
+				try {
+					sequence = in.readLong();
+				} catch (EOFException e) {
+					in.close();
+					in = null;
+					return null;
+				}
+				
+				LocalDate startDate = LocalDate.ofEpochDay(in.readLong());
+				LocalDate endDate   = LocalDate.ofEpochDay(in.readLong());
+				int minute          = in.readShort();
+				int profiles        = in.readByte();
+				byte[] description  = new byte[in.readInt()];
+				in.readFully(description);
+				
+				LocalTime startTime = (minute < 0) ? null : LocalTime.of(minute / 60, minute % 60);
+				
+				return new CalendarEvent(startDate, endDate, startTime,
+						new String(description, StandardCharsets.UTF_8), sequence, profiles);
+				
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/***************************************************************************
+	 * Merges sorted iterators into a single sorted iterator
+	 ***************************************************************************/
+	private static class MergeIterator implements Iterator<CalendarEvent> {
+		private final PriorityQueue<Cursor> queue;
+		
+		private MergeIterator(List<Iterator<CalendarEvent>> iterators) {
+			queue = new PriorityQueue<>(Math.max(1, iterators.size()));
+			
+			for (Iterator<CalendarEvent> iterator : iterators) {
+				if (iterator.hasNext()) {
+					queue.add(new Cursor(iterator));
+				}
+			}
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return !queue.isEmpty();
+		}
+		
+		@Override
+		public CalendarEvent next() {
+			Cursor cursor = queue.poll();
+			if (cursor == null) throw new NoSuchElementException();
+			
+			CalendarEvent event = cursor.current;
+			
+			if (cursor.iterator.hasNext()) {
+				cursor.current = cursor.iterator.next();
+				queue.add(cursor);
+			}
+			
+			return event;
+		}
+	}
+	
+	/***************************************************************************
+	 * The current event of one of the merged iterators
+	 ***************************************************************************/
+	private static class Cursor implements Comparable<Cursor> {
+		private final Iterator<CalendarEvent> iterator;
+		private CalendarEvent current;
+		
+		private Cursor(Iterator<CalendarEvent> iterator) {
+			this.iterator = iterator;
+			this.current  = iterator.next();
+		}
+		
+		@Override
+		public int compareTo(Cursor other) {
+			return CalendarEvent.DATE_TIME_ORDER.compare(current, other.current);
+		}
+	}
+}
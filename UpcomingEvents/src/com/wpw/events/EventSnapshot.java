@@ -0,0 +1,67 @@
+package com.wpw.events;
+
+import java.io.File;
+import java.io.IOException;
+
+/*******************************************************************************
+ * A snapshot of the events selected for an output document
+ * 
+ * The snapshot is built by a render pass like any other output and is saved
+ * next to the output document.  On the next run the new snapshot is compared
+ * with the saved one to decide if the document needs to be written again.
+ * Each event is saved on one line as tab separated fields:
+ * 
+ *     start date, end date, description
+ * 
+ * An event is known by its start date and description, so the end date of
+ * an event can change without changing the event.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public class EventSnapshot extends AbstractEventSnapshot implements CalendarRenderer {
+	
+	/**
+	 * Class constructor
+	 */
+	public EventSnapshot() {
+		super(3, 0, 2);
+	}
+	
+	/**
+	 * Loads a saved snapshot
+	 * 
+	 * @param file
+	 *     the snapshot file
+	 * @return
+	 *     the saved snapshot or an empty snapshot if the file does not exist
+	 * @throws IOException
+	 *     if the file could not be read
+	 */
+	public static EventSnapshot load(File file) throws IOException {
+		EventSnapshot snapshot = new EventSnapshot();
+		snapshot.read(file);
+		return snapshot;
+	}
+	
+	@Override
+	public void startCalendar() throws IOException {
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event) throws IOException {
+		lines.add(event.getStartDate().toString() + '\t' + event.getEndDate() + '\t' + escape(event.getDescription()));
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+	}
+	
+	@Override
+	protected String format(String[] fields) {
+		String dates = fields[0].equals(fields[1]) ? fields[0] : fields[0] + " - " + fields[1];
+		return String.format("%-23s %s", dates, fields[2]);
+	}
+}
@@ -0,0 +1,226 @@
+package com.wpw.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/*******************************************************************************
+ * Reads the events of the two week calendar or of the upcoming events from
+ * the calendar data on demand
+ * 
+ * Each call for the next event only reads as many paragraphs of the calendar
+ * data as are needed to know that no event still to be read can come before
+ * it, so a stream that is short circuited (e.g. by limit or findFirst) stops
+ * reading the document early.  Events are merged into multi-day all day
+ * events exactly as they are when read all at once, and are returned in date
+ * and time order.
+ * 
+ * Each application selects its events and creates them in its own way, so the
+ * two week calendar and the upcoming events each extend this class with the
+ * rules of their own skip lists.
+ * 
+ * An event is returned once the calendar data has moved on to a later date
+ * and, for an all day event, once the next date has been read without the
+ * same event being found on it.  The calendar data is expected to be in date
+ * order, as it is when copied from the church web site.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public abstract class EventSpliterator<E extends DatedEvent> extends Spliterators.AbstractSpliterator<E>
+		implements CalendarDataHandler, Closeable {
+		
+	private final CalendarDataSource reader;
+	
+	// All day events that could still be extended and the events read but not yet returned
+	private final Map<String, E> allDayEventMap = new HashMap<>();
+	private final PriorityQueue<E> pendingEvents;
+	
+	// Latest date read from the calendar data
+	private LocalDate currentDate = LocalDate.MIN;
+	
+	private boolean endOfData = false;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param reader
+	 *     the reader of the calendar data, which is opened by this constructor
+	 * @param order
+	 *     the date and time order of the events
+	 * @throws IOException
+	 *     if the calendar data could not be opened
+	 */
+	protected EventSpliterator(CalendarDataSource reader, Comparator<? super E> order) throws IOException {
+		super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		this.reader        = reader;
+		this.pendingEvents = new PriorityQueue<>(order);
+		
+		reader.open();
+	}
+	
+	/**
+	 * Determines if an event read from the calendar data is selected.  Each
+	 * event is selected or skipped before it is created or merged into the
+	 * all day event of the day before.
+	 * 
+	 * @param text
+	 *     the event description
+	 * @return
+	 *     true if the event is selected
+	 */
+	protected abstract boolean select(String text);
+	
+	/**
+	 * Creates an event that has been selected, right after it was selected
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param time
+	 *     the time of the event or null for an all day event
+	 * @param endTime
+	 *     the time the event ends or null if it is not known
+	 * @param text
+	 *     the event description
+	 * @return
+	 *     the event
+	 */
+	protected abstract E createEvent(LocalDate date, LocalTime time, LocalTime endTime, String text);
+	
+	/**
+	 * Returns the next event, reading more of the calendar data only when needed
+	 * 
+	 * @param action
+	 *     the action to perform on the next event
+	 * @return
+	 *     false if there are no more events
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super E> action) {
+		while (true) {
+			E event = pendingEvents.peek();
+			
+			if (event != null && (endOfData || isComplete(event))) {
+				action.accept(pendingEvents.poll());
+				return true;
+			}
+			
+			if (endOfData) return false;
+			
+			try {
+				if (!reader.next(this)) {
+					endOfData = true;
+					allDayEventMap.clear();
+					reader.close();
+				}
+			} catch (IOException e) {
+				close();
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Determines if no event still to be read can change or come before an event
+	 * 
+	 * @param event
+	 *     the first event not yet returned
+	 * @return
+	 *     true if the event can be returned
+	 */
+	private boolean isComplete(E event) {
+		return event.getStartDate().isBefore(currentDate) && allDayEventMap.get(event.getDescription()) != event;
+	}
+	
+	/**
+	 * Adds an event read from the calendar data unless it is skipped
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param time
+	 *     the time of the event or null for an all day event
+	 * @param text
+	 *     the event description
+	 */
+	@Override
+	public void addCalendarEvent(LocalDate date, LocalTime time, String text) {
+		addCalendarEvent(date, time, null, text);
+	}
+	
+	/**
+	 * Adds an event read from the calendar data along with its end time
+	 * unless it is skipped
+	 * 
+	 * @param date
+	 *     the date of the event
+	 * @param time
+	 *     the time of the event or null for an all day event
+	 * @param endTime
+	 *     the time the event ends or null if it is not known
+	 * @param text
+	 *     the event description
+	 */
+	@Override
+	public void addCalendarEvent(LocalDate date, LocalTime time, LocalTime endTime, String text) {
+		if (date.isAfter(currentDate)) {
+			currentDate = date;
+			closeAllDayEvents();
+		}
+		
+		if (!select(text)) return;
+		
+		if (time == null) {
+			E event = allDayEventMap.get(text);
+			
+			if (event != null && event.isNextDay(date)) {
+				event.setEndDate(date);
+				return;
+			}
+			
+			event = createEvent(date, null, null, text);
+			allDayEventMap.put(text, event);
+			pendingEvents.add(event);
+			
+		} else {
+			pendingEvents.add(createEvent(date, time, endTime, text));
+		}
+	}
+	
+	/**
+	 * Removes the all day events that can no longer be extended
+	 * to the current date from the all day event map
+	 */
+	private void closeAllDayEvents() {
+		Iterator<E> iterator = allDayEventMap.values().iterator();
+		
+		while (iterator.hasNext()) {
+			if (!iterator.next().isNextDay(currentDate)) iterator.remove();
+		}
+	}
+	
+	/**
+	 * Closes the calendar data without reading the rest of it
+	 */
+	@Override
+	public void close() {
+		endOfData = true;
+		
+		try {
+			reader.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.wpw.events;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/*******************************************************************************
+ * Renders the upcoming events as an HTML web page
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class HtmlRenderer implements CalendarRenderer {
+	
+	private final Writer writer;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param writer
+	 *     the writer the web page is written to
+	 */
+	public HtmlRenderer(Writer writer) {
+		this.writer = writer;
+	}
+	
+	@Override
+	public void startCalendar() throws IOException {
+		writer.write("<!DOCTYPE html>\n");
+		writer.write("<html>\n<head>\n<meta charset=\"UTF-8\">\n");
+		writer.write("<title>Upcoming Events</title>\n");
+		writer.write("<style>body{font-family:Calibri,sans-serif;font-size:9pt}" +
+				"td{padding:0 1em 0 0;vertical-align:top}</style>\n");
+		writer.write("</head>\n<body>\n");
+		writer.write("<table>\n");
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event) throws IOException {
+		writer.write("<tr><td>" + XmlEscaper.escape(event.getDateString()) + "</td>");
+		writer.write("<td>" + XmlEscaper.escape(event.getDescription()) + "</td></tr>\n");
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		writer.write("</table>\n");
+		writer.write("</body>\n</html>\n");
+		writer.flush();
+	}
+}
@@ -0,0 +1,89 @@
+package com.wpw.events;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/*******************************************************************************
+ * Renders the upcoming events as a JSON feed
+ * 
+ * Dates are written in ISO format (yyyy-mm-dd) along with the same
+ * display string used in the other formats.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class JsonRenderer implements CalendarRenderer {
+	
+	private final Writer writer;
+	
+	private boolean firstEvent;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param writer
+	 *     the writer the feed is written to
+	 */
+	public JsonRenderer(Writer writer) {
+		this.writer = writer;
+	}
+	
+	@Override
+	public void startCalendar() throws IOException {
+		writer.write("{\n");
+		writer.write("  \"events\": [");
+		firstEvent = true;
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event) throws IOException {
+		writer.write(firstEvent ? "\n" : ",\n");
+		writer.write("    {\"startDate\": \"" + event.getStartDate() + "\"");
+		writer.write(", \"endDate\": \"" + event.getEndDate() + "\"");
+		writer.write(", \"date\": " + quote(event.getDateString()));
+		writer.write(", \"description\": " + quote(event.getDescription()) + "}");
+		firstEvent = false;
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		writer.write(firstEvent ? "]\n" : "\n  ]\n");
+		writer.write("}\n");
+		writer.flush();
+	}
+	
+	/**
+	 * Quotes and escapes a string for JSON
+	 * 
+	 * @param text
+	 *     the text to quote
+	 * @return
+	 *     the quoted text
+	 */
+	static String quote(String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 8);
+		sb.append('"');
+		
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			switch (c) {
+				case '"':  sb.append("\\\""); break;
+				case '\\': sb.append("\\\\"); break;
+				case '\n': sb.append("\\n");  break;
+				case '\r': sb.append("\\r");  break;
+				case '\t': sb.append("\\t");  break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		
+		return sb.append('"').toString();
+	}
+}
@@ -0,0 +1,67 @@
+package com.wpw.events;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/*******************************************************************************
+ * Renders the upcoming events as a Markdown list
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class MarkdownRenderer implements CalendarRenderer {
+	
+	private final Writer writer;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param writer
+	 *     the writer the list is written to
+	 */
+	public MarkdownRenderer(Writer writer) {
+		this.writer = writer;
+	}
+	
+	@Override
+	public void startCalendar() throws IOException {
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event) throws IOException {
+		writer.write("- **" + event.getDateString() + "** " + CalendarEvent.getDash(true) + " " + escape(event.getDescription()) + "\n");
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		writer.flush();
+	}
+	
+	/**
+	 * Escapes characters that have a meaning in Markdown
+	 * 
+	 * @param text
+	 *     the text to escape
+	 * @return
+	 *     the escaped text
+	 */
+	private static String escape(String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 8);
+		
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			if (c == '\\' || c == '*' || c == '_' || c == '`' || c == '[' || c == ']') {
+				sb.append('\\').append(c);
+			} else if (c == '\n' || c == '\r') {
+				sb.append(' ');
+			} else {
+				sb.append(c);
+			}
+		}
+		
+		return sb.toString();
+	}
+}
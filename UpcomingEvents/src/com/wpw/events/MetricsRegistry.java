@@ -0,0 +1,387 @@
+package com.wpw.events;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*******************************************************************************
+ * Counts what the two week calendar and the upcoming events do while they run
+ * and writes the counts in the Prometheus text format
+ * 
+ * Each counter and histogram is found by its name and labels once and then
+ * kept by the code that updates it, so an update never looks anything up.
+ * Every count is a LongAdder, which gives each thread that updates it at the
+ * same time a cell of its own, so the request threads of the server and the
+ * stages of the pipeline never wait on each other to count.
+ * 
+ * The histograms time things in nanoseconds and count each time in the bucket
+ * of its highest bit, so the buckets double in size from about a microsecond
+ * to about eighteen minutes and a time is counted without any search.  The
+ * bucket bounds are written in seconds as Prometheus expects.
+ * 
+ * A snapshot of every metric can be written at any time to a file (-x) or
+ * read from the /metrics page of the calendar server.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class MetricsRegistry {
+	
+	// Registry the calendar and the upcoming events report to
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+	
+	// Families of metrics in name order
+	private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+	
+	/**
+	 * Gets the registry the calendar and the upcoming events report to
+	 * 
+	 * @return
+	 *     the registry
+	 */
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+	
+	/**
+	 * Gets a counter, creating it the first time it is asked for
+	 * 
+	 * @param name
+	 *     the name of the counter (E.g. twoweekcal_events_parsed_total)
+	 * @param help
+	 *     what the counter counts
+	 * @param labels
+	 *     the names and values of the labels of the counter (E.g. "format", "docx")
+	 * @return
+	 *     the counter
+	 */
+	public Counter counter(String name, String help, String... labels) {
+		return (Counter) getFamily(name, help, "counter").getMetric(labels);
+	}
+	
+	/**
+	 * Gets a histogram, creating it the first time it is asked for
+	 * 
+	 * @param name
+	 *     the name of the histogram (E.g. twoweekcal_render_seconds)
+	 * @param help
+	 *     what the histogram times
+	 * @param labels
+	 *     the names and values of the labels of the histogram
+	 * @return
+	 *     the histogram
+	 */
+	public Histogram histogram(String name, String help, String... labels) {
+		return (Histogram) getFamily(name, help, "histogram").getMetric(labels);
+	}
+	
+	/**
+	 * Gets the family of metrics with a name
+	 * 
+	 * @param name
+	 *     the name of the metrics
+	 * @param help
+	 *     what the metrics measure
+	 * @param type
+	 *     counter or histogram
+	 * @return
+	 *     the family
+	 */
+	private Family getFamily(String name, String help, String type) {
+		Family family = families.get(name);
+		
+		if (family == null) {
+			Family newFamily = new Family(help, type);
+			family = families.putIfAbsent(name, newFamily);
+			if (family == null) family = newFamily;
+		}
+		
+		if (!family.type.equals(type)) {
+			throw new IllegalArgumentException("Metric " + name + " is a " + family.type + "!");
+		}
+		
+		return family;
+	}
+	
+	/**
+	 * Writes a snapshot of every metric in the Prometheus text format
+	 * 
+	 * @param writer
+	 *     the writer to write to
+	 * @throws IOException
+	 *     if the snapshot could not be written
+	 */
+	public void write(Writer writer) throws IOException {
+		for (Map.Entry<String, Family> entry : families.entrySet()) {
+			String name = entry.getKey();
+			Family family = entry.getValue();
+			
+			writer.write("# HELP " + name + " " + family.help + "\n");
+			writer.write("# TYPE " + name + " " + family.type + "\n");
+			
+			for (Map.Entry<String, Object> metric : new ConcurrentSkipListMap<>(family.metrics).entrySet()) {
+				if (metric.getValue() instanceof Counter) {
+					writer.write(name + metric.getKey() + " " + ((Counter) metric.getValue()).get() + "\n");
+				} else {
+					((Histogram) metric.getValue()).write(writer, name, metric.getKey());
+				}
+			}
+		}
+		
+		writer.flush();
+	}
+	
+	/**
+	 * Gets a snapshot of every metric in the Prometheus text format
+	 * 
+	 * @return
+	 *     the snapshot
+	 */
+	public String getSnapshot() {
+		StringWriter writer = new StringWriter();
+		
+		try {
+			write(writer);
+		} catch (IOException e) {
+			// A StringWriter does not throw
+		}
+		
+		return writer.toString();
+	}
+	
+	/**
+	 * Writes a snapshot of every metric to a file.  The snapshot is written
+	 * next to the file and then moved over it, so a reader of the file never
+	 * sees part of a snapshot.
+	 * 
+	 * @param file
+	 *     the file to write to
+	 * @throws IOException
+	 *     if the file could not be written
+	 */
+	public void write(File file) throws IOException {
+		File tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+		
+		try {
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+				write(writer);
+			}
+			
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			
+		} finally {
+			if (tempFile.exists() && !tempFile.delete()) tempFile.deleteOnExit();
+		}
+	}
+	
+	/**
+	 * Gets the labels of a metric in the Prometheus text format
+	 * 
+	 * @param labels
+	 *     the names and values of the labels
+	 * @param extraName
+	 *     the name of one more label (le for a histogram bucket) or null
+	 * @param extraValue
+	 *     the value of the extra label
+	 * @return
+	 *     the labels in braces or an empty string if there are none
+	 */
+	private static String formatLabels(String[] labels, String extraName, String extraValue) {
+		if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels must be names and values!");
+		if (labels.length == 0 && extraName == null) return "";
+		
+		StringBuilder sb = new StringBuilder("{");
+		
+		for (int i = 0; i < labels.length; i += 2) {
+			if (i > 0) sb.append(',');
+			sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+		}
+		
+		if (extraName != null) {
+			if (labels.length > 0) sb.append(',');
+			sb.append(extraName).append("=\"").append(extraValue).append('"');
+		}
+		
+		return sb.append('}').toString();
+	}
+	
+	/**
+	 * Escapes the value of a label
+	 * 
+	 * @param value
+	 *     the value
+	 * @return
+	 *     the value with its backslashes, quotes and new lines escaped
+	 */
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+	
+	/***************************************************************************
+	 * The metrics with one name, what they measure and their type, keyed by
+	 * their labels
+	 ***************************************************************************/
+	private static final class Family {
+		private final String help;
+		private final String type;
+		private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<>();
+		
+		private Family(String help, String type) {
+			this.help = help;
+			this.type = type;
+		}
+		
+		private Object getMetric(String[] labels) {
+			String key = formatLabels(labels, null, null);
+			Object metric = metrics.get(key);
+			
+			if (metric == null) {
+				Object newMetric = type.equals("counter") ? new Counter() : new Histogram(labels);
+				metric = metrics.putIfAbsent(key, newMetric);
+				if (metric == null) metric = newMetric;
+			}
+			
+			return metric;
+		}
+	}
+	
+	/***************************************************************************
+	 * A count that only goes up
+	 ***************************************************************************/
+	public static final class Counter {
+		private final LongAdder count = new LongAdder();
+		
+		private Counter() {
+		}
+		
+		/**
+		 * Adds one to the count
+		 */
+		public void increment() {
+			count.increment();
+		}
+		
+		/**
+		 * Adds to the count
+		 * 
+		 * @param amount
+		 *     the amount to add
+		 */
+		public void add(long amount) {
+			count.add(amount);
+		}
+		
+		/**
+		 * @return
+		 *     the count
+		 */
+		public long get() {
+			return count.sum();
+		}
+	}
+	
+	/***************************************************************************
+	 * Counts times in buckets that double in size
+	 ***************************************************************************/
+	public static final class Histogram {
+		
+		// The first bucket holds times up to 2^10 ns (about a microsecond) and the last up to 2^40 ns
+		private static final int FIRST_BIT = 10;
+		private static final int LAST_BIT  = 40;
+		
+		private final String[] labels;
+		private final LongAdder[] buckets = new LongAdder[LAST_BIT - FIRST_BIT + 2];
+		private final LongAdder sum = new LongAdder();
+		
+		private Histogram(String[] labels) {
+			this.labels = labels.clone();
+			
+			for (int i = 0; i < buckets.length; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+		
+		/**
+		 * Counts a time
+		 * 
+		 * @param nanos
+		 *     the time in nanoseconds
+		 */
+		public void observe(long nanos) {
+			if (nanos < 0) nanos = 0;
+			
+			// Number of bits needed for the time less one, so 2^b ns falls in the bucket of b
+			int bit = (nanos == 0) ? 0 : 64 - Long.numberOfLeadingZeros(nanos - 1);
+			int bucket = Math.min(Math.max(bit, FIRST_BIT), LAST_BIT + 1) - FIRST_BIT;
+			
+			buckets[bucket].increment();
+			sum.add(nanos);
+		}
+		
+		/**
+		 * Counts the time since a start time
+		 * 
+		 * @param startNanos
+		 *     the start time from System.nanoTime()
+		 */
+		public void observeSince(long startNanos) {
+			observe(System.nanoTime() - startNanos);
+		}
+		
+		/**
+		 * Gets the number of times counted
+		 * 
+		 * @return
+		 *     the number of times
+		 */
+		public long getCount() {
+			long count = 0;
+			
+			for (LongAdder bucket : buckets) {
+				count += bucket.sum();
+			}
+			
+			return count;
+		}
+		
+		/**
+		 * Writes the buckets, sum and count of the histogram.  Each bucket
+		 * counts every time up to its bound as Prometheus expects.
+		 * 
+		 * @param writer
+		 *     the writer to write to
+		 * @param name
+		 *     the name of the histogram
+		 * @param key
+		 *     the labels of the histogram in the Prometheus text format
+		 * @throws IOException
+		 *     if the histogram could not be written
+		 */
+		private void write(Writer writer, String name, String key) throws IOException {
+			long count = 0;
+			
+			for (int i = 0; i < buckets.length; i++) {
+				count += buckets[i].sum();
+				
+				String bound = (i == buckets.length - 1) ? "+Inf" : Double.toString((1L << (FIRST_BIT + i)) / 1e9);
+				writer.write(name + "_bucket" + formatLabels(labels, "le", bound) + " " + count + "\n");
+			}
+			
+			writer.write(name + "_sum" + key + " " + (sum.sum() / 1e9) + "\n");
+			writer.write(name + "_count" + key + " " + count + "\n");
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.wpw.events;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/*******************************************************************************
+ * The output formats the calendar can be rendered in
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public enum OutputFormat {
+	DOCX("docx"),
+	TEXT("txt"),
+	HTML("html"),
+	MARKDOWN("md"),
+	JSON("json");
+	
+	private final String extension;
+	
+	private OutputFormat(String extension) {
+		this.extension = extension;
+	}
+	
+	/**
+	 * Gets the file name extension for the format
+	 * 
+	 * @return
+	 *     the file name extension
+	 */
+	public String getExtension() {
+		return extension;
+	}
+	
+	/**
+	 * Gets the output file for the format by replacing the extension of the given file
+	 * 
+	 * @param file
+	 *     an output file (E.g. Upcoming Events.docx)
+	 * @return
+	 *     the output file with this format's extension
+	 */
+	public File getFile(File file) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		if (dot > 0) name = name.substring(0, dot);
+		
+		return new File(file.getParentFile(), name + "." + extension);
+	}
+	
+	/**
+	 * Creates a renderer that writes this format to a stream
+	 * 
+	 * @param out
+	 *     the stream to write to (it is not closed by the renderer)
+	 * @return
+	 *     a new renderer
+	 */
+	public CalendarRenderer createRenderer(OutputStream out) {
+		switch (this) {
+			case DOCX:     return new DocxRenderer(out);
+			case TEXT:     return new TextRenderer(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			case HTML:     return new HtmlRenderer(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			case MARKDOWN: return new MarkdownRenderer(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			case JSON:     return new JsonRenderer(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			default:       throw new IllegalStateException("Unknown output format " + this);
+		}
+	}
+	
+	/**
+	 * Gets the output format for a file name extension or format name
+	 * 
+	 * @param name
+	 *     the file name extension (E.g. docx, txt, html, md or json)
+	 *     or format name (E.g. text or markdown)
+	 * @return
+	 *     the output format or null if the name is unknown
+	 */
+	public static OutputFormat forName(String name) {
+		for (OutputFormat format : values()) {
+			if (format.extension.equalsIgnoreCase(name) || format.name().equalsIgnoreCase(name)) return format;
+		}
+		
+		return null;
+	}
+}
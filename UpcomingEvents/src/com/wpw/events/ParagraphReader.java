@@ -0,0 +1,26 @@
+package com.wpw.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*******************************************************************************
+ * Reads the calendar data one paragraph at a time, whether the data was
+ * pasted into a Microsoft Word document or saved as plain text
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public interface ParagraphReader extends Closeable {
+	
+	/**
+	 * Reads the text of the next paragraph
+	 * 
+	 * @return
+	 *     the text of the paragraph or null at the end of the data
+	 * @throws IOException
+	 *     if the data could not be read
+	 */
+	String readParagraph() throws IOException;
+}
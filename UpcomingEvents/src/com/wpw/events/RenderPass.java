@@ -0,0 +1,52 @@
+package com.wpw.events;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*******************************************************************************
+ * Traverses the events once and sends each event to every renderer
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class RenderPass {
+	
+	private final List<CalendarRenderer> renderers = new ArrayList<>();
+	
+	/**
+	 * Adds a renderer to the render pass
+	 * 
+	 * @param renderer
+	 *     the renderer to add
+	 */
+	public void addRenderer(CalendarRenderer renderer) {
+		renderers.add(renderer);
+	}
+	
+	/**
+	 * Renders the events to every renderer in a single pass over the events
+	 * 
+	 * @param events
+	 *     the events to render
+	 * @throws IOException
+	 *     if any of the output could not be written
+	 */
+	public void render(Iterable<CalendarEvent> events) throws IOException {
+		for (CalendarRenderer renderer : renderers) {
+			renderer.startCalendar();
+		}
+		
+		for (CalendarEvent event : events) {
+			for (CalendarRenderer renderer : renderers) {
+				renderer.writeEvent(event);
+			}
+		}
+		
+		for (CalendarRenderer renderer : renderers) {
+			renderer.endCalendar();
+		}
+	}
+}
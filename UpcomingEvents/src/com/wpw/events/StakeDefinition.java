@@ -0,0 +1,543 @@
+package com.wpw.events;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/*******************************************************************************
+ * The wards of a stake, the rules that tell which unit an event is for and the
+ * files the calendar of the stake is read from and written to
+ * 
+ * A stake is defined by a file of name and value lines:
+ * 
+ *     name                 = Cypress California Stake
+ *     wards                = BP | CY | LP | CR | VV | CP | WG | GG
+ *     ward.BP              = BP | Buena Park Ward
+ *     ward.VV              = VV | V V | V. V. | Valley View Ward
+ *     ...
+ *     ward_markers         = BP | Buena Park | CY | Cyp | Cypress | ...
+ *     stake_keywords       = Stake | Seminary | Ward Conference | ...
+ *     skip_events          = skip_events.txt
+ *     skip_events_upcoming = skip_events_upcoming.txt
+ *     skip_events_major    = skip_events_major.txt
+ *     skip_if_contains     = skip_if_contains.txt
+ *     calendar_data        = Calendar Data.docx
+ *     two_week_calendar    = Two Week Calendar.docx
+ *     upcoming_events      = Upcoming Events.docx
+ *     major_events         = Major Events.docx
+ * 
+ * An event is a ward event if its description contains one of the ward
+ * markers (by default the codes and aliases of every ward) and none of the
+ * stake keywords, which are found in any case.  A ward event is for each ward
+ * whose code or one of whose aliases it contains.  The files are found next
+ * to the definition file unless they are given with a full path.
+ * 
+ * The definition is checked and compiled into arrays when it is loaded and
+ * never changes, so one definition is shared by every calendar and list of
+ * upcoming events of the stake and every thread that classifies its events.
+ * The definition of the Cypress California Stake is built in and is used when
+ * no stake is given.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public final class StakeDefinition {
+	
+	// Unit of the events that are not ward events
+	public static final String STAKE_UNIT = "Stake";
+	
+	// Unit of the ward events whose ward is not known
+	public static final String WARD_UNIT = "Ward";
+	
+	// Bit set in the ward mask of every ward event, above the bit of each ward code
+	public static final int WARD_EVENT = 1 << 31;
+	
+	// Ward codes are capital letters and digits and each has a bit of the ward mask below WARD_EVENT
+	private static final Pattern WARD_CODE = Pattern.compile("[A-Z0-9]+");
+	private static final int MAX_WARDS = 31;
+	
+	// Separator of the values of a list
+	private static final String LIST_SEPARATOR = "|";
+	
+	// Stake used when no stake definition is given
+	private static final StakeDefinition DEFAULT = new StakeDefinition(getDefaultProperties(), null);
+	
+	// Stake used by the upcoming events when no stake definition is given
+	private static final StakeDefinition UPCOMING_DEFAULT = new StakeDefinition(getUpcomingDefaultProperties(), null);
+	
+	private final String name;
+	private final List<String> wardCodes;
+	private final Pattern wardCodePattern;
+	private final String[][] wardDescriptions;
+	private final String[] wardMarkers;
+	private final String[] stakeKeywords;
+	
+	private final File skipEvents;
+	private final File skipEventsUpcoming;
+	private final File skipEventsMajor;
+	private final File skipIfContains;
+	private final File calendarData;
+	private final File twoWeekCalendar;
+	private final File upcomingEvents;
+	private final File majorEvents;
+	
+	/**
+	 * Class constructor that compiles a stake definition
+	 * 
+	 * @param properties
+	 *     the names and values of the definition
+	 * @param directory
+	 *     the directory the files of the stake are found in or null for the current directory
+	 * @throws IllegalArgumentException
+	 *     if the definition is not valid
+	 */
+	private StakeDefinition(Properties properties, File directory) {
+		name = getRequired(properties, "name");
+		
+		List<String> codes = getList(properties, "wards");
+		if (codes.isEmpty()) throw new IllegalArgumentException("No wards defined!");
+		if (codes.size() > MAX_WARDS) throw new IllegalArgumentException("More than " + MAX_WARDS + " wards defined!");
+		
+		wardDescriptions = new String[codes.size()][];
+		List<String> markers = new ArrayList<>();
+		
+		for (int i = 0; i < codes.size(); i++) {
+			String code = codes.get(i);
+			
+			if (!WARD_CODE.matcher(code).matches()) throw new IllegalArgumentException("Invalid ward code!  " + code);
+			if (codes.indexOf(code) != i) throw new IllegalArgumentException("Ward defined more than once!  " + code);
+			
+			List<String> aliases = getList(properties, "ward." + code);
+			if (!aliases.contains(code)) aliases.add(0, code);
+			
+			wardDescriptions[i] = aliases.toArray(new String[0]);
+			markers.addAll(aliases);
+		}
+		
+		wardCodes       = Collections.unmodifiableList(new ArrayList<>(codes));
+		wardCodePattern = Pattern.compile("(" + String.join(LIST_SEPARATOR, codes) + ")");
+		
+		if (properties.containsKey("ward_markers")) markers = getList(properties, "ward_markers");
+		wardMarkers = markers.toArray(new String[0]);
+		
+		List<String> keywords = getList(properties, "stake_keywords");
+		stakeKeywords = new String[keywords.size()];
+		
+		for (int i = 0; i < stakeKeywords.length; i++) {
+			stakeKeywords[i] = keywords.get(i).toUpperCase();
+		}
+		
+		skipEvents         = getFile(properties, "skip_events", "skip_events.txt", directory);
+		skipEventsUpcoming = getFile(properties, "skip_events_upcoming", "skip_events_upcoming.txt", directory);
+		skipEventsMajor    = getFile(properties, "skip_events_major", "skip_events_major.txt", directory);
+		skipIfContains     = getFile(properties, "skip_if_contains", "skip_if_contains.txt", directory);
+		calendarData       = getFile(properties, "calendar_data", "Calendar Data.docx", directory);
+		twoWeekCalendar    = getFile(properties, "two_week_calendar", "Two Week Calendar.docx", directory);
+		upcomingEvents     = getFile(properties, "upcoming_events", "Upcoming Events.docx", directory);
+		majorEvents        = getFile(properties, "major_events", "Major Events.docx", directory);
+	}
+	
+	/**
+	 * Gets the stake used when no stake definition is given
+	 * 
+	 * @return
+	 *     the Cypress California Stake
+	 */
+	public static StakeDefinition getDefault() {
+		return DEFAULT;
+	}
+	
+	/**
+	 * Gets the stake used by the upcoming events when no stake definition is
+	 * given, which is the Cypress California Stake with the ward markers the
+	 * upcoming events have always used
+	 * 
+	 * @return
+	 *     the Cypress California Stake of the upcoming events
+	 */
+	public static StakeDefinition getUpcomingDefault() {
+		return UPCOMING_DEFAULT;
+	}
+	
+	/**
+	 * Reads and compiles a stake definition file.  The StakeRegistry of the
+	 * two week calendar keeps the definitions already compiled, so a definition
+	 * is only read again when its file changes.
+	 * 
+	 * @param file
+	 *     the stake definition file
+	 * @return
+	 *     the stake definition
+	 * @throws IOException
+	 *     if the file could not be read
+	 * @throws IllegalArgumentException
+	 *     if the definition is not valid
+	 */
+	public static StakeDefinition load(File file) throws IOException {
+		Properties properties = new Properties();
+		
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		
+		try {
+			return new StakeDefinition(properties, file.getAbsoluteFile().getParentFile());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(file + ":  " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Determines if the event is a ward event by looking for
+	 * specific character patterns in the event description
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @return
+	 *     true if the description contains a ward marker and no stake keyword
+	 */
+	public boolean isWardEvent(String eventDescription) {
+		String educ = eventDescription.toUpperCase();
+		
+		for (String keyword : stakeKeywords) {
+			if (educ.contains(keyword)) return false;
+		}
+		
+		for (String marker : wardMarkers) {
+			if (eventDescription.contains(marker)) return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Determines if a ward event is for a specific ward
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @param wardCode
+	 *     the ward code or null for all wards
+	 * @return
+	 *     true if no specific ward was given or if the event is for the specific ward
+	 */
+	public boolean isForWard(String eventDescription, String wardCode) {
+		if (wardCode == null) return true;
+		
+		int index = wardCodes.indexOf(wardCode);
+		return index >= 0 && isForWard(eventDescription, index);
+	}
+	
+	/**
+	 * Determines if a ward event is for a ward
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @param index
+	 *     the index of the ward in the ward codes
+	 * @return
+	 *     true if the description contains the code or an alias of the ward
+	 */
+	private boolean isForWard(String eventDescription, int index) {
+		for (String wardDescription : wardDescriptions[index]) {
+			if (eventDescription.contains(wardDescription)) return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Gets the unit an event is for
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @return
+	 *     the ward code, STAKE_UNIT for a stake event
+	 *     or WARD_UNIT for a ward event of an unknown ward
+	 */
+	public String getUnit(String eventDescription) {
+		if (!isWardEvent(eventDescription)) return STAKE_UNIT;
+		
+		for (int i = 0; i < wardDescriptions.length; i++) {
+			if (isForWard(eventDescription, i)) return wardCodes.get(i);
+		}
+		
+		return WARD_UNIT;
+	}
+	
+	/**
+	 * Gets the wards an event is for as a bit mask, so the wards only need to be
+	 * found once for each description
+	 * 
+	 * @param eventDescription
+	 *     the event description
+	 * @return
+	 *     0 for a stake event or WARD_EVENT and the bit of each
+	 *     ward code (see getWardBit) the event is for
+	 */
+	public int getWardMask(String eventDescription) {
+		if (!isWardEvent(eventDescription)) return 0;
+		
+		int wardMask = WARD_EVENT;
+		
+		for (int i = 0; i < wardDescriptions.length; i++) {
+			if (isForWard(eventDescription, i)) wardMask |= 1 << i;
+		}
+		
+		return wardMask;
+	}
+	
+	/**
+	 * Gets the bit of a ward code in a ward mask
+	 * 
+	 * @param wardCode
+	 *     the ward code
+	 * @return
+	 *     the bit of the ward code or 0 if it is not a ward of the stake
+	 */
+	public int getWardBit(String wardCode) {
+		int index = wardCodes.indexOf(wardCode);
+		return (index < 0) ? 0 : 1 << index;
+	}
+	
+	/**
+	 * Gets the code and aliases of a ward
+	 * 
+	 * @param wardCode
+	 *     the ward code
+	 * @return
+	 *     the code and aliases of the ward or an empty array if it is not a ward of the stake
+	 */
+	public String[] getWardDescriptions(String wardCode) {
+		int index = (wardCode == null) ? -1 : wardCodes.indexOf(wardCode);
+		return (index < 0) ? new String[] {} : wardDescriptions[index].clone();
+	}
+	
+	/**
+	 * Determines if a code is the code of a ward of the stake
+	 * 
+	 * @param wardCode
+	 *     the ward code
+	 * @return
+	 *     true if the code is the code of a ward of the stake
+	 */
+	public boolean isWardCode(String wardCode) {
+		return wardCodes.contains(wardCode);
+	}
+	
+	/**
+	 * @return
+	 *     the name of the stake
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return
+	 *     the ward codes in the order they were defined
+	 */
+	public List<String> getWardCodes() {
+		return wardCodes;
+	}
+	
+	/**
+	 * @return
+	 *     a pattern that matches any one of the ward codes
+	 */
+	public Pattern getWardCodePattern() {
+		return wardCodePattern;
+	}
+	
+	/**
+	 * @return
+	 *     the file of the events that are skipped
+	 */
+	public File getSkipEventsFile() {
+		return skipEvents;
+	}
+	
+	/**
+	 * @return
+	 *     the file of the events that are skipped by the upcoming events
+	 */
+	public File getSkipEventsUpcomingFile() {
+		return skipEventsUpcoming;
+	}
+	
+	/**
+	 * @return
+	 *     the file of the events that are skipped by the major events
+	 */
+	public File getSkipEventsMajorFile() {
+		return skipEventsMajor;
+	}
+	
+	/**
+	 * @return
+	 *     the file of the text that skips any event that contains it
+	 */
+	public File getSkipIfContainsFile() {
+		return skipIfContains;
+	}
+	
+	/**
+	 * @return
+	 *     the calendar data file
+	 */
+	public File getCalendarDataFile() {
+		return calendarData;
+	}
+	
+	/**
+	 * @return
+	 *     the two week calendar file whose extension is replaced by that of each output format
+	 */
+	public File getTwoWeekCalendarFile() {
+		return twoWeekCalendar;
+	}
+	
+	/**
+	 * @return
+	 *     the upcoming events file whose extension is replaced by that of each output format
+	 */
+	public File getUpcomingEventsFile() {
+		return upcomingEvents;
+	}
+	
+	/**
+	 * @return
+	 *     the major events file whose extension is replaced by that of each output format
+	 */
+	public File getMajorEventsFile() {
+		return majorEvents;
+	}
+	
+	/**
+	 * @return
+	 *     the name of the stake
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+	
+	/**
+	 * Gets a value that must be given
+	 * 
+	 * @param properties
+	 *     the names and values of the definition
+	 * @param key
+	 *     the name of the value
+	 * @return
+	 *     the value
+	 * @throws IllegalArgumentException
+	 *     if the value is not given
+	 */
+	private static String getRequired(Properties properties, String key) {
+		String value = properties.getProperty(key, "").trim();
+		if (value.isEmpty()) throw new IllegalArgumentException("No " + key + " defined!");
+		
+		return value;
+	}
+	
+	/**
+	 * Gets a list of values separated by the list separator
+	 * 
+	 * @param properties
+	 *     the names and values of the definition
+	 * @param key
+	 *     the name of the list
+	 * @return
+	 *     the values of the list or an empty list if it is not given
+	 */
+	private static List<String> getList(Properties properties, String key) {
+		List<String> values = new ArrayList<>();
+		
+		for (String value : properties.getProperty(key, "").split(Pattern.quote(LIST_SEPARATOR))) {
+			value = value.trim();
+			if (!value.isEmpty()) values.add(value);
+		}
+		
+		return values;
+	}
+	
+	/**
+	 * Gets a file of the stake
+	 * 
+	 * @param properties
+	 *     the names and values of the definition
+	 * @param key
+	 *     the name of the file
+	 * @param defaultName
+	 *     the file name used if the file is not given
+	 * @param directory
+	 *     the directory of a file not given with a full path or null for the current directory
+	 * @return
+	 *     the file
+	 */
+	private static File getFile(Properties properties, String key, String defaultName, File directory) {
+		File file = new File(properties.getProperty(key, defaultName).trim());
+		return (file.isAbsolute() || directory == null) ? file : new File(directory, file.getPath());
+	}
+	
+	/**
+	 * Gets the definition of the Cypress California Stake
+	 * 
+	 * @return
+	 *     the names and values of the definition
+	 */
+	private static Properties getDefaultProperties() {
+		Map<String, String> values = new HashMap<>();
+		
+		values.put("name",    "Cypress California Stake");
+		values.put("wards",   "BP | CY | LP | CR | VV | CP | WG | GG");
+		values.put("ward.BP", "BP | Buena Park Ward");
+		values.put("ward.CY", "CY | Cypress Ward");
+		values.put("ward.LP", "LP | La Palma Ward");
+		values.put("ward.CR", "CR | Crescent Ward");
+		values.put("ward.VV", "VV | V V | V. V. | Valley View Ward");
+		values.put("ward.CP", "CP | Cypress Park Ward");
+		values.put("ward.WG", "WG | West Grove Ward");
+		values.put("ward.GG", "GG | Garden Grove 11th Branch | Korean");
+		
+		values.put("ward_markers", String.join(LIST_SEPARATOR, Arrays.asList(
+				"BP", "Buena Park", "CY", "Cyp", "Cypress", "LP", "La Palma", "CR", "Crescent",
+				"VV", "V V", "V. V.", "Valley View", "WG", "West Grove", "GG", "Garden Grove", "Korean")));
+				
+		values.put("stake_keywords", String.join(LIST_SEPARATOR, Arrays.asList(
+				"STAKE", "SEMINARY", "WARD CONFERENCE", "BRANCH CONFERENCE", "FAMILY HISTORY MARATHON")));
+				
+		Properties properties = new Properties();
+		properties.putAll(values);
+		return properties;
+	}
+	
+	/**
+	 * Gets the definition of the Cypress California Stake used by the upcoming
+	 * events, whose ward markers are the code and aliases of every ward and Cyp,
+	 * so the Cypress Park Ward events are ward events as well
+	 * 
+	 * @return
+	 *     the names and values of the definition
+	 */
+	private static Properties getUpcomingDefaultProperties() {
+		Properties properties = getDefaultProperties();
+		properties.remove("ward_markers");
+		properties.setProperty("ward.CY", "CY | Cyp | Cypress Ward");
+		
+		return properties;
+	}
+}
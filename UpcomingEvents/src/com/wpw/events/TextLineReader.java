@@ -0,0 +1,216 @@
+package com.wpw.events;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/*******************************************************************************
+ * Reads each line of calendar data saved as plain text (UTF-8) as a paragraph
+ * 
+ * A file is memory mapped one window at a time and the lines are found by
+ * scanning the mapped bytes for new lines, so only the bytes of the line being
+ * returned are ever copied into the heap.  A line that runs past the end of a
+ * window is found again in a new window that starts with the line.  Standard
+ * input (or any other pipe) can not be mapped, so it is read through a large
+ * buffer instead and the part of a line that has not been used is moved to
+ * the front of the buffer before more is read.  Either way the memory used
+ * does not depend on the size of the data.
+ * 
+ * Lines may end with a new line or a carriage return and new line, and a
+ * byte order mark at the start of the data is skipped.
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ * 
+ *******************************************************************************/
+public class TextLineReader implements ParagraphReader {
+	
+	// Bytes of a file mapped at one time and bytes of a pipe read at one time
+	private static final int WINDOW_SIZE = 1 << 26;
+	private static final int BUFFER_SIZE = 1 << 20;
+	
+	// Bytes of the UTF-8 byte order mark
+	private static final byte[] BYTE_ORDER_MARK = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+	
+	// File being mapped and its size or the pipe being read
+	private final FileChannel channel;
+	private final long size;
+	private final ReadableByteChannel pipe;
+	
+	// Mapped window or pipe buffer and the position in the file of its first byte
+	private ByteBuffer buffer;
+	private long bufferStart;
+	
+	private boolean endOfPipe;
+	private boolean firstLine = true;
+	
+	// Bytes of the line being decoded
+	private byte[] line = new byte[256];
+	
+	/**
+	 * Class constructor that opens a text file
+	 * 
+	 * @param file
+	 *     the text file
+	 * @throws IOException
+	 *     if the file could not be opened
+	 */
+	public TextLineReader(File file) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.size    = channel.size();
+		this.pipe    = null;
+		this.buffer  = ByteBuffer.allocate(0);
+	}
+	
+	/**
+	 * Class constructor that reads from a stream like standard input.  The
+	 * stream is not closed when the reader is closed.
+	 * 
+	 * @param in
+	 *     the stream of text
+	 */
+	public TextLineReader(InputStream in) {
+		this.channel = null;
+		this.size    = -1;
+		this.pipe    = Channels.newChannel(in);
+		this.buffer  = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.limit(0);
+	}
+	
+	/**
+	 * Reads the next line
+	 * 
+	 * @return
+	 *     the text of the line without its line ending or null at the end of the data
+	 * @throws IOException
+	 *     if the data could not be read
+	 */
+	@Override
+	public String readParagraph() throws IOException {
+		int scanned = buffer.position();
+		
+		while (true) {
+			int start = buffer.position();
+			
+			for (int i = scanned; i < buffer.limit(); i++) {
+				if (buffer.get(i) == '\n') {
+					String text = decode(start, i);
+					buffer.position(i + 1);
+					return text;
+				}
+			}
+			
+			// The line continues past the bytes in the buffer
+			int scannedLength = buffer.limit() - start;
+			
+			if (!fill()) {
+				if (!buffer.hasRemaining()) return null;
+				
+				String text = decode(buffer.position(), buffer.limit());
+				buffer.position(buffer.limit());
+				return text;
+			}
+			
+			scanned = buffer.position() + scannedLength;
+		}
+	}
+	
+	/**
+	 * Adds the bytes that follow the buffer, keeping the bytes from the
+	 * current position (the start of the line being read)
+	 * 
+	 * @return
+	 *     true if more bytes were added or false at the end of the data
+	 * @throws IOException
+	 *     if the data could not be read
+	 */
+	private boolean fill() throws IOException {
+		if (channel != null) {
+			long position = bufferStart + buffer.position();
+			if (bufferStart + buffer.limit() >= size) return false;
+			
+			long length = Math.min(size - position, Math.max(WINDOW_SIZE, buffer.remaining() * 2L));
+			if (length > Integer.MAX_VALUE) throw new IOException("Line is too long!");
+			
+			buffer      = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			bufferStart = position;
+			return true;
+		}
+		
+		if (endOfPipe) return false;
+		
+		buffer.compact();
+		
+		if (!buffer.hasRemaining()) {
+			ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+		
+		int count;
+		while ((count = pipe.read(buffer)) == 0) {
+			// A blocking channel returns at least one byte or the end of the data
+		}
+		
+		buffer.flip();
+		
+		if (count < 0) {
+			endOfPipe = true;
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Decodes the bytes of a line
+	 * 
+	 * @param start
+	 *     the position of the first byte of the line
+	 * @param end
+	 *     the position of the new line that ends the line or the end of the data
+	 * @return
+	 *     the text of the line
+	 */
+	private String decode(int start, int end) {
+		if (end > start && buffer.get(end - 1) == '\r') end--;
+		
+		int length = end - start;
+		if (length > line.length) line = new byte[Math.max(length, line.length * 2)];
+		
+		buffer.position(start);
+		buffer.get(line, 0, length);
+		
+		int offset = 0;
+		
+		if (firstLine) {
+			firstLine = false;
+			
+			if (length >= BYTE_ORDER_MARK.length && line[0] == BYTE_ORDER_MARK[0] &&
+					line[1] == BYTE_ORDER_MARK[1] && line[2] == BYTE_ORDER_MARK[2]) {
+				offset = BYTE_ORDER_MARK.length;
+			}
+		}
+		
+		return new String(line, offset, length - offset, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Closes the file.  Standard input is left open.
+	 * 
+	 * @throws IOException
+	 *     if the file could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel != null) channel.close();
+	}
+}
@@ -0,0 +1,47 @@
+package com.wpw.events;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/*******************************************************************************
+ * Renders the upcoming events as plain text in the same layout that
+ * is printed to standard out
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public class TextRenderer implements CalendarRenderer {
+	
+	private static final String NEW_LINE = System.lineSeparator();
+	
+	private final Writer writer;
+	
+	/**
+	 * Class constructor
+	 * 
+	 * @param writer
+	 *     the writer the events are written to
+	 */
+	public TextRenderer(Writer writer) {
+		this.writer = writer;
+	}
+	
+	@Override
+	public void startCalendar() throws IOException {
+		writer.write(NEW_LINE);
+	}
+	
+	@Override
+	public void writeEvent(CalendarEvent event) throws IOException {
+		writer.write(event.toString(false));
+		writer.write(NEW_LINE);
+	}
+	
+	@Override
+	public void endCalendar() throws IOException {
+		writer.write(NEW_LINE);
+		writer.flush();
+	}
+}
@@ -2,29 +2,34 @@ package com.wpw.events;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
-
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.apache.poi.openxml4j.opc.OPCPackage;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
-import org.apache.poi.xwpf.usermodel.XWPFRun;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /*******************************************************************************
  * Creates a two week calendar for publishing to the Cypress California Stake
@@ -39,17 +44,17 @@ import org.apache.poi.xwpf.usermodel.XWPFRun;
  * @since   2017-12-14
  *
  *******************************************************************************/
-public class UpcomingEvents {
+public class UpcomingEvents implements CalendarDataHandler {
 	
 	// Input and output files
-	public static final File CALENDAR_DATA   = new File("Calendar Data.docx");		// Input file
-	public static final File UPCOMING_EVENTS = new File("Upcoming Events.docx");	// Output file
-	public static final File MAJOR_EVENTS    = new File("Major Events.docx");		// Output file
+	public static final File CALENDAR_DATA   = StakeDefinition.getUpcomingDefault().getCalendarDataFile();	// Input file
+	public static final File UPCOMING_EVENTS = StakeDefinition.getUpcomingDefault().getUpcomingEventsFile();	// Output file
+	public static final File MAJOR_EVENTS    = StakeDefinition.getUpcomingDefault().getMajorEventsFile();		// Output file
 	
 	// Skipped events file
-	public static final File SKIP_EVENTS_UPCOMING = new File("skip_events_upcoming.txt");
-	public static final File SKIP_EVENTS_MAJOR    = new File("skip_events_major.txt");
-	public static final File SKIP_IF_CONTAINS     = new File("skip_if_contains.txt");
+	public static final File SKIP_EVENTS_UPCOMING = StakeDefinition.getUpcomingDefault().getSkipEventsUpcomingFile();
+	public static final File SKIP_EVENTS_MAJOR    = StakeDefinition.getUpcomingDefault().getSkipEventsMajorFile();
+	public static final File SKIP_IF_CONTAINS     = StakeDefinition.getUpcomingDefault().getSkipIfContainsFile();
 	
 	// Sets of events that should be skipped
 	public static final Set<String> SKIP_EVENTS_UPCOMING_SET = getFileContents(SKIP_EVENTS_UPCOMING);
@@ -65,7 +70,7 @@ public class UpcomingEvents {
 	public static final Pattern TIME_EVENT_PATTERN = Pattern.compile("(All Day|(\\d{1,2}(:\\d{2})?)(am|pm)? - \\d{1,2}(:\\d{2})?(am|pm)) - (.+)");
 	
 	// Valid Ward Codes
-	public static final Pattern WARD_CODE_PATTERN = Pattern.compile("(BP|CY|LP|CR|VV|CP|WG|GG)");
+	public static final Pattern WARD_CODE_PATTERN = StakeDefinition.getUpcomingDefault().getWardCodePattern();
 	
 	// Date and time formatters to read the input date and time as a local date
 	public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("M/d/yyyy");
@@ -74,22 +79,96 @@ public class UpcomingEvents {
 	// Date and time formatters to read the input date and time as a local date for new style data
 	public static final DateTimeFormatter DATE_FORMATTER2 = DateTimeFormatter.ofPattern("MMMM d, yyyy");
 	
+	// Profile bits of the lists an event can be included in
+	public static final int UPCOMING_PROFILE = 1;
+	public static final int MAJOR_PROFILE    = 2;
+	public static final int ALL_PROFILES     = UPCOMING_PROFILE | MAJOR_PROFILE;
+	
+	// Time spent reading the calendar data and writing each list
+	private static final MetricsRegistry.Histogram READ_SECONDS = MetricsRegistry.getDefault().histogram(
+			"upcoming_read_seconds", "Time spent reading the calendar data");
+	private static final MetricsRegistry.Histogram UPCOMING_WRITE_SECONDS = getWriteHistogram(UPCOMING_PROFILE);
+	private static final MetricsRegistry.Histogram MAJOR_WRITE_SECONDS    = getWriteHistogram(MAJOR_PROFILE);
+	
+	// Counts of the events each list included and skipped
+	private static final MetricsRegistry.Counter UPCOMING_INCLUDED = getClassifiedCounter(UPCOMING_PROFILE, "included");
+	private static final MetricsRegistry.Counter UPCOMING_SKIPPED  = getClassifiedCounter(UPCOMING_PROFILE, "skipped");
+	private static final MetricsRegistry.Counter MAJOR_INCLUDED    = getClassifiedCounter(MAJOR_PROFILE, "included");
+	private static final MetricsRegistry.Counter MAJOR_SKIPPED     = getClassifiedCounter(MAJOR_PROFILE, "skipped");
+	
+	// Sets of events that should be skipped by this list
+	private Set<String> skipEventsUpcomingSet = SKIP_EVENTS_UPCOMING_SET;
+	private Set<String> skipEventsMajorSet    = SKIP_EVENTS_MAJOR_SET;
+	private Set<String> skipIfContainsSet     = SKIP_IF_CONTAINS_SET;
+	
+	// Stake whose ward markers, stake keywords and files the lists use and the stakes
+	// given by stake definition files, whose lists are written one after another
+	private StakeDefinition stake = StakeDefinition.getUpcomingDefault();
+	private List<StakeDefinition> stakes = new ArrayList<>();
+	
 	// Booleans to determine if events should be skipped
 	// or the calendar should be printed to standard out
 	private boolean printCalendar = false;
-	private boolean majorEventsOnly = false;
 	
-	private File outputFile = UPCOMING_EVENTS;
+	// Boolean to determine if the output files are only written when the events change
+	private boolean incrementalUpdate = false;
+	
+	// Files the calendar data is read from when not the default calendar data file
+	private List<File> calendarDataFiles = new ArrayList<>();
+	
+	// File the metrics of the run are written to or null if they are not written
+	private File metricsFile;
+	
+	// Bitmask of the lists created by this run
+	private int profiles = UPCOMING_PROFILE;
+	
+	// Formats of the output files
+	private Set<OutputFormat> outputFormats = EnumSet.of(OutputFormat.DOCX);
+	private boolean formatsSpecified = false;
 	
 	// Maps of events that are all day events
-	// and events that have been skipped
-	private Map<String, CalendarEvent> allDayEventMap  = new HashMap<>();
-	private Map<String, Integer>       skippedEventMap = new TreeMap<>();
+	// and events that have been skipped by each list
+	private Map<String, CalendarEvent> allDayEventMap          = new HashMap<>();
+	private Map<String, Integer>       skippedUpcomingEventMap = new TreeMap<>();
+	private Map<String, Integer>       skippedMajorEventMap    = new TreeMap<>();
+	
+	// Sink of events in date and time order
+	private EventSink events;
 	
-	// Lists of stake and ward events
-	private List<CalendarEvent> eventList = new ArrayList<>();
+	// True once the events are frozen and no more events can be added
+	private volatile boolean frozen = false;
 	
 	
+	/**
+	 * Class constructor for the upcoming events which writes events to disk
+	 * when they no longer fit in memory
+	 */
+	public UpcomingEvents() {
+		events = new EventSink(Runtime.getRuntime().maxMemory() / 8);
+	}
+	
+	/**
+	 * Class constructor for upcoming events that are kept in memory
+	 * 
+	 * @param majorEventsOnly
+	 *     true if only major events should be included
+	 */
+	public UpcomingEvents(boolean majorEventsOnly) {
+		this(majorEventsOnly ? MAJOR_PROFILE : UPCOMING_PROFILE);
+	}
+	
+	/**
+	 * Class constructor for upcoming events that are kept in memory
+	 * 
+	 * @param profiles
+	 *     the bitmask of the lists to create
+	 *     (UPCOMING_PROFILE, MAJOR_PROFILE or ALL_PROFILES)
+	 */
+	public UpcomingEvents(int profiles) {
+		this.profiles = profiles;
+		events = new EventSink();
+	}
+	
 	/**
 	 * Main method for the two week calendar application
 	 * 
@@ -99,7 +178,36 @@ public class UpcomingEvents {
 	public static void main(String[] args) {
 		UpcomingEvents upcomingEvents = new UpcomingEvents();
 		upcomingEvents.parseArgs(args);
-		upcomingEvents.run();
+		
+		if (upcomingEvents.stakes.size() > 1) {
+			runStakes(args, upcomingEvents.stakes);
+		} else {
+			upcomingEvents.run();
+		}
+		
+		if (upcomingEvents.metricsFile != null) {
+			upcomingEvents.writeMetrics();
+		}
+	}
+	
+	/**
+	 * Writes the lists of each stake one after another.  Each stake has its
+	 * own lists with the same settings, printed after the name of the stake.
+	 * 
+	 * @param args
+	 *     the arguments passed to the application
+	 * @param stakes
+	 *     the stakes
+	 */
+	private static void runStakes(String[] args, List<StakeDefinition> stakes) {
+		for (StakeDefinition stake : stakes) {
+			UpcomingEvents upcomingEvents = new UpcomingEvents();
+			upcomingEvents.parseArgs(args);
+			upcomingEvents.setStake(stake);
+			
+			System.out.println(stake.getName());
+			upcomingEvents.run();
+		}
 	}
 	
 	/**
@@ -112,18 +220,75 @@ public class UpcomingEvents {
 	private void parseArgs(String[] args) {
 		for (String arg : args) {
 			if (arg.equals("-m" )) {
-				majorEventsOnly = true;
-				outputFile = MAJOR_EVENTS;
+				profiles = MAJOR_PROFILE;
+				
+			} else if (arg.equals("-b" )) {
+				profiles = ALL_PROFILES;
 				
 			} else if (arg.equals("-p")) {
 				CalendarEvent.setWordFormat(false);
 				printCalendar = true;
+				if (!formatsSpecified) outputFormats.clear();
+				
+			} else if (arg.equals("-i")) {
+				incrementalUpdate = true;
+				
+			} else if (arg.startsWith("-d")) {
+				File file = new File(arg.substring(2));
+				if (!file.equals(CalendarDataReader.STANDARD_INPUT) && !file.isFile()) {
+					System.out.println("Calendar data file not found!  " + arg.substring(2));
+					showUsage();
+					System.exit(0);
+				}
+				calendarDataFiles.add(file);
+				
+			} else if (arg.startsWith("-n")) {
+				try {
+					stakes.add(StakeDefinition.load(new File(arg.substring(2))));
+				} catch (IOException | IllegalArgumentException e) {
+					System.out.println("Invalid stake definition specified!  " + e.getMessage());
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				
+			} else if (arg.startsWith("-x")) {
+				if (arg.length() == 2) {
+					System.out.println("Invalid metrics file specified!  " + arg.substring(2));
+					System.out.println("");
+					showUsage();
+					System.exit(0);
+				}
+				metricsFile = new File(arg.substring(2));
+				
+			} else if (arg.startsWith("-f")) {
+				if (!formatsSpecified) outputFormats.clear();
+				formatsSpecified = true;
+				
+				for (String extension : arg.substring(2).split(",")) {
+					OutputFormat format = OutputFormat.forName(extension.trim());
+					if (format == null) {
+						System.out.println("Invalid output format specified!  " + extension);
+						showUsage();
+						System.exit(0);
+					}
+					outputFormats.add(format);
+				}
 				
 			} else {
 				showUsage();
 				System.exit(0);
 			}
 		}
+		
+		if (stakes.size() > 1 && !calendarDataFiles.isEmpty()) {
+			System.out.println("Calendar data files can not be given for more than one stake!");
+			System.out.println("");
+			showUsage();
+			System.exit(0);
+		}
+		
+		if (stakes.size() == 1) setStake(stakes.get(0));
 	}
 	
 	/**
@@ -131,99 +296,131 @@ public class UpcomingEvents {
 	 */
 	private void run() {
 		if (readCalendarData()) {
-			if (printCalendar) {
-				printCalendar();
+			if (profiles == ALL_PROFILES) {
+				writeProfilesConcurrently();
 			} else {
-				writeCalendar();
+				writeProfile(profiles);
 			}
 		}
+		
+		events.close();
 	}
 	
 	/**
-	 * Reads the calendar data from a Microsoft Word document.  The data in the Word
-	 * document was copied from a print of the Agenda View of the Stake Calendar
-	 * on the Church web site.
-	 * 
-	 * @return
-	 *     true if there were no errors reading the data
+	 * Writes the upcoming and major events documents at the same time
+	 * from the events read in a single pass
 	 */
-	private boolean readCalendarData() {
-		LocalDate currentDate = null;
-		LocalTime currentTime = null;
-		
-		FileInputStream fis = null;
-		XWPFDocument doc = null;
+	private void writeProfilesConcurrently() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
 		
 		try {
-			fis = new FileInputStream(CALENDAR_DATA);
-			doc = new XWPFDocument(OPCPackage.open(fis));
+			List<Future<?>> futures = new ArrayList<>();
 			
-			for (XWPFParagraph p : doc.getParagraphs()) {
-				String text = p.getText();
-				
-				Matcher dayDateMatcher   = DAY_DATE_PATTERN.matcher(text);
-				Matcher timeEventMatcher = TIME_EVENT_PATTERN.matcher(text);
-				
-				if (dayDateMatcher.matches()) {
-					String month = dayDateMatcher.group(1);
-					String day   = dayDateMatcher.group(2);
-					String year  = dayDateMatcher.group(3);
-					
-					String date = String.format("%s %s, %s", month, day, year);
-					currentDate = LocalDate.parse(date, DATE_FORMATTER2);
-					currentTime = null;
-					
-				} else if (timeEventMatcher.matches()) {
-					if (currentDate == null) {
-						System.out.println("Error:  Date must preceed any events in list!");
-						return false;
+			for (final int profile : new int[] { UPCOMING_PROFILE, MAJOR_PROFILE }) {
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						writeProfile(profile);
 					}
-					
-					String time      = timeEventMatcher.group(1);
-					String startTime = timeEventMatcher.group(2);
-					String startAmPm = timeEventMatcher.group(4);
-					String endAmPm   = timeEventMatcher.group(6);
-					text             = timeEventMatcher.group(7);
-					
-					if (time.equals("All Day")) {
-						currentTime = null;
-					} else {
-						if (!startTime.contains(":")) startTime += ":00";
-						if (startAmPm == null) startAmPm = endAmPm;
-						time = startTime + " " + startAmPm.toUpperCase();
-						currentTime = LocalTime.parse(time, TIME_FORMATTER);
-					}
-					
-					addCalendarEvent(currentDate, currentTime, text);
-				}
+				}));
 			}
 			
-			return true;
-			
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-			return false;
-			
-		} catch (InvalidFormatException e) {
-			e.printStackTrace();
-			return false;
+			for (Future<?> future : futures) {
+				future.get();
+			}
 			
-		} catch (IOException e) {
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
 			e.printStackTrace();
-			return false;
-			
 		} finally {
-			try {
-				if (doc != null) doc.close();
-				if (fis != null) fis.close();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Writes the output files of a single list
+	 * 
+	 * @param profile
+	 *     the profile bit of the list
+	 */
+	private void writeProfile(int profile) {
+		long start = System.nanoTime();
+		
+		if (incrementalUpdate) {
+			updateCalendar(profile);
+		} else {
+			writeCalendar(profile, true);
+		}
+		
+		(profile == MAJOR_PROFILE ? MAJOR_WRITE_SECONDS : UPCOMING_WRITE_SECONDS).observeSince(start);
+	}
+	
+	/**
+	 * Writes the metrics of the run to the metrics file
+	 */
+	private void writeMetrics() {
+		try {
+			MetricsRegistry.getDefault().write(metricsFile);
+		} catch (IOException e) {
+			System.out.println("Error writing " + metricsFile + "!  " + e.getMessage());
 		}
 	}
 	
-	private void addCalendarEvent(LocalDate currentDate, LocalTime currentTime, String text) {
-		if (skipEvent(text)) return;
+	/**
+	 * Gets the output file of a list
+	 * 
+	 * @param profile
+	 *     the profile bit of the list
+	 * @return
+	 *     the output file
+	 */
+	private File getOutputFile(int profile) {
+		return (profile == MAJOR_PROFILE) ? stake.getMajorEventsFile() : stake.getUpcomingEventsFile();
+	}
+	
+	/**
+	 * Reads the calendar data from a Microsoft Word document.  The data in the Word
+	 * document was copied from a print of the Agenda View of the Stake Calendar
+	 * on the Church web site.  The events of more than one document are merged
+	 * in date and time order and the events found in more than one document
+	 * are only read once.
+	 * 
+	 * @return
+	 *     true if there were no errors reading the data
+	 */
+	private boolean readCalendarData() {
+		if (calendarDataFiles.isEmpty()) calendarDataFiles.add(stake.getCalendarDataFile());
+		
+		long start = System.nanoTime();
+		boolean success = new CalendarDataReader(calendarDataFiles).read(this);
+		READ_SECONDS.observeSince(start);
+		
+		return success;
+	}
+	
+	/**
+	 * Adds an event read from the calendar data to the sink unless it
+	 * is skipped.  All day events on consecutive dates are merged into a
+	 * single multi-day event, so an all day event is only added to the event
+	 * sink once the same description is found on a later date or the events
+	 * are requested.
+	 * 
+	 * @param currentDate
+	 *     the date of the event
+	 * @param currentTime
+	 *     the time of the event or null for an all day event
+	 * @param text
+	 *     the event description
+	 * @throws IllegalStateException
+	 *     if the events are frozen
+	 */
+	@Override
+	public void addCalendarEvent(LocalDate currentDate, LocalTime currentTime, String text) {
+		if (frozen) throw new IllegalStateException("Upcoming events are already frozen!");
+		
+		int eventProfiles = classifyEvent(text);
+		if (eventProfiles == 0) return;
 		
 		CalendarEvent event = null;
 		
@@ -234,61 +431,120 @@ public class UpcomingEvents {
 				if (event.isNextDay(currentDate)) {
 					event.setEndDate(currentDate);
 				} else {
+					events.add(event);
 					event = new CalendarEvent(currentDate, text);
-					eventList.add(event);
+					event.setProfiles(eventProfiles);
 					allDayEventMap.put(text, event);
 				}
 				
 			} else {
 				event = new CalendarEvent(currentDate, text);
-				eventList.add(event);
+				event.setProfiles(eventProfiles);
 				allDayEventMap.put(text, event);
 			}
 			
 		} else {
 			event = new CalendarEvent(currentDate, currentTime, text);
-			eventList.add(event);
+			event.setProfiles(eventProfiles);
+			events.add(event);
 		}
 	}
 	
 	/**
-	 * Determines if the event is a ward event by looking for 
-	 * specific character patterns in the event description
+	 * Reads the events of the calendar data lazily.  The calendar data is only
+	 * read as far as is needed for the events taken from the stream, so callers
+	 * that only need the next few events can stop early.  Each event is tagged
+	 * with the profile bits of the lists of this run that include it and the
+	 * stream should be closed if it is not read to the end.
+	 * 
+	 * @param file
+	 *     the calendar data file
+	 * @return
+	 *     the events in date and time order
+	 * @throws IOException
+	 *     if the calendar data could not be opened
+	 */
+	public Stream<CalendarEvent> streamEvents(File file) throws IOException {
+		final EventSpliterator<CalendarEvent> spliterator = new EventSpliterator<CalendarEvent>(
+				new CalendarDataReader(file), CalendarEvent.DATE_TIME_ORDER) {
+				
+			// Profile bits of the lists that include the event just selected
+			private int eventProfiles;
+			
+			@Override
+			protected boolean select(String text) {
+				eventProfiles = classifyEvent(text);
+				return eventProfiles != 0;
+			}
+			
+			@Override
+			protected CalendarEvent createEvent(LocalDate date, LocalTime time, LocalTime endTime, String text) {
+				CalendarEvent event = (time == null) ? new CalendarEvent(date, text) : new CalendarEvent(date, time, text);
+				event.setProfiles(eventProfiles);
+				return event;
+			}
+		};
+		
+		return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
+			@Override
+			public void run() {
+				spliterator.close();
+			}
+		});
+	}
+	
+	/**
+	 * Gets the events that were not skipped
 	 * 
-	 * @param eventDescription
-	 *     the event description
 	 * @return
-	 *     true if the description contains ward specific character patterns
+	 *     the events in date and time order
 	 */
-	private boolean isWardEvent(String eventDescription) {
-		String educ = eventDescription.toUpperCase();	// educ = Event Description Upper Case
-		
-		if (educ.contains("STAKE")) return false;
-		if (educ.contains("SEMINARY")) return false;
-		if (educ.contains("WARD CONFERENCE")) return false;
-		if (educ.contains("BRANCH CONFERENCE")) return false;
-		if (educ.contains("FAMILY HISTORY MARATHON")) return false;
-		
-		return (eventDescription.contains("BP") ||
-				eventDescription.contains("Buena Park Ward") ||
-				eventDescription.contains("CY") ||
-				eventDescription.contains("Cyp") ||
-				eventDescription.contains("Cypress Ward") ||
-				eventDescription.contains("LP") ||
-				eventDescription.contains("La Palma Ward") ||
-				eventDescription.contains("CR") ||
-				eventDescription.contains("Crescent Ward") ||
-				eventDescription.contains("VV") ||
-				eventDescription.contains("V V") ||
-				eventDescription.contains("V. V.") ||
-				eventDescription.contains("Valley View Ward") ||
-				eventDescription.contains("CP") ||
-				eventDescription.contains("Cypress Park Ward") ||
-				eventDescription.contains("WG") ||
-				eventDescription.contains("West Grove Ward") ||
-				eventDescription.contains("GG") ||
-				eventDescription.contains("Garden Grove 11th Branch") ||
-				eventDescription.contains("Korean"));
+	public Iterable<CalendarEvent> getEvents() {
+		if (!frozen) addAllDayEvents();
+		return events;
+	}
+	
+	/**
+	 * Gets the events included in a single list
+	 * 
+	 * @param profile
+	 *     the profile bit of the list
+	 * @return
+	 *     the events of the list in date and time order
+	 */
+	public Iterable<CalendarEvent> getEvents(final int profile) {
+		final Iterable<CalendarEvent> allEvents = getEvents();
+		
+		if (profile == profiles) return allEvents;
+		
+		return new Iterable<CalendarEvent>() {
+			@Override
+			public Iterator<CalendarEvent> iterator() {
+				return new ProfileIterator(allEvents.iterator(), profile);
+			}
+		};
+	}
+	
+	/**
+	 * Adds the all day events that are still pending and freezes the event
+	 * sink, so the events can be read by any number of threads without
+	 * locking.  No more events can be added once the events are frozen.
+	 */
+	public synchronized void freeze() {
+		addAllDayEvents();
+		events.freeze();
+		frozen = true;
+	}
+	
+	/**
+	 * Adds the all day events that could still be extended to the event sink
+	 */
+	private synchronized void addAllDayEvents() {
+		for (CalendarEvent event : allDayEventMap.values()) {
+			events.add(event);
+		}
+		
+		allDayEventMap.clear();
 	}
 	
 	/**
@@ -329,131 +585,307 @@ public class UpcomingEvents {
 	}
 	
 	/**
-	 * Determines if an event should be skipped and
-	 * adds skipped events to the skipped event map  
+	 * Determines which of the lists created by this run include an event and
+	 * adds the event to the skipped event map of each list that skips it.
+	 * The checks shared by both lists are only made once.
 	 * 
 	 * @param text
 	 *     the description of the event
 	 * @return
-	 *     true if the event should be skipped
+	 *     the bitmask of the lists that include the event or 0 if it is skipped
 	 */
-	private boolean skipEvent(String text) {
-		if (isSkippedEvent(text)) {
-			int count = 0;
-			
-			if (skippedEventMap.containsKey(text)) {
-				count = skippedEventMap.get(text);
+	int classifyEvent(String text) {
+		boolean skipAll = stake.isWardEvent(text);
+		
+		for (String str : skipIfContainsSet) {
+			if (skipAll) break;
+			if (text.contains(str)) skipAll = true;
+		}
+		
+		int eventProfiles = 0;
+		
+		if ((profiles & UPCOMING_PROFILE) != 0) {
+			if (skipAll || skipEventsUpcomingSet.contains(text)) {
+				countSkippedEvent(skippedUpcomingEventMap, text);
+				UPCOMING_SKIPPED.increment();
+			} else {
+				eventProfiles |= UPCOMING_PROFILE;
 			}
-			
-			skippedEventMap.put(text, ++count);
-			return true;
-			
-		} else {
-			return text.trim().isEmpty();
 		}
+		
+		if ((profiles & MAJOR_PROFILE) != 0) {
+			if (skipAll || skipEventsMajorSet.contains(text)) {
+				countSkippedEvent(skippedMajorEventMap, text);
+				MAJOR_SKIPPED.increment();
+			} else {
+				eventProfiles |= MAJOR_PROFILE;
+			}
+		}
+		
+		if (text.trim().isEmpty()) return 0;
+		
+		if ((eventProfiles & UPCOMING_PROFILE) != 0) UPCOMING_INCLUDED.increment();
+		if ((eventProfiles & MAJOR_PROFILE) != 0) MAJOR_INCLUDED.increment();
+		
+		return eventProfiles;
+	}
+	
+	/**
+	 * Gets the histogram of the time spent writing a list
+	 * 
+	 * @param profile
+	 *     UPCOMING_PROFILE or MAJOR_PROFILE
+	 * @return
+	 *     the histogram
+	 */
+	private static MetricsRegistry.Histogram getWriteHistogram(int profile) {
+		return MetricsRegistry.getDefault().histogram("upcoming_write_seconds",
+				"Time spent writing each list of events", "list", getListName(profile));
+	}
+	
+	/**
+	 * Gets the counter of the events a list included or skipped
+	 * 
+	 * @param profile
+	 *     UPCOMING_PROFILE or MAJOR_PROFILE
+	 * @param result
+	 *     included or skipped
+	 * @return
+	 *     the counter
+	 */
+	private static MetricsRegistry.Counter getClassifiedCounter(int profile, String result) {
+		return MetricsRegistry.getDefault().counter("upcoming_events_classified_total",
+				"Events included in and skipped by each list", "list", getListName(profile), "result", result);
+	}
+	
+	/**
+	 * Gets the name of a list in the metrics
+	 * 
+	 * @param profile
+	 *     UPCOMING_PROFILE or MAJOR_PROFILE
+	 * @return
+	 *     upcoming or major
+	 */
+	private static String getListName(int profile) {
+		return (profile == MAJOR_PROFILE) ? "major" : "upcoming";
 	}
 	
 	/**
-	 * Determines if an event is in either of the skip sets
+	 * Adds a skipped event to a skipped event map
 	 * 
+	 * @param skippedEventMap
+	 *     the skipped event map of a list
 	 * @param text
 	 *     the description of the event
-	 * @return
-	 *     true if the event should be skipped
 	 */
-	private boolean isSkippedEvent(String text) {
-		for (String str : SKIP_IF_CONTAINS_SET) {
-			if (text.contains(str)) return true;
-		}
-		
-		if (isWardEvent(text)) return true;
+	private static void countSkippedEvent(Map<String, Integer> skippedEventMap, String text) {
+		int count = 0;
 		
-		if (majorEventsOnly) {
-			return SKIP_EVENTS_MAJOR_SET.contains(text);
-			
-		} else {
-			return SKIP_EVENTS_UPCOMING_SET.contains(text);
+		if (skippedEventMap.containsKey(text)) {
+			count = skippedEventMap.get(text);
 		}
+		
+		skippedEventMap.put(text, ++count);
 	}
 	
 	/**
-	 * Writes the formatted calendar information to a Microsoft Word document
+	 * Sets the stake whose ward markers, stake keywords and files the lists use
+	 * and reads the skipped event files of the stake.  The stake must be set
+	 * before any calendar data is read.
+	 * 
+	 * @param stake
+	 *     the stake
 	 */
-	private void writeCalendar() {
-		
-		XWPFDocument doc = null;
-		FileOutputStream fos = null;
-		XWPFParagraph p;
-		XWPFRun run;
+	public void setStake(StakeDefinition stake) {
+		this.stake = stake;
+		reloadSkipLists();
+	}
+	
+	/**
+	 * Reads the skipped event files of the stake again so changes made
+	 * since the application started are used
+	 */
+	public void reloadSkipLists() {
+		skipEventsUpcomingSet = getFileContents(stake.getSkipEventsUpcomingFile());
+		skipEventsMajorSet    = getFileContents(stake.getSkipEventsMajorFile());
+		skipIfContainsSet     = getFileContents(stake.getSkipIfContainsFile());
+	}
+	
+	/**
+	 * Compares the selected events with the snapshot saved by the previous run
+	 * and only writes the output files if the events have changed
+	 * 
+	 * @param profile
+	 *     the profile bit of the list
+	 */
+	private void updateCalendar(int profile) {
+		File outputFile = getOutputFile(profile);
+		File snapshotFile = EventSnapshot.getFile(outputFile);
+		EventSnapshot snapshot = new EventSnapshot();
 		
 		try {
-			doc = new XWPFDocument();
-			
-			for (CalendarEvent event : eventList) {
-				p = doc.createParagraph();
-				setParagraph(p);
-				run = p.createRun();
-				run.setFontFamily("Calibri");
-				run.setFontSize(9);
-				run.setText(event.toString());
-			}
+			RenderPass renderPass = new RenderPass();
+			renderPass.addRenderer(snapshot);
+			renderPass.render(getEvents(profile));
 			
+			EventSnapshot.SnapshotDiff diff = snapshot.diff(EventSnapshot.load(snapshotFile));
 			
-			fos = new FileOutputStream(outputFile);
-			doc.write(fos);
-			fos.close();
+			if (diff.isEmpty() && outputFilesExist(outputFile)) {
+				writeCalendar(profile, false);
+				System.out.println("No changes!  " + outputFile + " was not written.");
+				return;
+			}
 			
-			printSkippedEvents();
+			if (writeCalendar(profile, true)) {
+				snapshot.save(snapshotFile);
+				
+				synchronized (System.out) {
+					if (profiles == ALL_PROFILES) System.out.println(outputFile + ":");
+					diff.printReport();
+				}
+			}
 			
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
 		} catch (IOException e) {
 			e.printStackTrace();
-		} finally {
-			try {
-				if (doc != null) doc.close();
-				if (fos != null) fos.close();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
 		}
 	}
 	
 	/**
-	 * Sets the formatting of a paragraph in the MS Word document
+	 * Determines if all of the output files exist
 	 * 
-	 * @param p
-	 *     the MS Word paragraph
+	 * @param outputFile
+	 *     the output file of the list
+	 * @return
+	 *     true if all of the output files exist
 	 */
-	private void setParagraph(XWPFParagraph p) {
-		p.setSpacingAfter(0);
-		p.setSpacingBetween(1.0);
+	private boolean outputFilesExist(File outputFile) {
+		for (OutputFormat format : outputFormats) {
+			if (!format.getFile(outputFile).exists()) return false;
+		}
+		
+		return true;
 	}
 	
 	/**
-	 * Prints the calendar to standard out
+	 * Writes the formatted events to each of the output files
+	 * and to standard out in a single pass over the events
+	 * 
+	 * @param profile
+	 *     the profile bit of the list
+	 * @param writeFiles
+	 *     false if only standard out should be written
+	 * @return
+	 *     true if there were no errors writing the events
 	 */
-	private void printCalendar() {
-		System.out.println("");
-		for (CalendarEvent event : eventList) {
-			System.out.println(event);
+	private boolean writeCalendar(int profile, boolean writeFiles) {
+		File outputFile = getOutputFile(profile);
+		RenderPass renderPass = new RenderPass();
+		List<OutputStream> outputStreams = new ArrayList<>();
+		boolean success = false;
+		
+		// Standard out is buffered when both lists are written at the same time
+		Writer console = (profiles == ALL_PROFILES) ? new StringWriter() : new OutputStreamWriter(System.out);
+		
+		try {
+			if (writeFiles) {
+				for (OutputFormat format : outputFormats) {
+					OutputStream out = new FileOutputStream(format.getFile(outputFile));
+					outputStreams.add(out);
+					renderPass.addRenderer(format.createRenderer(out));
+				}
+			}
+			
+			if (printCalendar) {
+				renderPass.addRenderer(new TextRenderer(console));
+			}
+			
+			renderPass.render(getEvents(profile));
+			success = true;
+			
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			for (OutputStream out : outputStreams) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
 		}
-		System.out.println("");
-		printSkippedEvents();
+		
+		synchronized (System.out) {
+			if (console instanceof StringWriter) System.out.print(console);
+			printSkippedEvents(profile);
+		}
+		
+		return success;
 	}
 	
 	/**
 	 * Prints a list of skipped events
+	 * 
+	 * @param profile
+	 *     the profile bit of the list
 	 */
-	private void printSkippedEvents() {
+	private void printSkippedEvents(int profile) {
+		Map<String, Integer> skippedEventMap = (profile == MAJOR_PROFILE) ? skippedMajorEventMap : skippedUpcomingEventMap;
+		
 		System.out.println("");
-		System.out.println("SKIPPED EVENTS");
+		if (profiles == ALL_PROFILES) {
+			System.out.println((profile == MAJOR_PROFILE) ? "SKIPPED MAJOR EVENTS" : "SKIPPED UPCOMING EVENTS");
+		} else {
+			System.out.println("SKIPPED EVENTS");
+		}
 		for (String text : skippedEventMap.keySet()) {
 			System.out.println(text + " (" + skippedEventMap.get(text) + ")");
 		}
 		System.out.println("");
 	}
 	
+	/***************************************************************************
+	 * Iterates over the events included in a single list
+	 ***************************************************************************/
+	private static class ProfileIterator implements Iterator<CalendarEvent> {
+		private final Iterator<CalendarEvent> iterator;
+		private final int profile;
+		private CalendarEvent next;
+		
+		private ProfileIterator(Iterator<CalendarEvent> iterator, int profile) {
+			this.iterator = iterator;
+			this.profile  = profile;
+			advance();
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		
+		@Override
+		public CalendarEvent next() {
+			if (next == null) throw new NoSuchElementException();
+			
+			CalendarEvent event = next;
+			advance();
+			return event;
+		}
+		
+		/**
+		 * Finds the next event included in the list
+		 */
+		private void advance() {
+			next = null;
+			
+			while (iterator.hasNext() && next == null) {
+				CalendarEvent event = iterator.next();
+				if (event.isInProfile(profile)) next = event;
+			}
+		}
+	}
+	
 	/**
 	 * Shows the application usage information
 	 */
@@ -462,12 +894,32 @@ public class UpcomingEvents {
 		System.out.println("This application creates a list of upcoming events for stake meeting agendas.");
 		System.out.println("");
 		System.out.println("Usage:");
-		System.out.println("    java -jar UpcomingEvents.jar [-m] [-p] [-h]");
+		System.out.println("    java -jar UpcomingEvents.jar [-m] [-b] [-p] [-h] [-i] [-dFILE]... [-fFORMATS] [-nFILE] [-xFILE]");
 		System.out.println("");
 		System.out.println("Optional Flags:");
-		System.out.println("    -a - include only major events");
+		System.out.println("    -m - include only major events");
+		System.out.println("    -b - write both the upcoming and the major events from a single read");
 		System.out.println("    -p - print to standard out");
 		System.out.println("    -h - help - show these usage instructions");
+		System.out.println("    -i - incremental - only write the output files when the events change");
+		System.out.println("    -d - read the calendar data from a file other than Calendar Data.docx");
+		System.out.println("         followed by the file name, repeated to merge the events of several");
+		System.out.println("         files in date order with the events found in more than one file listed once");
+		System.out.println("         (E.g. java -jar UpcomingEvents.jar \"-dStake Calendar.docx\" \"-dBP Calendar.docx\")");
+		System.out.println("         a file ending in .txt is read as plain text with one paragraph on each line");
+		System.out.println("         and -d- reads plain text from standard input");
+		System.out.println("         (E.g. pbpaste | java -jar UpcomingEvents.jar -d- -p)");
+		System.out.println("    -f - write the events in specific formats");
+		System.out.println("         followed by a comma separated list of formats");
+		System.out.println("         (docx|txt|html|md|json)");
+		System.out.println("    -n - write the lists of a stake other than the Cypress California Stake");
+		System.out.println("         followed by the stake definition file, which lists the name of the stake,");
+		System.out.println("         its ward markers, the words of stake events and the files of the stake,");
+		System.out.println("         repeated to write the lists of several stakes one after another");
+		System.out.println("         (E.g. java -jar UpcomingEvents.jar \"-nOrange/Orange Stake.properties\")");
+		System.out.println("    -x - write the metrics of the run in the Prometheus text format to a file");
+		System.out.println("         followed by the file name");
+		System.out.println("         (E.g. java -jar UpcomingEvents.jar -xmetrics.prom)");
 		System.out.println("");
 	}
 }
@@ -0,0 +1,43 @@
+package com.wpw.events;
+
+/*******************************************************************************
+ * Escapes text for XML and HTML output
+ * 
+ * @author  Wayne Wooten
+ * @version 1.0
+ * @since   2026-10-18
+ *
+ *******************************************************************************/
+public final class XmlEscaper {
+	
+	private XmlEscaper() {
+	}
+	
+	/**
+	 * Escapes the markup characters in a string and drops characters
+	 * that are not allowed in an XML document
+	 * 
+	 * @param text
+	 *     the text to escape
+	 * @return
+	 *     the escaped text
+	 */
+	public static String escape(String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 16);
+		
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			switch (c) {
+				case '&':  sb.append("&amp;");  break;
+				case '<':  sb.append("&lt;");   break;
+				case '>':  sb.append("&gt;");   break;
+				case '"':  sb.append("&quot;"); break;
+				default:
+					if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') sb.append(c);
+			}
+		}
+		
+		return sb.toString();
+	}
+}